@@ -71,6 +71,7 @@ import com.oracle.truffle.r.runtime.RCaller;
 import com.oracle.truffle.r.runtime.RError;
 import com.oracle.truffle.r.runtime.RErrorHandling;
 import com.oracle.truffle.r.runtime.RInternalError;
+import com.oracle.truffle.r.runtime.RParseCache;
 import com.oracle.truffle.r.runtime.RParserFactory;
 import com.oracle.truffle.r.runtime.RProfile;
 import com.oracle.truffle.r.runtime.RRuntime;
@@ -278,8 +279,7 @@ final class REngine implements Engine, Engine.Timings {
     }
 
     private static List<RSyntaxNode> parseImpl(Map<String, Object> constants, Source source) throws ParseException {
-        RParserFactory.Parser<RSyntaxNode> parser = RParserFactory.getParser();
-        return parser.script(source, new RASTBuilder(constants));
+        return RParseCache.script(source, new RASTBuilder(constants));
     }
 
     @Override
@@ -44,6 +44,7 @@ import com.oracle.truffle.r.nodes.instrumentation.RSyntaxTags;
 import com.oracle.truffle.r.runtime.FastROptions;
 import com.oracle.truffle.r.runtime.RAccuracyInfo;
 import com.oracle.truffle.r.runtime.RError;
+import com.oracle.truffle.r.runtime.RMetrics;
 import com.oracle.truffle.r.runtime.RRuntime;
 import com.oracle.truffle.r.runtime.RVersionInfo;
 import com.oracle.truffle.r.runtime.TempPathName;
@@ -103,6 +104,7 @@ public final class TruffleRLanguage extends TruffleLanguage<RContext> {
         if (!systemInitialized) {
             FastROptions.initialize();
             initialize();
+            RMetrics.initialize();
             systemInitialized = true;
         }
         context.initializeContext();
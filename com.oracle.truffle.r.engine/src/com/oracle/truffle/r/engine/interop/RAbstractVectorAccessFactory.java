@@ -76,6 +76,20 @@ public final class RAbstractVectorAccessFactory implements Factory18 {
 
         protected abstract Object execute(VirtualFrame frame, Object reciever, Object label);
 
+        protected static boolean isInBounds(RAbstractVector receiver, int label) {
+            return label >= 0 && label < receiver.getLength();
+        }
+
+        /**
+         * In-bounds indexed reads, which is how hosts iterate over vectors, do not need the full
+         * subscript machinery. For bulk access, see
+         * {@link com.oracle.truffle.r.runtime.data.RVectorBuffers}.
+         */
+        @Specialization(guards = "isInBounds(receiver, label)")
+        protected Object readElement(RAbstractVector receiver, int label) {
+            return receiver.getDataAtAsObject(label);
+        }
+
         @Specialization
         protected Object readIndexed(VirtualFrame frame, Object receiver, int label) {
             return extract.apply(frame, receiver, new Object[]{label + 1}, RLogical.TRUE, RLogical.TRUE);
@@ -15,7 +15,6 @@ import java.util.Arrays;
 
 import com.oracle.truffle.api.profiles.BranchProfile;
 import com.oracle.truffle.api.profiles.ConditionProfile;
-import com.oracle.truffle.api.profiles.LoopConditionProfile;
 import com.oracle.truffle.r.nodes.builtin.RExternalBuiltinNode;
 import com.oracle.truffle.r.runtime.RError;
 import com.oracle.truffle.r.runtime.RRuntime;
@@ -61,16 +60,12 @@ public final class Covcor extends RExternalBuiltinNode {
 
     private final ConditionProfile noNAXProfile = ConditionProfile.createBinaryProfile();
     private final ConditionProfile noNAYProfile = ConditionProfile.createBinaryProfile();
-    private final ConditionProfile xCompleteProfile = ConditionProfile.createBinaryProfile();
-    private final ConditionProfile yCompleteProfile = ConditionProfile.createBinaryProfile();
     private final ConditionProfile bothZeroProfile = ConditionProfile.createBinaryProfile();
     private final BranchProfile tooManyMissing = BranchProfile.create();
     private final BranchProfile naInRes = BranchProfile.create();
     private final BranchProfile error = BranchProfile.create();
     private final BranchProfile warning = BranchProfile.create();
 
-    private final LoopConditionProfile loopLength = LoopConditionProfile.createCountingProfile();
-
     public RDoubleVector corcov(RDoubleVector x, RDoubleVector y, @SuppressWarnings("unused") int method, boolean iskendall, RBaseNode invokingNode) throws RError {
         boolean ansmat;
         boolean naFail;
@@ -434,10 +429,6 @@ public final class Covcor extends RExternalBuiltinNode {
     }
 
     private boolean covNA1(int n, int ncx, RDoubleVector x, double[] xm, double[] ans, boolean cor, boolean iskendall) {
-        double sum;
-        double xxm;
-        double yym;
-        int n1 = -1;
         boolean sd0 = false;
 
         double[] xData = x.getDataWithoutCopying();
@@ -449,54 +440,11 @@ public final class Covcor extends RExternalBuiltinNode {
             return sd0;
         }
 
-        if (!iskendall) {
-            if (xCompleteProfile.profile(x.isComplete())) {
-                meanNoNA(n, ncx, xData, xm, hasNAx);
-            } else {
-                mean(n, ncx, xData, xm, hasNAx);
-            }
-            n1 = n - 1;
-        }
-
-        for (int i = 0; i < ncx; i++) {
-            double[] temp = new double[n];
-            if (noNAXProfile.profile(!hasNAx[i])) {
-                if (!iskendall) {
-                    xxm = xm[i];
-                    for (int j = 0; j <= i; j++) {
-                        double r;
-                        if (noNAXProfile.profile(!hasNAx[j])) {
-                            yym = xm[j];
-                            if (checkNAs(xxm, yym)) {
-                                r = RRuntime.DOUBLE_NA;
-                            } else {
-                                sum = 0.0;
-                                loopLength.profileCounted(n);
-                                for (int k = 0; loopLength.inject(k < n); k++) {
-                                    double u = xData[i * n + k];
-                                    double v = xData[j * n + k];
-                                    temp[k] = (u - xxm) * (v - yym);
-                                }
-                                for (int k = 0; loopLength.inject(k < n); k++) {
-                                    sum += temp[k];
-                                }
-                                r = checkNAs(sum) ? RRuntime.DOUBLE_NA : sum / n1;
-                            }
-                        } else {
-                            r = RRuntime.DOUBLE_NA;
-                        }
-                        ans[j + i * ncx] = r;
-                        ans[i + j * ncx] = r;
-                    }
-                } else { /* Kendall's tau */
-                    throw new UnsupportedOperationException("kendall's unsupported");
-                }
-            } else {
-                for (int j = 0; j <= i; j++) {
-                    ans[j + i * ncx] = RRuntime.DOUBLE_NA;
-                    ans[i + j * ncx] = RRuntime.DOUBLE_NA;
-                }
-            }
+        if (iskendall) {
+            CovcorKernels.kendall(n, xData, ncx, hasNAx, null, ncx, null, ans);
+        } else {
+            CovcorKernels.means(n, ncx, xData, hasNAx, xm);
+            CovcorKernels.pearson(n, xData, ncx, xm, hasNAx, null, ncx, null, null, ans);
         }
 
         if (cor) {
@@ -517,7 +465,7 @@ public final class Covcor extends RExternalBuiltinNode {
                             double u = ans[i + j * ncx];
                             double v = xm[i];
                             double w = xm[j];
-                            sum = checkNAs(u, v, w) ? RRuntime.DOUBLE_NA : u / (v * w);
+                            double sum = checkNAs(u, v, w) ? RRuntime.DOUBLE_NA : u / (v * w);
                             if (sum > 1.0) {
                                 sum = 1.0;
                             }
@@ -533,77 +481,7 @@ public final class Covcor extends RExternalBuiltinNode {
         return sd0;
     }
 
-    private static void meanNoNA(int n, int ncx, double[] x, double[] xm, boolean[] hasNA) {
-        double sum;
-        double tmp;
-        /* variable means (has_na) */
-        for (int i = 0; i < ncx; i++) {
-            if (hasNA[i]) {
-                tmp = RRuntime.DOUBLE_NA;
-            } else {
-                sum = 0.0;
-                for (int k = 0; k < n; k++) {
-                    double u = x[i * n + k];
-                    sum += u;
-                }
-                tmp = sum / n;
-                if (RRuntime.isFinite(tmp)) {
-                    sum = 0.0;
-                    for (int k = 0; k < n; k++) {
-                        double u = x[i * n + k];
-                        sum += u - tmp;
-                    }
-                    tmp += sum / n;
-                }
-            }
-            xm[i] = tmp;
-        }
-    }
-
-    private void mean(int n, int ncx, double[] x, double[] xm, boolean[] hasNA) {
-        double sum;
-        double tmp;
-        /* variable means (has_na) */
-        for (int i = 0; i < ncx; i++) {
-            if (hasNA[i]) {
-                tmp = RRuntime.DOUBLE_NA;
-            } else {
-                sum = 0.0;
-                for (int k = 0; k < n; k++) {
-                    double u = x[i * n + k];
-                    if (checkNAs(u)) {
-                        sum = RRuntime.DOUBLE_NA;
-                        break;
-                    }
-                    sum += u;
-                }
-                tmp = checkNAs(sum) ? RRuntime.DOUBLE_NA : sum / n;
-                if (RRuntime.isFinite(tmp)) {
-                    sum = 0.0;
-                    for (int k = 0; k < n; k++) {
-                        double u = x[i * n + k];
-                        if (checkNAs(u)) {
-                            sum = RRuntime.DOUBLE_NA;
-                            break;
-                        }
-                        sum += u - tmp;
-                    }
-                    if (checkNAs(sum)) {
-                        tmp = RRuntime.DOUBLE_NA;
-                    } else {
-                        tmp += sum / n;
-                    }
-                }
-            }
-            xm[i] = tmp;
-        }
-    }
-
     private boolean covNA2(int n, int ncx, int ncy, RDoubleVector x, RDoubleVector y, double[] xm, double[] ym, double[] ans, boolean cor, boolean iskendall) {
-        double sum;
-        double xxm;
-        double yym;
-        int n1 = -1;
         boolean sd0 = false;
 
         double[] xData = x.getDataWithoutCopying();
@@ -613,65 +491,22 @@ public final class Covcor extends RExternalBuiltinNode {
 
         if (n <= 1) { /* too many missing */
             tooManyMissing.enter();
-            for (int i = 0; i < ncx; i++) {
-                for (int j = 0; j < ncy; j++) {
-                    ans[i + j * ncx] = RRuntime.DOUBLE_NA;
-                }
-            }
+            Arrays.fill(ans, RRuntime.DOUBLE_NA);
             return sd0;
         }
 
-        if (!iskendall) {
-            if (xCompleteProfile.profile(x.isComplete())) {
-                meanNoNA(n, ncx, xData, xm, hasNAx);
-            } else {
-                mean(n, ncx, xData, xm, hasNAx);
-            }
-            if (yCompleteProfile.profile(y.isComplete())) {
-                meanNoNA(n, ncy, yData, ym, hasNAy);
-            } else {
-                mean(n, ncy, yData, ym, hasNAy);
-            }
-            n1 = n - 1;
-        }
-
-        for (int i = 0; i < ncx; i++) {
-            if (noNAXProfile.profile(!hasNAx[i])) {
-                if (!iskendall) {
-                    xxm = xm[i];
-                    for (int j = 0; j < ncy; j++) {
-                        double r;
-                        if (noNAYProfile.profile(!hasNAy[j])) {
-                            yym = ym[j];
-                            if (checkNAs(xxm, yym)) {
-                                r = RRuntime.DOUBLE_NA;
-                            } else {
-                                sum = 0.0;
-                                for (int k = 0; k < n; k++) {
-                                    double u = xData[i * n + k];
-                                    double v = yData[j * n + k];
-                                    sum += (u - xxm) * (v - yym);
-                                }
-                                r = checkNAs(sum) ? RRuntime.DOUBLE_NA : sum / n1;
-                            }
-                        } else {
-                            r = RRuntime.DOUBLE_NA;
-                        }
-                        ans[i + j * ncx] = r;
-                    }
-                } else { /* Kendall's tau */
-                    throw new UnsupportedOperationException("kendall's unsupported");
-                }
-            } else {
-                for (int j = 0; j < ncy; j++) {
-                    ans[i + j * ncx] = RRuntime.DOUBLE_NA;
-                }
-            }
+        if (iskendall) {
+            CovcorKernels.kendall(n, xData, ncx, hasNAx, yData, ncy, hasNAy, ans);
+        } else {
+            CovcorKernels.means(n, ncx, xData, hasNAx, xm);
+            CovcorKernels.means(n, ncy, yData, hasNAy, ym);
+            CovcorKernels.pearson(n, xData, ncx, xm, hasNAx, yData, ncy, ym, hasNAy, ans);
         }
 
         if (cor) {
-            covsdev(n, n1, ncx, x, hasNAx, xm, iskendall);
-            covsdev(n, n1, ncy, y, hasNAy, ym, iskendall);
+            // xm and ym contain the means, they are replaced by the standard deviations
+            CovcorKernels.sdev(n, ncx, xData, hasNAx, xm, iskendall);
+            CovcorKernels.sdev(n, ncy, yData, hasNAy, ym, iskendall);
 
             for (int i = 0; i < ncx; i++) {
                 if (noNAXProfile.profile(!hasNAx[i])) {
@@ -701,36 +536,6 @@ public final class Covcor extends RExternalBuiltinNode {
         return sd0;
     }
 
-    private void covsdev(int n, int n1, int ncx, RDoubleVector x, boolean[] hasNA, double[] xm, boolean iskendall) {
-        for (int i = 0; i < ncx; i++) {
-            if (!hasNA[i]) { /* Var(X[j]) */
-                double sum = 0.0;
-                if (!iskendall) {
-                    double xxm = xm[i];
-                    if (checkNAs(xxm)) {
-                        sum = RRuntime.DOUBLE_NA;
-                    } else {
-                        for (int k = 0; k < n; k++) {
-                            double u = x.getDataAt(i * n + k);
-                            double v = x.getDataAt(i * n + k);
-                            if (checkNAs(u, v)) {
-                                sum = RRuntime.DOUBLE_NA;
-                                break;
-                            }
-                            sum += (u - xxm) * (v - xxm);
-                        }
-                    }
-                    if (!checkNAs(sum)) {
-                        sum /= n1;
-                    }
-                } else { /* Kendall's tau */
-                    throw new UnsupportedOperationException("kendall's unsupported");
-                }
-                xm[i] = checkNAs(sum) ? RRuntime.DOUBLE_NA : Math.sqrt(sum);
-            }
-        }
-    }
-
     private static void error(String string) {
         // TODO should be an R error
         throw new UnsupportedOperationException("error: " + string);
@@ -0,0 +1,281 @@
+/*
+ * This material is distributed under the GNU General Public License
+ * Version 2. You may review the terms of this license at
+ * http://www.gnu.org/licenses/gpl-2.0.html
+ *
+ * Copyright (c) 1995-2012, The R Core Team
+ * Copyright (c) 2003, The R Foundation
+ * Copyright (c) 2016, Oracle and/or its affiliates
+ *
+ * All rights reserved.
+ */
+package com.oracle.truffle.r.library.stats;
+
+import java.util.Arrays;
+
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+import com.oracle.truffle.r.runtime.RParallel;
+import com.oracle.truffle.r.runtime.RRuntime;
+
+/**
+ * Computational kernels for {@link Covcor} ({@code use = "everything"}). All of them work on the
+ * column-major data arrays of the input matrices with {@code n} rows. Columns that contain
+ * {@code NA} or {@code NaN} values (as given by the {@code hasNA} arrays) are excluded up front,
+ * their results are {@code NA}, so the inner loops never check for missing values.
+ *
+ * The Pearson kernel splits the columns into tiles of {@link #TILE} columns. For every pair of
+ * tiles, blocks of {@link #ROW_BLOCK} rows are centered into two small buffers that stay in the
+ * cache while all the column pairs of the tiles are accumulated. The tile pairs are distributed
+ * over {@link RParallel}, for a symmetric result only the pairs on and below the diagonal are
+ * computed.
+ *
+ * Kendall's tau has its own kernel (Spearman is computed by R code as Pearson on ranks), which
+ * is parallel over the column pairs.
+ */
+final class CovcorKernels {
+
+    private static final int TILE = 32;
+    private static final int ROW_BLOCK = 256;
+
+    /**
+     * Minimal number of floating point operations for which the work is split over multiple
+     * threads.
+     */
+    private static final long PARALLEL_WORK = 1L << 22;
+
+    private CovcorKernels() {
+        // no instances
+    }
+
+    private static int grain(long work, int tasks) {
+        return work < PARALLEL_WORK ? Math.max(1, tasks) : 1;
+    }
+
+    /**
+     * Returns the pairs of tile (or column) indexes to be computed, encoded as {@code i * count + j}
+     * with {@code j <= i} if {@code symmetric} is set.
+     */
+    private static long[] pairs(int xCount, int yCount, boolean symmetric) {
+        long[] result = new long[symmetric ? xCount * (xCount + 1) / 2 : xCount * yCount];
+        int index = 0;
+        for (int i = 0; i < xCount; i++) {
+            for (int j = 0; j < (symmetric ? i + 1 : yCount); j++) {
+                result[index++] = (long) i * yCount + j;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Computes the Pearson covariances, i.e., {@code sum((x[,i] - xm[i]) * (y[,j] - ym[j])) / (n - 1)}
+     * into {@code ans[i + j * ncx]}. If {@code y} is {@code null}, the symmetric result for
+     * {@code x} with itself is computed.
+     */
+    @TruffleBoundary
+    static void pearson(int n, double[] x, int ncx, double[] xm, boolean[] hasNAx, double[] y, int ncy, double[] ym, boolean[] hasNAy, double[] ans) {
+        boolean symmetric = y == null;
+        double[] yData = symmetric ? x : y;
+        double[] yMeans = symmetric ? xm : ym;
+        boolean[] yHasNA = symmetric ? hasNAx : hasNAy;
+        int xTiles = (ncx + TILE - 1) / TILE;
+        int yTiles = (ncy + TILE - 1) / TILE;
+        long[] tilePairs = pairs(xTiles, yTiles, symmetric);
+        double n1 = n - 1;
+        long work = (long) n * ncx * ncy;
+        RParallel.forEachChunk(0, tilePairs.length, grain(work, tilePairs.length), (from, to) -> {
+            double[] acc = new double[TILE * TILE];
+            double[] bufX = new double[ROW_BLOCK * TILE];
+            double[] bufY = new double[ROW_BLOCK * TILE];
+            for (int p = from; p < to; p++) {
+                int iFrom = (int) (tilePairs[p] / yTiles) * TILE;
+                int jFrom = (int) (tilePairs[p] % yTiles) * TILE;
+                int iCols = Math.min(TILE, ncx - iFrom);
+                int jCols = Math.min(TILE, ncy - jFrom);
+                boolean diagonal = symmetric && iFrom == jFrom;
+                double[] bufJ = diagonal ? bufX : bufY;
+                Arrays.fill(acc, 0);
+                for (int row = 0; row < n; row += ROW_BLOCK) {
+                    int rows = Math.min(ROW_BLOCK, n - row);
+                    loadCentered(x, n, xm, hasNAx, iFrom, iCols, row, rows, bufX);
+                    if (!diagonal) {
+                        loadCentered(yData, n, yMeans, yHasNA, jFrom, jCols, row, rows, bufY);
+                    }
+                    for (int ci = 0; ci < iCols; ci++) {
+                        int limit = diagonal ? ci + 1 : jCols;
+                        for (int cj = 0; cj < limit; cj++) {
+                            acc[ci * TILE + cj] += dot(bufX, ci * ROW_BLOCK, bufJ, cj * ROW_BLOCK, rows);
+                        }
+                    }
+                }
+                for (int ci = 0; ci < iCols; ci++) {
+                    int i = iFrom + ci;
+                    int limit = diagonal ? ci + 1 : jCols;
+                    for (int cj = 0; cj < limit; cj++) {
+                        int j = jFrom + cj;
+                        double value = hasNAx[i] || yHasNA[j] ? RRuntime.DOUBLE_NA : acc[ci * TILE + cj] / n1;
+                        ans[i + j * ncx] = value;
+                        if (symmetric) {
+                            ans[j + i * ncx] = value;
+                        }
+                    }
+                }
+            }
+        });
+    }
+
+    /**
+     * Copies the rows {@code [row, row + rows)} of the given columns into {@code buf} (with a
+     * stride of {@link #ROW_BLOCK}) and subtracts the column means. Columns with missing values are
+     * zeroed, their results are discarded anyway.
+     */
+    private static void loadCentered(double[] data, int n, double[] means, boolean[] hasNA, int colFrom, int cols, int row, int rows, double[] buf) {
+        for (int c = 0; c < cols; c++) {
+            int col = colFrom + c;
+            int dst = c * ROW_BLOCK;
+            if (hasNA[col]) {
+                Arrays.fill(buf, dst, dst + rows, 0);
+            } else {
+                double mean = means[col];
+                int src = col * n + row;
+                for (int k = 0; k < rows; k++) {
+                    buf[dst + k] = data[src + k] - mean;
+                }
+            }
+        }
+    }
+
+    /**
+     * Dot product with four independent accumulators, which allows the compiler to vectorize and
+     * pipeline the loop.
+     */
+    private static double dot(double[] a, int aOffset, double[] b, int bOffset, int length) {
+        double s0 = 0;
+        double s1 = 0;
+        double s2 = 0;
+        double s3 = 0;
+        int k = 0;
+        for (; k + 3 < length; k += 4) {
+            s0 += a[aOffset + k] * b[bOffset + k];
+            s1 += a[aOffset + k + 1] * b[bOffset + k + 1];
+            s2 += a[aOffset + k + 2] * b[bOffset + k + 2];
+            s3 += a[aOffset + k + 3] * b[bOffset + k + 3];
+        }
+        for (; k < length; k++) {
+            s0 += a[aOffset + k] * b[bOffset + k];
+        }
+        return (s0 + s1) + (s2 + s3);
+    }
+
+    /**
+     * Computes the column means with the two-pass algorithm used by GnuR, i.e., the mean is
+     * corrected by the mean of the residuals if it is finite. Columns with missing values get
+     * {@code NA}.
+     */
+    @TruffleBoundary
+    static void means(int n, int nc, double[] x, boolean[] hasNA, double[] xm) {
+        RParallel.forEachChunk(0, nc, grain((long) n * nc, nc), (from, to) -> {
+            for (int i = from; i < to; i++) {
+                if (hasNA[i]) {
+                    xm[i] = RRuntime.DOUBLE_NA;
+                    continue;
+                }
+                int offset = i * n;
+                double sum = 0.0;
+                for (int k = 0; k < n; k++) {
+                    sum += x[offset + k];
+                }
+                double tmp = sum / n;
+                if (RRuntime.isFinite(tmp)) {
+                    sum = 0.0;
+                    for (int k = 0; k < n; k++) {
+                        sum += x[offset + k] - tmp;
+                    }
+                    tmp += sum / n;
+                }
+                xm[i] = tmp;
+            }
+        });
+    }
+
+    /**
+     * Computes the standard deviations of the columns without missing values into {@code sd}, for
+     * Pearson from the column means in {@code sd}, for Kendall as the square root of the number of
+     * ordered pairs with different values.
+     */
+    @TruffleBoundary
+    static void sdev(int n, int nc, double[] x, boolean[] hasNA, double[] sd, boolean kendall) {
+        long work = kendall ? (long) n * n * nc / 2 : (long) n * nc;
+        RParallel.forEachChunk(0, nc, grain(work, nc), (from, to) -> {
+            for (int i = from; i < to; i++) {
+                if (hasNA[i]) {
+                    continue;
+                }
+                int offset = i * n;
+                double sum = 0.0;
+                if (kendall) {
+                    for (int k = 1; k < n; k++) {
+                        double xk = x[offset + k];
+                        for (int n1 = 0; n1 < k; n1++) {
+                            if (xk != x[offset + n1]) {
+                                sum++;
+                            }
+                        }
+                    }
+                    sum *= 2;
+                } else {
+                    double mean = sd[i];
+                    if (RRuntime.isNA(mean)) {
+                        sd[i] = RRuntime.DOUBLE_NA;
+                        continue;
+                    }
+                    for (int k = 0; k < n; k++) {
+                        double u = x[offset + k] - mean;
+                        sum += u * u;
+                    }
+                    sum /= n - 1;
+                }
+                sd[i] = Math.sqrt(sum);
+            }
+        });
+    }
+
+    /**
+     * Computes Kendall's concordance sums {@code sum(sign(x[k,i] - x[n1,i]) * sign(y[k,j] - y[n1,j]))}
+     * over all ordered pairs {@code (k, n1)} into {@code ans[i + j * ncx]}, like GnuR does. Only the
+     * pairs with {@code n1 < k} are visited, the sum is symmetric.
+     */
+    @TruffleBoundary
+    static void kendall(int n, double[] x, int ncx, boolean[] hasNAx, double[] y, int ncy, boolean[] hasNAy, double[] ans) {
+        boolean symmetric = y == null;
+        double[] yData = symmetric ? x : y;
+        boolean[] yHasNA = symmetric ? hasNAx : hasNAy;
+        long[] columnPairs = pairs(ncx, ncy, symmetric);
+        long work = (long) n * n * columnPairs.length / 2;
+        RParallel.forEachChunk(0, columnPairs.length, grain(work, columnPairs.length), (from, to) -> {
+            for (int p = from; p < to; p++) {
+                int i = (int) (columnPairs[p] / ncy);
+                int j = (int) (columnPairs[p] % ncy);
+                double value;
+                if (hasNAx[i] || yHasNA[j]) {
+                    value = RRuntime.DOUBLE_NA;
+                } else {
+                    int xOffset = i * n;
+                    int yOffset = j * n;
+                    double sum = 0.0;
+                    for (int k = 1; k < n; k++) {
+                        double xk = x[xOffset + k];
+                        double yk = yData[yOffset + k];
+                        for (int n1 = 0; n1 < k; n1++) {
+                            sum += Math.signum(xk - x[xOffset + n1]) * Math.signum(yk - yData[yOffset + n1]);
+                        }
+                    }
+                    value = 2 * sum;
+                }
+                ans[i + j * ncx] = value;
+                if (symmetric) {
+                    ans[j + i * ncx] = value;
+                }
+            }
+        });
+    }
+}
@@ -22,52 +22,28 @@
  */
 package com.oracle.truffle.r.library.tools;
 
-import java.io.BufferedInputStream;
-import java.io.File;
-import java.io.FileInputStream;
-import java.io.IOException;
-import java.security.MessageDigest;
-import java.security.NoSuchAlgorithmException;
-
 import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
 import com.oracle.truffle.api.dsl.Specialization;
 import com.oracle.truffle.r.nodes.builtin.RExternalBuiltinNode;
-import com.oracle.truffle.r.runtime.RInternalError;
 import com.oracle.truffle.r.runtime.RRuntime;
-import com.oracle.truffle.r.runtime.Utils;
 import com.oracle.truffle.r.runtime.data.RDataFactory;
 import com.oracle.truffle.r.runtime.data.RStringVector;
 import com.oracle.truffle.r.runtime.data.model.RAbstractStringVector;
+import com.oracle.truffle.r.runtime.ops.Checksums;
 
 public abstract class Rmd5 extends RExternalBuiltinNode.Arg1 {
 
     @Specialization
     @TruffleBoundary
     protected RStringVector rmd5(RAbstractStringVector files) {
-        MessageDigest digest;
-        boolean complete = RDataFactory.COMPLETE_VECTOR;
-        try {
-            digest = MessageDigest.getInstance("MD5");
-        } catch (NoSuchAlgorithmException ex) {
-            throw RInternalError.shouldNotReachHere("no MD5");
+        String[] paths = new String[files.getLength()];
+        for (int i = 0; i < paths.length; i++) {
+            paths[i] = files.getDataAt(i);
         }
-        String[] data = new String[files.getLength()];
-        for (int i = 0; i < data.length; i++) {
-            File file = new File(files.getDataAt(i));
-            String dataValue = RRuntime.STRING_NA;
-            if (!(file.exists() && file.canRead())) {
-                complete = false;
-            } else {
-                try (BufferedInputStream in = new BufferedInputStream(new FileInputStream(file))) {
-                    byte[] bytes = new byte[(int) file.length()];
-                    in.read(bytes);
-                    dataValue = Utils.toHexString(digest.digest(bytes));
-                } catch (IOException ex) {
-                    // unexpected as we checked
-                    complete = false;
-                }
-            }
-            data[i] = dataValue;
+        String[] data = Checksums.hashFiles(paths, Checksums.Algorithm.MD5);
+        boolean complete = RDataFactory.COMPLETE_VECTOR;
+        for (String value : data) {
+            complete &= !RRuntime.isNA(value);
         }
         return RDataFactory.createStringVector(data, complete);
     }
@@ -22,30 +22,19 @@
  */
 package com.oracle.truffle.r.library.utils;
 
-import java.security.MessageDigest;
-import java.security.NoSuchAlgorithmException;
+import java.nio.charset.StandardCharsets;
 
 import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
 import com.oracle.truffle.api.dsl.Specialization;
 import com.oracle.truffle.r.nodes.builtin.RExternalBuiltinNode;
-import com.oracle.truffle.r.runtime.RInternalError;
 import com.oracle.truffle.r.runtime.data.model.RAbstractStringVector;
+import com.oracle.truffle.r.runtime.ops.Checksums;
 
 public abstract class Crc64 extends RExternalBuiltinNode.Arg1 {
 
     @Specialization
     @TruffleBoundary
     protected String crc64(RAbstractStringVector input) {
-        try {
-            MessageDigest md = MessageDigest.getInstance("MD5");
-            byte[] digest = md.digest(input.getDataAt(0).getBytes());
-            StringBuffer sb = new StringBuffer();
-            for (int i = 0; i < digest.length; i++) {
-                sb.append(Integer.toHexString(digest[i] & 0xFF));
-            }
-            return sb.toString();
-        } catch (NoSuchAlgorithmException ex) {
-            throw RInternalError.shouldNotReachHere(ex);
-        }
+        return Checksums.hash(input.getDataAt(0).getBytes(StandardCharsets.UTF_8), Checksums.Algorithm.CRC64);
     }
 }
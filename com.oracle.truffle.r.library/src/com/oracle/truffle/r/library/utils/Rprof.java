@@ -22,43 +22,27 @@
  */
 package com.oracle.truffle.r.library.utils;
 
+import java.io.BufferedOutputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.PrintStream;
-import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.function.Function;
 
 import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
 import com.oracle.truffle.api.dsl.Specialization;
-import com.oracle.truffle.api.frame.Frame;
-import com.oracle.truffle.api.frame.VirtualFrame;
-import com.oracle.truffle.api.frame.FrameInstance.FrameAccess;
-import com.oracle.truffle.api.instrumentation.EventContext;
-import com.oracle.truffle.api.instrumentation.ExecutionEventListener;
-import com.oracle.truffle.api.instrumentation.SourceSectionFilter;
-import com.oracle.truffle.api.instrumentation.StandardTags;
-import com.oracle.truffle.api.nodes.RootNode;
-import com.oracle.truffle.api.source.Source;
 import com.oracle.truffle.r.nodes.builtin.RExternalBuiltinNode;
-import com.oracle.truffle.r.nodes.function.FunctionDefinitionNode;
-import com.oracle.truffle.r.nodes.instrumentation.RInstrumentation;
-import com.oracle.truffle.r.runtime.RArguments;
-import com.oracle.truffle.r.runtime.RCaller;
 import com.oracle.truffle.r.runtime.RError;
 import com.oracle.truffle.r.runtime.RRuntime;
-import com.oracle.truffle.r.runtime.RSource;
-import com.oracle.truffle.r.runtime.Utils;
 import com.oracle.truffle.r.runtime.context.RContext;
+import com.oracle.truffle.r.runtime.data.MemoryCopyTracer;
 import com.oracle.truffle.r.runtime.data.RDataFactory;
 import com.oracle.truffle.r.runtime.data.RNull;
 import com.oracle.truffle.r.runtime.data.RObjectSize;
 import com.oracle.truffle.r.runtime.data.RTypedValue;
-import com.oracle.truffle.r.runtime.data.MemoryCopyTracer;
 import com.oracle.truffle.r.runtime.data.model.RAbstractStringVector;
 import com.oracle.truffle.r.runtime.data.model.RAbstractVector;
 import com.oracle.truffle.r.runtime.instrument.InstrumentationState;
-import com.oracle.truffle.r.runtime.nodes.RSyntaxNode;
+import com.oracle.truffle.r.runtime.instrument.RSamplingProfiler;
+import com.oracle.truffle.r.runtime.instrument.RSamplingProfiler.MemoryCounters;
 
 /**
  * Implements the {@code Rprof} external.
@@ -75,6 +59,7 @@ import com.oracle.truffle.r.runtime.nodes.RSyntaxNode;
  * and then the {@code N} is used in line number references of the form {@code N#L},which precede
  * the function name.
  *
+ * The samples are taken by a {@link RSamplingProfiler} and written to the file as they are taken.
  */
 public abstract class Rprof extends RExternalBuiltinNode.Arg8 implements RDataFactory.Listener, MemoryCopyTracer.Listener {
 
@@ -97,23 +82,20 @@ public abstract class Rprof extends RExternalBuiltinNode.Arg8 implements RDataFa
             boolean memProfiling = RRuntime.fromLogical(memProfilingL);
             boolean gcProfiling = RRuntime.fromLogical(gcProfilingL);
             try {
-                PrintStream out = new PrintStream(new FileOutputStream(filename, append));
+                PrintStream out = new PrintStream(new BufferedOutputStream(new FileOutputStream(filename, append)));
                 if (gcProfiling) {
                     RError.warning(this, RError.Message.GENERIC, "Rprof: gc profiling not supported");
                 }
+                // interval is in seconds, we convert to millis
+                long intervalInMillis = (long) (1E3 * intervalD);
+                RSamplingProfiler profiler = RSamplingProfiler.start(out, RSamplingProfiler.Format.RPROF, intervalInMillis, RRuntime.fromLogical(lineProfilingL), memProfiling);
+                profState.initialize(out, profiler);
                 if (memProfiling) {
                     RDataFactory.addListener(this);
                     RDataFactory.setTracingState(true);
                     MemoryCopyTracer.addListener(this);
                     MemoryCopyTracer.setTracingState(true);
                 }
-                // interval is in seconds, we convert to millis
-                long intervalInMillis = (long) (1E3 * intervalD);
-                StatementListener statementListener = new StatementListener();
-                ProfileThread profileThread = new ProfileThread(intervalInMillis, statementListener);
-                profileThread.setDaemon(true);
-                profState.initialize(out, profileThread, statementListener, intervalInMillis, RRuntime.fromLogical(lineProfilingL), memProfiling);
-                profileThread.start();
             } catch (IOException ex) {
                 throw RError.error(this, RError.Message.GENERIC, String.format("Rprof: cannot open profile file '%s'", filename));
             }
@@ -124,16 +106,19 @@ public abstract class Rprof extends RExternalBuiltinNode.Arg8 implements RDataFa
     @Override
     @TruffleBoundary
     public void reportAllocation(RTypedValue data) {
-        RprofState profState = RprofState.get();
+        MemoryCounters memory = RprofState.get().getMemory();
+        if (memory == null) {
+            return;
+        }
         long size = RObjectSize.getObjectSize(data, Rprofmem.myIgnoreObjectHandler);
         if (data instanceof RAbstractVector) {
             if (size >= Rprofmem.LARGE_VECTOR) {
-                profState.memoryQuad.largeV += size;
+                memory.largeV += size;
             } else {
-                profState.memoryQuad.smallV += size;
+                memory.smallV += size;
             }
         } else {
-            profState.memoryQuad.nodes += size;
+            memory.nodes += size;
         }
 
     }
@@ -141,8 +126,10 @@ public abstract class Rprof extends RExternalBuiltinNode.Arg8 implements RDataFa
     @Override
     @TruffleBoundary
     public void reportCopying(RAbstractVector source, RAbstractVector dest) {
-        RprofState profState = RprofState.get();
-        profState.memoryQuad.copied += RObjectSize.getObjectSize(source, Rprofmem.myIgnoreObjectHandler);
+        MemoryCounters memory = RprofState.get().getMemory();
+        if (memory != null) {
+            memory.copied += RObjectSize.getObjectSize(source, Rprofmem.myIgnoreObjectHandler);
+        }
     }
 
     private static void endProfiling() {
@@ -152,134 +139,12 @@ public abstract class Rprof extends RExternalBuiltinNode.Arg8 implements RDataFa
         }
     }
 
-    private static String getPath(RSyntaxNode node) {
-        Source source = node.getSourceSection().getSource();
-        String path = RSource.getPath(source);
-        return path;
-    }
-
-    private static final class ProfileThread extends Thread {
-        private final long interval;
-        private final StatementListener statementListener;
-        private volatile boolean running = true;
-
-        private ProfileThread(long interval, StatementListener statementListener) {
-            this.interval = interval;
-            this.statementListener = statementListener;
-        }
-
-        @Override
-        public void run() {
-            while (running) {
-                try {
-                    Thread.sleep(interval);
-                    statementListener.intervalElapsed();
-                } catch (InterruptedException ex) {
-
-                }
-            }
-        }
-
-    }
-
-    /**
-     * Emulates a sampling timer by checking when the sample interval rolls over and at that point
-     * collects the stack of functions.
-     */
-    private final class StatementListener implements ExecutionEventListener {
-        private ArrayList<ArrayList<RSyntaxNode>> intervalStacks = new ArrayList<>();
-        private ArrayList<RprofState.MemoryQuad> intervalMemory = new ArrayList<>();
-        private volatile boolean newInterval;
-
-        private StatementListener() {
-            SourceSectionFilter.Builder builder = SourceSectionFilter.newBuilder();
-            builder.tagIs(StandardTags.StatementTag.class);
-            SourceSectionFilter filter = builder.build();
-            RInstrumentation.getInstrumenter().attachListener(filter, this);
-        }
-
-        private void intervalElapsed() {
-            newInterval = true;
-        }
-
-        @Override
-        public void onEnter(EventContext context, VirtualFrame frame) {
-            if (newInterval) {
-                /* context tells here we are now, frame provides callers. */
-                final ArrayList<RSyntaxNode> stack = new ArrayList<>();
-                stack.add((RSyntaxNode) context.getInstrumentedNode());
-                collectStack(stack);
-                intervalStacks.add(stack);
-                RprofState profState = RprofState.get();
-                if (profState.memoryProfiling) {
-                    intervalMemory.add(profState.memoryQuad.copyAndClear());
-                }
-
-                newInterval = false;
-            }
-        }
-
-        @TruffleBoundary
-        private void collectStack(final ArrayList<RSyntaxNode> stack) {
-            Utils.iterateRFrames(FrameAccess.READ_ONLY, new Function<Frame, Object>() {
-
-                @Override
-                public Object apply(Frame f) {
-                    RCaller call = RArguments.getCall(f);
-                    if (call != null && call.isValidCaller()) {
-                        while (call.isPromise()) {
-                            call = call.getParent();
-                        }
-                        RSyntaxNode syntaxNode = call.getSyntaxNode();
-                        stack.add(syntaxNode);
-                    }
-                    return null;
-                }
-
-            });
-        }
-
-        @Override
-        public void onReturnValue(EventContext context, VirtualFrame frame, Object result) {
-        }
-
-        @Override
-        public void onReturnExceptional(EventContext context, VirtualFrame frame, Throwable exception) {
-        }
-
-    }
-
     /**
      * State used by {@code Rprof}.
      *
      */
     private static final class RprofState extends InstrumentationState.RprofState {
-        private ProfileThread profileThread;
-        private StatementListener statementListener;
-        private long intervalInMillis;
-        private boolean lineProfiling;
-        private boolean memoryProfiling;
-        private MemoryQuad memoryQuad;
-
-        public static final class MemoryQuad {
-            public long smallV;
-            public long largeV;
-            public long nodes;
-            public long copied;
-
-            public MemoryQuad copyAndClear() {
-                MemoryQuad result = new MemoryQuad();
-                result.copied = copied;
-                result.largeV = largeV;
-                result.smallV = smallV;
-                result.nodes = nodes;
-                copied = 0;
-                largeV = 0;
-                smallV = 0;
-                nodes = 0;
-                return result;
-            }
-        }
+        private RSamplingProfiler profiler;
 
         private static RprofState get() {
             RprofState state = (RprofState) RContext.getInstance().stateInstrumentation.getRprofState("prof");
@@ -290,72 +155,28 @@ public abstract class Rprof extends RExternalBuiltinNode.Arg8 implements RDataFa
             return state;
         }
 
-        public void initialize(PrintStream outA, ProfileThread profileThreadA, StatementListener statementListenerA, long intervalInMillisA,
-                        boolean lineProfilingA, boolean memoryProfilingA) {
+        public void initialize(PrintStream outA, RSamplingProfiler profilerA) {
             setOut(outA);
-            this.profileThread = profileThreadA;
-            this.statementListener = statementListenerA;
-            this.intervalInMillis = intervalInMillisA;
-            this.lineProfiling = lineProfilingA;
-            this.memoryProfiling = memoryProfilingA;
-            this.memoryQuad = memoryProfilingA ? new MemoryQuad() : null;
+            this.profiler = profilerA;
+        }
+
+        private MemoryCounters getMemory() {
+            return profiler == null ? null : profiler.getMemory();
         }
 
         @Override
         public void cleanup(int status) {
-            profileThread.running = false;
-            HashMap<String, Integer> fileMap = null;
-            PrintStream out = this.out();
-            if (this.memoryProfiling) {
-                out.print("memory profiling: ");
+            if (profiler == null) {
+                return;
             }
-            if (this.lineProfiling) {
-                out.print("line profiling: ");
-            }
-            out.printf("sample.interval=%d\n", this.intervalInMillis * 1000);
-            if (this.lineProfiling) {
-                // scan stacks to find files
-                fileMap = new HashMap<>();
-                int fileIndex = 0;
-                for (ArrayList<RSyntaxNode> intervalStack : statementListener.intervalStacks) {
-                    for (RSyntaxNode node : intervalStack) {
-                        String path = getPath(node);
-                        if (path != null && fileMap.get(path) == null) {
-                            fileMap.put(path, ++fileIndex);
-                            out.printf("#File %d: %s\n", fileIndex, path);
-                        }
-                    }
-                }
-            }
-            int index = 0;
-            for (ArrayList<RSyntaxNode> intervalStack : statementListener.intervalStacks) {
-                if (this.memoryProfiling) {
-                    RprofState.MemoryQuad mq = statementListener.intervalMemory.get(index);
-                    out.printf(":%d:%d:%d:%d:", mq.largeV, mq.smallV, mq.nodes, mq.copied);
-                }
-                for (RSyntaxNode node : intervalStack) {
-                    RootNode rootNode = node.asRNode().getRootNode();
-                    if (rootNode instanceof FunctionDefinitionNode) {
-                        String name = rootNode.getName();
-                        if (this.lineProfiling) {
-                            Integer fileIndex = fileMap.get(getPath(node));
-                            if (fileIndex != null) {
-                                out.printf("%d#%d ", fileIndex, node.getSourceSection().getStartLine());
-                            }
-                        }
-                        out.printf("\"%s\" ", name);
-                    }
-                }
-                out.println();
-                index++;
-            }
-            out.close();
+            boolean memoryProfiling = profiler.getMemory() != null;
+            profiler.stop();
+            profiler = null;
             this.setOut(null);
-            if (this.memoryProfiling) {
+            if (memoryProfiling) {
                 RDataFactory.setTracingState(false);
                 MemoryCopyTracer.setTracingState(false);
             }
-
         }
 
     }
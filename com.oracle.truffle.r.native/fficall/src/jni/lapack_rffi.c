@@ -202,3 +202,16 @@ Java_com_oracle_truffle_r_runtime_ffi_jni_JNI_1Lapack_native_1dgecon(JNIEnv *env
     return info;
 }
 
+extern void dgemm_(char *transA, char *transB, int *m, int *n, int *k, double *alpha, double *a, int *lda, double *b, int *ldb, double *beta, double *c, int *ldc);
+
+JNIEXPORT void JNICALL
+Java_com_oracle_truffle_r_runtime_ffi_jni_JNI_1Lapack_native_1dgemm(JNIEnv *env, jclass klass,
+        char transA, char transB, int m, int n, int k, double alpha, jdoubleArray ja, int lda, jdoubleArray jb, int ldb, double beta, jdoubleArray jc, int ldc) {
+    double *a = (*env)->GetPrimitiveArrayCritical(env, ja, NULL);
+    double *b = (*env)->GetPrimitiveArrayCritical(env, jb, NULL);
+    double *c = (*env)->GetPrimitiveArrayCritical(env, jc, NULL);
+    dgemm_(&transA, &transB, &m, &n, &k, &alpha, a, &lda, b, &ldb, &beta, c, &ldc);
+    (*env)->ReleasePrimitiveArrayCritical(env, ja, a, JNI_ABORT);
+    (*env)->ReleasePrimitiveArrayCritical(env, jb, b, JNI_ABORT);
+    (*env)->ReleasePrimitiveArrayCritical(env, jc, c, 0);
+}
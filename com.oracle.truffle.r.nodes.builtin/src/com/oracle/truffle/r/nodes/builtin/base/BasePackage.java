@@ -30,6 +30,7 @@ import com.oracle.truffle.r.nodes.access.variables.ReadVariableNode;
 import com.oracle.truffle.r.nodes.binary.BinaryArithmeticNodeGen;
 import com.oracle.truffle.r.nodes.binary.BinaryBooleanNodeGen;
 import com.oracle.truffle.r.nodes.binary.BinaryBooleanScalarNodeGen;
+import com.oracle.truffle.r.nodes.binary.FusedArithmeticNode;
 import com.oracle.truffle.r.nodes.builtin.RBuiltinPackage;
 import com.oracle.truffle.r.nodes.builtin.base.fastpaths.AssignFastPathNodeGen;
 import com.oracle.truffle.r.nodes.builtin.base.fastpaths.ExistsFastPathNodeGen;
@@ -84,24 +85,39 @@ import com.oracle.truffle.r.nodes.builtin.base.infix.WhileBuiltin;
 import com.oracle.truffle.r.nodes.builtin.base.infix.WhileBuiltinNodeGen;
 import com.oracle.truffle.r.nodes.builtin.base.system.SystemFunction;
 import com.oracle.truffle.r.nodes.builtin.base.system.SystemFunctionNodeGen;
+import com.oracle.truffle.r.nodes.builtin.fastr.FastRChecksum;
+import com.oracle.truffle.r.nodes.builtin.fastr.FastRChecksumNodeGen;
 import com.oracle.truffle.r.nodes.builtin.fastr.FastRContext;
 import com.oracle.truffle.r.nodes.builtin.fastr.FastRContextFactory;
+import com.oracle.truffle.r.nodes.builtin.fastr.FastRDataFrame;
+import com.oracle.truffle.r.nodes.builtin.fastr.FastRDataFrameFactory;
 import com.oracle.truffle.r.nodes.builtin.fastr.FastRDebug;
 import com.oracle.truffle.r.nodes.builtin.fastr.FastRDebugNodeGen;
+import com.oracle.truffle.r.nodes.builtin.fastr.FastRFiles;
+import com.oracle.truffle.r.nodes.builtin.fastr.FastRFilesFactory;
+import com.oracle.truffle.r.nodes.builtin.fastr.FastRGroupAggregate;
+import com.oracle.truffle.r.nodes.builtin.fastr.FastRGroupAggregateNodeGen;
 import com.oracle.truffle.r.nodes.builtin.fastr.FastRIdentity;
 import com.oracle.truffle.r.nodes.builtin.fastr.FastRIdentityNodeGen;
 import com.oracle.truffle.r.nodes.builtin.fastr.FastRInspect;
 import com.oracle.truffle.r.nodes.builtin.fastr.FastRInspectNodeGen;
 import com.oracle.truffle.r.nodes.builtin.fastr.FastRInterop;
 import com.oracle.truffle.r.nodes.builtin.fastr.FastRInteropFactory;
+import com.oracle.truffle.r.nodes.builtin.fastr.FastRMetrics;
+import com.oracle.truffle.r.nodes.builtin.fastr.FastRMetricsNodeGen;
+import com.oracle.truffle.r.nodes.builtin.fastr.FastROffHeap;
+import com.oracle.truffle.r.nodes.builtin.fastr.FastROffHeapFactory;
 import com.oracle.truffle.r.nodes.builtin.fastr.FastRRefCountInfo;
 import com.oracle.truffle.r.nodes.builtin.fastr.FastRRefCountInfoNodeGen;
 import com.oracle.truffle.r.nodes.builtin.fastr.FastRStackTrace;
 import com.oracle.truffle.r.nodes.builtin.fastr.FastRStackTraceNodeGen;
 import com.oracle.truffle.r.nodes.builtin.fastr.FastRStats.FastRProfAttr;
 import com.oracle.truffle.r.nodes.builtin.fastr.FastRStats.FastRProfFuncounts;
+import com.oracle.truffle.r.nodes.builtin.fastr.FastRStats.FastRProfSample;
 import com.oracle.truffle.r.nodes.builtin.fastr.FastRStats.FastRProfTypecounts;
 import com.oracle.truffle.r.nodes.builtin.fastr.FastRStatsFactory;
+import com.oracle.truffle.r.nodes.builtin.fastr.FastRSum;
+import com.oracle.truffle.r.nodes.builtin.fastr.FastRSumNodeGen;
 import com.oracle.truffle.r.nodes.builtin.fastr.FastRSyntaxTree;
 import com.oracle.truffle.r.nodes.builtin.fastr.FastRSyntaxTreeNodeGen;
 import com.oracle.truffle.r.nodes.builtin.fastr.FastRThrowIt;
@@ -124,6 +140,7 @@ import com.oracle.truffle.r.runtime.nodes.RFastPathNode;
 import com.oracle.truffle.r.runtime.ops.BinaryArithmetic;
 import com.oracle.truffle.r.runtime.ops.BinaryCompare;
 import com.oracle.truffle.r.runtime.ops.BinaryLogic;
+import com.oracle.truffle.r.runtime.ops.FusedArithmetic;
 import com.oracle.truffle.r.runtime.ops.UnaryArithmetic;
 
 public class BasePackage extends RBuiltinPackage {
@@ -139,13 +156,17 @@ public class BasePackage extends RBuiltinPackage {
          */
         add(UnaryNotNode.class, UnaryNotNodeGen::create);
 
-        add(BinaryArithmetic.AddBuiltin.class, arguments -> BinaryArithmeticNodeGen.create(BinaryArithmetic.ADD, UnaryArithmetic.PLUS, arguments));
+        add(BinaryArithmetic.AddBuiltin.class, arguments -> BinaryArithmeticNodeGen.create(BinaryArithmetic.ADD, UnaryArithmetic.PLUS, arguments),
+                        FusedArithmeticNode.createSpecial(FusedArithmetic.ADD, -1));
         add(BinaryArithmetic.SubtractBuiltin.class,
-                        arguments -> BinaryArithmeticNodeGen.create(BinaryArithmetic.SUBTRACT, UnaryArithmetic.NEGATE, arguments));
-        add(BinaryArithmetic.DivBuiltin.class, arguments -> BinaryArithmeticNodeGen.create(BinaryArithmetic.DIV, null, arguments));
+                        arguments -> BinaryArithmeticNodeGen.create(BinaryArithmetic.SUBTRACT, UnaryArithmetic.NEGATE, arguments),
+                        FusedArithmeticNode.createSpecial(FusedArithmetic.SUBTRACT, FusedArithmetic.NEGATE));
+        add(BinaryArithmetic.DivBuiltin.class, arguments -> BinaryArithmeticNodeGen.create(BinaryArithmetic.DIV, null, arguments),
+                        FusedArithmeticNode.createSpecial(FusedArithmetic.DIVIDE, -1));
         add(BinaryArithmetic.IntegerDivBuiltin.class, arguments -> BinaryArithmeticNodeGen.create(BinaryArithmetic.INTEGER_DIV, null, arguments));
         add(BinaryArithmetic.ModBuiltin.class, arguments -> BinaryArithmeticNodeGen.create(BinaryArithmetic.MOD, null, arguments));
-        add(BinaryArithmetic.MultiplyBuiltin.class, arguments -> BinaryArithmeticNodeGen.create(BinaryArithmetic.MULTIPLY, null, arguments));
+        add(BinaryArithmetic.MultiplyBuiltin.class, arguments -> BinaryArithmeticNodeGen.create(BinaryArithmetic.MULTIPLY, null, arguments),
+                        FusedArithmeticNode.createSpecial(FusedArithmetic.MULTIPLY, -1));
         add(BinaryArithmetic.PowBuiltin.class, arguments -> BinaryArithmeticNodeGen.create(BinaryArithmetic.POW, null, arguments));
 
         add(BinaryCompare.EqualBuiltin.class, arguments -> BinaryBooleanNodeGen.create(BinaryCompare.EQUAL, arguments));
@@ -319,6 +340,7 @@ public class BasePackage extends RBuiltinPackage {
         add(WithVisible.class, WithVisibleNodeGen::create);
         add(Exists.class, ExistsNodeGen::create);
         add(Expression.class, ExpressionNodeGen::create);
+        add(FastRChecksum.class, FastRChecksumNodeGen::create);
         add(FastRContext.R.class, FastRContextFactory.RNodeGen::create);
         add(FastRContext.Rscript.class, FastRContextFactory.RscriptNodeGen::create);
         add(FastRContext.CloseChannel.class, FastRContextFactory.CloseChannelNodeGen::create);
@@ -332,8 +354,14 @@ public class BasePackage extends RBuiltinPackage {
         add(FastRContext.ChannelSend.class, FastRContextFactory.ChannelSendNodeGen::create);
         add(FastRContext.Spawn.class, FastRContextFactory.SpawnNodeGen::create);
         add(FastRContext.Join.class, FastRContextFactory.JoinNodeGen::create);
+        add(FastRContext.PoolStats.class, FastRContextFactory.PoolStatsNodeGen::create);
+        add(FastRContext.PoolSize.class, FastRContextFactory.PoolSizeNodeGen::create);
         add(FastrDqrls.class, FastrDqrlsNodeGen::create);
         add(FastRDebug.class, FastRDebugNodeGen::create);
+        add(FastRFiles.DirClose.class, FastRFilesFactory.DirCloseNodeGen::create);
+        add(FastRFiles.DirOpen.class, FastRFilesFactory.DirOpenNodeGen::create);
+        add(FastRFiles.DirRead.class, FastRFilesFactory.DirReadNodeGen::create);
+        add(FastRFiles.ListFiles.class, FastRFilesFactory.ListFilesNodeGen::create);
         add(FastRIdentity.class, FastRIdentityNodeGen::create);
         add(FastRInspect.class, FastRInspectNodeGen::create);
         add(FastRInterop.Eval.class, FastRInteropFactory.EvalNodeGen::create);
@@ -348,6 +376,14 @@ public class BasePackage extends RBuiltinPackage {
         add(FastRProfAttr.class, FastRStatsFactory.FastRProfAttrNodeGen::create);
         add(FastRProfTypecounts.class, FastRStatsFactory.FastRProfTypecountsNodeGen::create);
         add(FastRProfFuncounts.class, FastRStatsFactory.FastRProfFuncountsNodeGen::create);
+        add(FastRProfSample.class, FastRStatsFactory.FastRProfSampleNodeGen::create);
+        add(FastRSum.class, FastRSumNodeGen::create);
+        add(FastRGroupAggregate.class, FastRGroupAggregateNodeGen::create);
+        add(FastRDataFrame.RBind.class, FastRDataFrameFactory.RBindNodeGen::create);
+        add(FastRDataFrame.Join.class, FastRDataFrameFactory.JoinNodeGen::create);
+        add(FastRMetrics.class, FastRMetricsNodeGen::create);
+        add(FastROffHeap.MMap.class, FastROffHeapFactory.MMapNodeGen::create);
+        add(FastROffHeap.ToOffHeap.class, FastROffHeapFactory.ToOffHeapNodeGen::create);
         add(FastRSyntaxTree.class, FastRSyntaxTreeNodeGen::create);
         add(FastRThrowIt.class, FastRThrowItNodeGen::create);
         add(FastRTrace.Trace.class, FastRTraceFactory.TraceNodeGen::create);
@@ -600,6 +636,7 @@ public class BasePackage extends RBuiltinPackage {
         add(SysFunctions.SysUnSetEnv.class, SysFunctionsFactory.SysUnSetEnvNodeGen::create);
         add(SystemFunction.class, SystemFunctionNodeGen::create);
         add(Tabulate.class, TabulateNodeGen::create);
+        add(Tcrossprod.class, TcrossprodNodeGen::create);
         add(TempDir.class, TempDirNodeGen::create);
         add(TempFile.class, TempFileNodeGen::create);
         add(ToLowerOrUpper.ToLower.class, ToLowerOrUpperFactory.ToLowerNodeGen::create);
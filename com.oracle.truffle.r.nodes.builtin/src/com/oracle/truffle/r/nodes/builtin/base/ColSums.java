@@ -36,6 +36,7 @@ import com.oracle.truffle.r.runtime.data.model.RAbstractDoubleVector;
 import com.oracle.truffle.r.runtime.data.model.RAbstractIntVector;
 import com.oracle.truffle.r.runtime.data.model.RAbstractLogicalVector;
 import com.oracle.truffle.r.runtime.ops.BinaryArithmetic;
+import com.oracle.truffle.r.runtime.ops.VectorReductions;
 
 @RBuiltin(name = "colSums", kind = INTERNAL, parameterNames = {"X", "m", "n", "na.rm"}, behavior = PURE)
 public abstract class ColSums extends ColSumsBase {
@@ -43,17 +44,23 @@ public abstract class ColSums extends ColSumsBase {
     @Child private BinaryArithmetic add = BinaryArithmetic.ADD.create();
 
     private final ConditionProfile removeNA = ConditionProfile.createBinaryProfile();
+    private final ConditionProfile kernelProfile = ConditionProfile.createBinaryProfile();
     private final ValueProfile concreteVectorProfile = ValueProfile.createClassProfile();
 
     @Specialization
     protected RDoubleVector colSums(RAbstractDoubleVector x, int rowNum, int colNum, boolean rnaParam) {
         checkVectorLength(x, rowNum, colNum);
 
-        double[] result = new double[colNum];
-        boolean isComplete = true;
         na.enable(x);
         final boolean rna = removeNA.profile(rnaParam);
         final RAbstractDoubleVector profiledX = concreteVectorProfile.profile(x);
+        if (kernelProfile.profile(!na.isEnabled() && profiledX instanceof RDoubleVector)) {
+            reportWork(x.getLength());
+            return RDataFactory.createDoubleVector(VectorReductions.colSums(((RDoubleVector) profiledX).getDataWithoutCopying(), rowNum, colNum, rna), RDataFactory.COMPLETE_VECTOR);
+        }
+
+        double[] result = new double[colNum];
+        boolean isComplete = true;
 
         int pos = 0;
         nextCol: for (int c = 0; c < colNum; c++) {
@@ -44,10 +44,10 @@ import static com.oracle.truffle.r.runtime.conn.StdConnections.getStdout;
 import java.io.IOException;
 import java.net.MalformedURLException;
 import java.nio.ByteBuffer;
-import java.nio.ByteOrder;
-import java.nio.DoubleBuffer;
-import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.zip.ZipException;
 
 import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
@@ -58,10 +58,12 @@ import com.oracle.truffle.r.nodes.builtin.CastBuilder;
 import com.oracle.truffle.r.nodes.builtin.RBuiltinNode;
 import com.oracle.truffle.r.nodes.builtin.base.ConnectionFunctionsFactory.WriteDataNodeGen;
 import com.oracle.truffle.r.nodes.builtin.casts.fluent.HeadPhaseBuilder;
+import com.oracle.truffle.r.runtime.FastROptions;
 import com.oracle.truffle.r.runtime.RError;
 import com.oracle.truffle.r.runtime.RInternalError;
 import com.oracle.truffle.r.runtime.RRuntime;
 import com.oracle.truffle.r.runtime.builtins.RBuiltin;
+import com.oracle.truffle.r.runtime.conn.BinaryIO;
 import com.oracle.truffle.r.runtime.conn.ConnectionSupport.BaseRConnection;
 import com.oracle.truffle.r.runtime.conn.FileConnections.FileRConnection;
 import com.oracle.truffle.r.runtime.conn.GZIPConnections.GZIPRConnection;
@@ -70,7 +72,6 @@ import com.oracle.truffle.r.runtime.conn.SocketConnections.RSocketConnection;
 import com.oracle.truffle.r.runtime.conn.TextConnections.TextRConnection;
 import com.oracle.truffle.r.runtime.conn.URLConnections.URLRConnection;
 import com.oracle.truffle.r.runtime.context.RContext;
-import com.oracle.truffle.r.runtime.data.RComplex;
 import com.oracle.truffle.r.runtime.data.RComplexVector;
 import com.oracle.truffle.r.runtime.data.RDataFactory;
 import com.oracle.truffle.r.runtime.data.RDoubleVector;
@@ -79,11 +80,10 @@ import com.oracle.truffle.r.runtime.data.RIntVector;
 import com.oracle.truffle.r.runtime.data.RList;
 import com.oracle.truffle.r.runtime.data.RLogicalVector;
 import com.oracle.truffle.r.runtime.data.RNull;
-import com.oracle.truffle.r.runtime.data.RRaw;
+import com.oracle.truffle.r.runtime.data.ROffHeapStorage;
 import com.oracle.truffle.r.runtime.data.RRawVector;
 import com.oracle.truffle.r.runtime.data.RStringVector;
 import com.oracle.truffle.r.runtime.data.RTypes;
-import com.oracle.truffle.r.runtime.data.RVector;
 import com.oracle.truffle.r.runtime.data.model.RAbstractComplexVector;
 import com.oracle.truffle.r.runtime.data.model.RAbstractDoubleVector;
 import com.oracle.truffle.r.runtime.data.model.RAbstractIntVector;
@@ -691,20 +691,6 @@ public abstract class ConnectionFunctions {
         }
     }
 
-    /**
-     * Sets the order of the given {@code ByteBuffer} from value of {@code swap}. The value of
-     * {@code swap} will be {@code true} iff the original requested order was the opposite of the
-     * native byte order. Perhaps surprisingly, the default order of a {@code ByteBuffer} is
-     * {@code ByteOrder.BIG_ENDIAN}, NOT the native byte order.
-     */
-    private static ByteBuffer checkOrder(ByteBuffer buffer, boolean swap) {
-        ByteOrder nb = ByteOrder.nativeOrder();
-        if (swap) {
-            nb = nb == ByteOrder.BIG_ENDIAN ? ByteOrder.LITTLE_ENDIAN : ByteOrder.BIG_ENDIAN;
-        }
-        return buffer.order(nb);
-    }
-
     private abstract static class BinRBuiltinNode extends InternalCloseHelper {
         protected void n(CastBuilder casts) {
             casts.arg("n").asIntegerVector().findFirst().mustBe(gte(0));
@@ -717,8 +703,55 @@ public abstract class ConnectionFunctions {
         protected void swap(CastBuilder casts) {
             casts.arg("swap").asLogicalVector().findFirst().notNA().map(toBoolean());
         }
+
+        /**
+         * The number of bytes of an element of type {@code what} in the binary layout, given the
+         * {@code size} argument ({@code NA} for the native size).
+         */
+        protected int elementSize(String what, int size) {
+            switch (what) {
+                case "int":
+                case "integer":
+                case "logical":
+                    if (RRuntime.isNA(size)) {
+                        return 4;
+                    } else if (size == 1 || size == 2 || size == 4 || size == 8) {
+                        return size;
+                    }
+                    throw RError.error(this, RError.Message.SIZE_UNKNOWN, size);
+                case "double":
+                case "numeric":
+                    if (RRuntime.isNA(size)) {
+                        return 8;
+                    } else if (size == 4 || size == 8) {
+                        return size;
+                    }
+                    throw RError.error(this, RError.Message.SIZE_UNKNOWN, size);
+                case "complex":
+                    if (RRuntime.isNA(size) || size == 16) {
+                        return 16;
+                    }
+                    throw RError.error(this, RError.Message.SIZE_CHANGING_NOT_SUPPORTED, "complex");
+                case "raw":
+                    if (RRuntime.isNA(size) || size == 1) {
+                        return 1;
+                    }
+                    throw RError.error(this, RError.Message.SIZE_CHANGING_NOT_SUPPORTED, "raw");
+                case "character":
+                    return 1;
+                default:
+                    throw RInternalError.shouldNotReachHere();
+            }
+        }
     }
 
+    /**
+     * Reads binary data in chunks of {@link BinaryIO#CHUNK_SIZE} bytes, which are converted into
+     * the result array through typed buffer views. For a file, the result is sized from the rest of
+     * the file, otherwise it grows up to {@code n} elements as data arrives. Double, integer and raw
+     * results of at least {@link FastROptions#OffHeapThreshold} MB from a file are read directly into
+     * {@link ROffHeapStorage}, or, with {@link FastROptions#MapReadBin}, are mappings of the file.
+     */
     @RBuiltin(name = "readBin", kind = INTERNAL, parameterNames = {"con", "what", "n", "size", "signed", "swap"}, behavior = IO)
     public abstract static class ReadBin extends BinRBuiltinNode {
 
@@ -735,106 +768,179 @@ public abstract class ConnectionFunctions {
 
         @Specialization
         @TruffleBoundary
-        protected Object readBin(RConnection con, String what, int n, @SuppressWarnings("unused") int size, @SuppressWarnings("unused") boolean signed,
-                        boolean swap) {
-            RVector<?> result = null;
+        protected Object readBin(RConnection con, String what, int n, int size, boolean signed, boolean swap) {
             try (RConnection openConn = con.forceOpen("rb")) {
                 if (getBaseConnection(openConn).getOpenMode().isText()) {
                     throw RError.error(this, RError.Message.ONLY_READ_BINARY_CONNECTION);
                 }
+                if (what.equals("character")) {
+                    return readString(openConn, n);
+                }
+                int elementSize = elementSize(what, size);
+                int capacity = Math.min(n, BinaryIO.CHUNK_SIZE / elementSize);
+                FileChannel channel = openConn.getReadChannel();
+                if (channel != null) {
+                    capacity = (int) Math.min(n, Math.max(0, channel.size() - channel.position()) / elementSize);
+                    if (isNativeSize(what, elementSize) && ROffHeapStorage.useFor((long) capacity * elementSize)) {
+                        return readOffHeap(openConn, channel, capacity, elementSize, swap);
+                    }
+                }
+                BinaryIO.Reader reader = new BinaryIO.Reader(openConn, elementSize, swap);
                 switch (what) {
                     case "int":
                     case "integer":
-                        result = readInteger(con, n, swap);
-                        break;
+                        return readInteger(reader, n, capacity, elementSize, signed);
                     case "double":
                     case "numeric":
-                        result = readDouble(con, n, swap);
-                        break;
+                        return readDouble(reader, n, capacity, elementSize);
                     case "complex":
-                        result = readComplex(con, n, swap);
-                        break;
-                    case "character":
-                        result = readString(con, n);
-                        break;
+                        return readComplex(reader, n, capacity);
                     case "logical":
-                        result = readLogical(con, n, swap);
-                        break;
+                        return readLogical(reader, n, capacity, elementSize);
                     case "raw":
-                        result = readRaw(con, n);
-                        break;
+                        return readRaw(reader, n, capacity);
                     default:
                         throw RInternalError.shouldNotReachHere();
                 }
             } catch (IOException x) {
                 throw RError.error(this, RError.Message.ERROR_READING_CONNECTION, x.getMessage());
             }
-            return result;
         }
 
-        private static RIntVector readInteger(RConnection con, int n, boolean swap) throws IOException {
-            ByteBuffer buffer = ByteBuffer.allocate(n * 4);
-            int bytesRead = con.readBin(buffer);
-            if (bytesRead == 0) {
-                return RDataFactory.createEmptyIntVector();
+        private static boolean isNativeSize(String what, int size) {
+            switch (what) {
+                case "int":
+                case "integer":
+                    return size == 4;
+                case "double":
+                case "numeric":
+                    return size == 8;
+                case "raw":
+                    return true;
+                default:
+                    return false;
             }
-            buffer.flip();
-            IntBuffer intBuffer = checkOrder(buffer, swap).asIntBuffer();
-            int nInts = bytesRead / 4;
-            int[] data = new int[nInts];
-            boolean complete = RDataFactory.COMPLETE_VECTOR;
-            for (int i = 0; i < nInts; i++) {
-                int d = intBuffer.get();
-                if (RRuntime.isNA(d)) {
-                    complete = RDataFactory.INCOMPLETE_VECTOR;
+        }
+
+        /**
+         * The capacity for at least {@code needed} elements when growing an array of
+         * {@code length}, which is never more than the maximum {@code n}.
+         */
+        private static int grow(int length, int needed, int n) {
+            return (int) Math.min(n, Math.max(needed, 2L * length));
+        }
+
+        private static RAbstractVector readOffHeap(RConnection con, FileChannel channel, int count, int size, boolean swap) throws IOException {
+            long bytes = (long) count * size;
+            ROffHeapStorage storage;
+            int length = count;
+            if (FastROptions.MapReadBin.getBooleanValue() && !swap) {
+                long position = channel.position();
+                storage = ROffHeapStorage.map(channel, position, bytes, MapMode.READ_ONLY);
+                channel.position(position + bytes);
+            } else {
+                storage = ROffHeapStorage.allocate(bytes);
+                long read = 0;
+                boolean eof = false;
+                for (int i = 0; i < storage.getSlabCount() && !eof; i++) {
+                    ByteBuffer slab = storage.getSlab(i);
+                    while (slab.hasRemaining() && !eof) {
+                        eof = con.readBin(slab) <= 0;
+                    }
+                    read += slab.position();
+                }
+                length = (int) (read / size);
+                if (swap && size > 1) {
+                    storage.reverseByteOrder(size, length);
                 }
-                data[i] = d;
             }
-            return RDataFactory.createIntVector(data, complete);
+            switch (size) {
+                case 8:
+                    return RDataFactory.createOffHeapDoubleVector(storage, length, RDataFactory.INCOMPLETE_VECTOR);
+                case 4:
+                    return RDataFactory.createOffHeapIntVector(storage, length, RDataFactory.INCOMPLETE_VECTOR);
+                default:
+                    return RDataFactory.createOffHeapRawVector(storage, length);
+            }
         }
 
-        private static RDoubleVector readDouble(RConnection con, int n, boolean swap) throws IOException {
-            ByteBuffer buffer = ByteBuffer.allocate(n * 8);
-            int bytesRead = con.readBin(buffer);
-            if (bytesRead == 0) {
-                return RDataFactory.createEmptyDoubleVector();
+        private static RIntVector readInteger(BinaryIO.Reader reader, int n, int capacity, int size, boolean signed) throws IOException {
+            int[] data = new int[capacity];
+            int count = 0;
+            boolean complete = RDataFactory.COMPLETE_VECTOR;
+            ByteBuffer chunk;
+            while (count < n && (chunk = reader.next(n - count)) != null) {
+                int read = chunk.remaining() / size;
+                if (count + read > data.length) {
+                    data = Arrays.copyOf(data, grow(data.length, count + read, n));
+                }
+                complete &= BinaryIO.getInts(chunk, size, signed, data, count);
+                count += read;
             }
-            buffer.flip();
-            DoubleBuffer doubleBuffer = checkOrder(buffer, swap).asDoubleBuffer();
-            int nDoubles = bytesRead / 8;
+            return RDataFactory.createIntVector(count == data.length ? data : Arrays.copyOf(data, count), complete);
+        }
+
+        private static RDoubleVector readDouble(BinaryIO.Reader reader, int n, int capacity, int size) throws IOException {
+            double[] data = new double[capacity];
+            int count = 0;
             boolean complete = RDataFactory.COMPLETE_VECTOR;
-            double[] data = new double[nDoubles];
-            for (int i = 0; i < nDoubles; i++) {
-                double d = doubleBuffer.get();
-                if (RRuntime.isNA(d)) {
-                    complete = RDataFactory.INCOMPLETE_VECTOR;
+            ByteBuffer chunk;
+            while (count < n && (chunk = reader.next(n - count)) != null) {
+                int read = chunk.remaining() / size;
+                if (count + read > data.length) {
+                    data = Arrays.copyOf(data, grow(data.length, count + read, n));
                 }
-                data[i] = d;
+                complete &= BinaryIO.getDoubles(chunk, size, data, count);
+                count += read;
             }
-            return RDataFactory.createDoubleVector(data, complete);
+            return RDataFactory.createDoubleVector(count == data.length ? data : Arrays.copyOf(data, count), complete);
         }
 
-        private static RComplexVector readComplex(RConnection con, int n, boolean swap) throws IOException {
-            ByteBuffer buffer = ByteBuffer.allocate(n * 16);
-            int bytesRead = con.readBin(buffer);
-            if (bytesRead == 0) {
-                return RDataFactory.createEmptyComplexVector();
+        private static RComplexVector readComplex(BinaryIO.Reader reader, int n, int capacity) throws IOException {
+            double[] data = new double[2 * capacity];
+            int count = 0;
+            boolean complete = RDataFactory.COMPLETE_VECTOR;
+            ByteBuffer chunk;
+            while (count < n && (chunk = reader.next(n - count)) != null) {
+                int read = chunk.remaining() / 16;
+                if (2 * (count + read) > data.length) {
+                    data = Arrays.copyOf(data, 2 * grow(data.length / 2, count + read, n));
+                }
+                complete &= BinaryIO.getComplexes(chunk, data, count);
+                count += read;
             }
-            buffer.flip();
-            DoubleBuffer doubleBuffer = checkOrder(buffer, swap).asDoubleBuffer();
-            int nComplex = bytesRead / 16;
+            return RDataFactory.createComplexVector(2 * count == data.length ? data : Arrays.copyOf(data, 2 * count), complete);
+        }
+
+        private static RLogicalVector readLogical(BinaryIO.Reader reader, int n, int capacity, int size) throws IOException {
+            byte[] data = new byte[capacity];
+            int count = 0;
             boolean complete = RDataFactory.COMPLETE_VECTOR;
-            double[] data = new double[nComplex * 2];
-            for (int i = 0; i < nComplex; i++) {
-                double re = doubleBuffer.get();
-                double im = doubleBuffer.get();
-                if (RRuntime.isNA(re) || RRuntime.isNA(im)) {
-                    complete = RDataFactory.INCOMPLETE_VECTOR;
+            ByteBuffer chunk;
+            while (count < n && (chunk = reader.next(n - count)) != null) {
+                int read = chunk.remaining() / size;
+                if (count + read > data.length) {
+                    data = Arrays.copyOf(data, grow(data.length, count + read, n));
                 }
-                data[2 * i] = re;
-                data[2 * i + 1] = im;
+                complete &= BinaryIO.getLogicals(chunk, size, data, count);
+                count += read;
             }
-            return RDataFactory.createComplexVector(data, complete);
+            return RDataFactory.createLogicalVector(count == data.length ? data : Arrays.copyOf(data, count), complete);
+        }
+
+        private static RRawVector readRaw(BinaryIO.Reader reader, int n, int capacity) throws IOException {
+            byte[] data = new byte[capacity];
+            int count = 0;
+            ByteBuffer chunk;
+            while (count < n && (chunk = reader.next(n - count)) != null) {
+                int read = chunk.remaining();
+                if (count + read > data.length) {
+                    data = Arrays.copyOf(data, grow(data.length, count + read, n));
+                }
+                chunk.get(data, count, read);
+                count += read;
+            }
+            return RDataFactory.createRawVector(count == data.length ? data : Arrays.copyOf(data, count));
         }
 
         private static RStringVector readString(RConnection con, int n) throws IOException {
@@ -857,89 +963,53 @@ public abstract class ConnectionFunctions {
             strings.toArray(stringData);
             return RDataFactory.createStringVector(stringData, RDataFactory.COMPLETE_VECTOR);
         }
-
-        private static RRawVector readRaw(RConnection con, int n) throws IOException {
-            ByteBuffer buffer = ByteBuffer.allocate(n);
-            int bytesRead = con.readBin(buffer);
-            if (bytesRead == 0) {
-                return RDataFactory.createEmptyRawVector();
-            }
-            buffer.flip();
-            byte[] data = new byte[bytesRead];
-            buffer.get(data);
-            return RDataFactory.createRawVector(data);
-        }
-
-        private static RLogicalVector readLogical(RConnection con, int n, boolean swap) throws IOException {
-            ByteBuffer buffer = ByteBuffer.allocate(n * 4);
-            int bytesRead = con.readBin(buffer);
-            if (bytesRead == 0) {
-                return RDataFactory.createEmptyLogicalVector();
-            }
-            buffer.flip();
-            IntBuffer intBuffer = checkOrder(buffer, swap).asIntBuffer();
-            int nInts = bytesRead / 4;
-            byte[] data = new byte[nInts];
-            boolean complete = RDataFactory.COMPLETE_VECTOR;
-            for (int i = 0; i < nInts; i++) {
-                int value = intBuffer.get();
-                data[i] = value == RRuntime.INT_NA ? RRuntime.LOGICAL_NA : value == 1 ? RRuntime.LOGICAL_TRUE : RRuntime.LOGICAL_FALSE;
-                if (value == RRuntime.INT_NA) {
-                    complete = RDataFactory.INCOMPLETE_VECTOR;
-                }
-            }
-            return RDataFactory.createLogicalVector(data, complete);
-        }
     }
 
     @TypeSystemReference(RTypes.class)
     public abstract static class WriteDataNode extends RBaseNode {
 
+        /**
+         * Encodes {@code value} with elements of {@code size} bytes, see
+         * {@link BinRBuiltinNode#elementSize}.
+         */
         public abstract ByteBuffer execute(Object value, int size, boolean swap, boolean useBytes);
 
         public static WriteDataNode create() {
             return WriteDataNodeGen.create();
         }
 
-        private static ByteBuffer allocate(int capacity, boolean swap) {
-            ByteBuffer buffer = ByteBuffer.allocate(capacity);
-            checkOrder(buffer, swap);
-            return buffer;
+        /**
+         * Allocates a heap buffer of {@code capacity} bytes, which is computed as a {@code long} by
+         * the callers so that it cannot overflow.
+         */
+        private ByteBuffer allocate(long capacity, boolean swap) {
+            if (capacity > Integer.MAX_VALUE) {
+                throw RError.error(this, RError.Message.GENERIC, "only 2^31-1 bytes can be written to a raw vector");
+            }
+            return ByteBuffer.allocate((int) capacity).order(BinaryIO.order(swap));
         }
 
         @Specialization
-        protected ByteBuffer writeInteger(RAbstractIntVector object, @SuppressWarnings("unused") int size, boolean swap, @SuppressWarnings("unused") boolean useBytes) {
+        protected ByteBuffer writeInteger(RAbstractIntVector object, int size, boolean swap, @SuppressWarnings("unused") boolean useBytes) {
             int length = object.getLength();
-            ByteBuffer buffer = allocate(4 * length, swap);
-            for (int i = 0; i < length; i++) {
-                int value = object.getDataAt(i);
-                buffer.putInt(value);
-            }
+            ByteBuffer buffer = allocate((long) size * length, swap);
+            BinaryIO.putInts(buffer, size, object, 0, length);
             return buffer;
         }
 
         @Specialization
-        protected ByteBuffer writeDouble(RAbstractDoubleVector object, @SuppressWarnings("unused") int size, boolean swap, @SuppressWarnings("unused") boolean useBytes) {
+        protected ByteBuffer writeDouble(RAbstractDoubleVector object, int size, boolean swap, @SuppressWarnings("unused") boolean useBytes) {
             int length = object.getLength();
-            ByteBuffer buffer = allocate(8 * length, swap);
-            for (int i = 0; i < length; i++) {
-                double value = object.getDataAt(i);
-                buffer.putDouble(value);
-            }
+            ByteBuffer buffer = allocate((long) size * length, swap);
+            BinaryIO.putDoubles(buffer, size, object, 0, length);
             return buffer;
         }
 
         @Specialization
         protected ByteBuffer writeComplex(RAbstractComplexVector object, @SuppressWarnings("unused") int size, boolean swap, @SuppressWarnings("unused") boolean useBytes) {
             int length = object.getLength();
-            ByteBuffer buffer = allocate(16 * length, swap);
-            for (int i = 0; i < length; i++) {
-                RComplex complex = object.getDataAt(i);
-                double re = complex.getRealPart();
-                double im = complex.getImaginaryPart();
-                buffer.putDouble(re);
-                buffer.putDouble(im);
-            }
+            ByteBuffer buffer = allocate(16L * length, swap);
+            BinaryIO.putComplexes(buffer, object, 0, length);
             return buffer;
         }
 
@@ -948,7 +1018,7 @@ public abstract class ConnectionFunctions {
         protected ByteBuffer writeString(RAbstractStringVector object, @SuppressWarnings("unused") int size, boolean swap, @SuppressWarnings("unused") boolean useBytes) {
             int length = object.getLength();
             byte[][] data = new byte[length][];
-            int totalLength = 0;
+            long totalLength = 0;
             for (int i = 0; i < length; i++) {
                 String s = object.getDataAt(i);
                 // There is no special encoding for NA_character_
@@ -965,15 +1035,11 @@ public abstract class ConnectionFunctions {
         }
 
         @Specialization
-        protected ByteBuffer writeLogical(RAbstractLogicalVector object, @SuppressWarnings("unused") int size, boolean swap, @SuppressWarnings("unused") boolean useBytes) {
+        protected ByteBuffer writeLogical(RAbstractLogicalVector object, int size, boolean swap, @SuppressWarnings("unused") boolean useBytes) {
             // encoded as ints, with FALSE=0, TRUE=1, NA=Integer_NA_
             int length = object.getLength();
-            ByteBuffer buffer = allocate(4 * length, swap);
-            for (int i = 0; i < length; i++) {
-                byte value = object.getDataAt(i);
-                int encoded = RRuntime.isNA(value) ? RRuntime.INT_NA : value == RRuntime.LOGICAL_FALSE ? 0 : 1;
-                buffer.putInt(encoded);
-            }
+            ByteBuffer buffer = allocate((long) size * length, swap);
+            BinaryIO.putLogicals(buffer, size, object, 0, length);
             return buffer;
         }
 
@@ -981,15 +1047,16 @@ public abstract class ConnectionFunctions {
         protected ByteBuffer writeRaw(RAbstractRawVector object, @SuppressWarnings("unused") int size, boolean swap, @SuppressWarnings("unused") boolean useBytes) {
             int length = object.getLength();
             ByteBuffer buffer = allocate(length, swap);
-            for (int i = 0; i < length; i++) {
-                RRaw value = object.getDataAt(i);
-                buffer.put(value.getValue());
-            }
+            BinaryIO.putRaws(buffer, object, 0, length);
             return buffer;
         }
 
     }
 
+    /**
+     * Writes to a connection in chunks of {@link BinaryIO#CHUNK_SIZE} bytes through one direct
+     * buffer, except for character vectors, whose elements have no fixed size.
+     */
     @RBuiltin(name = "writeBin", visibility = OFF, kind = INTERNAL, parameterNames = {"object", "con", "size", "swap", "useBytes"}, behavior = IO)
     public abstract static class WriteBin extends BinRBuiltinNode {
 
@@ -1011,13 +1078,19 @@ public abstract class ConnectionFunctions {
                 throw RError.error(this, RError.Message.INVALID_ARGUMENT, "object");
             }
             if (object.getLength() > 0) {
+                // as in GnuR, the size is not checked if there is nothing to write
+                int elementSize = elementSize(object.getRType().getName(), size);
                 try (RConnection openConn = con.forceOpen("wb")) {
                     if (getBaseConnection(openConn).isTextMode()) {
                         throw RError.error(this, RError.Message.ONLY_WRITE_BINARY_CONNECTION);
                     }
-                    ByteBuffer buffer = writeData.execute(object, size, swap, useBytes);
-                    buffer.flip();
-                    con.writeBin(buffer);
+                    if (object instanceof RAbstractStringVector) {
+                        ByteBuffer buffer = writeData.execute(object, elementSize, swap, useBytes);
+                        buffer.flip();
+                        openConn.writeBin(buffer);
+                    } else {
+                        writeChunked(openConn, object, elementSize, swap);
+                    }
                 } catch (IOException x) {
                     throw RError.error(this, RError.Message.ERROR_WRITING_CONNECTION, x.getMessage());
                 }
@@ -1025,12 +1098,40 @@ public abstract class ConnectionFunctions {
             return RNull.instance;
         }
 
+        private static void writeChunked(RConnection con, RAbstractVector object, int size, boolean swap) throws IOException {
+            ByteBuffer buffer = BinaryIO.allocateChunk(swap);
+            int perChunk = BinaryIO.CHUNK_SIZE / size;
+            int length = object.getLength();
+            for (int from = 0; from < length; from += perChunk) {
+                int to = Math.min(length, from + perChunk);
+                buffer.clear();
+                if (object instanceof RAbstractIntVector) {
+                    BinaryIO.putInts(buffer, size, (RAbstractIntVector) object, from, to);
+                } else if (object instanceof RAbstractDoubleVector) {
+                    BinaryIO.putDoubles(buffer, size, (RAbstractDoubleVector) object, from, to);
+                } else if (object instanceof RAbstractLogicalVector) {
+                    BinaryIO.putLogicals(buffer, size, (RAbstractLogicalVector) object, from, to);
+                } else if (object instanceof RAbstractComplexVector) {
+                    BinaryIO.putComplexes(buffer, (RAbstractComplexVector) object, from, to);
+                } else if (object instanceof RAbstractRawVector) {
+                    BinaryIO.putRaws(buffer, (RAbstractRawVector) object, from, to);
+                } else {
+                    throw RInternalError.shouldNotReachHere();
+                }
+                buffer.flip();
+                con.writeBin(buffer);
+            }
+        }
+
         @Specialization
         protected RRawVector writeBin(RAbstractVector object, @SuppressWarnings("unused") RAbstractRawVector con, int size, byte swapArg, byte useBytesArg, //
                         @Cached("create()") WriteDataNode writeData) {
             boolean swap = RRuntime.fromLogical(swapArg);
             boolean useBytes = RRuntime.fromLogical(useBytesArg);
-            ByteBuffer buffer = writeData.execute(object, size, swap, useBytes);
+            if (object.getLength() == 0) {
+                return RDataFactory.createEmptyRawVector();
+            }
+            ByteBuffer buffer = writeData.execute(object, elementSize(object.getRType().getName(), size), swap, useBytes);
             buffer.flip();
             return RDataFactory.createRawVector(buffer.array());
         }
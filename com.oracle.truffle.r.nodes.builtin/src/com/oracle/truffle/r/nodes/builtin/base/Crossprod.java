@@ -61,6 +61,12 @@ public abstract class Crossprod extends RBuiltinNode {
         return transpose.execute(value);
     }
 
+    /*
+     * The double specializations never materialize the transposed x, MatMult is instead told to
+     * walk x column by column via the strides. This also allows MatMult to distribute the result
+     * tiles over multiple threads for large inputs.
+     */
+
     @Specialization(guards = {"x.isMatrix()", "y.isMatrix()"})
     protected RDoubleVector crossprod(RAbstractDoubleVector x, RAbstractDoubleVector y) {
         int xRows = x.getDimensions()[0];
@@ -70,7 +76,27 @@ public abstract class Crossprod extends RBuiltinNode {
         return matMult.doubleMatrixMultiply(x, y, xCols, xRows, yRows, yCols, xRows, 1, 1, yRows, false);
     }
 
-    private static RDoubleVector mirror(RDoubleVector result) {
+    @Specialization(guards = "!x.isMatrix() || !y.isMatrix()")
+    protected RDoubleVector crossprodDoubleVector(RAbstractDoubleVector x, RAbstractDoubleVector y) {
+        // a non-matrix x is a column vector, so that t(x) is a row vector
+        int xRows = x.isMatrix() ? x.getDimensions()[0] : x.getLength();
+        int xCols = x.isMatrix() ? x.getDimensions()[1] : 1;
+        int yRows;
+        int yCols;
+        if (y.isMatrix()) {
+            yRows = y.getDimensions()[0];
+            yCols = y.getDimensions()[1];
+        } else if (xRows == y.getLength()) {
+            yRows = y.getLength();
+            yCols = 1;
+        } else {
+            yRows = 1;
+            yCols = y.getLength();
+        }
+        return matMult.doubleMatrixMultiply(x, y, xCols, xRows, yRows, yCols, xRows, 1, 1, yRows, false);
+    }
+
+    static RDoubleVector mirror(RDoubleVector result) {
         /*
          * Mirroring the result is not only good for performance, but it is also required to produce
          * the same result as GNUR.
@@ -95,10 +121,10 @@ public abstract class Crossprod extends RBuiltinNode {
         return matMult(transpose(x), y);
     }
 
-    @Specialization(guards = "x.isMatrix()")
+    @Specialization
     protected RDoubleVector crossprodDoubleMatrix(RAbstractDoubleVector x, @SuppressWarnings("unused") RNull y) {
-        int xRows = x.getDimensions()[0];
-        int xCols = x.getDimensions()[1];
+        int xRows = x.isMatrix() ? x.getDimensions()[0] : x.getLength();
+        int xCols = x.isMatrix() ? x.getDimensions()[1] : 1;
         return mirror(matMult.doubleMatrixMultiply(x, x, xCols, xRows, xRows, xCols, xRows, 1, 1, xRows, true));
     }
 
@@ -21,7 +21,6 @@ import static com.oracle.truffle.r.runtime.builtins.RBuiltinKind.INTERNAL;
 
 import java.text.ParsePosition;
 import java.time.DateTimeException;
-import java.time.Instant;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.ZoneId;
@@ -34,6 +33,7 @@ import java.time.temporal.ChronoField;
 import java.time.temporal.TemporalAccessor;
 import java.util.HashMap;
 import java.util.TimeZone;
+import java.util.concurrent.ConcurrentHashMap;
 
 import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
 import com.oracle.truffle.api.dsl.Specialization;
@@ -54,40 +54,26 @@ import com.oracle.truffle.r.runtime.data.model.RAbstractIntVector;
 import com.oracle.truffle.r.runtime.data.model.RAbstractListVector;
 import com.oracle.truffle.r.runtime.data.model.RAbstractStringVector;
 import com.oracle.truffle.r.runtime.data.model.RAbstractVector;
+import com.oracle.truffle.r.runtime.ops.DateTimes;
+import com.oracle.truffle.r.runtime.ops.DateTimes.Plan;
+import com.oracle.truffle.r.runtime.ops.DateTimes.ZoneTable;
 
 // from GnuR datatime.c
 
 public class DatePOSIXFunctions {
 
-    private static final class POSIXltBuilder {
+    private static final class POSIXltBuilder extends DateTimes.Fields {
 
         private static final String[] LT_NAMES = new String[]{"sec", "min", "hour", "mday", "mon", "year", "wday", "yday", "isdst"};
         private static final RStringVector LT_NAMES_VEC = (RStringVector) RDataFactory.createStringVector(LT_NAMES, RDataFactory.COMPLETE_VECTOR).makeSharedPermanent();
         private static final RStringVector CLASS_ATTR = (RStringVector) RDataFactory.createStringVector(new String[]{"POSIXlt", "POSIXt"}, RDataFactory.COMPLETE_VECTOR).makeSharedPermanent();
 
-        public final double[] sec;
-        public final int[] min;
-        public final int[] hour;
-        public final int[] mday;
-        public final int[] mon;
-        public final int[] year;
-        public final int[] wday;
-        public final int[] yday;
-        public final int[] isdst;
         private boolean complete = true;
         private final String zone;
 
         POSIXltBuilder(int length, String zone) {
+            super(length);
             this.zone = zone;
-            sec = new double[length];
-            min = new int[length];
-            hour = new int[length];
-            mday = new int[length];
-            mon = new int[length];
-            year = new int[length];
-            wday = new int[length];
-            yday = new int[length];
-            isdst = new int[length];
         }
 
         public void setEntry(int index, double newSec, int newMin, int newHour, int newMDay, int newMon, int newYear, int newWDay, int newYDay, int newIsDst) {
@@ -103,18 +89,17 @@ public class DatePOSIXFunctions {
         }
 
         public void setIncompleteEntry(int index) {
-            sec[index] = RRuntime.DOUBLE_NA;
-            min[index] = RRuntime.INT_NA;
-            hour[index] = RRuntime.INT_NA;
-            mday[index] = RRuntime.INT_NA;
-            mon[index] = RRuntime.INT_NA;
-            year[index] = RRuntime.INT_NA;
-            wday[index] = RRuntime.INT_NA;
-            yday[index] = RRuntime.INT_NA;
-            isdst[index] = -1;
+            setNA(index);
             complete = false;
         }
 
+        /**
+         * Must be called after the entries were set by one of the {@link DateTimes} kernels.
+         */
+        public void updateComplete() {
+            complete = isComplete();
+        }
+
         public RList finish() {
             Object[] data = new Object[LT_NAMES.length];
             data[0] = RDataFactory.createDoubleVector(sec, complete);
@@ -147,15 +132,11 @@ public class DatePOSIXFunctions {
         @TruffleBoundary
         protected RList doDate2POSIXlt(RAbstractDoubleVector x) {
             int xLen = x.getLength();
-            TimeZone zone = TimeZone.getTimeZone("UTC");
             POSIXltBuilder builder = new POSIXltBuilder(xLen, "UTC");
             for (int i = 0; i < xLen; i++) {
                 double d = x.getDataAt(i);
                 if (RRuntime.isFinite(d)) {
-                    int day = (int) Math.floor(d);
-                    Instant instant = Instant.ofEpochSecond(day * 3600L * 24L);
-                    ZonedDateTime date = ZonedDateTime.ofInstant(instant, zone.toZoneId());
-                    builder.setEntry(i, 0, 0, 0, date.getDayOfMonth(), date.getMonthValue() - 1, date.getYear() - 1900, date.getDayOfWeek().ordinal(), date.getDayOfYear(), 0);
+                    builder.setDate(i, (long) Math.floor(d));
                 } else {
                     builder.setIncompleteEntry(i);
                 }
@@ -189,15 +170,14 @@ public class DatePOSIXFunctions {
             } else {
                 zone = TimeZone.getTimeZone(tz);
             }
+            ZoneTable zoneTable = ZoneTable.get(zone.toZoneId());
             int xLen = x.getLength();
             POSIXltBuilder builder = new POSIXltBuilder(xLen, zone.getDisplayName(false, TimeZone.SHORT));
             for (int i = 0; i < xLen; i++) {
                 double second = x.getDataAt(i);
                 if (RRuntime.isFinite(second)) {
-                    Instant instant = Instant.ofEpochSecond((long) second);
-                    ZonedDateTime date = ZonedDateTime.ofInstant(instant, zone.toZoneId());
-                    builder.setEntry(i, date.getSecond(), date.getMinute(), date.getHour(), date.getDayOfMonth(), date.getMonthValue() - 1, date.getYear() - 1900, date.getDayOfWeek().ordinal(),
-                                    date.getDayOfYear(), 0);
+                    long epochSecond = (long) second;
+                    builder.setLocal(i, epochSecond + zoneTable.getOffset(epochSecond), 0);
                 } else {
                     builder.setIncompleteEntry(i);
                 }
@@ -236,7 +216,7 @@ public class DatePOSIXFunctions {
                 zone = TimeZone.getTimeZone(tz);
             }
 
-            ZoneId zoneId = zone.toZoneId();
+            ZoneTable zoneTable = ZoneTable.get(zone.toZoneId());
             int length = max(secVector.getLength(), minVector.getLength(), hourVector.getLength(), mdayVector.getLength(), monVector.getLength(), yearVector.getLength());
             double[] data = new double[length];
             boolean complete = true;
@@ -257,9 +237,10 @@ public class DatePOSIXFunctions {
                         year -= delta;
                         mon += delta * 12;
                     }
-                    LocalDateTime time = LocalDateTime.of(year + 1900, mon + 1, 1, hour, min, (int) sec).plusDays(mday - 1);
-                    ZonedDateTime zoned = time.atZone(zoneId);
-                    data[i] = zoned.toInstant().getEpochSecond() + (sec - Math.floor(sec));
+                    long days = DateTimes.daysFromCivil(year + 1900L, mon + 1, 1) + mday - 1;
+                    double wholeSec = Math.floor(sec);
+                    long localSecond = days * DateTimes.SECONDS_PER_DAY + hour * 3600L + min * 60L + (long) wholeSec;
+                    data[i] = zoneTable.toEpochSecond(localSecond) + (sec - wholeSec);
                 } else {
                     data[i] = RRuntime.DOUBLE_NA;
                     complete = false;
@@ -306,8 +287,7 @@ public class DatePOSIXFunctions {
                         year -= delta;
                         mon += delta * 12;
                     }
-                    LocalDate date = LocalDate.of(year + 1900, mon + 1, 1).plusDays(mday - 1);
-                    data[i] = date.toEpochDay();
+                    data[i] = DateTimes.daysFromCivil(year + 1900L, mon + 1, 1) + mday - 1;
                 } else {
                     data[i] = RRuntime.DOUBLE_NA;
                     complete = false;
@@ -347,22 +327,27 @@ public class DatePOSIXFunctions {
             RAbstractIntVector monVector = (RAbstractIntVector) RRuntime.asAbstractVector(x.getDataAt(4));
             RAbstractIntVector yearVector = (RAbstractIntVector) RRuntime.asAbstractVector(x.getDataAt(5));
             ZoneId zone;
-            DateTimeFormatterBuilder[] builders = createFormatters(format, false);
             String tzone = getTimeZomeFromAttribute(x);
-            if (usetz && !tzone.isEmpty()) {
-                zone = ZoneId.of(tzone, TIME_ZONE_MAPPING);
-                for (DateTimeFormatterBuilder builder : builders) {
-                    builder.appendLiteral(' ').appendZoneText(TextStyle.SHORT);
+            boolean withZone = usetz && !tzone.isEmpty();
+            int length = secVector.getLength();
+            if (!withZone && minVector.getLength() == length && hourVector.getLength() == length && mdayVector.getLength() == length && monVector.getLength() == length &&
+                            yearVector.getLength() == length) {
+                Plan[] plans = getPlans(format, false);
+                if (plans != null) {
+                    // wday, yday and isdst are not needed for formatting
+                    DateTimes.Fields fields = new DateTimes.Fields(secVector.materialize().getDataWithoutCopying(), minVector.materialize().getDataWithoutCopying(),
+                                    hourVector.materialize().getDataWithoutCopying(), mdayVector.materialize().getDataWithoutCopying(), monVector.materialize().getDataWithoutCopying(),
+                                    yearVector.materialize().getDataWithoutCopying(), null, null, null);
+                    String[] data = DateTimes.format(fields, plans);
+                    return RDataFactory.createStringVector(data, !containsNA(data));
                 }
+            }
+            if (withZone) {
+                zone = ZoneId.of(tzone, TIME_ZONE_MAPPING);
             } else {
                 zone = RContext.getInstance().getSystemTimeZone().toZoneId();
             }
-
-            DateTimeFormatter[] formatters = new DateTimeFormatter[builders.length];
-            for (int i = 0; i < builders.length; i++) {
-                formatters[i] = builders[i].toFormatter();
-            }
-            int length = secVector.getLength();
+            DateTimeFormatter[] formatters = getFormatters(format, false, withZone);
             String[] data = new String[length];
             boolean complete = true;
             for (int i = 0; i < length; i++) {
@@ -407,11 +392,13 @@ public class DatePOSIXFunctions {
             }
             int length = x.getLength();
             POSIXltBuilder builder = new POSIXltBuilder(length, zone.getDisplayName(false, TimeZone.SHORT));
-            DateTimeFormatterBuilder[] builders = createFormatters(format, true);
-            DateTimeFormatter[] formatters = new DateTimeFormatter[builders.length];
-            for (int i = 0; i < builders.length; i++) {
-                formatters[i] = builders[i].toFormatter();
+            Plan[] plans = getPlans(format, true);
+            if (plans != null) {
+                DateTimes.parse(x.materialize().getDataWithoutCopying(), plans, ZoneTable.get(zone.toZoneId()), builder);
+                builder.updateComplete();
+                return builder.finish();
             }
+            DateTimeFormatter[] formatters = getFormatters(format, true, false);
 
             for (int i = 0; i < length; i++) {
                 String str = x.getDataAt(i);
@@ -441,14 +428,62 @@ public class DatePOSIXFunctions {
         }
     }
 
-    private static DateTimeFormatterBuilder[] createFormatters(RAbstractStringVector formats, boolean forInput) {
-        DateTimeFormatterBuilder[] result = new DateTimeFormatterBuilder[formats.getLength()];
+    /**
+     * Returns the {@link DateTimes} plans for {@code formats}, or {@code null} if there are no
+     * formats or if any of them is not supported by the plans.
+     */
+    private static Plan[] getPlans(RAbstractStringVector formats, boolean forInput) {
+        if (formats.getLength() == 0) {
+            return null;
+        }
+        Plan[] result = new Plan[formats.getLength()];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = Plan.get(formats.getDataAt(i), forInput);
+            if (result[i] == null) {
+                return null;
+            }
+        }
+        return result;
+    }
+
+    private static final int MAX_FORMATTER_CACHE_SIZE = 256;
+
+    /**
+     * The formatters are immutable, so they are shared by all contexts.
+     */
+    private static final ConcurrentHashMap<String, DateTimeFormatter> formatterCache = new ConcurrentHashMap<>();
+
+    private static DateTimeFormatter[] getFormatters(RAbstractStringVector formats, boolean forInput, boolean withZone) {
+        DateTimeFormatter[] result = new DateTimeFormatter[formats.getLength()];
         for (int i = 0; i < result.length; i++) {
-            result[i] = createFormatter(formats.getDataAt(i), forInput);
+            String format = formats.getDataAt(i);
+            String key = (forInput ? 'i' : withZone ? 'z' : 'o') + format;
+            DateTimeFormatter formatter = formatterCache.get(key);
+            if (formatter == null) {
+                DateTimeFormatterBuilder builder = createFormatter(format, forInput);
+                if (withZone) {
+                    builder.appendLiteral(' ').appendZoneText(TextStyle.SHORT);
+                }
+                formatter = builder.toFormatter();
+                if (formatterCache.size() >= MAX_FORMATTER_CACHE_SIZE) {
+                    formatterCache.clear();
+                }
+                formatterCache.put(key, formatter);
+            }
+            result[i] = formatter;
         }
         return result;
     }
 
+    private static boolean containsNA(String[] data) {
+        for (String value : data) {
+            if (RRuntime.isNA(value)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     private static DateTimeFormatterBuilder createFormatter(String format, boolean forInput) {
         DateTimeFormatterBuilder builder = new DateTimeFormatterBuilder();
         boolean escaped = false;
@@ -48,8 +48,6 @@ import java.util.Arrays;
 import java.util.Iterator;
 import java.util.function.BiFunction;
 import java.util.function.BiPredicate;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 import java.util.stream.Stream;
 
 import com.oracle.truffle.api.CompilerDirectives;
@@ -60,6 +58,7 @@ import com.oracle.truffle.r.nodes.builtin.RBuiltinNode;
 import com.oracle.truffle.r.nodes.unary.CastStringNode;
 import com.oracle.truffle.r.nodes.unary.CastStringNodeGen;
 import com.oracle.truffle.r.runtime.RError;
+import com.oracle.truffle.r.runtime.RFileWalker;
 import com.oracle.truffle.r.runtime.RInternalError;
 import com.oracle.truffle.r.runtime.RRuntime;
 import com.oracle.truffle.r.runtime.Utils;
@@ -565,7 +564,6 @@ public class FileFunctions {
 
     }
 
-    // TODO Implement all the options
     @RBuiltin(name = "list.files", kind = INTERNAL, parameterNames = {"path", "pattern", "all.files", "full.names", "recursive", "ignore.case", "include.dirs", "no.."}, behavior = IO)
     public abstract static class ListFiles extends RBuiltinNode {
         private static final String DOT = ".";
@@ -614,53 +612,37 @@ public class FileFunctions {
             return doListFilesBody(vec, pattern, allFiles, fullNames, recursive, ignoreCase, includeDirs, noDotDot);
         }
 
-        private RStringVector doListFilesBody(RAbstractStringVector vec, String patternString, boolean allFiles, boolean fullNames, boolean recursive,
-                        boolean ignoreCaseIn, boolean includeDirsIn, boolean noDotDot) {
+        private static RStringVector doListFilesBody(RAbstractStringVector vec, String pattern, boolean allFiles, boolean fullNames, boolean recursive, boolean ignoreCase,
+                        boolean includeDirsIn, boolean noDotDot) {
             boolean includeDirs = !recursive || includeDirsIn;
-            @SuppressWarnings("unused")
-            boolean ignoreCase = check(ignoreCaseIn, "ignoreCase");
-            Pattern pattern = patternString == null ? null : Pattern.compile(patternString);
             // Curiously the result is not a vector of same length as the input,
             // as typical for R, but a single vector, which means duplicates may occur
             ArrayList<String> files = new ArrayList<>();
             for (int i = 0; i < vec.getLength(); i++) {
-                String vecPathString = vec.getDataAt(i);
-                String pathString = Utils.tildeExpand(vecPathString, true);
+                String pathString = Utils.tildeExpand(vec.getDataAt(i), true);
                 File root = new File(pathString);
-                if (!root.exists()) {
+                if (!root.isDirectory()) {
                     continue;
                 }
-                Path rootPath = root.toPath();
-                try (Stream<Path> stream = Files.find(rootPath, recursive ? Integer.MAX_VALUE : 1, new FileMatcher(pattern, allFiles, includeDirs))) {
-                    Iterator<Path> iter = stream.iterator();
-                    Path vecPath = null;
-                    if (!fullNames) {
-                        vecPath = FileSystems.getDefault().getPath(vecPathString);
+                RFileWalker walker = new RFileWalker(root.toPath(), fullNames, pattern, ignoreCase, allFiles, recursive, includeDirs, false);
+                ArrayList<String> found = new ArrayList<>();
+                walker.walk(entry -> {
+                    synchronized (found) {
+                        found.add(entry.name);
                     }
-                    while (iter.hasNext()) {
-                        Path file = iter.next();
-                        if (Files.isSameFile(file, rootPath)) {
-                            continue;
-                        }
-                        if (!fullNames) {
-                            file = vecPath.relativize(file);
-                        }
-                        files.add(file.toString());
+                    return true;
+                });
+                files.addAll(found);
+                /*
+                 * "." and ".." are not visited by the walker, so we have to process them manually.
+                 */
+                if (!noDotDot && allFiles && !recursive) {
+                    if (walker.matches(DOT)) {
+                        files.add(fullNames ? FileSystems.getDefault().getPath(pathString, DOT).toString() : DOT);
                     }
-                    /*
-                     * Annoyingly "." and ".." are never visited by Files.find, so we have to
-                     * process them manually.
-                     */
-                    if (!noDotDot) {
-                        if (pattern == null || pattern.matcher(DOT).find()) {
-                            files.add(fullNames ? FileSystems.getDefault().getPath(vecPathString, DOT).toString() : DOT);
-                        }
-                        if (pattern == null || pattern.matcher(DOTDOT).find()) {
-                            files.add(fullNames ? FileSystems.getDefault().getPath(vecPathString, DOTDOT).toString() : DOTDOT);
-                        }
+                    if (walker.matches(DOTDOT)) {
+                        files.add(fullNames ? FileSystems.getDefault().getPath(pathString, DOTDOT).toString() : DOTDOT);
                     }
-                } catch (IOException ex) {
-                    // ignored
                 }
             }
             if (files.size() == 0) {
@@ -672,42 +654,6 @@ public class FileFunctions {
                 Arrays.sort(data);
                 return RDataFactory.createStringVector(data, RDataFactory.COMPLETE_VECTOR);
             }
-
-        }
-
-        private boolean check(boolean value, String argName) {
-            if (value) {
-                RError.warning(this, RError.Message.GENERIC, "'" + argName + "'" + " is not implemented");
-            }
-            return value;
-        }
-
-        private static class FileMatcher implements BiPredicate<Path, BasicFileAttributes> {
-            final Pattern pattern;
-            final boolean includeDirs;
-            final boolean allFiles;
-
-            FileMatcher(Pattern pattern, boolean allFiles, boolean includeDirs) {
-                this.allFiles = allFiles;
-                this.includeDirs = includeDirs;
-                this.pattern = pattern;
-            }
-
-            @Override
-            public boolean test(Path path, BasicFileAttributes u) {
-                if (u.isDirectory() && !includeDirs) {
-                    return false;
-                }
-                if (!allFiles && path.getFileName().toString().charAt(0) == '.') {
-                    return false;
-                }
-                if (pattern == null) {
-                    return true;
-                }
-                Matcher m = pattern.matcher(path.getFileName().toString());
-                boolean result = m.find();
-                return result;
-            }
         }
     }
 
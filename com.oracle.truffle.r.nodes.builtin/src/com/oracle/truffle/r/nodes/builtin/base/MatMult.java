@@ -36,7 +36,9 @@ import com.oracle.truffle.api.profiles.ConditionProfile;
 import com.oracle.truffle.api.profiles.LoopConditionProfile;
 import com.oracle.truffle.r.nodes.binary.BinaryMapArithmeticFunctionNode;
 import com.oracle.truffle.r.nodes.builtin.RBuiltinNode;
+import com.oracle.truffle.r.runtime.FastROptions;
 import com.oracle.truffle.r.runtime.RError;
+import com.oracle.truffle.r.runtime.RParallel;
 import com.oracle.truffle.r.runtime.RRuntime;
 import com.oracle.truffle.r.runtime.builtins.RBuiltin;
 import com.oracle.truffle.r.runtime.data.RAttributeProfiles;
@@ -52,6 +54,7 @@ import com.oracle.truffle.r.runtime.data.model.RAbstractDoubleVector;
 import com.oracle.truffle.r.runtime.data.model.RAbstractIntVector;
 import com.oracle.truffle.r.runtime.data.model.RAbstractLogicalVector;
 import com.oracle.truffle.r.runtime.data.model.RAbstractVector;
+import com.oracle.truffle.r.runtime.ffi.RFFIFactory;
 import com.oracle.truffle.r.runtime.nodes.RNode;
 import com.oracle.truffle.r.runtime.ops.BinaryArithmetic;
 import com.oracle.truffle.r.runtime.ops.na.NACheck;
@@ -130,6 +133,129 @@ public abstract class MatMult extends RBuiltinNode {
         }
     }
 
+    /**
+     * Variant of {@link #multiplyBlock} without profiles, used by the parallel driver.
+     */
+    private static void multiplyBlock(double[] a, double[] b, int aRows, double[] result, int row, int col, int k, int aRowStride, int aColStride, int bRowStride, int bColStride, int remainingCols,
+                    int remainingRows, int remainingK) {
+        for (int innerCol = 0; innerCol < remainingCols; innerCol++) {
+            for (int innerRow = 0; innerRow < remainingRows; innerRow++) {
+                int bIndex = (col + innerCol) * bColStride + k * bRowStride;
+                int aIndex = k * aColStride + (row + innerRow) * aRowStride;
+                double x = 0.0;
+                for (int innerK = 0; innerK < remainingK; innerK++) {
+                    x += a[aIndex] * b[bIndex];
+                    aIndex += aColStride;
+                    bIndex += bRowStride;
+                }
+                result[(col + innerCol) * aRows + row + innerRow] += x;
+            }
+        }
+    }
+
+    /**
+     * Multiplies a block in "axpy" order, i.e., a column of {@code a} times an element of
+     * {@code b} is added to a column of the result. This requires {@code a} to be stored
+     * column-major ({@code aRowStride == 1}) and is used for {@code tcrossprod}, where the rows of
+     * {@code b} are not contiguous. Each result element is accumulated in order of {@code k}, which
+     * is also what the reference BLAS does for this case.
+     */
+    private static void multiplyBlockAxpy(double[] a, double[] b, int aRows, double[] result, int row, int col, int k, int aColStride, int bRowStride, int bColStride, int remainingCols,
+                    int remainingRows, int remainingK) {
+        for (int innerCol = 0; innerCol < remainingCols; innerCol++) {
+            int resultIndex = (col + innerCol) * aRows + row;
+            int bIndex = (col + innerCol) * bColStride + k * bRowStride;
+            int aIndex = k * aColStride + row;
+            for (int innerK = 0; innerK < remainingK; innerK++) {
+                double bValue = b[bIndex];
+                for (int innerRow = 0; innerRow < remainingRows; innerRow++) {
+                    result[resultIndex + innerRow] += a[aIndex + innerRow] * bValue;
+                }
+                aIndex += aColStride;
+                bIndex += bRowStride;
+            }
+        }
+    }
+
+    private static boolean useAxpy(int aRowStride, int bRowStride, int bColStride) {
+        return aRowStride == 1 && bColStride == 1 && bRowStride != 1;
+    }
+
+    /**
+     * Computes the result tiles of size {@link #BLOCK_SIZE} x {@link #BLOCK_SIZE} with indexes
+     * {@code [fromTile, toTile)}, tiles are numbered in column-major order. If {@code mirrored} is
+     * set, only the tiles on and above the diagonal are computed.
+     */
+    private static void multiplyTiles(double[] a, double[] b, int aRows, int aCols, int bCols, int aRowStride, int aColStride, int bRowStride, int bColStride, boolean mirrored, double[] result,
+                    int fromTile, int toTile) {
+        int rowBlocks = (aRows + BLOCK_SIZE - 1) / BLOCK_SIZE;
+        boolean axpy = useAxpy(aRowStride, bRowStride, bColStride);
+        for (int tile = fromTile; tile < toTile; tile++) {
+            int row = (tile % rowBlocks) * BLOCK_SIZE;
+            int col = (tile / rowBlocks) * BLOCK_SIZE;
+            if (mirrored && row > col) {
+                continue;
+            }
+            int remainingCols = Math.min(BLOCK_SIZE, bCols - col);
+            int remainingRows = Math.min(BLOCK_SIZE, aRows - row);
+            for (int k = 0; k < aCols; k += BLOCK_SIZE) {
+                int remainingK = Math.min(BLOCK_SIZE, aCols - k);
+                if (axpy) {
+                    multiplyBlockAxpy(a, b, aRows, result, row, col, k, aColStride, bRowStride, bColStride, remainingCols, remainingRows, remainingK);
+                } else {
+                    multiplyBlock(a, b, aRows, result, row, col, k, aRowStride, aColStride, bRowStride, bColStride, remainingCols, remainingRows, remainingK);
+                }
+            }
+        }
+    }
+
+    private static int tileCount(int aRows, int bCols) {
+        return ((aRows + BLOCK_SIZE - 1) / BLOCK_SIZE) * ((bCols + BLOCK_SIZE - 1) / BLOCK_SIZE);
+    }
+
+    /**
+     * Distributes the result tiles over the threads of {@link RParallel}. Every tile is written by
+     * exactly one task, so no synchronization is needed on {@code result}.
+     */
+    @TruffleBoundary
+    private static void multiplyParallel(double[] a, double[] b, int aRows, int aCols, int bCols, int aRowStride, int aColStride, int bRowStride, int bColStride, boolean mirrored,
+                    double[] result) {
+        RParallel.forEachChunk(0, tileCount(aRows, bCols), 1, (from, to) -> multiplyTiles(a, b, aRows, aCols, bCols, aRowStride, aColStride, bRowStride, bColStride, mirrored, result, from, to));
+    }
+
+    /**
+     * Returns the BLAS "trans" argument for a matrix with the given layout, or {@code 0} if the
+     * layout cannot be expressed as a (possibly transposed) column-major matrix.
+     */
+    private static char blasTranspose(int rows, int cols, int rowStride, int colStride) {
+        if (rowStride == 1 && (colStride == rows || cols == 1)) {
+            return 'N';
+        } else if (colStride == 1 && (rowStride == cols || rows == 1)) {
+            return 'T';
+        }
+        return 0;
+    }
+
+    @TruffleBoundary
+    private static boolean multiplyNative(double[] a, double[] b, int aRows, int aCols, int bCols, int aRowStride, int aColStride, int bRowStride, int bColStride, double[] result) {
+        char transA = blasTranspose(aRows, aCols, aRowStride, aColStride);
+        char transB = blasTranspose(aCols, bCols, bRowStride, bColStride);
+        if (transA == 0 || transB == 0) {
+            return false;
+        }
+        int lda = Math.max(1, transA == 'N' ? aRows : aCols);
+        int ldb = Math.max(1, transB == 'N' ? aCols : bCols);
+        RFFIFactory.getRFFI().getLapackRFFI().dgemm(transA, transB, aRows, bCols, aCols, 1.0, a, lda, b, ldb, 0.0, result, Math.max(1, aRows));
+        return true;
+    }
+
+    private static boolean isParallel(int aRows, int aCols, int bCols) {
+        return (long) aRows * aCols * bCols >= FastROptions.MatMultParallelThreshold.getNonNegativeIntValue() && (aRows > BLOCK_SIZE || bCols > BLOCK_SIZE) && RParallel.isEnabled();
+    }
+
+    private final ConditionProfile nativeProfile = ConditionProfile.createBinaryProfile();
+    private final ConditionProfile parallelProfile = ConditionProfile.createBinaryProfile();
+    private final ConditionProfile axpyProfile = ConditionProfile.createBinaryProfile();
     private final ConditionProfile bigProfile = ConditionProfile.createBinaryProfile();
     private final BranchProfile incompleteProfile = BranchProfile.create();
     @CompilationFinal private boolean seenLargeMatrix;
@@ -169,7 +295,13 @@ public abstract class MatMult extends RBuiltinNode {
             CompilerDirectives.transferToInterpreterAndInvalidate();
             seenLargeMatrix = true;
         }
-        if (seenLargeMatrix) {
+        if (nativeProfile.profile(FastROptions.NativeMatMult.getBooleanValue()) && multiplyNative(dataA, dataB, aRows, aCols, bCols, aRowStride, aColStride, bRowStride, bColStride, result)) {
+            // dgemm has computed the full result, including the part below the diagonal
+        } else if (parallelProfile.profile(isParallel(aRows, aCols, bCols))) {
+            multiplyParallel(dataA, dataB, aRows, aCols, bCols, aRowStride, aColStride, bRowStride, bColStride, mirrored, result);
+        } else if (axpyProfile.profile(useAxpy(aRowStride, bRowStride, bColStride))) {
+            multiplyTiles(dataA, dataB, aRows, aCols, bCols, aRowStride, aColStride, bRowStride, bColStride, mirrored, result, 0, tileCount(aRows, bCols));
+        } else if (seenLargeMatrix) {
             for (int row = 0; row < aRows; row += BLOCK_SIZE) {
                 for (int col = mirrored ? row : 0; col < bCols; col += BLOCK_SIZE) {
                     for (int k = 0; k < aCols; k += BLOCK_SIZE) {
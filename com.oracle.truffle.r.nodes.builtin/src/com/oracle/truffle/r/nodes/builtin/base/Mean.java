@@ -32,11 +32,13 @@ import com.oracle.truffle.r.nodes.builtin.RBuiltinNode;
 import com.oracle.truffle.r.runtime.builtins.RBuiltin;
 import com.oracle.truffle.r.runtime.data.RComplex;
 import com.oracle.truffle.r.runtime.data.RDataFactory;
+import com.oracle.truffle.r.runtime.data.RDoubleVector;
 import com.oracle.truffle.r.runtime.data.model.RAbstractComplexVector;
 import com.oracle.truffle.r.runtime.data.model.RAbstractDoubleVector;
 import com.oracle.truffle.r.runtime.data.model.RAbstractIntVector;
 import com.oracle.truffle.r.runtime.data.model.RAbstractLogicalVector;
 import com.oracle.truffle.r.runtime.ops.BinaryArithmetic;
+import com.oracle.truffle.r.runtime.ops.VectorReductions;
 
 @RBuiltin(name = "mean", kind = INTERNAL, parameterNames = {"x"}, dispatch = INTERNAL_GENERIC, behavior = PURE)
 public abstract class Mean extends RBuiltinNode {
@@ -46,6 +48,16 @@ public abstract class Mean extends RBuiltinNode {
     @Child private BinaryArithmetic add = BinaryArithmetic.ADD.create();
     @Child private BinaryArithmetic div = BinaryArithmetic.DIV.create();
 
+    @Specialization
+    protected double mean(RDoubleVector x) {
+        if (x.getLength() == 0) {
+            emptyProfile.enter();
+            return Double.NaN;
+        }
+        reportWork(x.getLength());
+        return VectorReductions.mean(x.getDataWithoutCopying(), 0, x.getLength());
+    }
+
     @Specialization
     protected double mean(RAbstractDoubleVector x) {
         if (x.getLength() == 0) {
@@ -31,6 +31,7 @@ import com.oracle.truffle.r.runtime.data.RIntVector;
 import com.oracle.truffle.r.runtime.data.RList;
 import com.oracle.truffle.r.runtime.data.RNull;
 import com.oracle.truffle.r.runtime.data.model.RAbstractIntVector;
+import com.oracle.truffle.r.runtime.nodes.RBaseNode;
 
 /**
  * Note: invoked from merge.data.frame.
@@ -83,10 +84,18 @@ public abstract class Merge extends RBuiltinNode {
     RList merge(RAbstractIntVector xIndsAbstract, RAbstractIntVector yIndsAbstract, boolean allX, boolean allY) {
         RIntVector xInds = xIndsAbstract.materialize();
         RIntVector yInds = yIndsAbstract.materialize();
+        return merge(this, xInds.getDataWithoutCopying(), yInds.getDataWithoutCopying(), allX, allY);
+    }
 
+    /**
+     * Computes the result of {@code merge} from the key codes of the rows of {@code x} and
+     * {@code y} (0 for rows without a partner), which are sorted in place. Also used by the
+     * {@code .fastr.dataframe.join} builtin, so that the order of the joined rows is the same.
+     */
+    public static RList merge(RBaseNode caller, int[] xIndsData, int[] yIndsData, boolean allX, boolean allY) {
         /* 0. sort the indices */
-        int nx = xInds.getLength();
-        int ny = yInds.getLength();
+        int nx = xIndsData.length;
+        int ny = yIndsData.length;
         int[] ix = new int[nx];
         int[] iy = new int[ny];
         for (int i = 0; i < nx; i++) {
@@ -95,8 +104,6 @@ public abstract class Merge extends RBuiltinNode {
         for (int i = 0; i < ny; i++) {
             iy[i] = i + 1;
         }
-        int[] xIndsData = xInds.getDataWithoutCopying();
-        int[] yIndsData = yInds.getDataWithoutCopying();
         isortWithIndex(xIndsData, ix, nx);
         isortWithIndex(yIndsData, iy, ny);
 
@@ -143,7 +150,7 @@ public abstract class Merge extends RBuiltinNode {
             dnans += ((double) (nnx - i)) * (nny - j);
         }
         if (dnans > RRuntime.INT_MAX_VALUE) {
-            throw RError.error(this, RError.Message.GENERIC, "number of rows in the result exceeds maximum vector length");
+            throw RError.error(caller, RError.Message.GENERIC, "number of rows in the result exceeds maximum vector length");
         }
         int nans = (int) dnans;
 
@@ -42,6 +42,8 @@ import com.oracle.truffle.r.runtime.builtins.RBuiltin;
 import com.oracle.truffle.r.runtime.data.RArgsValuesAndNames;
 import com.oracle.truffle.r.runtime.data.RComplex;
 import com.oracle.truffle.r.runtime.data.RDataFactory;
+import com.oracle.truffle.r.runtime.data.RDoubleSequence;
+import com.oracle.truffle.r.runtime.data.RIntSequence;
 import com.oracle.truffle.r.runtime.data.RIntVector;
 import com.oracle.truffle.r.runtime.data.RList;
 import com.oracle.truffle.r.runtime.data.RNull;
@@ -108,6 +110,16 @@ public abstract class Order extends RPrecedenceBuiltinNode {
         return cmpNode.executeInt(v, i, j, naLast);
     }
 
+    /**
+     * A sequence is already sorted, so its (stable) order is either ascending or descending.
+     */
+    private static RIntSequence orderSequence(int n, double stride, boolean decreasing) {
+        if (stride != 0 && (stride < 0) != decreasing) {
+            return RDataFactory.createIntSequence(n, -1, n);
+        }
+        return RDataFactory.createIntSequence(1, 1, n);
+    }
+
     @SuppressWarnings("unused")
     @Specialization(guards = "noVec(args)")
     Object orderEmpty(boolean naLastVec, boolean decVec, RArgsValuesAndNames args) {
@@ -119,6 +131,9 @@ public abstract class Order extends RPrecedenceBuiltinNode {
         Object[] vectors = args.getArguments();
         RAbstractIntVector v = (RAbstractIntVector) castVector(vectors[0]);
         int n = v.getLength();
+        if (v instanceof RIntSequence && n > 0) {
+            return orderSequence(n, ((RIntSequence) v).getStride(), decreasing);
+        }
         reportWork(n);
 
         int[] indx = new int[n];
@@ -139,6 +154,9 @@ public abstract class Order extends RPrecedenceBuiltinNode {
         Object[] vectors = args.getArguments();
         RAbstractDoubleVector v = (RAbstractDoubleVector) castVector(vectors[0]);
         int n = v.getLength();
+        if (v instanceof RDoubleSequence && n > 0) {
+            return orderSequence(n, ((RDoubleSequence) v).getStride(), decreasing);
+        }
         reportWork(n);
 
         int[] indx = new int[n];
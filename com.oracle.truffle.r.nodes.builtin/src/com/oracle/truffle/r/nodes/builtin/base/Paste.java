@@ -42,7 +42,9 @@ import com.oracle.truffle.r.runtime.data.RDataFactory;
 import com.oracle.truffle.r.runtime.data.RList;
 import com.oracle.truffle.r.runtime.data.RNull;
 import com.oracle.truffle.r.runtime.data.RStringVector;
+import com.oracle.truffle.r.runtime.data.model.RAbstractIntVector;
 import com.oracle.truffle.r.runtime.data.model.RAbstractListVector;
+import com.oracle.truffle.r.runtime.ops.ColumnarPaste;
 
 @RBuiltin(name = "paste", kind = INTERNAL, parameterNames = {"", "sep", "collapse"}, behavior = PURE)
 public abstract class Paste extends RBuiltinNode {
@@ -58,7 +60,7 @@ public abstract class Paste extends RBuiltinNode {
     @Child private CastStringNode castCharacterNode;
 
     private final ValueProfile lengthProfile = PrimitiveValueProfile.createEqualityProfile();
-    private final ConditionProfile reusedResultProfile = ConditionProfile.createBinaryProfile();
+    private final ConditionProfile intColumnProfile = ConditionProfile.createBinaryProfile();
     private final BranchProfile nonNullElementsProfile = BranchProfile.create();
     private final BranchProfile onlyNullElementsProfile = BranchProfile.create();
 
@@ -123,65 +125,30 @@ public abstract class Paste extends RBuiltinNode {
     }
 
     private String[] pasteListElements(RAbstractListVector values, String sep, int length) {
-        String[][] converted = new String[length][];
+        Object[] columns = new Object[length];
         int maxLength = 1;
         for (int i = 0; i < length; i++) {
             Object element = values.getDataAt(i);
-            String[] array = castCharacterVector(element).getDataWithoutCopying();
-            maxLength = Math.max(maxLength, array.length);
-            converted[i] = array.length == 0 ? ONE_EMPTY_STRING : array;
-        }
-        if (length == 1) {
-            return converted[0];
-        } else {
-            return prepareResult(sep, length, converted, maxLength);
-        }
-    }
-
-    private String[] prepareResult(String sep, int length, String[][] converted, int maxLength) {
-        String[] result = new String[maxLength];
-        String lastResult = null;
-        for (int i = 0; i < maxLength; i++) {
-            if (i > 0) {
-                // check if the next string is composed of the same elements
-                int j;
-                for (j = 0; j < length; j++) {
-                    String element = converted[j][i % converted[j].length];
-                    String lastElement = converted[j][(i - 1) % converted[j].length];
-                    if (element != lastElement) {
-                        break;
-                    }
-                }
-                if (reusedResultProfile.profile(j == length)) {
-                    result[i] = lastResult;
-                    continue;
-                }
+            Object column;
+            int columnLength;
+            if (intColumnProfile.profile(element instanceof RAbstractIntVector)) {
+                // formatted by the paste kernel directly, as by as.character
+                int[] data = ((RAbstractIntVector) element).materialize().getDataWithoutCopying();
+                column = data;
+                columnLength = data.length;
+            } else {
+                String[] array = castCharacterVector(element).getDataWithoutCopying();
+                column = array;
+                columnLength = array.length;
             }
-            result[i] = lastResult = concatStrings(converted, i, length, sep);
-        }
-        return result;
-    }
-
-    private static String concatStrings(String[][] converted, int index, int length, String sep) {
-        // pre compute the string length for the StringBuilder
-        int stringLength = -sep.length();
-        for (int j = 0; j < length; j++) {
-            String element = converted[j][index % converted[j].length];
-            stringLength += element.length() + sep.length();
+            maxLength = Math.max(maxLength, columnLength);
+            columns[i] = columnLength == 0 ? ONE_EMPTY_STRING : column;
         }
-        char[] chars = new char[stringLength];
-        int pos = 0;
-        for (int j = 0; j < length; j++) {
-            if (j != 0) {
-                sep.getChars(0, sep.length(), chars, pos);
-                pos += sep.length();
-            }
-            String element = converted[j][index % converted[j].length];
-            element.getChars(0, element.length(), chars, pos);
-            pos += element.length();
+        if (length == 1 && columns[0] instanceof String[]) {
+            return (String[]) columns[0];
+        } else {
+            return ColumnarPaste.paste(columns, sep, maxLength);
         }
-        assert pos == stringLength;
-        return new String(chars);
     }
 
     private static String collapseString(String[] value, String collapseString) {
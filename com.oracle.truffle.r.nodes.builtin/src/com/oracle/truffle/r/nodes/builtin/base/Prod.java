@@ -10,82 +10,136 @@
  */
 package com.oracle.truffle.r.nodes.builtin.base;
 
+import static com.oracle.truffle.r.nodes.builtin.CastBuilder.Predef.toBoolean;
 import static com.oracle.truffle.r.runtime.RDispatch.SUMMARY_GROUP_GENERIC;
 import static com.oracle.truffle.r.runtime.builtins.RBehavior.PURE;
 import static com.oracle.truffle.r.runtime.builtins.RBuiltinKind.PRIMITIVE;
 
 import com.oracle.truffle.api.CompilerDirectives;
+import com.oracle.truffle.api.dsl.Cached;
 import com.oracle.truffle.api.dsl.Specialization;
+import com.oracle.truffle.r.nodes.builtin.CastBuilder;
 import com.oracle.truffle.r.nodes.builtin.RBuiltinNode;
 import com.oracle.truffle.r.runtime.RRuntime;
 import com.oracle.truffle.r.runtime.builtins.RBuiltin;
 import com.oracle.truffle.r.runtime.data.RArgsValuesAndNames;
 import com.oracle.truffle.r.runtime.data.RComplex;
+import com.oracle.truffle.r.runtime.data.RDataFactory;
+import com.oracle.truffle.r.runtime.data.RDoubleVector;
+import com.oracle.truffle.r.runtime.data.RNull;
 import com.oracle.truffle.r.runtime.data.model.RAbstractComplexVector;
 import com.oracle.truffle.r.runtime.data.model.RAbstractDoubleVector;
 import com.oracle.truffle.r.runtime.data.model.RAbstractIntVector;
 import com.oracle.truffle.r.runtime.data.model.RAbstractLogicalVector;
 import com.oracle.truffle.r.runtime.ops.BinaryArithmetic;
+import com.oracle.truffle.r.runtime.ops.VectorReductions;
 
+/**
+ * As in GnuR, the product of no elements is {@code 1}, an {@code NA} integer or logical element
+ * makes the result {@code NA} and {@code na.rm} skips {@code NA} and {@code NaN} elements. Several
+ * arguments are combined first.
+ */
 @RBuiltin(name = "prod", kind = PRIMITIVE, parameterNames = {"...", "na.rm"}, dispatch = SUMMARY_GROUP_GENERIC, behavior = PURE)
 public abstract class Prod extends RBuiltinNode {
 
-    // TODO: handle multiple arguments, handle na.rm
-
     @Override
     public Object[] getDefaultParameterValues() {
         return new Object[]{RArgsValuesAndNames.EMPTY, RRuntime.LOGICAL_FALSE};
     }
 
+    @Override
+    protected void createCasts(CastBuilder casts) {
+        casts.arg("na.rm").allowNull().asLogicalVector().findFirst().map(toBoolean());
+    }
+
     @Child private Prod prodRecursive;
 
-    public abstract Object executeObject(Object x);
+    public abstract Object executeObject(Object x, boolean naRm);
 
     @Child private BinaryArithmetic prod = BinaryArithmetic.MULTIPLY.create();
 
-    @Specialization
-    protected Object prod(RArgsValuesAndNames args) {
+    private Object prodRecursive(Object x, boolean naRm) {
         if (prodRecursive == null) {
             CompilerDirectives.transferToInterpreterAndInvalidate();
             prodRecursive = insert(ProdNodeGen.create(null));
         }
-        // TODO: eventually handle multiple vectors properly
-        return prodRecursive.executeObject(args.getArgument(0));
+        return prodRecursive.executeObject(x, naRm);
+    }
+
+    @Specialization(guards = "args.getLength() == 1")
+    protected Object prodLengthOne(RArgsValuesAndNames args, boolean naRm) {
+        return prodRecursive(args.getArgument(0), naRm);
+    }
+
+    @Specialization(contains = "prodLengthOne")
+    protected Object prod(RArgsValuesAndNames args, boolean naRm, //
+                    @Cached("create()") Combine combine) {
+        return prodRecursive(combine.executeCombine(args), naRm);
+    }
+
+    @Specialization
+    protected double prod(@SuppressWarnings("unused") RNull x, @SuppressWarnings("unused") boolean naRm) {
+        return 1;
+    }
+
+    @Specialization
+    protected double prod(RDoubleVector x, boolean naRm) {
+        reportWork(x.getLength());
+        return VectorReductions.prod(x.getDataWithoutCopying(), 0, x.getLength(), naRm);
     }
 
     @Specialization
-    protected double prod(RAbstractDoubleVector x) {
-        double product = x.getDataAt(0);
-        for (int k = 1; k < x.getLength(); k++) {
-            product = prod.op(product, x.getDataAt(k));
+    protected double prod(RAbstractDoubleVector x, boolean naRm) {
+        double product = 1;
+        for (int k = 0; k < x.getLength(); k++) {
+            double a = x.getDataAt(k);
+            if (!naRm || !Double.isNaN(a)) {
+                product = prod.op(product, a);
+            }
         }
         return product;
     }
 
     @Specialization
-    protected double prod(RAbstractIntVector x) {
-        double product = x.getDataAt(0);
-        for (int k = 1; k < x.getLength(); k++) {
-            product = prod.op(product, x.getDataAt(k));
+    protected double prod(RAbstractIntVector x, boolean naRm) {
+        double product = 1;
+        for (int k = 0; k < x.getLength(); k++) {
+            int a = x.getDataAt(k);
+            if (RRuntime.isNA(a)) {
+                if (!naRm) {
+                    return RRuntime.DOUBLE_NA;
+                }
+            } else {
+                product = prod.op(product, a);
+            }
         }
         return product;
     }
 
     @Specialization
-    protected double prod(RAbstractLogicalVector x) {
-        double product = x.getDataAt(0);
-        for (int k = 1; k < x.getLength(); k++) {
-            product = prod.op(product, x.getDataAt(k));
+    protected double prod(RAbstractLogicalVector x, boolean naRm) {
+        double product = 1;
+        for (int k = 0; k < x.getLength(); k++) {
+            byte a = x.getDataAt(k);
+            if (RRuntime.isNA(a)) {
+                if (!naRm) {
+                    return RRuntime.DOUBLE_NA;
+                }
+            } else {
+                product = prod.op(product, a);
+            }
         }
         return product;
     }
 
     @Specialization
-    protected RComplex prod(RAbstractComplexVector x) {
-        RComplex product = x.getDataAt(0);
-        for (int k = 1; k < x.getLength(); k++) {
+    protected RComplex prod(RAbstractComplexVector x, boolean naRm) {
+        RComplex product = RDataFactory.createComplexRealOne();
+        for (int k = 0; k < x.getLength(); k++) {
             RComplex a = x.getDataAt(k);
-            product = prod.op(product.getRealPart(), product.getImaginaryPart(), a.getRealPart(), a.getImaginaryPart());
+            if (!naRm || !(Double.isNaN(a.getRealPart()) || Double.isNaN(a.getImaginaryPart()))) {
+                product = prod.op(product.getRealPart(), product.getImaginaryPart(), a.getRealPart(), a.getImaginaryPart());
+            }
         }
         return product;
     }
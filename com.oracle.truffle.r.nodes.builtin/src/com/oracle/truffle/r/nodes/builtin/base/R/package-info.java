@@ -26,6 +26,8 @@
  * the "base" package has been loaded.
  *
  * The convention is that the file has the same name as that in GnuR, but only contains the function
- * that FastR overrides. Currently all the overrides are related to bugs in FastR.
+ * that FastR overrides. Most overrides are related to bugs in FastR, {@code tapply_overrides.R}
+ * adds a fast path for common summary functions and {@code dataframe_fastpath_overrides.R} fast
+ * paths for {@code rbind} and {@code merge} on data frames.
  */
 package com.oracle.truffle.r.nodes.builtin.base.R;
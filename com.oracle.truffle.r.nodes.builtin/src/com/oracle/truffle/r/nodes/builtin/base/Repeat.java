@@ -47,6 +47,7 @@ import com.oracle.truffle.r.runtime.builtins.RBuiltin;
 import com.oracle.truffle.r.runtime.data.RAttributeProfiles;
 import com.oracle.truffle.r.runtime.data.RDataFactory;
 import com.oracle.truffle.r.runtime.data.RMissing;
+import com.oracle.truffle.r.runtime.data.RRepeatedVector;
 import com.oracle.truffle.r.runtime.data.RStringVector;
 import com.oracle.truffle.r.runtime.data.RTypedValue;
 import com.oracle.truffle.r.runtime.data.RVector;
@@ -73,6 +74,8 @@ import com.oracle.truffle.r.runtime.data.model.RAbstractVector;
  * issued.
  * </ul>
  * </ol>
+ * Long results of replicating integer or double vectors without attributes are returned as an
+ * {@link RRepeatedVector}, unless {@code times} is a vector.
  */
 @RBuiltin(name = "rep", kind = PRIMITIVE, parameterNames = {"x", "times", "length.out", "each"}, dispatch = INTERNAL_GENERIC, behavior = PURE)
 public abstract class Repeat extends RBuiltinNode {
@@ -83,6 +86,7 @@ public abstract class Repeat extends RBuiltinNode {
     private final BranchProfile errorBranch = BranchProfile.create();
     private final ConditionProfile oneTimeGiven = ConditionProfile.createBinaryProfile();
     private final ConditionProfile replicateOnce = ConditionProfile.createBinaryProfile();
+    private final ConditionProfile repeatedProfile = ConditionProfile.createBinaryProfile();
     private final RAttributeProfiles attrProfiles = RAttributeProfiles.create();
 
     @Override
@@ -121,6 +125,9 @@ public abstract class Repeat extends RBuiltinNode {
             throw invalidTimes();
         }
         int length = lengthOutOrTimes.profile(!RRuntime.isNA(lengthOut)) ? lengthOut : t;
+        if (repeatedProfile.profile(RRepeatedVector.isRepeatable(x, length))) {
+            return RDataFactory.createRepeatedDoubleVector(x, 1, length);
+        }
         double[] data = new double[length];
         Arrays.fill(data, x.getDataAt(0));
         return RDataFactory.createDoubleVector(data, !RRuntime.isNA(x.getDataAt(0)));
@@ -132,6 +139,10 @@ public abstract class Repeat extends RBuiltinNode {
             errorBranch.enter();
             throw invalidTimes();
         }
+        RAbstractVector repeated = repeatCompact(x, times, lengthOut, each);
+        if (repeated != null) {
+            return repeated;
+        }
         RAbstractVector input = handleEach(x, each);
         if (lengthOutOrTimes.profile(!RRuntime.isNA(lengthOut))) {
             return handleLengthOut(input, lengthOut, false);
@@ -142,6 +153,11 @@ public abstract class Repeat extends RBuiltinNode {
 
     @Specialization(guards = {"each <= 1", "!hasNames(x)"})
     protected RAbstractVector repNoEachNoNames(RAbstractVector x, RAbstractIntVector times, int lengthOut, @SuppressWarnings("unused") int each) {
+        // each = 0 is treated like each = 1
+        RAbstractVector repeated = repeatCompact(x, times, lengthOut, 1);
+        if (repeated != null) {
+            return repeated;
+        }
         if (lengthOutOrTimes.profile(!RRuntime.isNA(lengthOut))) {
             return handleLengthOut(x, lengthOut, true);
         } else {
@@ -190,6 +206,25 @@ public abstract class Repeat extends RBuiltinNode {
         return r;
     }
 
+    /**
+     * Returns an {@link RRepeatedVector} if the result is long enough to be kept compact, otherwise
+     * {@code null}. Invalid {@code times} values are left to the regular code path to report.
+     */
+    private RAbstractVector repeatCompact(RAbstractVector x, RAbstractIntVector times, int lengthOut, int each) {
+        long length;
+        if (!RRuntime.isNA(lengthOut)) {
+            length = lengthOut;
+        } else if (times.getLength() == 1 && times.getDataAt(0) >= 0) {
+            length = (long) x.getLength() * each * times.getDataAt(0);
+        } else {
+            return null;
+        }
+        if (repeatedProfile.profile(RRepeatedVector.isRepeatable(x, length))) {
+            return RDataFactory.createRepeatedVector(x, each, (int) length);
+        }
+        return null;
+    }
+
     /**
      * Prepare the input vector by replicating its elements.
      */
@@ -42,6 +42,7 @@ import com.oracle.truffle.r.runtime.data.RIntVector;
 import com.oracle.truffle.r.runtime.data.RList;
 import com.oracle.truffle.r.runtime.data.RLogicalVector;
 import com.oracle.truffle.r.runtime.data.RRawVector;
+import com.oracle.truffle.r.runtime.data.RRepeatedVector;
 import com.oracle.truffle.r.runtime.data.RStringVector;
 import com.oracle.truffle.r.runtime.data.RTypedValue;
 import com.oracle.truffle.r.runtime.data.model.RAbstractDoubleVector;
@@ -123,6 +124,15 @@ public abstract class RepeatInternal extends RBuiltinNode {
         return createResult.create(result, value.isComplete());
     }
 
+    protected static boolean isRepeatable(RAbstractVector value, RAbstractIntVector times) {
+        return times.getLength() == 1 && times.getDataAt(0) >= 0 && RRepeatedVector.isRepeatable(value, (long) value.getLength() * times.getDataAt(0));
+    }
+
+    @Specialization(guards = "isRepeatable(value, times)")
+    protected RRepeatedVector repIntRepeated(RAbstractVector value, RAbstractIntVector times) {
+        return RDataFactory.createRepeatedVector(value, 1, value.getLength() * times.getDataAt(0));
+    }
+
     @Specialization
     protected RDoubleVector repInt(RAbstractDoubleVector value, RAbstractIntVector times) {
         return repInt(value, times, double[]::new, (array, pos, val, index) -> array[pos] = val.getDataAt(index), RDataFactory::createDoubleVector);
@@ -30,14 +30,17 @@ import com.oracle.truffle.r.runtime.data.RComplex;
 import com.oracle.truffle.r.runtime.data.RComplexVector;
 import com.oracle.truffle.r.runtime.data.RDataFactory;
 import com.oracle.truffle.r.runtime.data.RDoubleVector;
+import com.oracle.truffle.r.runtime.data.RIntSequence;
 import com.oracle.truffle.r.runtime.data.RIntVector;
 import com.oracle.truffle.r.runtime.data.RList;
 import com.oracle.truffle.r.runtime.data.RLogicalVector;
 import com.oracle.truffle.r.runtime.data.RNull;
 import com.oracle.truffle.r.runtime.data.RRaw;
 import com.oracle.truffle.r.runtime.data.RRawVector;
+import com.oracle.truffle.r.runtime.data.RRepeatedVector;
 import com.oracle.truffle.r.runtime.data.RStringVector;
 import com.oracle.truffle.r.runtime.data.model.RAbstractIntVector;
+import com.oracle.truffle.r.runtime.data.model.RAbstractVector;
 
 @RBuiltin(name = "rep_len", kind = INTERNAL, parameterNames = {"x", "length.out"}, behavior = PURE)
 public abstract class RepeatLength extends RBuiltinNode {
@@ -107,6 +110,22 @@ public abstract class RepeatLength extends RBuiltinNode {
     //
     // Specialization for vector values
     //
+    @Specialization(guards = "length <= value.getLength()")
+    protected RIntSequence repLen(RIntSequence value, int length) {
+        // a prefix of a sequence is a sequence
+        return RDataFactory.createIntSequence(value.getStart(), value.getStride(), length);
+    }
+
+    protected static boolean isRepeatable(RAbstractVector value, int length) {
+        return RRepeatedVector.isRepeatable(value, length);
+    }
+
+    @Specialization(guards = "isRepeatable(value, length)")
+    protected RRepeatedVector repLenRepeated(RAbstractVector value, int length) {
+        // a long result is a view that recycles the value
+        return RDataFactory.createRepeatedVector(value, 1, length);
+    }
+
     @Specialization
     protected RIntVector repLen(RAbstractIntVector value, int length) {
         int[] array = new int[length];
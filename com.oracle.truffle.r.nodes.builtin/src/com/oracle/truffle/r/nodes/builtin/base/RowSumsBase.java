@@ -29,6 +29,7 @@ import com.oracle.truffle.r.runtime.data.RDataFactory;
 import com.oracle.truffle.r.runtime.data.RDoubleVector;
 import com.oracle.truffle.r.runtime.data.model.RAbstractVector;
 import com.oracle.truffle.r.runtime.ops.BinaryArithmetic;
+import com.oracle.truffle.r.runtime.ops.VectorReductions;
 import com.oracle.truffle.r.runtime.ops.na.NACheck;
 
 /**
@@ -38,13 +39,15 @@ public abstract class RowSumsBase extends ColSumsBase {
 
     /*
      * this builtin unrolls the innermost loop (calculating multiple sums at once) to optimize cache
-     * behavior.
+     * behavior. Double vectors without NA values are handled by VectorReductions.rowSums, which
+     * walks the matrix in memory order for blocks of rows.
      */
     private static final int UNROLL = 8;
 
     @Child private BinaryArithmetic add = BinaryArithmetic.ADD.create();
 
     private final ConditionProfile remainderProfile = ConditionProfile.createBinaryProfile();
+    private final ConditionProfile blockedProfile = ConditionProfile.createBinaryProfile();
     private final LoopConditionProfile outerProfile = LoopConditionProfile.createCountingProfile();
     private final LoopConditionProfile innerProfile = LoopConditionProfile.createCountingProfile();
 
@@ -60,8 +63,15 @@ public abstract class RowSumsBase extends ColSumsBase {
 
     protected final <T extends RAbstractVector> RDoubleVector accumulateRows(T x, int rowNum, int colNum, boolean naRm, FinalTransform finalTransform, RowSumsBase.GetFunction<T> get) {
         reportWork(x.getLength());
-        double[] result = new double[rowNum];
         na.enable(x);
+        if (blockedProfile.profile(!na.isEnabled() && x instanceof RDoubleVector)) {
+            double[] result = VectorReductions.rowSums(((RDoubleVector) x).getDataWithoutCopying(), rowNum, colNum);
+            for (int i = 0; i < rowNum; i++) {
+                result[i] = finalTransform.get(result[i], colNum);
+            }
+            return RDataFactory.createDoubleVector(result, RDataFactory.COMPLETE_VECTOR);
+        }
+        double[] result = new double[rowNum];
         outerProfile.profileCounted(rowNum / 4);
         innerProfile.profileCounted(colNum);
         int i = 0;
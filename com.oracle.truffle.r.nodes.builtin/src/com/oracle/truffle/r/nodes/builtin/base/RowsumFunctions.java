@@ -38,6 +38,7 @@ import com.oracle.truffle.r.runtime.data.model.RAbstractDoubleVector;
 import com.oracle.truffle.r.runtime.data.model.RAbstractIntVector;
 import com.oracle.truffle.r.runtime.data.model.RAbstractStringVector;
 import com.oracle.truffle.r.runtime.data.model.RAbstractVector;
+import com.oracle.truffle.r.runtime.ops.GroupBy;
 import com.oracle.truffle.r.runtime.ops.na.NACheck;
 
 // Translated from main/unique.c
@@ -70,16 +71,7 @@ public class RowsumFunctions {
             int p = xv.isMatrix() ? xv.getDimensions()[1] : 1;
             int n = g.getLength();
             int ng = uniqueg.getLength();
-            HashMap<Object, Integer> table = new HashMap<>();
-            for (int i = 0; i < ng; i++) {
-                // uniqueg has no duplicates (by definition)
-                table.put(uniqueg.getDataAtAsObject(i), i);
-            }
-            int[] matches = new int[n];
-            for (int i = 0; i < n; i++) {
-                Integer hi = table.get(g.getDataAtAsObject(i));
-                matches[i] = xv == null ? 0 : hi + 1;
-            }
+            int[] matches = match(g, uniqueg);
             int offset = 0;
             int offsetg = 0;
 
@@ -143,5 +135,31 @@ public class RowsumFunctions {
             result.setDimNames(dimNames);
             return result;
         }
+
+        /**
+         * Returns the 1-based position of each element of {@code g} in {@code uniqueg}.
+         */
+        private static int[] match(RAbstractVector g, RAbstractVector uniqueg) {
+            int n = g.getLength();
+            int[] matches = new int[n];
+            GroupBy.Keys table = GroupBy.Keys.create(uniqueg);
+            GroupBy.Keys probe = GroupBy.Keys.create(g);
+            if (table != null && probe != null && table.isCompatible(probe)) {
+                int[] positions = GroupBy.match(table, probe);
+                for (int i = 0; i < n; i++) {
+                    matches[i] = positions[i] + 1;
+                }
+            } else {
+                HashMap<Object, Integer> hashTable = new HashMap<>();
+                for (int i = 0; i < uniqueg.getLength(); i++) {
+                    // uniqueg has no duplicates (by definition)
+                    hashTable.put(uniqueg.getDataAtAsObject(i), i);
+                }
+                for (int i = 0; i < n; i++) {
+                    matches[i] = hashTable.get(g.getDataAtAsObject(i)) + 1;
+                }
+            }
+            return matches;
+        }
     }
 }
@@ -37,7 +37,8 @@ import com.oracle.truffle.r.runtime.builtins.RBuiltin;
 import com.oracle.truffle.r.runtime.context.RContext;
 import com.oracle.truffle.r.runtime.data.RAttributable;
 import com.oracle.truffle.r.runtime.data.RNull;
-import com.oracle.truffle.r.runtime.data.RSequence;
+import com.oracle.truffle.r.runtime.data.RVector;
+import com.oracle.truffle.r.runtime.data.model.RAbstractVector;
 
 @RBuiltin(name = "setS4Object", kind = INTERNAL, parameterNames = {"object", "flag", "complete"}, behavior = PURE)
 public abstract class SetS4Object extends RBuiltinNode {
@@ -67,17 +68,20 @@ public abstract class SetS4Object extends RBuiltinNode {
         return object;
     }
 
-    @Specialization(guards = "!isSequence(object)")
+    @Specialization(guards = "!isCompactVector(object)")
     protected Object asS4(RAttributable object, boolean flag, int complete) {
         return asS4.executeObject(object, flag, complete);
     }
 
-    @Specialization
-    protected Object asS4(RSequence seq, boolean flag, int complete) {
-        return asS4(seq.materialize(), flag, complete);
+    @Specialization(guards = "isCompactVector(vector)")
+    protected Object asS4(RAbstractVector vector, boolean flag, int complete) {
+        return asS4.executeObject(vector.materialize(), flag, complete);
     }
 
-    protected boolean isSequence(Object o) {
-        return o instanceof RSequence;
+    /**
+     * Sequences, repeated and off-heap vectors cannot have attributes or the S4 bit.
+     */
+    protected boolean isCompactVector(Object o) {
+        return o instanceof RAbstractVector && !(o instanceof RVector);
     }
 }
@@ -25,8 +25,6 @@ package com.oracle.truffle.r.nodes.builtin.base;
 import static com.oracle.truffle.r.runtime.builtins.RBehavior.PURE;
 import static com.oracle.truffle.r.runtime.builtins.RBuiltinKind.INTERNAL;
 
-import java.util.Arrays;
-
 import com.oracle.truffle.api.dsl.Specialization;
 import com.oracle.truffle.api.profiles.ConditionProfile;
 import com.oracle.truffle.r.nodes.builtin.RBuiltinNode;
@@ -35,6 +33,7 @@ import com.oracle.truffle.r.runtime.Utils;
 import com.oracle.truffle.r.runtime.builtins.RBuiltin;
 import com.oracle.truffle.r.runtime.data.*;
 import com.oracle.truffle.r.runtime.data.model.*;
+import com.oracle.truffle.r.runtime.ops.GroupBy;
 
 /**
  * The {@code split} internal. Internal version of 'split' is invoked from 'split.default' function
@@ -50,9 +49,6 @@ public abstract class Split extends RBuiltinNode {
 
     @SuppressWarnings("unused") private final ConditionProfile noStringLevels = ConditionProfile.createBinaryProfile();
 
-    private static final int INITIAL_SIZE = 5;
-    private static final int SCALE_FACTOR = 2;
-
     public static class SplitTemplate {
         @SuppressWarnings("unused") private int[] collectResultsSize;
         @SuppressWarnings("unused") private int nLevels;
@@ -64,28 +60,27 @@ public abstract class Split extends RBuiltinNode {
         RStringVector names = getLevelNode.execute(f);
         final int nLevels = getNLevels(names);
 
-        // initialise result arrays
+        // initialise result arrays with the exact number of elements of each level
+        int[] sizes = GroupBy.counts(factor, x.getLength(), nLevels);
         int[][] collectResults = new int[nLevels][];
         int[] collectResultSize = new int[nLevels];
         for (int i = 0; i < collectResults.length; i++) {
-            collectResults[i] = new int[INITIAL_SIZE];
+            collectResults[i] = new int[sizes[i]];
         }
 
         // perform split
         for (int i = 0, fi = 0; i < x.getLength(); ++i, fi = Utils.incMod(fi, factor.length)) {
             int resultIndex = factor[fi] - 1; // a factor is a 1-based int vector
-            int[] collect = collectResults[resultIndex];
-            if (collect.length == collectResultSize[resultIndex]) {
-                collectResults[resultIndex] = Arrays.copyOf(collect, collect.length * SCALE_FACTOR);
-                collect = collectResults[resultIndex];
+            if (resultIndex >= 0 && resultIndex < nLevels) {
+                // NA does not belong to any level
+                collectResults[resultIndex][collectResultSize[resultIndex]++] = x.getDataAt(i);
             }
-            collect[collectResultSize[resultIndex]++] = x.getDataAt(i);
         }
 
         // assemble result vectors and level names
         Object[] results = new Object[nLevels];
         for (int i = 0; i < nLevels; i++) {
-            results[i] = RDataFactory.createIntVector(Arrays.copyOfRange(collectResults[i], 0, collectResultSize[i]), x.isComplete());
+            results[i] = RDataFactory.createIntVector(collectResults[i], x.isComplete());
         }
 
         return RDataFactory.createList(results, names);
@@ -97,28 +92,27 @@ public abstract class Split extends RBuiltinNode {
         RStringVector names = getLevelNode.execute(f);
         final int nLevels = getNLevels(names);
 
-        // initialise result arrays
+        // initialise result arrays with the exact number of elements of each level
+        int[] sizes = GroupBy.counts(factor, x.getLength(), nLevels);
         double[][] collectResults = new double[nLevels][];
         int[] collectResultSize = new int[nLevels];
         for (int i = 0; i < collectResults.length; i++) {
-            collectResults[i] = new double[INITIAL_SIZE];
+            collectResults[i] = new double[sizes[i]];
         }
 
         // perform split
         for (int i = 0, fi = 0; i < x.getLength(); ++i, fi = Utils.incMod(fi, factor.length)) {
             int resultIndex = factor[fi] - 1; // a factor is a 1-based int vector
-            double[] collect = collectResults[resultIndex];
-            if (collect.length == collectResultSize[resultIndex]) {
-                collectResults[resultIndex] = Arrays.copyOf(collect, collect.length * SCALE_FACTOR);
-                collect = collectResults[resultIndex];
+            if (resultIndex >= 0 && resultIndex < nLevels) {
+                // NA does not belong to any level
+                collectResults[resultIndex][collectResultSize[resultIndex]++] = x.getDataAt(i);
             }
-            collect[collectResultSize[resultIndex]++] = x.getDataAt(i);
         }
 
         // assemble result vectors and level names
         Object[] results = new Object[nLevels];
         for (int i = 0; i < nLevels; i++) {
-            results[i] = RDataFactory.createDoubleVector(Arrays.copyOfRange(collectResults[i], 0, collectResultSize[i]), RDataFactory.COMPLETE_VECTOR);
+            results[i] = RDataFactory.createDoubleVector(collectResults[i], RDataFactory.COMPLETE_VECTOR);
         }
 
         return RDataFactory.createList(results, names);
@@ -130,28 +124,27 @@ public abstract class Split extends RBuiltinNode {
         RStringVector names = getLevelNode.execute(f);
         final int nLevels = getNLevels(names);
 
-        // initialise result arrays
+        // initialise result arrays with the exact number of elements of each level
+        int[] sizes = GroupBy.counts(factor, x.getLength(), nLevels);
         String[][] collectResults = new String[nLevels][];
         int[] collectResultSize = new int[nLevels];
         for (int i = 0; i < collectResults.length; i++) {
-            collectResults[i] = new String[INITIAL_SIZE];
+            collectResults[i] = new String[sizes[i]];
         }
 
         // perform split
         for (int i = 0, fi = 0; i < x.getLength(); ++i, fi = Utils.incMod(fi, factor.length)) {
             int resultIndex = factor[fi] - 1; // a factor is a 1-based int vector
-            String[] collect = collectResults[resultIndex];
-            if (collect.length == collectResultSize[resultIndex]) {
-                collectResults[resultIndex] = Arrays.copyOf(collect, collect.length * SCALE_FACTOR);
-                collect = collectResults[resultIndex];
+            if (resultIndex >= 0 && resultIndex < nLevels) {
+                // NA does not belong to any level
+                collectResults[resultIndex][collectResultSize[resultIndex]++] = x.getDataAt(i);
             }
-            collect[collectResultSize[resultIndex]++] = x.getDataAt(i);
         }
 
         // assemble result vectors and level names
         Object[] results = new Object[nLevels];
         for (int i = 0; i < nLevels; i++) {
-            results[i] = RDataFactory.createStringVector(Arrays.copyOfRange(collectResults[i], 0, collectResultSize[i]), RDataFactory.COMPLETE_VECTOR);
+            results[i] = RDataFactory.createStringVector(collectResults[i], RDataFactory.COMPLETE_VECTOR);
         }
 
         return RDataFactory.createList(results, names);
@@ -163,28 +156,27 @@ public abstract class Split extends RBuiltinNode {
         RStringVector names = getLevelNode.execute(f);
         final int nLevels = getNLevels(names);
 
-        // initialise result arrays
+        // initialise result arrays with the exact number of elements of each level
+        int[] sizes = GroupBy.counts(factor, x.getLength(), nLevels);
         byte[][] collectResults = new byte[nLevels][];
         int[] collectResultSize = new int[nLevels];
         for (int i = 0; i < collectResults.length; i++) {
-            collectResults[i] = new byte[INITIAL_SIZE];
+            collectResults[i] = new byte[sizes[i]];
         }
 
         // perform split
         for (int i = 0, fi = 0; i < x.getLength(); ++i, fi = Utils.incMod(fi, factor.length)) {
             int resultIndex = factor[fi] - 1; // a factor is a 1-based int vector
-            byte[] collect = collectResults[resultIndex];
-            if (collect.length == collectResultSize[resultIndex]) {
-                collectResults[resultIndex] = Arrays.copyOf(collect, collect.length * SCALE_FACTOR);
-                collect = collectResults[resultIndex];
+            if (resultIndex >= 0 && resultIndex < nLevels) {
+                // NA does not belong to any level
+                collectResults[resultIndex][collectResultSize[resultIndex]++] = x.getDataAt(i);
             }
-            collect[collectResultSize[resultIndex]++] = x.getDataAt(i);
         }
 
         // assemble result vectors and level names
         Object[] results = new Object[nLevels];
         for (int i = 0; i < nLevels; i++) {
-            results[i] = RDataFactory.createLogicalVector(Arrays.copyOfRange(collectResults[i], 0, collectResultSize[i]), x.isComplete());
+            results[i] = RDataFactory.createLogicalVector(collectResults[i], x.isComplete());
         }
 
         return RDataFactory.createList(results, names);
@@ -25,6 +25,7 @@ package com.oracle.truffle.r.nodes.builtin.base;
 import static com.oracle.truffle.r.runtime.builtins.RBehavior.PURE;
 import static com.oracle.truffle.r.runtime.builtins.RBuiltinKind.INTERNAL;
 
+import java.util.ArrayList;
 import java.util.Locale;
 
 import com.oracle.truffle.api.CompilerDirectives;
@@ -98,7 +99,7 @@ public abstract class Sprintf extends RBuiltinNode {
     @Specialization
     @TruffleBoundary
     protected String sprintf(String fmt, double x) {
-        char f = Character.toLowerCase(firstFormatChar(fmt));
+        char f = Character.toLowerCase(getPlan(fmt).firstConversion);
         if (f == 'x' || f == 'd') {
             if (Math.floor(x) == x) {
                 return format(fmt, (long) x);
@@ -264,32 +265,111 @@ public abstract class Sprintf extends RBuiltinNode {
         }
     }
 
-    private static String format(String fmt, Object... args) {
+    /**
+     * The plan of the last format string used by this node. Formats are usually constants, so
+     * the format is parsed only once per call site instead of once per element.
+     */
+    private FormatPlan cachedPlan;
+
+    private FormatPlan getPlan(String fmt) {
+        FormatPlan plan = cachedPlan;
+        if (plan == null || !plan.fmt.equals(fmt)) {
+            plan = new FormatPlan(fmt);
+            cachedPlan = plan;
+        }
+        return plan;
+    }
+
+    private String format(String fmt, Object... args) {
+        FormatPlan plan = getPlan(fmt);
         char[] conversions = new char[args.length];
-        String format = processFormat(fmt, args, conversions);
+        for (FormatInfo fi : plan.specs) {
+            conversions[fi.numArg - 1] = fi.conversion;
+        }
         adjustValues(args, conversions);
-        return stringFormat(format, args);
+        if (plan.direct) {
+            String result = plan.formatDirect(args);
+            if (result != null) {
+                return result;
+            }
+        }
+        return stringFormat(plan.javaFormat != null ? plan.javaFormat : plan.javaFormat(args), args);
     }
 
-    private static String processFormat(String fmt, Object[] args, char[] conversions) {
-        int i = 0;
-        char[] cs = fmt.toCharArray();
-        StringBuilder sb = new StringBuilder();
-        int argc = 1;
-
-        while (i < cs.length) {
-            // skip up to and including next %
-            while (i < cs.length && cs[i] != '%') {
-                sb.append(cs[i++]);
+    /**
+     * A parsed format string: the literal text between the conversions, the conversions (see
+     * {@link #extractFormatInfo}), and the equivalent {@link String#format} format unless it
+     * depends on the arguments (i.e. for {@code *} widths and precisions). The plain {@code %s} and
+     * {@code %d} conversions, optionally with a width and the {@code -} or {@code 0} flag, are
+     * formatted without going through {@link String#format}.
+     */
+    private static final class FormatPlan {
+        private final String fmt;
+        private final String[] literals;
+        private final FormatInfo[] specs;
+        private final char firstConversion;
+        private final String javaFormat;
+        private final boolean direct;
+
+        FormatPlan(String fmt) {
+            this.fmt = fmt;
+            char[] cs = fmt.toCharArray();
+            ArrayList<String> literalList = new ArrayList<>();
+            ArrayList<FormatInfo> specList = new ArrayList<>();
+            StringBuilder literal = new StringBuilder();
+            int i = 0;
+            int argc = 1;
+            while (i < cs.length) {
+                // skip up to and including next %
+                while (i < cs.length && cs[i] != '%') {
+                    literal.append(cs[i++]);
+                }
+                if (i == cs.length) {
+                    break;
+                }
+                i++;
+                FormatInfo fi = extractFormatInfo(cs, i, argc);
+                argc = fi.argc;
+                if (fi.conversion == '%') {
+                    literal.append('%');
+                } else {
+                    literalList.add(literal.toString());
+                    literal.setLength(0);
+                    specList.add(fi);
+                }
+                i = fi.nextChar;
+            }
+            literalList.add(literal.toString());
+            this.literals = literalList.toArray(new String[literalList.size()]);
+            this.specs = specList.toArray(new FormatInfo[specList.size()]);
+            this.firstConversion = firstFormatChar(fmt);
+            boolean dynamic = false;
+            boolean isDirect = true;
+            for (FormatInfo fi : specs) {
+                dynamic |= fi.widthIsArg || fi.precisionIsArg;
+                isDirect &= isDirect(fi);
             }
-            if (i == cs.length) {
-                break;
+            this.javaFormat = dynamic ? null : javaFormat(null);
+            this.direct = isDirect;
+        }
+
+        private static boolean isDirect(FormatInfo fi) {
+            if (fi.alwaysSign || fi.spacePrefix || fi.alternate || fi.widthIsArg || fi.precisionIsArg || fi.precision != 0 || (fi.adjustLeft && fi.padZero)) {
+                return false;
             }
-            sb.append(cs[i++]);
+            return fi.conversion == 'd' || (fi.conversion == 's' && !fi.padZero);
+        }
 
-            FormatInfo fi = extractFormatInfo(cs, i, argc);
-            argc = fi.argc;
-            if (fi.conversion != '%') {
+        /**
+         * Creates the {@link String#format} format, {@code args} provides the widths and
+         * precisions given by arguments.
+         */
+        String javaFormat(Object[] args) {
+            StringBuilder sb = new StringBuilder();
+            for (int k = 0; k < specs.length; k++) {
+                appendEscaped(sb, literals[k]);
+                FormatInfo fi = specs[k];
+                sb.append('%');
                 // take care of width/precision being defined by args
                 int w = 0;
                 int p = 0;
@@ -324,13 +404,69 @@ public abstract class Sprintf extends RBuiltinNode {
                 if (fi.precision != 0 || fi.precisionIsArg) {
                     sb.append('.').append(intString(p));
                 }
-                conversions[fi.numArg - 1] = fi.conversion;
+                sb.append(fi.conversion);
             }
-            sb.append(fi.conversion);
-            i = fi.nextChar;
+            appendEscaped(sb, literals[specs.length]);
+            return sb.toString();
         }
 
-        return sb.toString();
+        private static void appendEscaped(StringBuilder sb, String literal) {
+            for (int i = 0; i < literal.length(); i++) {
+                char c = literal.charAt(i);
+                sb.append(c);
+                if (c == '%') {
+                    sb.append('%');
+                }
+            }
+        }
+
+        /**
+         * Formats {@code args} without {@link String#format}, returns {@code null} if one of the
+         * arguments has a type (or value) that is not handled here.
+         */
+        @TruffleBoundary
+        String formatDirect(Object[] args) {
+            StringBuilder sb = new StringBuilder(fmt.length() + 8 * specs.length);
+            for (int k = 0; k < specs.length; k++) {
+                sb.append(literals[k]);
+                FormatInfo fi = specs[k];
+                Object arg = args[fi.numArg - 1];
+                String value;
+                if (fi.conversion == 's' && arg instanceof String) {
+                    value = (String) arg;
+                } else if (fi.conversion == 'd' && arg instanceof Integer && !RRuntime.isNA((Integer) arg)) {
+                    value = Integer.toString((Integer) arg);
+                } else {
+                    return null;
+                }
+                int padding = fi.width - value.length();
+                if (padding <= 0) {
+                    sb.append(value);
+                } else if (fi.adjustLeft) {
+                    sb.append(value);
+                    appendRepeated(sb, ' ', padding);
+                } else if (fi.padZero) {
+                    int digits = 0;
+                    if (value.charAt(0) == '-') {
+                        sb.append('-');
+                        digits = 1;
+                    }
+                    appendRepeated(sb, '0', padding);
+                    sb.append(value, digits, value.length());
+                } else {
+                    appendRepeated(sb, ' ', padding);
+                    sb.append(value);
+                }
+            }
+            sb.append(literals[specs.length]);
+            return sb.toString();
+        }
+
+        private static void appendRepeated(StringBuilder sb, char c, int count) {
+            for (int i = 0; i < count; i++) {
+                sb.append(c);
+            }
+        }
     }
 
     private static int intValue(Object o) {
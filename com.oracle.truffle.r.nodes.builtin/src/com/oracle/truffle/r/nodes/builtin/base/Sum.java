@@ -30,10 +30,8 @@ import static com.oracle.truffle.r.runtime.builtins.RBuiltinKind.PRIMITIVE;
 import com.oracle.truffle.api.dsl.Cached;
 import com.oracle.truffle.api.dsl.Specialization;
 import com.oracle.truffle.api.profiles.ConditionProfile;
-import com.oracle.truffle.api.profiles.LoopConditionProfile;
 import com.oracle.truffle.r.nodes.builtin.CastBuilder;
 import com.oracle.truffle.r.nodes.builtin.RBuiltinNode;
-import com.oracle.truffle.r.nodes.profile.VectorLengthProfile;
 import com.oracle.truffle.r.nodes.unary.UnaryArithmeticReduceNode;
 import com.oracle.truffle.r.nodes.unary.UnaryArithmeticReduceNode.ReduceSemantics;
 import com.oracle.truffle.r.nodes.unary.UnaryArithmeticReduceNodeGen;
@@ -44,10 +42,16 @@ import com.oracle.truffle.r.runtime.data.RArgsValuesAndNames;
 import com.oracle.truffle.r.runtime.data.RDoubleVector;
 import com.oracle.truffle.r.runtime.ffi.RFFIFactory;
 import com.oracle.truffle.r.runtime.ops.BinaryArithmetic;
-import com.oracle.truffle.r.runtime.ops.na.NACheck;
+import com.oracle.truffle.r.runtime.ops.VectorReductions;
+import com.oracle.truffle.r.runtime.ops.VectorReductions.SumPrecision;
 
 /**
- * Sum has combine semantics (TBD: exactly?) and uses a reduce operation on the resulting array.
+ * Sum has combine semantics (TBD: exactly?) and uses a reduce operation on the resulting array. A
+ * single double vector is summed directly by {@link VectorReductions} with four independent partial
+ * sums, which can round differently in the last bits than GnuR's long double accumulator. If
+ * {@link FastROptions#FullPrecisionSum} is set, it is summed by the native extended precision
+ * {@code exactSum} instead, as GnuR does. The precision can also be selected per call with
+ * {@code .fastr.sum}.
  */
 @RBuiltin(name = "sum", kind = PRIMITIVE, parameterNames = {"...", "na.rm"}, dispatch = SUMMARY_GROUP_GENERIC, behavior = PURE)
 public abstract class Sum extends RBuiltinNode {
@@ -72,34 +76,15 @@ public abstract class Sum extends RBuiltinNode {
         return value instanceof RDoubleVector;
     }
 
-    @Specialization(guards = {"FULL_PRECISION", "args.getLength() == 1", "isRDoubleVector(args.getArgument(0))", "naRm == cachedNaRm"})
-    protected double sumLengthOneRDoubleVector(RArgsValuesAndNames args, @SuppressWarnings("unused") boolean naRm,
-                    @Cached("naRm") boolean cachedNaRm,
-                    @Cached("create()") VectorLengthProfile lengthProfile,
-                    @Cached("createCountingProfile()") LoopConditionProfile loopProfile,
-                    @Cached("create()") NACheck na,
-                    @Cached("createBinaryProfile()") ConditionProfile needsExactSumProfile) {
+    @Specialization(guards = {"args.getLength() == 1", "isRDoubleVector(args.getArgument(0))"})
+    protected double sumLengthOneRDoubleVector(RArgsValuesAndNames args, boolean naRm,
+                    @Cached("createBinaryProfile()") ConditionProfile naRmProfile) {
         RDoubleVector vector = (RDoubleVector) args.getArgument(0);
-        int length = lengthProfile.profile(vector.getLength());
-
-        if (needsExactSumProfile.profile(length >= 3)) {
-            return RFFIFactory.getRFFI().getMiscRFFI().exactSum(vector.getDataWithoutCopying(), !vector.isComplete(), cachedNaRm);
-        } else {
-            na.enable(vector);
-            loopProfile.profileCounted(length);
-            double sum = 0;
-            for (int i = 0; loopProfile.inject(i < length); i++) {
-                double value = vector.getDataAt(i);
-                if (na.check(value)) {
-                    if (!cachedNaRm) {
-                        return RRuntime.DOUBLE_NA;
-                    }
-                } else {
-                    sum += value;
-                }
-            }
-            return sum;
+        reportWork(vector.getLength());
+        if (FULL_PRECISION) {
+            return RFFIFactory.getRFFI().getMiscRFFI().exactSum(vector.getDataWithoutCopying(), !vector.isComplete(), naRm);
         }
+        return VectorReductions.sum(vector.getDataWithoutCopying(), 0, vector.getLength(), naRmProfile.profile(naRm), SumPrecision.DOUBLE);
     }
 
     @Specialization(contains = "sumLengthOneRDoubleVector", guards = "args.getLength() == 1")
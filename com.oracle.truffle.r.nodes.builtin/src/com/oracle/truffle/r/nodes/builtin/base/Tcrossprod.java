@@ -0,0 +1,158 @@
+/*
+ * Copyright (c) 2016, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.truffle.r.nodes.builtin.base;
+
+import static com.oracle.truffle.r.nodes.builtin.CastBuilder.Predef.*;
+import static com.oracle.truffle.r.runtime.builtins.RBehavior.PURE;
+import static com.oracle.truffle.r.runtime.builtins.RBuiltinKind.INTERNAL;
+
+import com.oracle.truffle.api.CompilerDirectives;
+import com.oracle.truffle.api.dsl.Specialization;
+import com.oracle.truffle.api.profiles.BranchProfile;
+import com.oracle.truffle.api.profiles.ConditionProfile;
+import com.oracle.truffle.r.nodes.builtin.CastBuilder;
+import com.oracle.truffle.r.nodes.builtin.RBuiltinNode;
+import com.oracle.truffle.r.runtime.RError;
+import com.oracle.truffle.r.runtime.builtins.RBuiltin;
+import com.oracle.truffle.r.runtime.data.RAttributeProfiles;
+import com.oracle.truffle.r.runtime.data.RDataFactory;
+import com.oracle.truffle.r.runtime.data.RDoubleVector;
+import com.oracle.truffle.r.runtime.data.RList;
+import com.oracle.truffle.r.runtime.data.RNull;
+import com.oracle.truffle.r.runtime.data.model.RAbstractDoubleVector;
+import com.oracle.truffle.r.runtime.data.model.RAbstractVector;
+
+/**
+ * {@code tcrossprod(x, y)} computes {@code x %*% t(y)}. For doubles, the transposed {@code y} is
+ * never materialized, {@link MatMult} accesses it through the strides and accumulates the result
+ * column-wise, which keeps all memory accesses sequential.
+ */
+@RBuiltin(name = "tcrossprod", kind = INTERNAL, parameterNames = {"x", "y"}, behavior = PURE)
+public abstract class Tcrossprod extends RBuiltinNode {
+
+    @Child private MatMult matMult = MatMultNodeGen.create(/* promoteDimNames: */ false, null);
+    @Child private Transpose transpose;
+
+    private final BranchProfile errorProfile = BranchProfile.create();
+    private final RAttributeProfiles xDimNamesProfile = RAttributeProfiles.create();
+    private final RAttributeProfiles yDimNamesProfile = RAttributeProfiles.create();
+    private final ConditionProfile noDimNames = ConditionProfile.createBinaryProfile();
+
+    @Override
+    protected void createCasts(CastBuilder casts) {
+        casts.arg("x").mustBe(numericValue().or(complexValue()), RError.ROOTNODE, RError.Message.NUMERIC_COMPLEX_MATRIX_VECTOR);
+        casts.arg("y").defaultError(RError.ROOTNODE, RError.Message.NUMERIC_COMPLEX_MATRIX_VECTOR).allowNull().mustBe(numericValue().or(complexValue()));
+    }
+
+    private Object transpose(RAbstractVector value) {
+        if (transpose == null) {
+            CompilerDirectives.transferToInterpreterAndInvalidate();
+            transpose = insert(TransposeNodeGen.create(null));
+        }
+        return transpose.execute(value);
+    }
+
+    @Specialization
+    protected RDoubleVector tcrossprod(RAbstractDoubleVector x, RAbstractDoubleVector y) {
+        int xRows;
+        int xCols;
+        int yRows;
+        int yCols;
+        // same interpretation of vectors as in GnuR's do_matprod
+        if (x.isMatrix() && y.isMatrix()) {
+            xRows = x.getDimensions()[0];
+            xCols = x.getDimensions()[1];
+            yRows = y.getDimensions()[0];
+            yCols = y.getDimensions()[1];
+        } else if (x.isMatrix()) {
+            xRows = x.getDimensions()[0];
+            xCols = x.getDimensions()[1];
+            if (y.getLength() == xCols) {
+                yRows = 1;
+                yCols = xCols;
+            } else {
+                yRows = y.getLength();
+                yCols = 1;
+            }
+        } else if (y.isMatrix()) {
+            yRows = y.getDimensions()[0];
+            yCols = y.getDimensions()[1];
+            if (x.getLength() == yCols) {
+                xRows = 1;
+                xCols = yCols;
+            } else {
+                xRows = x.getLength();
+                xCols = 1;
+            }
+        } else {
+            xRows = x.getLength();
+            xCols = 1;
+            yRows = y.getLength();
+            yCols = 1;
+        }
+        if (xCols != yCols) {
+            errorProfile.enter();
+            throw RError.error(this, RError.Message.NON_CONFORMABLE_ARGS);
+        }
+        RDoubleVector result = matMult.doubleMatrixMultiply(x, y, xRows, xCols, yCols, yRows, 1, xRows, yRows, 1, false);
+        return setDimNames(result, x, y);
+    }
+
+    @Specialization
+    protected RDoubleVector tcrossprod(RAbstractDoubleVector x, @SuppressWarnings("unused") RNull y) {
+        int xRows = x.isMatrix() ? x.getDimensions()[0] : x.getLength();
+        int xCols = x.isMatrix() ? x.getDimensions()[1] : 1;
+        RDoubleVector result = Crossprod.mirror(matMult.doubleMatrixMultiply(x, x, xRows, xCols, xCols, xRows, 1, xRows, xRows, 1, true));
+        return setDimNames(result, x, x);
+    }
+
+    @Specialization
+    protected Object tcrossprod(RAbstractVector x, RAbstractVector y) {
+        return matMult.executeObject(x, transpose(y));
+    }
+
+    @Specialization
+    protected Object tcrossprod(RAbstractVector x, @SuppressWarnings("unused") RNull y) {
+        return matMult.executeObject(x, transpose(x));
+    }
+
+    /**
+     * The result gets the row names of {@code x} and {@code y} as its dimnames.
+     */
+    private RDoubleVector setDimNames(RDoubleVector result, RAbstractDoubleVector x, RAbstractDoubleVector y) {
+        RList xDimNames = x.isMatrix() ? x.getDimNames(xDimNamesProfile) : null;
+        RList yDimNames = y.isMatrix() ? y.getDimNames(yDimNamesProfile) : null;
+        if (noDimNames.profile(xDimNames == null && yDimNames == null)) {
+            return result;
+        }
+        Object[] newDimNames = new Object[]{RNull.instance, RNull.instance};
+        if (xDimNames != null && xDimNames.getLength() > 0) {
+            newDimNames[0] = xDimNames.getDataAt(0);
+        }
+        if (yDimNames != null && yDimNames.getLength() > 0) {
+            newDimNames[1] = yDimNames.getDataAt(0);
+        }
+        result.setDimNames(RDataFactory.createList(newDimNames));
+        return result;
+    }
+}
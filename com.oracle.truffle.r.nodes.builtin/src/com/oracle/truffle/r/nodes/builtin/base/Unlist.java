@@ -41,6 +41,10 @@ import com.oracle.truffle.r.runtime.data.RNull;
 import com.oracle.truffle.r.runtime.data.RRaw;
 import com.oracle.truffle.r.runtime.data.RStringVector;
 import com.oracle.truffle.r.runtime.data.RTypes;
+import com.oracle.truffle.r.runtime.data.model.RAbstractDoubleVector;
+import com.oracle.truffle.r.runtime.data.model.RAbstractIntVector;
+import com.oracle.truffle.r.runtime.data.model.RAbstractLogicalVector;
+import com.oracle.truffle.r.runtime.data.model.RAbstractStringVector;
 import com.oracle.truffle.r.runtime.data.model.RAbstractVector;
 
 @RBuiltin(name = "unlist", kind = INTERNAL, parameterNames = {"x", "recursive", "use.names"}, behavior = PURE)
@@ -170,8 +174,155 @@ public abstract class Unlist extends RBuiltinNode {
         // If the precedence is still NO_PRECEDENCE the result is RNull.instance
         if (precedence == PrecedenceNode.NO_PRECEDENCE) {
             return RNull.instance;
-        } else {
-            return unlistHelper(list, recursive, useNames, precedence, totalSize);
+        }
+        // names are only computed if there is a name anywhere, otherwise all names would be empty
+        boolean needsNames = useNames && hasNames(list, recursive);
+        if (!needsNames) {
+            RAbstractVector result = unlistAtomic(list, precedence, totalSize);
+            if (result != null) {
+                return result;
+            }
+        }
+        return unlistHelper(list, recursive, needsNames, precedence, totalSize);
+    }
+
+    /**
+     * Determines whether {@link #unlistHelper} would assign any names, which is only the case if
+     * the list or one of the vectors that are unlisted has names.
+     */
+    @TruffleBoundary
+    private boolean hasNames(RList list, boolean recursive) {
+        if (list.getNames(attrProfiles) != null) {
+            return true;
+        }
+        for (int i = 0; i < list.getLength(); i++) {
+            Object element = list.getDataAt(i);
+            if (element instanceof RAbstractVector) {
+                if (((RAbstractVector) element).getNames(attrProfiles) != null) {
+                    return true;
+                } else if (recursive && element instanceof RList && hasNames((RList) element, recursive)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Unlists a list of logical, integer, double or character vectors and scalars (e.g. the result
+     * of {@code lapply} with a function returning scalars) without names directly into the
+     * result array, i.e. without boxing each element. Returns {@code null} if there are elements
+     * that need to be converted differently, e.g. nested lists or numbers in a character result.
+     */
+    @TruffleBoundary
+    private static RAbstractVector unlistAtomic(RList list, int precedence, int totalSize) {
+        int length = list.getLength();
+        int pos = 0;
+        boolean complete = true;
+        switch (precedence) {
+            case PrecedenceNode.LOGICAL_PRECEDENCE: {
+                byte[] result = new byte[totalSize];
+                for (int i = 0; i < length; i++) {
+                    Object element = list.getDataAt(i);
+                    if (element instanceof Byte) {
+                        result[pos++] = (byte) element;
+                    } else if (element instanceof RAbstractLogicalVector) {
+                        RAbstractLogicalVector v = (RAbstractLogicalVector) element;
+                        for (int j = 0; j < v.getLength(); j++) {
+                            result[pos++] = v.getDataAt(j);
+                        }
+                    } else if (element != RNull.instance) {
+                        return null;
+                    }
+                }
+                for (int i = 0; i < totalSize && complete; i++) {
+                    complete = !RRuntime.isNA(result[i]);
+                }
+                return RDataFactory.createLogicalVector(result, complete);
+            }
+            case PrecedenceNode.INT_PRECEDENCE: {
+                int[] result = new int[totalSize];
+                for (int i = 0; i < length; i++) {
+                    Object element = list.getDataAt(i);
+                    if (element instanceof Integer) {
+                        result[pos++] = (int) element;
+                    } else if (element instanceof Byte) {
+                        result[pos++] = RRuntime.logical2int((byte) element);
+                    } else if (element instanceof RAbstractIntVector) {
+                        RAbstractIntVector v = (RAbstractIntVector) element;
+                        for (int j = 0; j < v.getLength(); j++) {
+                            result[pos++] = v.getDataAt(j);
+                        }
+                    } else if (element instanceof RAbstractLogicalVector) {
+                        RAbstractLogicalVector v = (RAbstractLogicalVector) element;
+                        for (int j = 0; j < v.getLength(); j++) {
+                            result[pos++] = RRuntime.logical2int(v.getDataAt(j));
+                        }
+                    } else if (element != RNull.instance) {
+                        return null;
+                    }
+                }
+                for (int i = 0; i < totalSize && complete; i++) {
+                    complete = !RRuntime.isNA(result[i]);
+                }
+                return RDataFactory.createIntVector(result, complete);
+            }
+            case PrecedenceNode.DOUBLE_PRECEDENCE: {
+                double[] result = new double[totalSize];
+                for (int i = 0; i < length; i++) {
+                    Object element = list.getDataAt(i);
+                    if (element instanceof Double) {
+                        result[pos++] = (double) element;
+                    } else if (element instanceof Integer) {
+                        result[pos++] = RRuntime.int2double((int) element);
+                    } else if (element instanceof Byte) {
+                        result[pos++] = RRuntime.logical2double((byte) element);
+                    } else if (element instanceof RAbstractDoubleVector) {
+                        RAbstractDoubleVector v = (RAbstractDoubleVector) element;
+                        for (int j = 0; j < v.getLength(); j++) {
+                            result[pos++] = v.getDataAt(j);
+                        }
+                    } else if (element instanceof RAbstractIntVector) {
+                        RAbstractIntVector v = (RAbstractIntVector) element;
+                        for (int j = 0; j < v.getLength(); j++) {
+                            result[pos++] = RRuntime.int2double(v.getDataAt(j));
+                        }
+                    } else if (element instanceof RAbstractLogicalVector) {
+                        RAbstractLogicalVector v = (RAbstractLogicalVector) element;
+                        for (int j = 0; j < v.getLength(); j++) {
+                            result[pos++] = RRuntime.logical2double(v.getDataAt(j));
+                        }
+                    } else if (element != RNull.instance) {
+                        return null;
+                    }
+                }
+                for (int i = 0; i < totalSize && complete; i++) {
+                    complete = !RRuntime.isNA(result[i]);
+                }
+                return RDataFactory.createDoubleVector(result, complete);
+            }
+            case PrecedenceNode.STRING_PRECEDENCE: {
+                String[] result = new String[totalSize];
+                for (int i = 0; i < length; i++) {
+                    Object element = list.getDataAt(i);
+                    if (element instanceof String) {
+                        result[pos++] = (String) element;
+                    } else if (element instanceof RAbstractStringVector) {
+                        RAbstractStringVector v = (RAbstractStringVector) element;
+                        for (int j = 0; j < v.getLength(); j++) {
+                            result[pos++] = v.getDataAt(j);
+                        }
+                    } else if (element != RNull.instance) {
+                        return null;
+                    }
+                }
+                for (int i = 0; i < totalSize && complete; i++) {
+                    complete = !RRuntime.isNA(result[i]);
+                }
+                return RDataFactory.createStringVector(result, complete);
+            }
+            default:
+                return null;
         }
     }
 
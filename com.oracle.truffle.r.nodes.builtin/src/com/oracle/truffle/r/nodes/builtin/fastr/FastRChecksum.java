@@ -0,0 +1,84 @@
+/*
+ * Copyright (c) 2016, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.truffle.r.nodes.builtin.fastr;
+
+import static com.oracle.truffle.r.nodes.builtin.CastBuilder.Predef.stringValue;
+import static com.oracle.truffle.r.runtime.builtins.RBehavior.IO;
+import static com.oracle.truffle.r.runtime.builtins.RBuiltinKind.PRIMITIVE;
+
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+import com.oracle.truffle.api.dsl.Specialization;
+import com.oracle.truffle.r.nodes.builtin.CastBuilder;
+import com.oracle.truffle.r.nodes.builtin.RBuiltinNode;
+import com.oracle.truffle.r.runtime.RError;
+import com.oracle.truffle.r.runtime.RRuntime;
+import com.oracle.truffle.r.runtime.Utils;
+import com.oracle.truffle.r.runtime.builtins.RBuiltin;
+import com.oracle.truffle.r.runtime.data.RDataFactory;
+import com.oracle.truffle.r.runtime.data.RMissing;
+import com.oracle.truffle.r.runtime.data.RStringVector;
+import com.oracle.truffle.r.runtime.data.model.RAbstractStringVector;
+import com.oracle.truffle.r.runtime.ops.Checksums;
+import com.oracle.truffle.r.runtime.ops.Checksums.Algorithm;
+
+/**
+ * The checksums of {@code files} (in the same order, named by the files, {@code NA} for files that
+ * cannot be read), like {@code tools::md5sum} but with a choice of {@code "md5"},
+ * {@code "sha256"}, {@code "crc32c"} or {@code "crc64"} as {@code algorithm}, see
+ * {@link Checksums#hashFiles}.
+ */
+@RBuiltin(name = ".fastr.checksum", kind = PRIMITIVE, parameterNames = {"files", "algorithm"}, behavior = IO)
+public abstract class FastRChecksum extends RBuiltinNode {
+
+    @Override
+    public Object[] getDefaultParameterValues() {
+        return new Object[]{RMissing.instance, "md5"};
+    }
+
+    @Override
+    protected void createCasts(CastBuilder casts) {
+        casts.arg("files").mustBe(stringValue()).asStringVector();
+        casts.arg("algorithm").mustBe(stringValue()).asStringVector().findFirst();
+    }
+
+    @Specialization
+    @TruffleBoundary
+    protected RStringVector checksum(RAbstractStringVector files, String algorithmName) {
+        Algorithm algorithm = Algorithm.fromName(algorithmName);
+        if (algorithm == null) {
+            throw RError.error(this, RError.Message.INVALID_ARGUMENT, "algorithm");
+        }
+        String[] names = new String[files.getLength()];
+        String[] paths = new String[names.length];
+        for (int i = 0; i < paths.length; i++) {
+            names[i] = files.getDataAt(i);
+            paths[i] = RRuntime.isNA(names[i]) ? names[i] : Utils.tildeExpand(names[i]);
+        }
+        String[] data = Checksums.hashFiles(paths, algorithm);
+        boolean complete = RDataFactory.COMPLETE_VECTOR;
+        for (String value : data) {
+            complete &= !RRuntime.isNA(value);
+        }
+        return RDataFactory.createStringVector(data, complete, RDataFactory.createStringVector(names, files.isComplete()));
+    }
+}
@@ -43,6 +43,7 @@ import com.oracle.truffle.r.runtime.RStartParams;
 import com.oracle.truffle.r.runtime.builtins.RBuiltin;
 import com.oracle.truffle.r.runtime.context.ContextInfo;
 import com.oracle.truffle.r.runtime.context.RContext;
+import com.oracle.truffle.r.runtime.context.RContextPool;
 import com.oracle.truffle.r.runtime.data.RDataFactory;
 import com.oracle.truffle.r.runtime.data.RIntVector;
 import com.oracle.truffle.r.runtime.data.RList;
@@ -114,8 +115,17 @@ public class FastRContext {
         @TruffleBoundary
         protected RIntVector spawn(RAbstractStringVector exprs, int pc, String kind) {
             RContext.ContextKind contextKind = RContext.ContextKind.valueOf(kind);
-            RContext.EvalThread[] threads = new RContext.EvalThread[pc];
             int[] data = new int[pc];
+            RContextPool pool = RContext.getInstance().getContextPool(contextKind);
+            if (pool != null) {
+                for (int i = 0; i < pc; i++) {
+                    try (RContextPool.Lease lease = pool.lease()) {
+                        data[i] = lease.submit(RSource.fromTextInternal(exprs.getDataAt(i % exprs.getLength()), RSource.Internal.CONTEXT_EVAL)).getId();
+                    }
+                }
+                return RDataFactory.createIntVector(data, RDataFactory.COMPLETE_VECTOR);
+            }
+            RContext.EvalThread[] threads = new RContext.EvalThread[pc];
             for (int i = 0; i < pc; i++) {
                 ContextInfo info = createContextInfo(contextKind);
                 threads[i] = new RContext.EvalThread(info, RSource.fromTextInternal(exprs.getDataAt(i % exprs.getLength()), RSource.Internal.CONTEXT_EVAL));
@@ -142,12 +152,13 @@ public class FastRContext {
             try {
                 for (int i = 0; i < handle.getLength(); i++) {
                     Thread thread = RContext.EvalThread.threads.get(handle.getDataAt(i));
-                    if (thread == null) {
-                        // already done
-                        continue;
-                    } else {
+                    RContextPool.Job job = RContextPool.getJob(handle.getDataAt(i));
+                    if (thread != null) {
                         thread.join();
+                    } else if (job != null) {
+                        job.getResult();
                     }
+                    // else already done
                 }
             } catch (InterruptedException ex) {
                 throw RError.error(this, RError.Message.GENERIC, "error finishing eval thread");
@@ -168,6 +179,9 @@ public class FastRContext {
      * of lists. The top level list has the same number of entries as the number of contexts. The
      * sublist contains the result of the evaluation with name "result". It may also have an
      * attribute "error" if the evaluation threw an exception, in which case the result will be NA.
+     *
+     * If {@code FastROptions.ContextPoolSize} is set, the contexts are taken from an
+     * {@link RContextPool} instead and the evaluations always run in separate threads.
      */
     @RBuiltin(name = ".fastr.context.eval", kind = PRIMITIVE, parameterNames = {"exprs", "pc", "kind"}, behavior = COMPLEX)
     public abstract static class Eval extends RBuiltinNode {
@@ -189,7 +203,22 @@ public class FastRContext {
             RContext.ContextKind contextKind = RContext.ContextKind.valueOf(kind);
 
             Object[] results = new Object[pc];
-            if (pc == 1) {
+            RContextPool pool = RContext.getInstance().getContextPool(contextKind);
+            if (pool != null) {
+                RContextPool.Job[] jobs = new RContextPool.Job[pc];
+                for (int i = 0; i < pc; i++) {
+                    try (RContextPool.Lease lease = pool.lease()) {
+                        jobs[i] = lease.submit(RSource.fromTextInternal(exprs.getDataAt(i % exprs.getLength()), RSource.Internal.CONTEXT_EVAL));
+                    }
+                }
+                try {
+                    for (int i = 0; i < pc; i++) {
+                        results[i] = jobs[i].getResult();
+                    }
+                } catch (InterruptedException ex) {
+                    throw RError.error(this, RError.Message.GENERIC, "error finishing eval thread");
+                }
+            } else if (pc == 1) {
                 ContextInfo info = createContextInfo(contextKind);
                 PolyglotEngine vm = info.createVM();
                 results[0] = RContext.EvalThread.run(vm, info, RSource.fromTextInternal(exprs.getDataAt(0), RSource.Internal.CONTEXT_EVAL));
@@ -217,6 +246,59 @@ public class FastRContext {
 
     }
 
+    /**
+     * Returns the statistics of the pool of contexts of type {@code kind} (see
+     * {@link RContextPool#getStatistics()}), or {@code NULL} if contexts of this type are not
+     * pooled.
+     */
+    @RBuiltin(name = ".fastr.context.pool.stats", kind = PRIMITIVE, parameterNames = {"kind"}, behavior = READS_STATE)
+    public abstract static class PoolStats extends RBuiltinNode {
+        @Override
+        public Object[] getDefaultParameterValues() {
+            return new Object[]{"SHARE_NOTHING"};
+        }
+
+        @Override
+        protected void createCasts(CastBuilder casts) {
+            Casts.kind(casts);
+        }
+
+        @Specialization
+        @TruffleBoundary
+        protected Object poolStats(String kind) {
+            RContextPool pool = RContext.getInstance().getContextPool(RContext.ContextKind.valueOf(kind));
+            return pool == null ? RNull.instance : pool.getStatistics();
+        }
+    }
+
+    /**
+     * Sets the number of pre-initialized contexts of type {@code kind} that are kept ready for
+     * {@code .fastr.context.spawn/eval}, overriding {@code FastROptions.ContextPoolSize} ({@code 0}
+     * disables the pool), and returns the statistics of the new pool.
+     */
+    @RBuiltin(name = ".fastr.context.pool.size", kind = PRIMITIVE, visibility = OFF, parameterNames = {"size", "kind"}, behavior = COMPLEX)
+    public abstract static class PoolSize extends RBuiltinNode {
+        @Override
+        public Object[] getDefaultParameterValues() {
+            return new Object[]{RMissing.instance, "SHARE_NOTHING"};
+        }
+
+        @Override
+        protected void createCasts(CastBuilder casts) {
+            casts.arg("size").asIntegerVector().findFirst().notNA().mustBe(gte(0));
+            Casts.kind(casts);
+        }
+
+        @Specialization
+        @TruffleBoundary
+        protected Object poolSize(int size, String kind) {
+            RContext.ContextKind contextKind = RContext.ContextKind.valueOf(kind);
+            RContext.getInstance().setContextPoolSize(contextKind, size);
+            RContextPool pool = RContext.getInstance().getContextPool(contextKind);
+            return pool == null ? RNull.instance : pool.getStatistics();
+        }
+    }
+
     @RBuiltin(name = ".fastr.context.r", kind = PRIMITIVE, visibility = OFF, parameterNames = {"args", "env", "intern"}, behavior = COMPLEX)
     public abstract static class R extends RBuiltinNode {
         @Override
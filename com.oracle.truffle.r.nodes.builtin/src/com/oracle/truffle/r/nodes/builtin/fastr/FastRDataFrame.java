@@ -0,0 +1,323 @@
+/*
+ * Copyright (c) 2016, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.truffle.r.nodes.builtin.fastr;
+
+import static com.oracle.truffle.r.nodes.builtin.CastBuilder.Predef.toBoolean;
+import static com.oracle.truffle.r.runtime.builtins.RBehavior.PURE;
+import static com.oracle.truffle.r.runtime.builtins.RBuiltinKind.PRIMITIVE;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+import com.oracle.truffle.api.dsl.Specialization;
+import com.oracle.truffle.r.nodes.builtin.CastBuilder;
+import com.oracle.truffle.r.nodes.builtin.RBuiltinNode;
+import com.oracle.truffle.r.nodes.builtin.base.Merge;
+import com.oracle.truffle.r.runtime.RRuntime;
+import com.oracle.truffle.r.runtime.builtins.RBuiltin;
+import com.oracle.truffle.r.runtime.data.RAttributes;
+import com.oracle.truffle.r.runtime.data.RDataFactory;
+import com.oracle.truffle.r.runtime.data.RIntVector;
+import com.oracle.truffle.r.runtime.data.RList;
+import com.oracle.truffle.r.runtime.data.RNull;
+import com.oracle.truffle.r.runtime.data.RStringVector;
+import com.oracle.truffle.r.runtime.data.model.RAbstractDoubleVector;
+import com.oracle.truffle.r.runtime.data.model.RAbstractIntVector;
+import com.oracle.truffle.r.runtime.data.model.RAbstractListVector;
+import com.oracle.truffle.r.runtime.data.model.RAbstractLogicalVector;
+import com.oracle.truffle.r.runtime.data.model.RAbstractStringVector;
+import com.oracle.truffle.r.runtime.data.model.RAbstractVector;
+import com.oracle.truffle.r.runtime.ops.GroupBy;
+import com.oracle.truffle.r.runtime.ops.GroupBy.Keys;
+
+/**
+ * Columnar kernels for the data frame {@code rbind} and {@code merge} methods (see
+ * {@code dataframe_fastpath_overrides.R}). Both return {@code NULL} for inputs they do not handle,
+ * in which case the R code falls back to the GnuR implementation.
+ */
+public class FastRDataFrame {
+
+    /**
+     * Binds the rows of a list of data frames (given as plain lists of columns) with the same
+     * column names in the same order. The type of each result column is computed first, then each
+     * chunk is copied once into the preallocated column. Supported columns are logical, integer,
+     * double (combined as by {@code c}), character and unordered factors (whose levels are
+     * combined in order of appearance).
+     */
+    @RBuiltin(name = ".fastr.dataframe.rbind", kind = PRIMITIVE, parameterNames = {"frames"}, behavior = PURE)
+    public abstract static class RBind extends RBuiltinNode {
+
+        private static final int LOGICAL = 0;
+        private static final int INTEGER = 1;
+        private static final int DOUBLE = 2;
+        private static final int CHARACTER = 3;
+        private static final int FACTOR = 4;
+
+        @Override
+        protected void createCasts(CastBuilder casts) {
+            casts.arg("frames").mustBe(RAbstractListVector.class);
+        }
+
+        @Specialization
+        @TruffleBoundary
+        protected Object rbind(RAbstractListVector frames) {
+            int count = frames.getLength();
+            if (count == 0 || !(frames.getDataAt(0) instanceof RList)) {
+                return RNull.instance;
+            }
+            RList first = (RList) frames.getDataAt(0);
+            RStringVector names = first.getNames();
+            int columnCount = first.getLength();
+            if (names == null || columnCount == 0) {
+                return RNull.instance;
+            }
+            RAbstractVector[][] chunks = new RAbstractVector[columnCount][count];
+            long rows = 0;
+            for (int i = 0; i < count; i++) {
+                Object frame = frames.getDataAt(i);
+                if (!(frame instanceof RList) || ((RList) frame).getLength() != columnCount) {
+                    return RNull.instance;
+                }
+                RList list = (RList) frame;
+                RStringVector frameNames = list.getNames();
+                if (frameNames == null || !Arrays.equals(frameNames.getDataWithoutCopying(), names.getDataWithoutCopying())) {
+                    return RNull.instance;
+                }
+                int frameRows = -1;
+                for (int j = 0; j < columnCount; j++) {
+                    Object column = list.getDataAt(j);
+                    if (!(column instanceof RAbstractVector) || (frameRows >= 0 && ((RAbstractVector) column).getLength() != frameRows)) {
+                        return RNull.instance;
+                    }
+                    chunks[j][i] = (RAbstractVector) column;
+                    frameRows = chunks[j][i].getLength();
+                }
+                rows += frameRows;
+            }
+            if (rows > Integer.MAX_VALUE) {
+                return RNull.instance;
+            }
+            Object[] columns = new Object[columnCount];
+            for (int j = 0; j < columnCount; j++) {
+                int kind = columnKind(chunks[j][0]);
+                for (int i = 1; i < count && kind >= 0; i++) {
+                    kind = combineKinds(kind, columnKind(chunks[j][i]));
+                }
+                if (kind < 0) {
+                    return RNull.instance;
+                }
+                columns[j] = bindColumn(chunks[j], kind, (int) rows);
+            }
+            return RDataFactory.createList(columns, RDataFactory.createStringVector(names.getDataCopy(), names.isComplete()));
+        }
+
+        private static int columnKind(RAbstractVector column) {
+            RAttributes attributes = column.getAttributes();
+            if (attributes == null || attributes.isEmpty()) {
+                if (column instanceof RAbstractLogicalVector) {
+                    return LOGICAL;
+                } else if (column instanceof RAbstractIntVector) {
+                    return INTEGER;
+                } else if (column instanceof RAbstractDoubleVector) {
+                    return DOUBLE;
+                } else if (column instanceof RAbstractStringVector) {
+                    return CHARACTER;
+                }
+            } else if (column instanceof RAbstractIntVector && attributes.size() == 2 && attributes.get(RRuntime.LEVELS_ATTR_KEY) instanceof RAbstractStringVector) {
+                Object classAttr = attributes.get(RRuntime.CLASS_ATTR_KEY);
+                if (classAttr instanceof RAbstractStringVector && ((RAbstractStringVector) classAttr).getLength() == 1 && "factor".equals(((RAbstractStringVector) classAttr).getDataAt(0))) {
+                    return FACTOR;
+                }
+            }
+            return -1;
+        }
+
+        private static int combineKinds(int kind1, int kind2) {
+            if (kind1 < 0 || kind2 < 0) {
+                return -1;
+            } else if (kind1 == kind2) {
+                return kind1;
+            } else if (kind1 <= DOUBLE && kind2 <= DOUBLE) {
+                return Math.max(kind1, kind2);
+            } else {
+                // character and factors are only combined with their own kind
+                return -1;
+            }
+        }
+
+        private static RAbstractVector bindColumn(RAbstractVector[] chunks, int kind, int rows) {
+            boolean complete = true;
+            for (RAbstractVector chunk : chunks) {
+                complete &= chunk.isComplete();
+            }
+            int pos = 0;
+            switch (kind) {
+                case LOGICAL: {
+                    byte[] data = new byte[rows];
+                    for (RAbstractVector chunk : chunks) {
+                        byte[] src = ((RAbstractLogicalVector) chunk).materialize().getDataWithoutCopying();
+                        System.arraycopy(src, 0, data, pos, src.length);
+                        pos += src.length;
+                    }
+                    return RDataFactory.createLogicalVector(data, complete);
+                }
+                case INTEGER: {
+                    int[] data = new int[rows];
+                    for (RAbstractVector chunk : chunks) {
+                        if (chunk instanceof RAbstractIntVector) {
+                            int[] src = ((RAbstractIntVector) chunk).materialize().getDataWithoutCopying();
+                            System.arraycopy(src, 0, data, pos, src.length);
+                            pos += src.length;
+                        } else {
+                            RAbstractLogicalVector src = (RAbstractLogicalVector) chunk;
+                            for (int i = 0; i < src.getLength(); i++) {
+                                data[pos++] = RRuntime.logical2int(src.getDataAt(i));
+                            }
+                        }
+                    }
+                    return RDataFactory.createIntVector(data, complete);
+                }
+                case DOUBLE: {
+                    double[] data = new double[rows];
+                    for (RAbstractVector chunk : chunks) {
+                        if (chunk instanceof RAbstractDoubleVector) {
+                            double[] src = ((RAbstractDoubleVector) chunk).materialize().getDataWithoutCopying();
+                            System.arraycopy(src, 0, data, pos, src.length);
+                            pos += src.length;
+                        } else if (chunk instanceof RAbstractIntVector) {
+                            RAbstractIntVector src = (RAbstractIntVector) chunk;
+                            for (int i = 0; i < src.getLength(); i++) {
+                                data[pos++] = RRuntime.int2double(src.getDataAt(i));
+                            }
+                        } else {
+                            RAbstractLogicalVector src = (RAbstractLogicalVector) chunk;
+                            for (int i = 0; i < src.getLength(); i++) {
+                                data[pos++] = RRuntime.logical2double(src.getDataAt(i));
+                            }
+                        }
+                    }
+                    return RDataFactory.createDoubleVector(data, complete);
+                }
+                case CHARACTER: {
+                    String[] data = new String[rows];
+                    for (RAbstractVector chunk : chunks) {
+                        String[] src = ((RAbstractStringVector) chunk).materialize().getDataWithoutCopying();
+                        System.arraycopy(src, 0, data, pos, src.length);
+                        pos += src.length;
+                    }
+                    return RDataFactory.createStringVector(data, complete);
+                }
+                default:
+                    assert kind == FACTOR;
+                    return bindFactor(chunks, rows);
+            }
+        }
+
+        private static RAbstractVector bindFactor(RAbstractVector[] chunks, int rows) {
+            HashMap<String, Integer> levelCodes = new HashMap<>();
+            ArrayList<String> levels = new ArrayList<>();
+            int[] data = new int[rows];
+            boolean complete = true;
+            int pos = 0;
+            for (RAbstractVector chunk : chunks) {
+                RAbstractStringVector chunkLevels = (RAbstractStringVector) chunk.getAttr(RRuntime.LEVELS_ATTR_KEY);
+                int[] map = new int[chunkLevels.getLength()];
+                for (int k = 0; k < map.length; k++) {
+                    String level = chunkLevels.getDataAt(k);
+                    Integer code = levelCodes.get(level);
+                    if (code == null) {
+                        levels.add(level);
+                        code = levels.size();
+                        levelCodes.put(level, code);
+                    }
+                    map[k] = code;
+                }
+                int[] src = ((RAbstractIntVector) chunk).materialize().getDataWithoutCopying();
+                for (int i = 0; i < src.length; i++) {
+                    int code = src[i];
+                    if (code >= 1 && code <= map.length) {
+                        data[pos++] = map[code - 1];
+                    } else {
+                        data[pos++] = RRuntime.INT_NA;
+                        complete = false;
+                    }
+                }
+            }
+            RIntVector result = RDataFactory.createIntVector(data, complete);
+            result.setAttr(RRuntime.LEVELS_ATTR_KEY, RDataFactory.createStringVector(levels.toArray(new String[levels.size()]), RDataFactory.COMPLETE_VECTOR));
+            result.setClassAttr(RDataFactory.createStringVector("factor"));
+            return result;
+        }
+    }
+
+    /**
+     * The hash join of {@code merge}: computes the key codes of the rows of {@code x} and
+     * {@code y} from the key columns {@code xkeys} and {@code ykeys} with
+     * {@link GroupBy#joinCodes} (instead of pasting multiple keys into strings and matching those)
+     * and returns the result of the {@code merge} internal for them. Key columns must be logical,
+     * integer or character vectors, or a single double column, and the columns of {@code x} and
+     * {@code y} must be of the same types.
+     */
+    @RBuiltin(name = ".fastr.dataframe.join", kind = PRIMITIVE, parameterNames = {"xkeys", "ykeys", "all.x", "all.y"}, behavior = PURE)
+    public abstract static class Join extends RBuiltinNode {
+
+        @Override
+        protected void createCasts(CastBuilder casts) {
+            casts.arg("xkeys").mustBe(RAbstractListVector.class);
+            casts.arg("ykeys").mustBe(RAbstractListVector.class);
+            casts.arg("all.x").asLogicalVector().findFirst().notNA().map(toBoolean());
+            casts.arg("all.y").asLogicalVector().findFirst().notNA().map(toBoolean());
+        }
+
+        @Specialization
+        @TruffleBoundary
+        protected Object join(RAbstractListVector xKeys, RAbstractListVector yKeys, boolean allX, boolean allY) {
+            Keys x = createKeys(xKeys);
+            Keys y = createKeys(yKeys);
+            if (x == null || y == null || !x.isCompatible(y)) {
+                return RNull.instance;
+            }
+            int[][] codes = GroupBy.joinCodes(x, y);
+            return Merge.merge(this, codes[0], codes[1], allX, allY);
+        }
+
+        private static Keys createKeys(RAbstractListVector columns) {
+            int count = columns.getLength();
+            if (count == 0) {
+                return null;
+            }
+            RAbstractVector[] vectors = new RAbstractVector[count];
+            for (int i = 0; i < count; i++) {
+                Object column = columns.getDataAt(i);
+                // multiple keys are compared as pasted strings, i.e., doubles with 15 digits
+                if (!(column instanceof RAbstractVector) || (count > 1 && column instanceof RAbstractDoubleVector)) {
+                    return null;
+                }
+                vectors[i] = (RAbstractVector) column;
+            }
+            return Keys.create(vectors);
+        }
+    }
+}
@@ -0,0 +1,256 @@
+/*
+ * Copyright (c) 2016, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.truffle.r.nodes.builtin.fastr;
+
+import static com.oracle.truffle.r.nodes.builtin.CastBuilder.Predef.gte;
+import static com.oracle.truffle.r.nodes.builtin.CastBuilder.Predef.stringValue;
+import static com.oracle.truffle.r.nodes.builtin.CastBuilder.Predef.toBoolean;
+import static com.oracle.truffle.r.runtime.RVisibility.OFF;
+import static com.oracle.truffle.r.runtime.builtins.RBehavior.IO;
+import static com.oracle.truffle.r.runtime.builtins.RBuiltinKind.PRIMITIVE;
+
+import java.io.File;
+import java.nio.file.attribute.FileTime;
+import java.nio.file.attribute.PosixFileAttributes;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+import com.oracle.truffle.api.dsl.Specialization;
+import com.oracle.truffle.r.nodes.builtin.CastBuilder;
+import com.oracle.truffle.r.nodes.builtin.RBuiltinNode;
+import com.oracle.truffle.r.runtime.RError;
+import com.oracle.truffle.r.runtime.RFileWalker;
+import com.oracle.truffle.r.runtime.RFileWalker.Cursor;
+import com.oracle.truffle.r.runtime.RFileWalker.Entry;
+import com.oracle.truffle.r.runtime.RRuntime;
+import com.oracle.truffle.r.runtime.Utils;
+import com.oracle.truffle.r.runtime.builtins.RBuiltin;
+import com.oracle.truffle.r.runtime.context.RContext;
+import com.oracle.truffle.r.runtime.data.RDataFactory;
+import com.oracle.truffle.r.runtime.data.RIntVector;
+import com.oracle.truffle.r.runtime.data.RMissing;
+import com.oracle.truffle.r.runtime.data.RNull;
+import com.oracle.truffle.r.runtime.data.RStringVector;
+
+/**
+ * Directory listings based on {@link RFileWalker}, for trees that are too large for
+ * {@code list.files} followed by {@code file.info}.
+ */
+public class FastRFiles {
+
+    private static final String[] WALK_PARAMETERS = {"path", "pattern", "all.files", "full.names", "recursive", "ignore.case", "include.dirs"};
+
+    private static final String[] INFO_NAMES = {"name", "size", "isdir", "mode", "mtime", "ctime", "atime", "uname", "grname"};
+    private static final RStringVector OCTMODE = RDataFactory.createStringVectorFromScalar("octmode");
+
+    private static Object[] walkDefaults(Object... rest) {
+        Object[] defaults = {RMissing.instance, RNull.instance, RRuntime.LOGICAL_FALSE, RRuntime.LOGICAL_FALSE, RRuntime.LOGICAL_FALSE, RRuntime.LOGICAL_FALSE, RRuntime.LOGICAL_FALSE};
+        Object[] result = Arrays.copyOf(defaults, defaults.length + rest.length);
+        System.arraycopy(rest, 0, result, defaults.length, rest.length);
+        return result;
+    }
+
+    private static void walkCasts(CastBuilder casts) {
+        casts.arg("path").mustBe(stringValue()).asStringVector().findFirst().notNA();
+        casts.arg("pattern").allowNull().mustBe(stringValue()).asStringVector().findFirst().notNA();
+        casts.arg("all.files").asLogicalVector().findFirst().notNA().map(toBoolean());
+        casts.arg("full.names").asLogicalVector().findFirst().notNA().map(toBoolean());
+        casts.arg("recursive").asLogicalVector().findFirst().notNA().map(toBoolean());
+        casts.arg("ignore.case").asLogicalVector().findFirst().notNA().map(toBoolean());
+        casts.arg("include.dirs").asLogicalVector().findFirst().notNA().map(toBoolean());
+    }
+
+    private static RFileWalker createWalker(String path, Object pattern, boolean allFiles, boolean fullNames, boolean recursive, boolean ignoreCase, boolean includeDirs, boolean info) {
+        String patternString = pattern instanceof String ? (String) pattern : null;
+        return new RFileWalker(new File(Utils.tildeExpand(path, true)).toPath(), fullNames, patternString, ignoreCase, allFiles, recursive, !recursive || includeDirs, info);
+    }
+
+    /**
+     * Like {@code list.files} for a single {@code path}, but if {@code info} is {@code TRUE} the
+     * result is a list with the (sorted) names and the {@code size}, {@code isdir}, {@code mode},
+     * {@code mtime}, {@code ctime}, {@code atime} (in seconds), {@code uname} and {@code grname}
+     * columns of {@code file.info}, collected during the same traversal. As in GnuR, {@code ctime}
+     * is the status change time; it is {@code NA} where the platform does not provide it.
+     */
+    @RBuiltin(name = ".fastr.list.files", kind = PRIMITIVE, parameterNames = {"path", "pattern", "all.files", "full.names", "recursive", "ignore.case", "include.dirs", "info"}, behavior = IO)
+    public abstract static class ListFiles extends RBuiltinNode {
+
+        @Override
+        public Object[] getDefaultParameterValues() {
+            return walkDefaults(RRuntime.LOGICAL_FALSE);
+        }
+
+        @Override
+        protected void createCasts(CastBuilder casts) {
+            walkCasts(casts);
+            casts.arg("info").asLogicalVector().findFirst().notNA().map(toBoolean());
+        }
+
+        @Specialization
+        @TruffleBoundary
+        protected Object listFiles(String path, Object pattern, boolean allFiles, boolean fullNames, boolean recursive, boolean ignoreCase, boolean includeDirs, boolean info) {
+            RFileWalker walker = createWalker(path, pattern, allFiles, fullNames, recursive, ignoreCase, includeDirs, info);
+            ArrayList<Entry> entries = new ArrayList<>();
+            walker.walk(entry -> {
+                synchronized (entries) {
+                    entries.add(entry);
+                }
+                return true;
+            });
+            Collections.sort(entries, (a, b) -> a.name.compareTo(b.name));
+            int n = entries.size();
+            String[] names = new String[n];
+            for (int i = 0; i < n; i++) {
+                names[i] = entries.get(i).name;
+            }
+            if (!info) {
+                return RDataFactory.createStringVector(names, RDataFactory.COMPLETE_VECTOR);
+            }
+            double[] size = new double[n];
+            byte[] isdir = new byte[n];
+            int[] mode = new int[n];
+            double[] mtime = new double[n];
+            double[] ctime = new double[n];
+            double[] atime = new double[n];
+            String[] uname = new String[n];
+            String[] grname = new String[n];
+            for (int i = 0; i < n; i++) {
+                Entry entry = entries.get(i);
+                PosixFileAttributes attributes = (PosixFileAttributes) entry.attributes;
+                size[i] = attributes.size();
+                isdir[i] = RRuntime.asLogical(attributes.isDirectory());
+                mode[i] = Utils.intFilePermissions(attributes.permissions());
+                mtime[i] = toSeconds(attributes.lastModifiedTime());
+                FileTime statusChangeTime = entry.getStatusChangeTime();
+                ctime[i] = statusChangeTime == null ? RRuntime.DOUBLE_NA : toSeconds(statusChangeTime);
+                atime[i] = toSeconds(attributes.lastAccessTime());
+                uname[i] = attributes.owner().getName();
+                grname[i] = attributes.group().getName();
+            }
+            RIntVector modeVector = RDataFactory.createIntVector(mode, RDataFactory.COMPLETE_VECTOR);
+            modeVector.setClassAttr(OCTMODE);
+            Object[] data = {RDataFactory.createStringVector(names, RDataFactory.COMPLETE_VECTOR), RDataFactory.createDoubleVector(size, RDataFactory.COMPLETE_VECTOR),
+                            RDataFactory.createLogicalVector(isdir, RDataFactory.COMPLETE_VECTOR), modeVector, RDataFactory.createDoubleVector(mtime, RDataFactory.COMPLETE_VECTOR),
+                            RDataFactory.createDoubleVector(ctime, RDataFactory.COMPLETE_VECTOR), RDataFactory.createDoubleVector(atime, RDataFactory.COMPLETE_VECTOR),
+                            RDataFactory.createStringVector(uname, RDataFactory.COMPLETE_VECTOR), RDataFactory.createStringVector(grname, RDataFactory.COMPLETE_VECTOR)};
+            return RDataFactory.createList(data, RDataFactory.createStringVector(INFO_NAMES, RDataFactory.COMPLETE_VECTOR));
+        }
+
+        private static double toSeconds(FileTime time) {
+            return time.toMillis() / 1000.0;
+        }
+    }
+
+    /**
+     * Starts a background walk with the same arguments as {@code list.files} and returns a handle
+     * for {@code .fastr.dir.read} and {@code .fastr.dir.close}. The entries are produced in the
+     * order in which they are found, not sorted.
+     */
+    @RBuiltin(name = ".fastr.dir.open", kind = PRIMITIVE, parameterNames = {"path", "pattern", "all.files", "full.names", "recursive", "ignore.case", "include.dirs"}, behavior = IO)
+    public abstract static class DirOpen extends RBuiltinNode {
+
+        @Override
+        public Object[] getDefaultParameterValues() {
+            return walkDefaults();
+        }
+
+        @Override
+        protected void createCasts(CastBuilder casts) {
+            walkCasts(casts);
+        }
+
+        @Specialization
+        @TruffleBoundary
+        protected int open(String path, Object pattern, boolean allFiles, boolean fullNames, boolean recursive, boolean ignoreCase, boolean includeDirs) {
+            return RContext.getInstance().stateRFileWalker.open(createWalker(path, pattern, allFiles, fullNames, recursive, ignoreCase, includeDirs, false)).getId();
+        }
+    }
+
+    private static Cursor getCursor(RBuiltinNode node, int handle) {
+        Cursor cursor = RContext.getInstance().stateRFileWalker.get(handle);
+        if (cursor == null) {
+            throw RError.error(node, RError.Message.GENERIC, "invalid directory handle");
+        }
+        return cursor;
+    }
+
+    /**
+     * Returns the next (at most {@code n}) names of the walk, waiting for the first one if
+     * necessary; {@code character(0)} denotes the end of the walk, at which point the handle
+     * becomes invalid.
+     */
+    @RBuiltin(name = ".fastr.dir.read", kind = PRIMITIVE, parameterNames = {"handle", "n"}, behavior = IO)
+    public abstract static class DirRead extends RBuiltinNode {
+
+        @Override
+        public Object[] getDefaultParameterValues() {
+            return new Object[]{RMissing.instance, 1000};
+        }
+
+        @Override
+        protected void createCasts(CastBuilder casts) {
+            casts.arg("handle").asIntegerVector().findFirst().notNA();
+            casts.arg("n").asIntegerVector().findFirst().notNA().mustBe(gte(1));
+        }
+
+        @Specialization
+        @TruffleBoundary
+        protected RStringVector read(int handle, int n) {
+            ArrayList<Entry> entries;
+            try {
+                entries = getCursor(this, handle).read(n);
+            } catch (InterruptedException ex) {
+                throw RError.error(this, RError.Message.GENERIC, "interrupted while reading directory");
+            }
+            String[] names = new String[entries.size()];
+            for (int i = 0; i < names.length; i++) {
+                names[i] = entries.get(i).name;
+            }
+            return RDataFactory.createStringVector(names, RDataFactory.COMPLETE_VECTOR);
+        }
+    }
+
+    /**
+     * Stops the walk of {@code handle}; closing a handle that was read to the end has no effect.
+     */
+    @RBuiltin(name = ".fastr.dir.close", kind = PRIMITIVE, visibility = OFF, parameterNames = {"handle"}, behavior = IO)
+    public abstract static class DirClose extends RBuiltinNode {
+
+        @Override
+        protected void createCasts(CastBuilder casts) {
+            casts.arg("handle").asIntegerVector().findFirst().notNA();
+        }
+
+        @Specialization
+        @TruffleBoundary
+        protected RNull close(int handle) {
+            Cursor cursor = RContext.getInstance().stateRFileWalker.get(handle);
+            if (cursor != null) {
+                cursor.close();
+            }
+            return RNull.instance;
+        }
+    }
+}
@@ -0,0 +1,136 @@
+/*
+ * Copyright (c) 2016, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.truffle.r.nodes.builtin.fastr;
+
+import static com.oracle.truffle.r.nodes.builtin.CastBuilder.Predef.doubleValue;
+import static com.oracle.truffle.r.nodes.builtin.CastBuilder.Predef.gte;
+import static com.oracle.truffle.r.nodes.builtin.CastBuilder.Predef.integerValue;
+import static com.oracle.truffle.r.nodes.builtin.CastBuilder.Predef.stringValue;
+import static com.oracle.truffle.r.nodes.builtin.CastBuilder.Predef.toBoolean;
+import static com.oracle.truffle.r.runtime.builtins.RBehavior.PURE;
+import static com.oracle.truffle.r.runtime.builtins.RBuiltinKind.PRIMITIVE;
+
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+import com.oracle.truffle.api.dsl.Specialization;
+import com.oracle.truffle.r.nodes.builtin.CastBuilder;
+import com.oracle.truffle.r.nodes.builtin.RBuiltinNode;
+import com.oracle.truffle.r.runtime.RError;
+import com.oracle.truffle.r.runtime.RRuntime;
+import com.oracle.truffle.r.runtime.builtins.RBuiltin;
+import com.oracle.truffle.r.runtime.data.RDataFactory;
+import com.oracle.truffle.r.runtime.data.RMissing;
+import com.oracle.truffle.r.runtime.data.RVector;
+import com.oracle.truffle.r.runtime.data.model.RAbstractDoubleVector;
+import com.oracle.truffle.r.runtime.data.model.RAbstractIntVector;
+import com.oracle.truffle.r.runtime.ops.GroupBy;
+import com.oracle.truffle.r.runtime.ops.GroupBy.Aggregator;
+
+/**
+ * Aggregates {@code x} by the 1-based group codes {@code group} (recycled, {@code NA} codes are
+ * ignored) into a vector of length {@code ngroups}, without calling an R function per group.
+ * {@code fun} is one of {@code "sum"}, {@code "mean"}, {@code "count"}, {@code "min"},
+ * {@code "max"}, {@code "first"} or {@code "last"}, see {@link GroupBy#aggregate}. Used by the
+ * {@code tapply} override for the common summary functions.
+ */
+@RBuiltin(name = ".fastr.group.aggregate", kind = PRIMITIVE, parameterNames = {"x", "group", "ngroups", "fun", "na.rm"}, behavior = PURE)
+public abstract class FastRGroupAggregate extends RBuiltinNode {
+
+    @Override
+    public Object[] getDefaultParameterValues() {
+        return new Object[]{RMissing.instance, RMissing.instance, RMissing.instance, "sum", RRuntime.LOGICAL_FALSE};
+    }
+
+    @Override
+    protected void createCasts(CastBuilder casts) {
+        casts.arg("x").mustBe(integerValue().or(doubleValue()));
+        casts.arg("group").asIntegerVector();
+        casts.arg("ngroups").asIntegerVector().findFirst().notNA().mustBe(gte(0));
+        casts.arg("fun").mustBe(stringValue()).asStringVector().findFirst();
+        casts.arg("na.rm").asLogicalVector().findFirst().map(toBoolean());
+    }
+
+    private Aggregator getAggregator(String fun) {
+        Aggregator aggregator = Aggregator.fromName(fun);
+        if (aggregator == null) {
+            throw RError.error(this, RError.Message.INVALID_ARGUMENT, "fun");
+        }
+        return aggregator;
+    }
+
+    @Specialization
+    @TruffleBoundary
+    protected RVector<?> aggregate(RAbstractIntVector x, RAbstractIntVector group, int ngroups, String fun, boolean naRm) {
+        Aggregator aggregator = getAggregator(fun);
+        int[] codes = group.materialize().getDataWithoutCopying();
+        int[] data = x.materialize().getDataWithoutCopying();
+        if (aggregator == Aggregator.MEAN) {
+            double[] values = new double[data.length];
+            for (int i = 0; i < data.length; i++) {
+                values[i] = RRuntime.isNA(data[i]) ? RRuntime.DOUBLE_NA : data[i];
+            }
+            return createDoubleResult(GroupBy.aggregate(values, codes, ngroups, aggregator, naRm));
+        }
+        int[] result = GroupBy.aggregate(data, codes, ngroups, aggregator, naRm);
+        if (result == null) {
+            RError.warning(this, RError.Message.INTEGER_OVERFLOW);
+            double[] values = new double[data.length];
+            for (int i = 0; i < data.length; i++) {
+                values[i] = RRuntime.isNA(data[i]) ? RRuntime.DOUBLE_NA : data[i];
+            }
+            double[] sums = GroupBy.aggregate(values, codes, ngroups, aggregator, naRm);
+            result = new int[ngroups];
+            for (int g = 0; g < ngroups; g++) {
+                result[g] = Double.isNaN(sums[g]) || sums[g] < Integer.MIN_VALUE || sums[g] > Integer.MAX_VALUE ? RRuntime.INT_NA : (int) sums[g];
+            }
+        }
+        boolean complete = true;
+        for (int value : result) {
+            complete &= !RRuntime.isNA(value);
+        }
+        return RDataFactory.createIntVector(result, complete);
+    }
+
+    @Specialization
+    @TruffleBoundary
+    protected RVector<?> aggregate(RAbstractDoubleVector x, RAbstractIntVector group, int ngroups, String fun, boolean naRm) {
+        Aggregator aggregator = getAggregator(fun);
+        int[] codes = group.materialize().getDataWithoutCopying();
+        double[] result = GroupBy.aggregate(x.materialize().getDataWithoutCopying(), codes, ngroups, aggregator, naRm);
+        if (aggregator == Aggregator.COUNT) {
+            int[] counts = new int[ngroups];
+            for (int g = 0; g < ngroups; g++) {
+                counts[g] = (int) result[g];
+            }
+            return RDataFactory.createIntVector(counts, RDataFactory.COMPLETE_VECTOR);
+        }
+        return createDoubleResult(result);
+    }
+
+    private static RVector<?> createDoubleResult(double[] result) {
+        boolean complete = true;
+        for (double value : result) {
+            complete &= !RRuntime.isNA(value);
+        }
+        return RDataFactory.createDoubleVector(result, complete);
+    }
+}
@@ -56,6 +56,8 @@ import com.oracle.truffle.r.runtime.context.RContext;
 import com.oracle.truffle.r.runtime.data.RMissing;
 import com.oracle.truffle.r.runtime.data.RNull;
 import com.oracle.truffle.r.runtime.data.RTypedValue;
+import com.oracle.truffle.r.runtime.data.RVector;
+import com.oracle.truffle.r.runtime.data.RVectorBuffers;
 
 public class FastRInterop {
 
@@ -131,6 +133,11 @@ public class FastRInterop {
         }
     }
 
+    /**
+     * Imports a global symbol of the polyglot engine. Java primitive arrays and buffers that were
+     * exported by the host as they are (i.e. not as {@code JavaInterop} objects) are wrapped as
+     * read-only R vectors without converting the elements, see {@link RVectorBuffers#wrap}.
+     */
     @RBuiltin(name = ".fastr.interop.import", visibility = OFF, kind = PRIMITIVE, parameterNames = {"name"}, behavior = COMPLEX)
     public abstract static class Import extends RBuiltinNode {
 
@@ -146,7 +153,8 @@ public class FastRInterop {
             if (object == null) {
                 throw RError.error(this, RError.Message.NO_IMPORT_OBJECT, name);
             }
-            return object;
+            RVector<?> vector = RVectorBuffers.wrap(object);
+            return vector != null ? vector : object;
         }
     }
 
@@ -0,0 +1,97 @@
+/*
+ * Copyright (c) 2016, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.truffle.r.nodes.builtin.fastr;
+
+import static com.oracle.truffle.r.nodes.builtin.CastBuilder.Predef.toBoolean;
+import static com.oracle.truffle.r.runtime.builtins.RBehavior.COMPLEX;
+import static com.oracle.truffle.r.runtime.builtins.RBuiltinKind.PRIMITIVE;
+
+import java.util.Map;
+
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+import com.oracle.truffle.api.dsl.Specialization;
+import com.oracle.truffle.r.nodes.builtin.CastBuilder;
+import com.oracle.truffle.r.nodes.builtin.RBuiltinNode;
+import com.oracle.truffle.r.runtime.RMetrics;
+import com.oracle.truffle.r.runtime.RRuntime;
+import com.oracle.truffle.r.runtime.builtins.RBuiltin;
+import com.oracle.truffle.r.runtime.data.RDataFactory;
+import com.oracle.truffle.r.runtime.data.RDoubleVector;
+import com.oracle.truffle.r.runtime.data.RList;
+
+/**
+ * Returns the {@link RMetrics} as a named list: named numeric vectors {@code function.calls},
+ * {@code function.time} (seconds), {@code allocation.counts}, {@code allocated.bytes} (by vector
+ * type), {@code native.calls} and {@code native.time} (seconds, by {@code .Call} symbol), and the
+ * totals {@code copies}, {@code copied.bytes} and {@code promise.forces}, and the current
+ * {@code offheap.bytes} (not affected by a reset), and {@code caches}, the hit and miss counts of
+ * the runtime's caches (collected even if the metrics are disabled). If {@code reset} is
+ * {@code TRUE}, the counters are zeroed after they have been read. If {@code enable} is
+ * {@code TRUE} or {@code FALSE}, the collection is switched on or off after the metrics have been
+ * read; it is off by default, see {@link RMetrics}.
+ */
+@RBuiltin(name = ".fastr.metrics", kind = PRIMITIVE, parameterNames = {"reset", "enable"}, behavior = COMPLEX)
+public abstract class FastRMetrics extends RBuiltinNode {
+
+    @Override
+    public Object[] getDefaultParameterValues() {
+        return new Object[]{RRuntime.LOGICAL_FALSE, RRuntime.LOGICAL_NA};
+    }
+
+    @Override
+    protected void createCasts(CastBuilder casts) {
+        casts.arg("reset").asLogicalVector().findFirst().notNA().map(toBoolean());
+        casts.arg("enable").asLogicalVector().findFirst(RRuntime.LOGICAL_NA);
+    }
+
+    @Specialization
+    @TruffleBoundary
+    protected RList metrics(boolean reset, byte enable) {
+        RMetrics metrics = RMetrics.getInstance();
+        Object[] data = new Object[]{toVector(metrics.getFunctionCalls(), 1), toVector(metrics.getFunctionTime(), 1E9), toVector(metrics.getAllocationCounts(), 1),
+                        toVector(metrics.getAllocatedBytes(), 1), (double) metrics.getCopies(), (double) metrics.getCopiedBytes(), (double) metrics.getPromiseForces(),
+                        toVector(metrics.getNativeCalls(), 1), toVector(metrics.getNativeTime(), 1E9), (double) metrics.getOffHeapBytes(),
+                        toVector(metrics.getCaches(), 1)};
+        String[] names = new String[]{"function.calls", "function.time", "allocation.counts", "allocated.bytes", "copies", "copied.bytes", "promise.forces", "native.calls", "native.time",
+                        "offheap.bytes", "caches"};
+        if (reset) {
+            metrics.reset();
+        }
+        if (!RRuntime.isNA(enable)) {
+            RMetrics.setEnabled(RRuntime.fromLogical(enable));
+        }
+        return RDataFactory.createList(data, RDataFactory.createStringVector(names, RDataFactory.COMPLETE_VECTOR));
+    }
+
+    private static RDoubleVector toVector(Map<String, Long> values, double scale) {
+        double[] data = new double[values.size()];
+        String[] names = new String[values.size()];
+        int i = 0;
+        for (Map.Entry<String, Long> entry : values.entrySet()) {
+            names[i] = entry.getKey();
+            data[i] = entry.getValue() / scale;
+            i++;
+        }
+        return RDataFactory.createDoubleVector(data, RDataFactory.COMPLETE_VECTOR, RDataFactory.createStringVector(names, RDataFactory.COMPLETE_VECTOR));
+    }
+}
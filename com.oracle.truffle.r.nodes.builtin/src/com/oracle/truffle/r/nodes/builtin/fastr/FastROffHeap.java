@@ -0,0 +1,246 @@
+/*
+ * Copyright (c) 2016, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.truffle.r.nodes.builtin.fastr;
+
+import static com.oracle.truffle.r.nodes.builtin.CastBuilder.Predef.gte;
+import static com.oracle.truffle.r.nodes.builtin.CastBuilder.Predef.stringValue;
+import static com.oracle.truffle.r.nodes.builtin.CastBuilder.Predef.toBoolean;
+import static com.oracle.truffle.r.runtime.builtins.RBehavior.IO;
+import static com.oracle.truffle.r.runtime.builtins.RBehavior.PURE;
+import static com.oracle.truffle.r.runtime.builtins.RBuiltinKind.PRIMITIVE;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Paths;
+
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+import com.oracle.truffle.api.dsl.Fallback;
+import com.oracle.truffle.api.dsl.Specialization;
+import com.oracle.truffle.r.nodes.builtin.CastBuilder;
+import com.oracle.truffle.r.nodes.builtin.RBuiltinNode;
+import com.oracle.truffle.r.runtime.RError;
+import com.oracle.truffle.r.runtime.RRuntime;
+import com.oracle.truffle.r.runtime.Utils;
+import com.oracle.truffle.r.runtime.builtins.RBuiltin;
+import com.oracle.truffle.r.runtime.data.RAttributes;
+import com.oracle.truffle.r.runtime.data.RDataFactory;
+import com.oracle.truffle.r.runtime.data.RMissing;
+import com.oracle.truffle.r.runtime.data.ROffHeapStorage;
+import com.oracle.truffle.r.runtime.data.ROffHeapVector;
+import com.oracle.truffle.r.runtime.data.model.RAbstractDoubleVector;
+import com.oracle.truffle.r.runtime.data.model.RAbstractIntVector;
+import com.oracle.truffle.r.runtime.data.model.RAbstractRawVector;
+import com.oracle.truffle.r.runtime.data.model.RAbstractVector;
+
+/**
+ * Builtins for vectors whose elements are kept outside of the Java heap, see
+ * {@link ROffHeapVector}.
+ */
+public class FastROffHeap {
+
+    /**
+     * The number of elements copied at a time, so that moving a vector off heap does not need a
+     * second heap array of the same size.
+     */
+    private static final int CHUNK = 1 << 16;
+
+    private static ROffHeapStorage allocate(RBuiltinNode node, long bytes) {
+        try {
+            return ROffHeapStorage.allocate(bytes);
+        } catch (OutOfMemoryError e) {
+            throw RError.error(node, RError.Message.GENERIC, "cannot allocate off-heap vector of " + bytes + " bytes");
+        }
+    }
+
+    private static void checkNoAttributes(RBuiltinNode node, RAbstractVector x) {
+        RAttributes attributes = x.getAttributes();
+        if (attributes != null && !attributes.isEmpty()) {
+            throw RError.error(node, RError.Message.GENERIC, "off-heap vectors cannot have attributes");
+        }
+    }
+
+    /**
+     * Returns a copy of the double, integer or raw vector {@code x} whose elements are kept outside
+     * of the Java heap. The result is read-only: modifying it, or setting attributes on it, works
+     * on a heap copy.
+     */
+    @RBuiltin(name = ".fastr.offheap", kind = PRIMITIVE, parameterNames = {"x"}, behavior = PURE)
+    public abstract static class ToOffHeap extends RBuiltinNode {
+
+        @Specialization
+        protected ROffHeapVector offHeap(ROffHeapVector x) {
+            return x;
+        }
+
+        @Specialization(guards = "!isOffHeap(x)")
+        @TruffleBoundary
+        protected ROffHeapVector offHeap(RAbstractDoubleVector x) {
+            checkNoAttributes(this, x);
+            int length = x.getLength();
+            ROffHeapStorage storage = allocate(this, (long) length << 3);
+            double[] chunk = new double[Math.min(length, CHUNK)];
+            for (int start = 0; start < length; start += CHUNK) {
+                int n = Math.min(CHUNK, length - start);
+                for (int i = 0; i < n; i++) {
+                    chunk[i] = x.getDataAt(start + i);
+                }
+                storage.putDoubles(start, chunk, 0, n);
+            }
+            return RDataFactory.createOffHeapDoubleVector(storage, length, x.isComplete());
+        }
+
+        @Specialization(guards = "!isOffHeap(x)")
+        @TruffleBoundary
+        protected ROffHeapVector offHeap(RAbstractIntVector x) {
+            checkNoAttributes(this, x);
+            int length = x.getLength();
+            ROffHeapStorage storage = allocate(this, (long) length << 2);
+            int[] chunk = new int[Math.min(length, CHUNK)];
+            for (int start = 0; start < length; start += CHUNK) {
+                int n = Math.min(CHUNK, length - start);
+                for (int i = 0; i < n; i++) {
+                    chunk[i] = x.getDataAt(start + i);
+                }
+                storage.putInts(start, chunk, 0, n);
+            }
+            return RDataFactory.createOffHeapIntVector(storage, length, x.isComplete());
+        }
+
+        @Specialization(guards = "!isOffHeap(x)")
+        @TruffleBoundary
+        protected ROffHeapVector offHeap(RAbstractRawVector x) {
+            checkNoAttributes(this, x);
+            int length = x.getLength();
+            ROffHeapStorage storage = allocate(this, length);
+            byte[] chunk = new byte[Math.min(length, CHUNK)];
+            for (int start = 0; start < length; start += CHUNK) {
+                int n = Math.min(CHUNK, length - start);
+                for (int i = 0; i < n; i++) {
+                    chunk[i] = x.getRawDataAt(start + i);
+                }
+                storage.putBytes(start, chunk, 0, n);
+            }
+            return RDataFactory.createOffHeapRawVector(storage, length);
+        }
+
+        @Fallback
+        protected Object offHeap(@SuppressWarnings("unused") Object x) {
+            throw RError.error(this, RError.Message.GENERIC, "only double, integer and raw vectors can be stored off heap");
+        }
+
+        protected static boolean isOffHeap(Object x) {
+            return x instanceof ROffHeapVector;
+        }
+    }
+
+    /**
+     * Returns a vector of type {@code type} ({@code "double"}, {@code "integer"} or {@code "raw"})
+     * whose elements are the contents of {@code file} from byte {@code offset} on, in the native byte
+     * order ({@code .Platform$endian}). The file is memory-mapped, so only the pages that are
+     * accessed are read, and the vector does not occupy the Java heap. If {@code length} is
+     * {@code NA}, the vector extends to the end of the file.
+     *
+     * With {@code readonly = FALSE}, the file is created or extended with zeros to {@code length}
+     * elements and mapped writable, e.g. to be filled by {@code writeBin} from this or another
+     * process. The vector itself is read-only in either case: assigning to it modifies a heap copy
+     * and never the file. {@code length} and {@code offset} must be whole numbers.
+     *
+     * The file must not be truncated while it is mapped. Reading a page that no longer exists in the
+     * file raises a bus error, which the JVM reports as an {@link InternalError} at some later
+     * memory access rather than at the faulting one, so it cannot be turned into an R error here;
+     * it surfaces as an internal error of the evaluation.
+     */
+    @RBuiltin(name = ".fastr.mmap", kind = PRIMITIVE, parameterNames = {"file", "type", "length", "readonly", "offset"}, behavior = IO)
+    public abstract static class MMap extends RBuiltinNode {
+
+        @Override
+        public Object[] getDefaultParameterValues() {
+            return new Object[]{RMissing.instance, "double", RRuntime.DOUBLE_NA, RRuntime.LOGICAL_TRUE, 0d};
+        }
+
+        @Override
+        protected void createCasts(CastBuilder casts) {
+            casts.arg("file").mustBe(stringValue()).asStringVector().findFirst().notNA();
+            casts.arg("type").mustBe(stringValue()).asStringVector().findFirst().notNA();
+            casts.arg("length").asDoubleVector().findFirst();
+            casts.arg("readonly").asLogicalVector().findFirst().notNA().map(toBoolean());
+            casts.arg("offset").asDoubleVector().findFirst().notNA().mustBe(gte(0d));
+        }
+
+        @Specialization
+        @TruffleBoundary
+        protected ROffHeapVector mmap(String file, String type, double length, boolean readonly, double offset) {
+            int shift;
+            switch (type) {
+                case "double":
+                    shift = 3;
+                    break;
+                case "integer":
+                    shift = 2;
+                    break;
+                case "raw":
+                    shift = 0;
+                    break;
+                default:
+                    throw RError.error(this, RError.Message.INVALID_ARGUMENT, "type");
+            }
+            if (!isWholeNumber(offset)) {
+                throw RError.error(this, RError.Message.INVALID_ARGUMENT, "offset");
+            }
+            String path = Utils.tildeExpand(file);
+            long elements;
+            if (RRuntime.isNA(length)) {
+                long available = new File(path).length() - (long) offset;
+                if (available < 0) {
+                    throw RError.error(this, RError.Message.GENERIC, "offset is beyond the end of file '" + file + "'");
+                }
+                elements = available >> shift;
+            } else if (length < 0 || !isWholeNumber(length)) {
+                throw RError.error(this, RError.Message.INVALID_ARGUMENT, "length");
+            } else {
+                elements = (long) length;
+            }
+            if (elements > Integer.MAX_VALUE) {
+                throw RError.error(this, RError.Message.GENERIC, "long vectors are not supported, file '" + file + "' has " + elements + " elements");
+            }
+            ROffHeapStorage storage;
+            try {
+                storage = ROffHeapStorage.map(Paths.get(path), (long) offset, elements << shift, readonly);
+            } catch (IOException e) {
+                throw RError.error(this, RError.Message.GENERIC, "cannot map file '" + file + "': " + e.getMessage());
+            }
+            switch (shift) {
+                case 3:
+                    return RDataFactory.createOffHeapDoubleVector(storage, (int) elements, false);
+                case 2:
+                    return RDataFactory.createOffHeapIntVector(storage, (int) elements, false);
+                default:
+                    return RDataFactory.createOffHeapRawVector(storage, (int) elements);
+            }
+        }
+
+        private static boolean isWholeNumber(double value) {
+            return !Double.isInfinite(value) && value == Math.rint(value);
+        }
+    }
+}
@@ -27,6 +27,7 @@ import static com.oracle.truffle.r.runtime.RVisibility.OFF;
 import static com.oracle.truffle.r.runtime.builtins.RBehavior.COMPLEX;
 import static com.oracle.truffle.r.runtime.builtins.RBuiltinKind.PRIMITIVE;
 
+import java.io.BufferedOutputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.PrintStream;
@@ -55,6 +56,7 @@ import com.oracle.truffle.r.runtime.data.model.RAbstractStringVector;
 import com.oracle.truffle.r.runtime.data.model.RAbstractVector;
 import com.oracle.truffle.r.runtime.data.RAttributes.AttributeTracer.Change;
 import com.oracle.truffle.r.runtime.instrument.InstrumentationState.RprofState;
+import com.oracle.truffle.r.runtime.instrument.RSamplingProfiler;
 import com.oracle.truffle.tools.Profiler;
 import com.oracle.truffle.tools.Profiler.Counter.TimeKind;
 
@@ -292,6 +294,85 @@ public class FastRStats {
 
     }
 
+    /**
+     * Starts ({@code filename} given) or stops ({@code NULL}) a {@link RSamplingProfiler} that
+     * writes either {@code Rprof} compatible output or collapsed stacks for flame graph tools.
+     */
+    @RBuiltin(name = ".fastr.prof.sample", visibility = OFF, kind = PRIMITIVE, parameterNames = {"filename", "append", "interval", "format", "line.profiling"}, behavior = COMPLEX)
+    public abstract static class FastRProfSample extends RBuiltinNode {
+        @Override
+        public Object[] getDefaultParameterValues() {
+            return new Object[]{"Rprof.folded", RRuntime.LOGICAL_FALSE, 0.02, "collapsed", RRuntime.LOGICAL_FALSE};
+        }
+
+        @Override
+        protected void createCasts(CastBuilder casts) {
+            Casts.filename(casts);
+            Casts.append(casts);
+            casts.arg("interval").asDoubleVector().findFirst().mustBe(gt(0.0));
+            casts.arg("format").mustBe(stringValue()).asStringVector().findFirst();
+            casts.arg("line.profiling").asLogicalVector().findFirst().notNA().map(toBoolean());
+        }
+
+        @SuppressWarnings("unused")
+        @Specialization
+        @TruffleBoundary
+        protected RNull profSample(RNull filenameVec, boolean append, double interval, String format, boolean lineProfiling) {
+            endProfiling();
+            return RNull.instance;
+        }
+
+        @Specialization
+        @TruffleBoundary
+        protected RNull profSample(RAbstractStringVector filenameVec, boolean append, double interval, String format, boolean lineProfiling) {
+            endProfiling();
+            if (filenameVec.getLength() > 0) {
+                RSamplingProfiler.Format outputFormat = RSamplingProfiler.Format.fromName(format);
+                if (outputFormat == null) {
+                    throw RError.error(this, RError.Message.INVALID_ARGUMENT, "format");
+                }
+                State state = State.get();
+                try {
+                    PrintStream out = new PrintStream(new BufferedOutputStream(new FileOutputStream(filenameVec.getDataAt(0), append)));
+                    state.setOut(out);
+                    state.profiler = RSamplingProfiler.start(out, outputFormat, (long) (1E3 * interval), lineProfiling, false);
+                } catch (IOException ex) {
+                    throw RError.error(this, RError.Message.GENERIC, String.format("cannot open profile file '%s'", filenameVec.getDataAt(0)));
+                }
+            }
+            return RNull.instance;
+        }
+
+        private static void endProfiling() {
+            State state = State.get();
+            if (state.out() != null) {
+                state.cleanup(0);
+            }
+        }
+
+        private static class State extends RprofState {
+            private RSamplingProfiler profiler;
+
+            private static State get() {
+                State state = (State) RContext.getInstance().stateInstrumentation.getRprofState("sample");
+                if (state == null) {
+                    state = new State();
+                    RContext.getInstance().stateInstrumentation.setRprofState("sample", state);
+                }
+                return state;
+            }
+
+            @Override
+            public void cleanup(int status) {
+                if (profiler != null) {
+                    profiler.stop();
+                    profiler = null;
+                    setOut(null);
+                }
+            }
+        }
+    }
+
     @RBuiltin(name = ".fastr.stats.funcounts", visibility = OFF, kind = PRIMITIVE, parameterNames = {"filename", "append", "timing", "threshold", "histograms"}, behavior = COMPLEX)
     public abstract static class FastRProfFuncounts extends RBuiltinNode {
         @Override
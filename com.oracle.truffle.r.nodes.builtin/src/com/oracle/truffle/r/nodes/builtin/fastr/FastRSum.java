@@ -0,0 +1,81 @@
+/*
+ * Copyright (c) 2016, 2016, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.truffle.r.nodes.builtin.fastr;
+
+import static com.oracle.truffle.r.nodes.builtin.CastBuilder.Predef.numericValue;
+import static com.oracle.truffle.r.nodes.builtin.CastBuilder.Predef.stringValue;
+import static com.oracle.truffle.r.nodes.builtin.CastBuilder.Predef.toBoolean;
+import static com.oracle.truffle.r.runtime.builtins.RBehavior.PURE;
+import static com.oracle.truffle.r.runtime.builtins.RBuiltinKind.PRIMITIVE;
+
+import com.oracle.truffle.api.CompilerDirectives;
+import com.oracle.truffle.api.dsl.Specialization;
+import com.oracle.truffle.r.nodes.builtin.CastBuilder;
+import com.oracle.truffle.r.nodes.builtin.RBuiltinNode;
+import com.oracle.truffle.r.runtime.RError;
+import com.oracle.truffle.r.runtime.RRuntime;
+import com.oracle.truffle.r.runtime.builtins.RBuiltin;
+import com.oracle.truffle.r.runtime.data.RDoubleVector;
+import com.oracle.truffle.r.runtime.data.RMissing;
+import com.oracle.truffle.r.runtime.data.model.RAbstractDoubleVector;
+import com.oracle.truffle.r.runtime.ffi.RFFIFactory;
+import com.oracle.truffle.r.runtime.ops.VectorReductions;
+import com.oracle.truffle.r.runtime.ops.VectorReductions.SumPrecision;
+
+/**
+ * Sums a numeric vector with the given precision: {@code "double"} (plain double arithmetic),
+ * {@code "compensated"} (Neumaier summation) or {@code "extended"} (native 128 bit accumulator).
+ * {@code sum} uses {@code "double"}, or {@code "extended"} if {@code FullPrecisionSum} is set.
+ */
+@RBuiltin(name = ".fastr.sum", kind = PRIMITIVE, parameterNames = {"x", "na.rm", "precision"}, behavior = PURE)
+public abstract class FastRSum extends RBuiltinNode {
+
+    @Override
+    public Object[] getDefaultParameterValues() {
+        return new Object[]{RMissing.instance, RRuntime.LOGICAL_FALSE, "compensated"};
+    }
+
+    @Override
+    protected void createCasts(CastBuilder casts) {
+        casts.arg("x").mustBe(numericValue()).asDoubleVector();
+        casts.arg("na.rm").asLogicalVector().findFirst().map(toBoolean());
+        casts.arg("precision").mustBe(stringValue()).asStringVector().findFirst();
+    }
+
+    @Specialization
+    protected double sum(RAbstractDoubleVector x, boolean naRm, String precision) {
+        RDoubleVector vector = x.materialize();
+        reportWork(vector.getLength());
+        switch (precision) {
+            case "double":
+                return VectorReductions.sum(vector.getDataWithoutCopying(), 0, vector.getLength(), naRm, SumPrecision.DOUBLE);
+            case "compensated":
+                return VectorReductions.sum(vector.getDataWithoutCopying(), 0, vector.getLength(), naRm, SumPrecision.COMPENSATED);
+            case "extended":
+                return RFFIFactory.getRFFI().getMiscRFFI().exactSum(vector.getDataWithoutCopying(), !vector.isComplete(), naRm);
+            default:
+                CompilerDirectives.transferToInterpreter();
+                throw RError.error(this, RError.Message.INVALID_ARGUMENT, "precision");
+        }
+    }
+}
@@ -41,10 +41,13 @@ import com.oracle.truffle.r.runtime.context.RContext;
 import com.oracle.truffle.r.runtime.data.RAttributeProfiles;
 import com.oracle.truffle.r.runtime.data.RAttributes;
 import com.oracle.truffle.r.runtime.data.RDataFactory;
+import com.oracle.truffle.r.runtime.data.RDoubleSequence;
+import com.oracle.truffle.r.runtime.data.RIntSequence;
 import com.oracle.truffle.r.runtime.data.RLanguage;
 import com.oracle.truffle.r.runtime.data.RList;
 import com.oracle.truffle.r.runtime.data.RLogical;
 import com.oracle.truffle.r.runtime.data.RNull;
+import com.oracle.truffle.r.runtime.data.RSequence;
 import com.oracle.truffle.r.runtime.data.RString;
 import com.oracle.truffle.r.runtime.data.RStringVector;
 import com.oracle.truffle.r.runtime.data.RTypedValue;
@@ -65,6 +68,7 @@ final class CachedExtractVectorNode extends CachedVectorNode {
     private final Class<? extends RTypedValue> dropDimensionsClass;
     private final boolean exact;
     private final boolean dropDimensions;
+    private final boolean sequenceTarget;
 
     private final VectorLengthProfile vectorLengthProfile = VectorLengthProfile.create();
     private final RAttributeProfiles vectorNamesProfile = RAttributeProfiles.create();
@@ -88,6 +92,7 @@ final class CachedExtractVectorNode extends CachedVectorNode {
     CachedExtractVectorNode(ElementAccessMode mode, RTypedValue vector, Object[] positions, RTypedValue exact, RTypedValue dropDimensions, boolean recursive) {
         super(mode, vector, positions, recursive);
         this.targetClass = vector.getClass();
+        this.sequenceTarget = RSequence.class.isAssignableFrom(targetClass);
         this.exactClass = exact.getClass();
         this.dropDimensionsClass = dropDimensions.getClass();
         Object[] convertedPositions = filterPositions(positions);
@@ -112,6 +117,7 @@ final class CachedExtractVectorNode extends CachedVectorNode {
     }
 
     private final ConditionProfile extractedLengthGTZeroProfile = ConditionProfile.createBinaryProfile();
+    private final ConditionProfile sequenceSubsetProfile = ConditionProfile.createBinaryProfile();
     private final ConditionProfile oneDimensionProfile = ConditionProfile.createBinaryProfile();
 
     public Object apply(Object originalVector, Object[] originalPositions, PositionProfile[] originalProfiles, Object originalExact, Object originalDropDimensions) {
@@ -159,6 +165,13 @@ final class CachedExtractVectorNode extends CachedVectorNode {
             return originalVector;
         }
 
+        if (sequenceTarget && mode.isSubset() && numberOfDimensions == 1) {
+            RAbstractVector sequence = subsetSequence((RSequence) vector, positions[0], vectorLength);
+            if (sequenceSubsetProfile.profile(sequence != null)) {
+                return sequence;
+            }
+        }
+
         int extractedVectorLength = positionsCheckNode.getSelectedPositionsCount(positionProfiles);
         final RVector<?> extractedVector;
         switch (vectorType) {
@@ -210,6 +223,41 @@ final class CachedExtractVectorNode extends CachedVectorNode {
         }
     }
 
+    /**
+     * Selecting an ascending or descending range of in-bounds positions from a sequence, e.g. in
+     * {@code rev(1:n)} or {@code x[2:n]}, yields a sequence again, so the result does not need to
+     * be materialized. Returns {@code null} if the positions are not such a range.
+     */
+    private static RAbstractVector subsetSequence(RSequence vector, Object position, int vectorLength) {
+        if (!(position instanceof RIntSequence)) {
+            return null;
+        }
+        RIntSequence positionSequence = (RIntSequence) position;
+        int length = positionSequence.getLength();
+        int first = positionSequence.getStart();
+        int last = positionSequence.getEnd();
+        if (length < 2 || first < 1 || last < 1 || first > vectorLength || last > vectorLength) {
+            return null;
+        }
+        if (vector instanceof RIntSequence) {
+            RIntSequence sequence = (RIntSequence) vector;
+            long stride = (long) sequence.getStride() * positionSequence.getStride();
+            if (stride != (int) stride) {
+                return null;
+            }
+            return RDataFactory.createIntSequence(sequence.getDataAt(first - 1), (int) stride, length);
+        } else {
+            RDoubleSequence sequence = (RDoubleSequence) vector;
+            double start = sequence.getStart();
+            double stride = sequence.getStride();
+            // only integral sequences are guaranteed to produce exactly the same elements
+            if (start != Math.rint(start) || stride != Math.rint(stride)) {
+                return null;
+            }
+            return RDataFactory.createDoubleSequence(sequence.getDataAt(first - 1), stride * positionSequence.getStride(), length);
+        }
+    }
+
     private int[] getDimensions(final RAbstractContainer vector) {
         int[] dimensions;
         if (numberOfDimensions == 1) {
@@ -509,9 +509,15 @@ final class CachedReplaceVectorNode extends CachedVectorNode {
     @TruffleBoundary
     private RVector<?> resizeVector(RAbstractVector vector, int size) {
         RStringVector oldNames = vector.getNames(vectorNamesProfile);
-        RVector<?> res = vector.copyResized(size, true).materialize();
-        if (vector instanceof RVector) {
-            res.copyAttributesFrom(positionNamesProfile, vector);
+        RVector<?> res;
+        if (vector instanceof RVector && !((RVector<?>) vector).isShared() && ((RVector<?>) vector).growInPlace(size)) {
+            // the vector is modified in place anyway, so it can also be extended in place
+            res = (RVector<?>) vector;
+        } else {
+            res = vector.copyResized(size, true).materialize();
+            if (vector instanceof RVector) {
+                res.copyAttributesFrom(positionNamesProfile, vector);
+            }
         }
         res.setDimensionsNoCheck(null);
         res.setDimNamesNoCheck(null);
@@ -30,6 +30,7 @@ import com.oracle.truffle.api.profiles.ConditionProfile;
 import com.oracle.truffle.api.profiles.ValueProfile;
 import com.oracle.truffle.r.nodes.access.vector.SearchFirstStringNode.CompareStringNode.StringEqualsNode;
 import com.oracle.truffle.r.nodes.profile.VectorLengthProfile;
+import com.oracle.truffle.r.runtime.FastROptions;
 import com.oracle.truffle.r.runtime.RRuntime;
 import com.oracle.truffle.r.runtime.data.RDataFactory;
 import com.oracle.truffle.r.runtime.data.RStringVector;
@@ -39,7 +40,9 @@ import com.oracle.truffle.r.runtime.ops.na.NACheck;
 
 /**
  * This node encapsulates a speculative search of the first elements in an character vector and
- * returns an integer vector with their indices.
+ * returns an integer vector with their indices. Targets of at least
+ * {@link FastROptions#NamesIndexThreshold} elements are searched through the hash index of
+ * {@link RStringVector#getFirstIndexOf(String)} rather than linearly.
  */
 final class SearchFirstStringNode extends Node {
 
@@ -58,10 +61,12 @@ final class SearchFirstStringNode extends Node {
     private final NACheck targetNACheck = NACheck.create();
     private final BranchProfile everFoundDuplicate = BranchProfile.create();
     private final BranchProfile seenInvalid = BranchProfile.create();
+    private final ConditionProfile indexedProfile = ConditionProfile.createBinaryProfile();
 
     /** Instead of using the notFoundStartIndex we use NA. */
     private final boolean useNAForNotFound;
     private final boolean exactMatch;
+    private final int indexThreshold = FastROptions.NamesIndexThreshold.getNonNegativeIntValue();
 
     @CompilationFinal private int[] cachedIndices;
 
@@ -85,10 +90,11 @@ final class SearchFirstStringNode extends Node {
 
         if (cachedIndices == UNINTIALIZED_CACHED_INDICES) {
             CompilerDirectives.transferToInterpreterAndInvalidate();
-            cachedIndices = searchCached(targetProfiled, targetLength, elementsProfiled, elementsLength, names);
+            // validating cached indices against a large target costs as much as a linear search
+            cachedIndices = isIndexed(targetProfiled, targetLength) ? null : searchCached(targetProfiled, targetLength, elementsProfiled, elementsLength, names);
         }
         if (cachedIndices != null) {
-            if (!isCacheValid(targetProfiled, targetLength, elementsProfiled, elementsLength, cachedIndices)) {
+            if (isIndexed(targetProfiled, targetLength) || !isCacheValid(targetProfiled, targetLength, elementsProfiled, elementsLength, cachedIndices)) {
                 CompilerDirectives.transferToInterpreterAndInvalidate();
                 cachedIndices = null; // set to generic
                 // fallthrough to generic
@@ -212,13 +218,25 @@ final class SearchFirstStringNode extends Node {
         return RDataFactory.createIntVector(indices, resultComplete && elements.isComplete(), names);
     }
 
+    private boolean isIndexed(RAbstractStringVector target, int targetLength) {
+        return targetLength >= indexThreshold && target instanceof RStringVector;
+    }
+
     private int findIndex(RAbstractStringVector target, int targetLength, String element) {
+        boolean indexed = indexedProfile.profile(isIndexed(target, targetLength));
+        if (indexed) {
+            // the index yields the first exact match, which takes precedence over partial ones
+            int index = ((RStringVector) target).getFirstIndexOf(element);
+            if (index >= 0 || exactMatch) {
+                return index;
+            }
+        }
         int nonExactIndex = -1;
         int elementHash = element.hashCode();
         for (int j = 0; j < targetLength; j++) {
             String targetValue = target.getDataAt(j);
             if (!targetNACheck.check(targetValue)) {
-                if (stringEquals.executeCompare(element, elementHash, targetValue)) {
+                if (!indexed && stringEquals.executeCompare(element, elementHash, targetValue)) {
                     return j;
                 }
                 if (!exactMatch) {
@@ -134,7 +134,7 @@ abstract class WriteIndexedVectorNode extends Node {
         if (right instanceof RAbstractContainer) {
             RAbstractContainer rightContainer = (RAbstractContainer) right;
             assert rightContainer.getLength() == rightLength;
-            rightStore = rightContainer.getInternalStore();
+            rightStore = rightContainer.getInternalStoreForReading();
         }
 
         int initialPositionOffset;
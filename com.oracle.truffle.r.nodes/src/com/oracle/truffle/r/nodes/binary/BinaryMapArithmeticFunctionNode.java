@@ -29,7 +29,10 @@ import com.oracle.truffle.r.runtime.data.RComplex;
 import com.oracle.truffle.r.runtime.data.RDataFactory;
 import com.oracle.truffle.r.runtime.data.RDoubleSequence;
 import com.oracle.truffle.r.runtime.data.RIntSequence;
+import com.oracle.truffle.r.runtime.data.RRepeatedVector;
 import com.oracle.truffle.r.runtime.data.RSequence;
+import com.oracle.truffle.r.runtime.data.model.RAbstractDoubleVector;
+import com.oracle.truffle.r.runtime.data.model.RAbstractIntVector;
 import com.oracle.truffle.r.runtime.data.model.RAbstractVector;
 import com.oracle.truffle.r.runtime.ops.BinaryArithmetic;
 import com.oracle.truffle.r.runtime.ops.BinaryArithmetic.Add;
@@ -57,11 +60,19 @@ public final class BinaryMapArithmeticFunctionNode extends BinaryMapNAFunctionNo
 
     @Override
     public boolean mayFoldConstantTime(Class<? extends RAbstractVector> leftClass, Class<? extends RAbstractVector> rightClass) {
+        if (RRepeatedVector.class.isAssignableFrom(leftClass) || RRepeatedVector.class.isAssignableFrom(rightClass)) {
+            return true;
+        }
         return (isSequenceAddArithmetic() || isSequenceMulArithmetic()) && (RSequence.class.isAssignableFrom(leftClass) || RSequence.class.isAssignableFrom(rightClass));
     }
 
     @Override
     public RAbstractVector tryFoldConstantTime(RAbstractVector left, int leftLength, RAbstractVector right, int rightLength) {
+        if (left instanceof RRepeatedVector && rightLength == 1) {
+            return foldRepeated((RRepeatedVector) left, right, true);
+        } else if (right instanceof RRepeatedVector && leftLength == 1) {
+            return foldRepeated((RRepeatedVector) right, left, false);
+        }
         if (isSequenceAddArithmetic()) {
             return sequenceAddOperation(left, leftLength, right, rightLength);
         } else if (isSequenceMulArithmetic()) {
@@ -205,6 +216,56 @@ public final class BinaryMapArithmeticFunctionNode extends BinaryMapNAFunctionNo
         return null;
     }
 
+    /**
+     * Applies the operation to the pattern of a repeated vector and a scalar, which yields the
+     * pattern of the result. Any operation can be folded this way.
+     */
+    private RAbstractVector foldRepeated(RRepeatedVector repeated, RAbstractVector scalar, boolean repeatedIsLeft) {
+        RAbstractVector pattern = repeated.getPattern();
+        int length = pattern.getLength();
+        if (pattern instanceof RAbstractIntVector) {
+            RAbstractIntVector intPattern = (RAbstractIntVector) pattern;
+            int other = ((RAbstractIntVector) scalar).getDataAt(0);
+            if (arithmetic.isSupportsIntResult()) {
+                int[] result = new int[length];
+                for (int i = 0; i < length; i++) {
+                    int value = intPattern.getDataAt(i);
+                    result[i] = repeatedIsLeft ? applyInteger(value, other) : applyInteger(other, value);
+                }
+                boolean complete = true;
+                for (int value : result) {
+                    complete &= !RRuntime.isNA(value);
+                }
+                return RDataFactory.createRepeatedIntVector(RDataFactory.createIntVector(result, complete), repeated.getEach(), repeated.getLength());
+            } else {
+                double[] result = new double[length];
+                for (int i = 0; i < length; i++) {
+                    int value = intPattern.getDataAt(i);
+                    result[i] = repeatedIsLeft ? applyDouble(value, other) : applyDouble(other, value);
+                }
+                return createRepeatedDouble(repeated, result);
+            }
+        } else if (pattern instanceof RAbstractDoubleVector) {
+            RAbstractDoubleVector doublePattern = (RAbstractDoubleVector) pattern;
+            double other = ((RAbstractDoubleVector) scalar).getDataAt(0);
+            double[] result = new double[length];
+            for (int i = 0; i < length; i++) {
+                double value = doublePattern.getDataAt(i);
+                result[i] = repeatedIsLeft ? applyDouble(value, other) : applyDouble(other, value);
+            }
+            return createRepeatedDouble(repeated, result);
+        }
+        return null;
+    }
+
+    private static RAbstractVector createRepeatedDouble(RRepeatedVector repeated, double[] result) {
+        boolean complete = true;
+        for (double value : result) {
+            complete &= !RRuntime.isNA(value);
+        }
+        return RDataFactory.createRepeatedDoubleVector(RDataFactory.createDoubleVector(result, complete), repeated.getEach(), repeated.getLength());
+    }
+
     private RAbstractVector foldSequence(RSequence sequence, Object otherStart, Object otherStride, NACheck otherNACheck) {
         if (sequence instanceof RIntSequence) {
             return foldIntSequence(sequence, otherStart, otherStride, otherNACheck);
@@ -0,0 +1,113 @@
+/*
+ * Copyright (c) 2016, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.truffle.r.nodes.binary;
+
+import java.util.function.Function;
+
+import com.oracle.truffle.api.frame.VirtualFrame;
+import com.oracle.truffle.r.nodes.function.RCallSpecialNode;
+import com.oracle.truffle.r.runtime.FastROptions;
+import com.oracle.truffle.r.runtime.data.RDataFactory;
+import com.oracle.truffle.r.runtime.data.RDouble;
+import com.oracle.truffle.r.runtime.data.RDoubleVector;
+import com.oracle.truffle.r.runtime.nodes.RNode;
+import com.oracle.truffle.r.runtime.ops.FusedArithmetic;
+
+/**
+ * The special call (see {@link RCallSpecialNode}) for {@code +}, {@code -}, {@code *} and
+ * {@code /}. If the arguments are double vectors without attributes (or double scalars), nested
+ * arithmetic calls are not evaluated into intermediate vectors: each nested call returns a deferred
+ * {@link FusedArithmetic} expression, and only the outermost call materializes the result in a
+ * single pass. In all other cases, e.g., integer operands, attributes, recycling or operands that
+ * are all scalars, the special bails out to the full call, before any side effect (e.g., a
+ * warning) happens.
+ */
+public final class FusedArithmeticNode extends RNode implements RCallSpecialNode.Deferrable {
+
+    @Child private RNode left;
+    @Child private RNode right;
+
+    private final int op;
+
+    private FusedArithmeticNode(int op, RNode left, RNode right) {
+        this.op = op;
+        this.left = left;
+        this.right = right;
+    }
+
+    /**
+     * Creates the special call factory for a builtin, {@code unaryOp} is used if there is only one
+     * argument, a negative value means that the unary form is not supported.
+     */
+    public static Function<RNode[], RNode> createSpecial(int binaryOp, int unaryOp) {
+        return arguments -> {
+            if (!FastROptions.FuseArithmetic.getBooleanValue()) {
+                return null;
+            } else if (arguments.length == 2) {
+                return new FusedArithmeticNode(binaryOp, arguments[0], arguments[1]);
+            } else if (arguments.length == 1 && unaryOp >= 0) {
+                return new FusedArithmeticNode(unaryOp, arguments[0], null);
+            }
+            return null;
+        };
+    }
+
+    @Override
+    public Object execute(VirtualFrame frame) {
+        FusedArithmetic expression = executeDeferred(frame);
+        if (expression.getLength() <= 1) {
+            // scalar arithmetic is handled well enough by the full call
+            throw RCallSpecialNode.fullCallNeeded();
+        }
+        reportWork(expression.getLength());
+        return RDataFactory.createDoubleVector(expression.evaluate(), expression.isComplete());
+    }
+
+    @Override
+    public FusedArithmetic executeDeferred(VirtualFrame frame) {
+        FusedArithmetic leftOperand = executeOperand(frame, left);
+        if (right == null) {
+            return FusedArithmetic.unary(op, leftOperand);
+        }
+        FusedArithmetic result = FusedArithmetic.binary(op, leftOperand, executeOperand(frame, right));
+        if (result == null) {
+            throw RCallSpecialNode.fullCallNeeded();
+        }
+        return result;
+    }
+
+    private static FusedArithmetic executeOperand(VirtualFrame frame, RNode operand) {
+        Object value = operand instanceof RCallSpecialNode ? ((RCallSpecialNode) operand).executeDeferred(frame) : operand.execute(frame);
+        if (value instanceof FusedArithmetic) {
+            return (FusedArithmetic) value;
+        } else if (value instanceof Double) {
+            return FusedArithmetic.operand((double) value);
+        } else if (value instanceof RDouble) {
+            return FusedArithmetic.operand(((RDouble) value).getValue());
+        } else if (value instanceof RDoubleVector && ((RDoubleVector) value).getAttributes() == null) {
+            RDoubleVector vector = (RDoubleVector) value;
+            return FusedArithmetic.operand(vector.getDataWithoutCopying(), vector.isComplete());
+        }
+        throw RCallSpecialNode.fullCallNeeded();
+    }
+}
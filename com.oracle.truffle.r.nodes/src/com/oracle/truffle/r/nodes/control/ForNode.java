@@ -40,6 +40,7 @@ import com.oracle.truffle.r.nodes.function.visibility.SetVisibilityNode;
 import com.oracle.truffle.r.runtime.AnonymousFrameVariable;
 import com.oracle.truffle.r.runtime.ArgumentsSignature;
 import com.oracle.truffle.r.runtime.data.RNull;
+import com.oracle.truffle.r.runtime.instrument.RSamplingProfiler;
 import com.oracle.truffle.r.runtime.nodes.RBaseNode;
 import com.oracle.truffle.r.runtime.nodes.RNode;
 import com.oracle.truffle.r.runtime.nodes.RSyntaxCall;
@@ -138,6 +139,7 @@ public final class ForNode extends AbstractLoopNode implements RSyntaxNode, RSyn
 
         @Override
         public boolean executeRepeating(VirtualFrame frame) {
+            RSamplingProfiler.poll(forNode);
             int length;
             int index;
             try {
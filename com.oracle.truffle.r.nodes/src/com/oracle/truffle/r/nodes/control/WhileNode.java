@@ -36,6 +36,7 @@ import com.oracle.truffle.r.nodes.unary.ConvertBooleanNode;
 import com.oracle.truffle.r.runtime.ArgumentsSignature;
 import com.oracle.truffle.r.runtime.RRuntime;
 import com.oracle.truffle.r.runtime.data.RNull;
+import com.oracle.truffle.r.runtime.instrument.RSamplingProfiler;
 import com.oracle.truffle.r.runtime.nodes.RBaseNode;
 import com.oracle.truffle.r.runtime.nodes.RNode;
 import com.oracle.truffle.r.runtime.nodes.RSyntaxCall;
@@ -117,6 +118,7 @@ public final class WhileNode extends AbstractLoopNode implements RSyntaxNode, RS
 
         @Override
         public boolean executeRepeating(VirtualFrame frame) {
+            RSamplingProfiler.poll(whileNode);
             try {
                 if (conditionProfile.profile(condition.executeByte(frame) == RRuntime.LOGICAL_TRUE)) {
                     body.execute(frame);
@@ -47,6 +47,7 @@ import com.oracle.truffle.r.runtime.builtins.RBuiltinDescriptor;
 import com.oracle.truffle.r.runtime.builtins.RBuiltinKind;
 import com.oracle.truffle.r.runtime.RError;
 import com.oracle.truffle.r.runtime.RInternalError;
+import com.oracle.truffle.r.runtime.RMetrics;
 import com.oracle.truffle.r.runtime.RRuntime;
 import com.oracle.truffle.r.runtime.Utils;
 import com.oracle.truffle.r.runtime.data.RArgsValuesAndNames;
@@ -129,6 +130,13 @@ import com.oracle.truffle.r.runtime.nodes.RNode;
  */
 public class ArgumentMatcher {
 
+    /**
+     * Lookups in the permutation caches of {@link FormalArguments}, see
+     * {@link #matchArgumentsEvaluated(RRootNode, RArgsValuesAndNames, S3DefaultArguments, boolean, RBaseNode)}
+     * .
+     */
+    private static final RMetrics.CacheCounter PERMUTATION_CACHE = RMetrics.getCacheCounter("permutation");
+
     /**
      * Match arguments supplied for a specific function call to the formal arguments and wraps them
      * in {@link PromiseNode}s. Used for calls to all functions parsed from R code
@@ -227,9 +235,18 @@ public class ArgumentMatcher {
     public static RArgsValuesAndNames matchArgumentsEvaluated(RRootNode target, RArgsValuesAndNames evaluatedArgs, S3DefaultArguments s3DefaultArguments, boolean forNextMethod,
                     RBaseNode callingNode) {
         FormalArguments formals = target.getFormalArguments();
-        MatchPermutation match = permuteArguments(evaluatedArgs.getSignature(), formals.getSignature(), callingNode, forNextMethod, index -> {
-            throw RInternalError.unimplemented("S3Dispatch should not have arg length mismatch");
-        }, index -> evaluatedArgs.getSignature().getName(index), null);
+        ArgumentsSignature suppliedSignature = evaluatedArgs.getSignature();
+        MatchPermutation match = formals.getCachedPermutation(suppliedSignature, forNextMethod);
+        if (match == null) {
+            match = permuteArguments(suppliedSignature, formals.getSignature(), callingNode, forNextMethod, index -> {
+                throw RInternalError.unimplemented("S3Dispatch should not have arg length mismatch");
+            }, index -> suppliedSignature.getName(index), null);
+            // the permutation only depends on the two signatures and forNextMethod
+            formals.cachePermutation(suppliedSignature, forNextMethod, match);
+            PERMUTATION_CACHE.miss();
+        } else {
+            PERMUTATION_CACHE.hit();
+        }
 
         Object[] evaledArgs = new Object[match.resultPermutation.length];
 
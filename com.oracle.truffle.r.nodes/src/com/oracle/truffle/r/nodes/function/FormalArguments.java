@@ -24,11 +24,13 @@ package com.oracle.truffle.r.nodes.function;
 
 import java.util.Arrays;
 import java.util.IdentityHashMap;
+import java.util.concurrent.ConcurrentHashMap;
 
 import com.oracle.truffle.api.CompilerDirectives.CompilationFinal;
 import com.oracle.truffle.api.RootCallTarget;
 import com.oracle.truffle.r.nodes.access.ConstantNode;
 import com.oracle.truffle.r.nodes.builtin.RBuiltinNode;
+import com.oracle.truffle.r.nodes.function.ArgumentMatcher.MatchPermutation;
 import com.oracle.truffle.r.runtime.Arguments;
 import com.oracle.truffle.r.runtime.ArgumentsSignature;
 import com.oracle.truffle.r.runtime.data.RArgsValuesAndNames;
@@ -55,6 +57,20 @@ public final class FormalArguments extends Arguments<RNode> implements ClosureCa
 
     private final IdentityHashMap<RNode, Closure> closureCache = new IdentityHashMap<>();
 
+    /**
+     * Upper bound on the number of supplied signatures remembered in each permutation cache.
+     */
+    private static final int MAX_CACHED_PERMUTATIONS = 64;
+
+    /**
+     * The {@link MatchPermutation}s computed for calls that are matched on the slow path (e.g.
+     * megamorphic {@code do.call}, {@code UseMethod} or {@code NextMethod} sites), keyed by the
+     * supplied signature and shared by all call sites of the function. Allocated lazily, separately
+     * for normal and {@code NextMethod} matching.
+     */
+    private ConcurrentHashMap<ArgumentsSignature, MatchPermutation> permutationCache;
+    private ConcurrentHashMap<ArgumentsSignature, MatchPermutation> nextMethodPermutationCache;
+
     /**
      * These argument constants define what will be passed along in case there is no supplied
      * argument for the given argument slot. In the case of normal functions (as opposed to
@@ -141,4 +157,29 @@ public final class FormalArguments extends Arguments<RNode> implements ClosureCa
     public boolean hasDefaultArgument(int index) {
         return getArgument(index) != null;
     }
+
+    /**
+     * @return the cached permutation for matching {@code suppliedSignature} against these formals,
+     *         or {@code null}
+     */
+    public MatchPermutation getCachedPermutation(ArgumentsSignature suppliedSignature, boolean forNextMethod) {
+        ConcurrentHashMap<ArgumentsSignature, MatchPermutation> cache = forNextMethod ? nextMethodPermutationCache : permutationCache;
+        return cache == null ? null : cache.get(suppliedSignature);
+    }
+
+    public void cachePermutation(ArgumentsSignature suppliedSignature, boolean forNextMethod, MatchPermutation permutation) {
+        ConcurrentHashMap<ArgumentsSignature, MatchPermutation> cache = forNextMethod ? nextMethodPermutationCache : permutationCache;
+        if (cache == null) {
+            // a lost race merely drops some entries
+            cache = new ConcurrentHashMap<>();
+            if (forNextMethod) {
+                nextMethodPermutationCache = cache;
+            } else {
+                permutationCache = cache;
+            }
+        }
+        if (cache.size() < MAX_CACHED_PERMUTATIONS) {
+            cache.put(suppliedSignature, permutation);
+        }
+    }
 }
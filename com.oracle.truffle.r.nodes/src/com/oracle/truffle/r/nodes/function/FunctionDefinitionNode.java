@@ -58,6 +58,7 @@ import com.oracle.truffle.r.runtime.RArguments.S4Args;
 import com.oracle.truffle.r.runtime.RError;
 import com.oracle.truffle.r.runtime.RErrorHandling;
 import com.oracle.truffle.r.runtime.RInternalError;
+import com.oracle.truffle.r.runtime.RMetrics;
 import com.oracle.truffle.r.runtime.RRuntime;
 import com.oracle.truffle.r.runtime.RType;
 import com.oracle.truffle.r.runtime.ReturnException;
@@ -66,6 +67,7 @@ import com.oracle.truffle.r.runtime.builtins.RBuiltinDescriptor;
 import com.oracle.truffle.r.runtime.context.RContext;
 import com.oracle.truffle.r.runtime.env.frame.FrameSlotChangeMonitor;
 import com.oracle.truffle.r.runtime.env.frame.RFrameSlot;
+import com.oracle.truffle.r.runtime.instrument.RSamplingProfiler;
 import com.oracle.truffle.r.runtime.nodes.RCodeBuilder;
 import com.oracle.truffle.r.runtime.nodes.RNode;
 import com.oracle.truffle.r.runtime.nodes.RSyntaxElement;
@@ -127,6 +129,11 @@ public final class FunctionDefinitionNode extends RRootNode implements RSyntaxNo
      */
     private final ConditionProfile returnTopLevelProfile = ConditionProfile.createBinaryProfile();
 
+    /**
+     * The invocation count and time of this function, see {@link RMetrics}.
+     */
+    @CompilationFinal private RMetrics.Timer metrics;
+
     public static FunctionDefinitionNode create(SourceSection src, FrameDescriptor frameDesc, SourceSection[] argSourceSections, SaveArgumentsNode saveArguments, RSyntaxNode body,
                     FormalArguments formals, String name, PostProcessArgumentsNode argPostProcess) {
         return new FunctionDefinitionNode(src, frameDesc, argSourceSections, saveArguments, body, formals, name, argPostProcess);
@@ -245,7 +252,17 @@ public final class FunctionDefinitionNode extends RRootNode implements RSyntaxNo
         Object handlerStack = RErrorHandling.getHandlerStack();
         Object restartStack = RErrorHandling.getRestartStack();
         boolean runOnExitHandlers = true;
+        boolean timed = RMetrics.isEnabled();
+        long start = 0;
+        if (timed) {
+            if (metrics == null) {
+                CompilerDirectives.transferToInterpreterAndInvalidate();
+                metrics = RMetrics.getFunctionTimer(getName());
+            }
+            start = System.nanoTime();
+        }
         try {
+            RSamplingProfiler.poll(this);
             verifyEnclosingAssumptions(frame);
             setupDispatchSlots(frame);
             saveArguments.execute(frame);
@@ -287,6 +304,10 @@ public final class FunctionDefinitionNode extends RRootNode implements RSyntaxNo
              * has no exit handlers (by fiat), so any exceptions from onExits handlers will be
              * caught above.
              */
+            if (timed) {
+                // also counts exits by errors, conditions and control flow exceptions
+                metrics.record(System.nanoTime() - start);
+            }
             visibility.executeEndOfFunction(frame);
             if (argPostProcess != null) {
                 resetArgs.enter();
@@ -43,6 +43,7 @@ import com.oracle.truffle.r.runtime.RArguments;
 import com.oracle.truffle.r.runtime.RCaller;
 import com.oracle.truffle.r.runtime.RError;
 import com.oracle.truffle.r.runtime.RInternalError;
+import com.oracle.truffle.r.runtime.RMetrics;
 import com.oracle.truffle.r.runtime.VirtualEvalFrame;
 import com.oracle.truffle.r.runtime.data.RPromise;
 import com.oracle.truffle.r.runtime.data.RPromise.EagerPromise;
@@ -152,6 +153,9 @@ public class PromiseHelperNode extends RBaseNode {
             return promise.getValue();
         }
 
+        if (RMetrics.isEnabled()) {
+            RMetrics.reportPromiseForce();
+        }
         Object obj;
         PromiseState state = optStateProfile.profile(promise.getState());
         if (state.isDefaultOpt()) {
@@ -225,6 +229,9 @@ public class PromiseHelperNode extends RBaseNode {
             return promise.getValue();
         }
 
+        if (RMetrics.isEnabled()) {
+            RMetrics.reportPromiseForce();
+        }
         Object obj;
         PromiseState state = promise.getState();
         if (state.isDefaultOpt()) {
@@ -27,10 +27,13 @@ import com.oracle.truffle.api.CompilerDirectives.CompilationFinal;
 import com.oracle.truffle.api.frame.VirtualFrame;
 import com.oracle.truffle.api.profiles.ConditionProfile;
 import com.oracle.truffle.api.source.SourceSection;
+import com.oracle.truffle.r.nodes.RASTUtils;
 import com.oracle.truffle.r.nodes.access.variables.LocalReadVariableNode;
+import com.oracle.truffle.r.nodes.function.visibility.SetVisibilityNode;
 import com.oracle.truffle.r.runtime.ArgumentsSignature;
 import com.oracle.truffle.r.runtime.RDeparse;
 import com.oracle.truffle.r.runtime.RInternalError;
+import com.oracle.truffle.r.runtime.RVisibility;
 import com.oracle.truffle.r.runtime.builtins.RBuiltinDescriptor;
 import com.oracle.truffle.r.runtime.context.RContext;
 import com.oracle.truffle.r.runtime.data.RFunction;
@@ -101,15 +104,29 @@ public final class RCallSpecialNode extends RCallBaseNode implements RSyntaxNode
         throw FULL_CALL_NEEDED;
     }
 
+    /**
+     * A special that can produce an intermediate result when it is an argument of another special
+     * call, see {@link RCallSpecialNode#executeDeferred(VirtualFrame)}. Only these specials get
+     * nested special calls as arguments, and they must execute them with
+     * {@link RCallSpecialNode#executeDeferred(VirtualFrame)}.
+     */
+    public interface Deferrable {
+        Object executeDeferred(VirtualFrame frame);
+    }
+
     @Child private ForcePromiseNode functionNode;
     @Child private RNode special;
+    @Child private SetVisibilityNode visibility = SetVisibilityNode.create();
 
     private final RSyntaxNode[] arguments;
     private final ArgumentsSignature signature;
     private final RFunction expectedFunction;
+    private final RVisibility builtinVisibility;
 
-    private RCallSpecialNode(SourceSection sourceSection, RNode functionNode, RFunction expectedFunction, RSyntaxNode[] arguments, ArgumentsSignature signature, RNode special) {
+    private RCallSpecialNode(SourceSection sourceSection, RNode functionNode, RFunction expectedFunction, RSyntaxNode[] arguments, ArgumentsSignature signature, RNode special,
+                    RVisibility builtinVisibility) {
         this.sourceSectionR = sourceSection;
+        this.builtinVisibility = builtinVisibility;
         this.expectedFunction = expectedFunction;
         this.special = special;
         this.functionNode = new ForcePromiseNode(functionNode);
@@ -139,9 +156,12 @@ public final class RCallSpecialNode extends RCallBaseNode implements RSyntaxNode
             // LHS is not a simple lookup -> bail out
             return null;
         }
+        boolean nestedSpecials = false;
         for (RSyntaxNode argument : arguments) {
-            if (!(argument instanceof RSyntaxLookup || argument instanceof RSyntaxConstant)) {
-                // argument is not a simple lookup -> bail out
+            if (argument instanceof RCallSpecialNode) {
+                nestedSpecials = true;
+            } else if (!(argument instanceof RSyntaxLookup || argument instanceof RSyntaxConstant)) {
+                // argument is not a simple lookup or a nested special call -> bail out
                 return null;
             }
         }
@@ -155,6 +175,14 @@ public final class RCallSpecialNode extends RCallBaseNode implements RSyntaxNode
         for (int i = 0; i < arguments.length; i++) {
             if (arguments[i] instanceof RSyntaxLookup) {
                 localArguments[i] = new PeekLocalVariableNode(((RSyntaxLookup) arguments[i]).getIdentifier());
+            } else if (arguments[i] instanceof RCallSpecialNode) {
+                /*
+                 * Nested special calls are executed via executeDeferred, which does not fall back
+                 * to the full call but lets the outermost special bail out. They only read local
+                 * variables until then, so the full call can evaluate the arguments again. This
+                 * only holds if the enclosing special is Deferrable, see below.
+                 */
+                localArguments[i] = RASTUtils.cloneNode((RCallSpecialNode) arguments[i]);
             } else {
                 assert arguments[i] instanceof RSyntaxConstant;
                 localArguments[i] = RContext.getASTBuilder().process(arguments[i]).asRNode();
@@ -165,10 +193,18 @@ public final class RCallSpecialNode extends RCallBaseNode implements RSyntaxNode
             // the factory refused to create a special call -> bail out
             return null;
         }
+        if (nestedSpecials && !(special instanceof Deferrable)) {
+            /*
+             * Other specials execute their arguments with execute(), which runs the full call of a
+             * nested special that bails out, so the arguments would be evaluated twice if the
+             * enclosing special bails out as well -> bail out
+             */
+            return null;
+        }
         RFunction expectedFunction = RContext.lookupBuiltin(name);
         RInternalError.guarantee(expectedFunction != null);
 
-        return new RCallSpecialNode(sourceSection, functionNode, expectedFunction, arguments, signature, special);
+        return new RCallSpecialNode(sourceSection, functionNode, expectedFunction, arguments, signature, special, builtinDescriptor.getVisibility());
     }
 
     @Override
@@ -178,12 +214,38 @@ public final class RCallSpecialNode extends RCallBaseNode implements RSyntaxNode
                 // the actual function differs from the expected function
                 throw RCallSpecialNode.fullCallNeeded();
             }
-            return special.execute(frame);
+            Object result = special.execute(frame);
+            visibility.execute(frame, builtinVisibility);
+            return result;
         } catch (FullCallNeededException e) {
-            CompilerDirectives.transferToInterpreterAndInvalidate();
-            RCallNode call = RCallNode.createCall(sourceSectionR, functionNode == null ? null : functionNode.getValueNode(), signature, arguments);
-            return replace(call).execute(frame, function);
+            return executeFullCall(frame, function);
+        }
+    }
+
+    /**
+     * Executes this call on behalf of an enclosing special call. If the special implements
+     * {@link Deferrable}, its result may be an intermediate value that is only meaningful to the
+     * enclosing special. If the full call is needed, the {@link FullCallNeededException} is
+     * propagated instead of executing the full call for this node, so that only the outermost
+     * special falls back to the full call and every argument is evaluated exactly once.
+     */
+    public Object executeDeferred(VirtualFrame frame) {
+        Object function = functionNode.execute(frame);
+        if (function != expectedFunction) {
+            throw RCallSpecialNode.fullCallNeeded();
+        }
+        if (special instanceof Deferrable) {
+            return ((Deferrable) special).executeDeferred(frame);
         }
+        Object result = special.execute(frame);
+        visibility.execute(frame, builtinVisibility);
+        return result;
+    }
+
+    private Object executeFullCall(VirtualFrame frame, Object function) {
+        CompilerDirectives.transferToInterpreterAndInvalidate();
+        RCallNode call = RCallNode.createCall(sourceSectionR, functionNode == null ? null : functionNode.getValueNode(), signature, arguments);
+        return replace(call).execute(frame, function);
     }
 
     @Override
@@ -277,26 +277,30 @@ public final class BinaryMapNode extends RBaseNode {
         return resultType.create(maxLength, false);
     }
 
+    /*
+     * A temporary operand that was extended by RVector.growInPlace is reused as the target with its
+     * spare capacity, so the store may be longer than the result, but never shorter.
+     */
     private static boolean isStoreCompatible(Object store, RType resultType, int leftLength, int rightLength) {
         int maxLength = Math.max(leftLength, rightLength);
         switch (resultType) {
             case Raw:
-                assert store instanceof byte[] && ((byte[]) store).length == maxLength;
+                assert store instanceof byte[] && ((byte[]) store).length >= maxLength;
                 return true;
             case Logical:
-                assert store instanceof byte[] && ((byte[]) store).length == maxLength;
+                assert store instanceof byte[] && ((byte[]) store).length >= maxLength;
                 return true;
             case Integer:
-                assert store instanceof int[] && ((int[]) store).length == maxLength;
+                assert store instanceof int[] && ((int[]) store).length >= maxLength;
                 return true;
             case Double:
-                assert store instanceof double[] && ((double[]) store).length == maxLength;
+                assert store instanceof double[] && ((double[]) store).length >= maxLength;
                 return true;
             case Complex:
-                assert store instanceof double[] && ((double[]) store).length >> 1 == maxLength;
+                assert store instanceof double[] && ((double[]) store).length >> 1 >= maxLength;
                 return true;
             case Character:
-                assert store instanceof String[] && ((String[]) store).length == maxLength;
+                assert store instanceof String[] && ((String[]) store).length >= maxLength;
                 return true;
             default:
                 throw RInternalError.shouldNotReachHere();
@@ -287,22 +287,26 @@ public final class UnaryMapNode extends RBaseNode {
             executeInternal(scalarAction, store, operand, operandLength);
         }
 
+        /*
+         * A reused temporary operand may carry spare capacity from RVector.growInPlace, see
+         * BinaryMapNode.isStoreCompatible.
+         */
         private static boolean isStoreCompatible(Object store, RType resultType, int operandLength) {
             switch (resultType) {
                 case Logical:
-                    assert store instanceof byte[] && ((byte[]) store).length == operandLength;
+                    assert store instanceof byte[] && ((byte[]) store).length >= operandLength;
                     return true;
                 case Integer:
-                    assert store instanceof int[] && ((int[]) store).length == operandLength;
+                    assert store instanceof int[] && ((int[]) store).length >= operandLength;
                     return true;
                 case Double:
-                    assert store instanceof double[] && ((double[]) store).length == operandLength;
+                    assert store instanceof double[] && ((double[]) store).length >= operandLength;
                     return true;
                 case Complex:
-                    assert store instanceof double[] && ((double[]) store).length >> 1 == operandLength;
+                    assert store instanceof double[] && ((double[]) store).length >> 1 >= operandLength;
                     return true;
                 case Character:
-                    assert store instanceof String[] && ((String[]) store).length == operandLength;
+                    assert store instanceof String[] && ((String[]) store).length >= operandLength;
                     return true;
                 default:
                     throw RInternalError.shouldNotReachHere();
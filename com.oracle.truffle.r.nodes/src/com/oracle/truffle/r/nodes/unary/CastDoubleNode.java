@@ -37,6 +37,7 @@ import com.oracle.truffle.r.runtime.data.RDoubleSequence;
 import com.oracle.truffle.r.runtime.data.RDoubleVector;
 import com.oracle.truffle.r.runtime.data.RList;
 import com.oracle.truffle.r.runtime.data.RRawVector;
+import com.oracle.truffle.r.runtime.data.RRepeatedDoubleVector;
 import com.oracle.truffle.r.runtime.data.RStringVector;
 import com.oracle.truffle.r.runtime.data.model.RAbstractContainer;
 import com.oracle.truffle.r.runtime.data.model.RAbstractIntVector;
@@ -162,6 +163,12 @@ public abstract class CastDoubleNode extends CastDoubleBaseNode {
         return operand;
     }
 
+    @Specialization
+    protected RRepeatedDoubleVector doRepeatedDoubleVector(RRepeatedDoubleVector operand) {
+        // repeated vector does not have attributes - nothing to copy or drop
+        return operand;
+    }
+
     @Specialization
     protected RDoubleVector doList(RAbstractListVector list) {
         int length = list.getLength();
@@ -34,6 +34,7 @@ import com.oracle.truffle.r.runtime.data.RDoubleSequence;
 import com.oracle.truffle.r.runtime.data.RIntSequence;
 import com.oracle.truffle.r.runtime.data.RIntVector;
 import com.oracle.truffle.r.runtime.data.RList;
+import com.oracle.truffle.r.runtime.data.RRepeatedIntVector;
 import com.oracle.truffle.r.runtime.data.model.RAbstractComplexVector;
 import com.oracle.truffle.r.runtime.data.model.RAbstractDoubleVector;
 import com.oracle.truffle.r.runtime.data.model.RAbstractIntVector;
@@ -71,6 +72,12 @@ public abstract class CastIntegerNode extends CastIntegerBaseNode {
         return operand;
     }
 
+    @Specialization
+    protected RRepeatedIntVector doRepeatedIntVector(RRepeatedIntVector operand) {
+        // repeated vector does not have attributes - nothing to copy or drop
+        return operand;
+    }
+
     @Specialization
     protected RIntSequence doDoubleSequence(RDoubleSequence operand) {
         // start and stride cannot be NA so no point checking
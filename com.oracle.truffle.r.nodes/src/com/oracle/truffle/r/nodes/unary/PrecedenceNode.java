@@ -42,6 +42,8 @@ import com.oracle.truffle.r.runtime.data.RNull;
 import com.oracle.truffle.r.runtime.data.RPairList;
 import com.oracle.truffle.r.runtime.data.RRaw;
 import com.oracle.truffle.r.runtime.data.RRawVector;
+import com.oracle.truffle.r.runtime.data.RRepeatedDoubleVector;
+import com.oracle.truffle.r.runtime.data.RRepeatedIntVector;
 import com.oracle.truffle.r.runtime.data.RS4Object;
 import com.oracle.truffle.r.runtime.data.RStringVector;
 import com.oracle.truffle.r.runtime.data.RSymbol;
@@ -111,6 +113,11 @@ public abstract class PrecedenceNode extends RBaseNode {
         return INT_PRECEDENCE;
     }
 
+    @Specialization
+    protected int doInt(RRepeatedIntVector val, boolean recursive) {
+        return INT_PRECEDENCE;
+    }
+
     @Specialization
     protected int doDouble(double val, boolean recursive) {
         return DOUBLE_PRECEDENCE;
@@ -126,6 +133,11 @@ public abstract class PrecedenceNode extends RBaseNode {
         return DOUBLE_PRECEDENCE;
     }
 
+    @Specialization
+    protected int doDouble(RRepeatedDoubleVector val, boolean recursive) {
+        return DOUBLE_PRECEDENCE;
+    }
+
     @Specialization
     protected int doComplex(RComplexVector val, boolean recursive) {
         return COMPLEX_PRECEDENCE;
@@ -37,14 +37,23 @@ import com.oracle.truffle.r.runtime.data.RIntSequence;
 import com.oracle.truffle.r.runtime.data.RIntVector;
 import com.oracle.truffle.r.runtime.data.RLogicalVector;
 import com.oracle.truffle.r.runtime.data.RNull;
+import com.oracle.truffle.r.runtime.data.ROffHeapDoubleVector;
+import com.oracle.truffle.r.runtime.data.ROffHeapIntVector;
 import com.oracle.truffle.r.runtime.data.RRaw;
 import com.oracle.truffle.r.runtime.data.RRawVector;
+import com.oracle.truffle.r.runtime.data.RRepeatedDoubleVector;
+import com.oracle.truffle.r.runtime.data.RRepeatedIntVector;
 import com.oracle.truffle.r.runtime.data.RStringVector;
 import com.oracle.truffle.r.runtime.data.RTypes;
+import com.oracle.truffle.r.runtime.data.model.RAbstractDoubleVector;
+import com.oracle.truffle.r.runtime.data.model.RAbstractIntVector;
 import com.oracle.truffle.r.runtime.nodes.RBaseNode;
 import com.oracle.truffle.r.runtime.nodes.RNode;
 import com.oracle.truffle.r.runtime.ops.BinaryArithmetic;
 import com.oracle.truffle.r.runtime.ops.BinaryArithmeticFactory;
+import com.oracle.truffle.r.runtime.ops.VectorReductions;
+import com.oracle.truffle.r.runtime.ops.VectorReductions.DoubleSource;
+import com.oracle.truffle.r.runtime.ops.VectorReductions.SumPrecision;
 import com.oracle.truffle.r.runtime.ops.na.NACheck;
 
 /**
@@ -63,6 +72,19 @@ public abstract class UnaryArithmeticReduceNode extends RBaseNode {
 
     protected final ReduceSemantics semantics;
 
+    /**
+     * Double vectors are reduced by {@link VectorReductions} if it implements the operation.
+     */
+    protected enum Kernel {
+        SUM,
+        MAX,
+        MIN
+    }
+
+    private static final SumPrecision SUM_PRECISION = SumPrecision.DOUBLE;
+
+    protected final Kernel kernel;
+
     private final NACheck na = NACheck.create();
 
     private final ConditionProfile naRmProfile = ConditionProfile.createBinaryProfile();
@@ -72,6 +94,15 @@ public abstract class UnaryArithmeticReduceNode extends RBaseNode {
         this.factory = factory;
         this.semantics = semantics;
         this.arithmetic = factory.create();
+        if (factory == BinaryArithmetic.ADD) {
+            kernel = Kernel.SUM;
+        } else if (factory == BinaryArithmetic.MAX) {
+            kernel = Kernel.MAX;
+        } else if (factory == BinaryArithmetic.MIN) {
+            kernel = Kernel.MIN;
+        } else {
+            kernel = null;
+        }
     }
 
     private String handleString(RStringVector operand, boolean naRm, boolean finite, int offset) {
@@ -224,7 +255,31 @@ public abstract class UnaryArithmeticReduceNode extends RBaseNode {
         return result;
     }
 
-    @Specialization
+    @Specialization(guards = "kernel != null")
+    protected double doDoubleVectorKernel(RDoubleVector operand, boolean naRm, @SuppressWarnings("unused") boolean finite) {
+        int length = operand.getLength();
+        RNode.reportWork(this, length);
+        boolean profiledNaRm = naRmProfile.profile(naRm);
+        double[] data = operand.getDataWithoutCopying();
+        double result;
+        switch (kernel) {
+            case SUM:
+                result = VectorReductions.sum(data, 0, length, profiledNaRm, SUM_PRECISION);
+                break;
+            case MAX:
+                result = VectorReductions.max(data, 0, length, profiledNaRm);
+                break;
+            default:
+                result = VectorReductions.min(data, 0, length, profiledNaRm);
+                break;
+        }
+        if (length == 0 || (profiledNaRm && result == semantics.getDoubleStart() && VectorReductions.isAllNaN(data, 0, length))) {
+            emptyWarning();
+        }
+        return result;
+    }
+
+    @Specialization(guards = "kernel == null")
     protected double doDoubleVector(RDoubleVector operand, boolean naRm, @SuppressWarnings("unused") boolean finite) {
         RNode.reportWork(this, operand.getLength());
         boolean profiledNaRm = naRmProfile.profile(naRm);
@@ -280,7 +335,18 @@ public abstract class UnaryArithmeticReduceNode extends RBaseNode {
 
     @Specialization
     protected int doIntSequence(RIntSequence operand, @SuppressWarnings("unused") boolean naRm, @SuppressWarnings("unused") boolean finite) {
-        RNode.reportWork(this, operand.getLength());
+        int length = operand.getLength();
+        if (kernel != null && length > 0) {
+            // the extremes of a sequence are its first and last element, and its sum is known
+            if (kernel != Kernel.SUM) {
+                return arithmetic.op(arithmetic.op(semantics.getIntStart(), operand.getStart()), operand.getEnd());
+            }
+            long sum = semantics.getIntStart() + (long) length * operand.getStart() + (long) operand.getStride() * (((long) length * (length - 1)) / 2);
+            if (sum == (int) sum && !RRuntime.isNA((int) sum)) {
+                return (int) sum;
+            }
+        }
+        RNode.reportWork(this, length);
         int result = semantics.getIntStart();
         int current = operand.getStart();
         for (int i = 0; i < operand.getLength(); i++) {
@@ -295,6 +361,10 @@ public abstract class UnaryArithmeticReduceNode extends RBaseNode {
 
     @Specialization
     protected double doDoubleSequence(RDoubleSequence operand, @SuppressWarnings("unused") boolean naRm, @SuppressWarnings("unused") boolean finite) {
+        if ((kernel == Kernel.MIN || kernel == Kernel.MAX) && operand.getLength() > 0) {
+            double last = operand.getDataAt(operand.getLength() - 1);
+            return arithmetic.op(arithmetic.op(semantics.getDoubleStart(), operand.getStart()), last);
+        }
         RNode.reportWork(this, operand.getLength());
         double result = semantics.getDoubleStart();
         double current = operand.getStart();
@@ -308,6 +378,200 @@ public abstract class UnaryArithmeticReduceNode extends RBaseNode {
         return result;
     }
 
+    @Specialization
+    protected int doOffHeapIntVector(ROffHeapIntVector operand, boolean naRm, @SuppressWarnings("unused") boolean finite) {
+        // element-wise, so that reducing a mapped or off-heap vector does not copy it to the heap
+        RNode.reportWork(this, operand.getLength());
+        boolean profiledNaRm = naRmProfile.profile(naRm);
+        int result = semantics.getIntStart();
+        na.enable(operand);
+        int opCount = 0;
+        for (int i = 0; i < operand.getLength(); i++) {
+            int d = operand.getDataAt(i);
+            if (na.check(d)) {
+                if (profiledNaRm) {
+                    continue;
+                } else {
+                    return RRuntime.INT_NA;
+                }
+            } else {
+                result = arithmetic.op(result, d);
+            }
+            opCount++;
+        }
+        if (opCount == 0) {
+            emptyWarning();
+        }
+        return result;
+    }
+
+    @Specialization(guards = "kernel != null")
+    protected double doOffHeapDoubleVectorKernel(ROffHeapDoubleVector operand, boolean naRm, @SuppressWarnings("unused") boolean finite) {
+        // the storage is read in blocks, with the same results as for the vector copied to the heap
+        int length = operand.getLength();
+        RNode.reportWork(this, length);
+        boolean profiledNaRm = naRmProfile.profile(naRm);
+        DoubleSource source = operand.getStorage()::getDoubles;
+        double result;
+        switch (kernel) {
+            case SUM:
+                result = VectorReductions.sum(source, length, profiledNaRm, SUM_PRECISION);
+                break;
+            case MAX:
+                result = VectorReductions.max(source, length, profiledNaRm);
+                break;
+            default:
+                result = VectorReductions.min(source, length, profiledNaRm);
+                break;
+        }
+        if (length == 0 || (profiledNaRm && result == semantics.getDoubleStart() && VectorReductions.isAllNaN(source, length))) {
+            emptyWarning();
+        }
+        return result;
+    }
+
+    @Specialization(guards = "kernel == null")
+    protected double doOffHeapDoubleVector(ROffHeapDoubleVector operand, boolean naRm, @SuppressWarnings("unused") boolean finite) {
+        RNode.reportWork(this, operand.getLength());
+        boolean profiledNaRm = naRmProfile.profile(naRm);
+        double result = semantics.getDoubleStart();
+        na.enable(operand);
+        int opCount = 0;
+        for (int i = 0; i < operand.getLength(); i++) {
+            double d = operand.getDataAt(i);
+            if (na.check(d)) {
+                if (profiledNaRm) {
+                    continue;
+                } else {
+                    return RRuntime.DOUBLE_NA;
+                }
+            } else {
+                result = arithmetic.op(result, d);
+            }
+            opCount++;
+        }
+        if (opCount == 0) {
+            emptyWarning();
+        }
+        return result;
+    }
+
+    @Specialization
+    protected int doRepeatedIntVector(RRepeatedIntVector operand, boolean naRm, @SuppressWarnings("unused") boolean finite) {
+        boolean profiledNaRm = naRmProfile.profile(naRm);
+        if (kernel != null && operand.coversPattern()) {
+            // every element of the pattern occurs, so the pattern only needs to be visited once
+            RAbstractIntVector pattern = operand.getPattern();
+            RNode.reportWork(this, pattern.getLength());
+            int result = semantics.getIntStart();
+            long sum = semantics.getIntStart();
+            na.enable(pattern);
+            int opCount = 0;
+            for (int i = 0; i < pattern.getLength(); i++) {
+                int d = pattern.getDataAt(i);
+                if (na.check(d)) {
+                    if (profiledNaRm) {
+                        continue;
+                    } else {
+                        return RRuntime.INT_NA;
+                    }
+                } else if (kernel == Kernel.SUM) {
+                    sum += d * operand.getOccurrences(i);
+                } else {
+                    result = arithmetic.op(result, d);
+                }
+                opCount++;
+            }
+            if (opCount == 0) {
+                emptyWarning();
+            }
+            if (kernel != Kernel.SUM) {
+                return result;
+            }
+            if (sum == (int) sum && !RRuntime.isNA((int) sum)) {
+                return (int) sum;
+            }
+            // the element loop reports the overflow
+        }
+        RNode.reportWork(this, operand.getLength());
+        int result = semantics.getIntStart();
+        na.enable(operand);
+        int opCount = 0;
+        for (int i = 0; i < operand.getLength(); i++) {
+            int d = operand.getDataAt(i);
+            if (na.check(d)) {
+                if (profiledNaRm) {
+                    continue;
+                } else {
+                    return RRuntime.INT_NA;
+                }
+            } else {
+                result = arithmetic.op(result, d);
+            }
+            opCount++;
+        }
+        if (opCount == 0) {
+            emptyWarning();
+        }
+        return result;
+    }
+
+    @Specialization(guards = "kernel != null")
+    protected double doRepeatedDoubleVectorKernel(RRepeatedDoubleVector operand, boolean naRm, @SuppressWarnings("unused") boolean finite) {
+        // extremes do not depend on the order, so they are taken from the pattern if all of it occurs
+        RAbstractDoubleVector elements = kernel != Kernel.SUM && operand.coversPattern() ? operand.getPattern() : operand;
+        int length = elements.getLength();
+        RNode.reportWork(this, length);
+        boolean profiledNaRm = naRmProfile.profile(naRm);
+        DoubleSource source = (index, dest, destIndex, count) -> {
+            for (int i = 0; i < count; i++) {
+                dest[destIndex + i] = elements.getDataAt((int) index + i);
+            }
+        };
+        double result;
+        switch (kernel) {
+            case SUM:
+                result = VectorReductions.sum(source, length, profiledNaRm, SUM_PRECISION);
+                break;
+            case MAX:
+                result = VectorReductions.max(source, length, profiledNaRm);
+                break;
+            default:
+                result = VectorReductions.min(source, length, profiledNaRm);
+                break;
+        }
+        if (length == 0 || (profiledNaRm && result == semantics.getDoubleStart() && VectorReductions.isAllNaN(source, length))) {
+            emptyWarning();
+        }
+        return result;
+    }
+
+    @Specialization(guards = "kernel == null")
+    protected double doRepeatedDoubleVector(RRepeatedDoubleVector operand, boolean naRm, @SuppressWarnings("unused") boolean finite) {
+        RNode.reportWork(this, operand.getLength());
+        boolean profiledNaRm = naRmProfile.profile(naRm);
+        double result = semantics.getDoubleStart();
+        na.enable(operand);
+        int opCount = 0;
+        for (int i = 0; i < operand.getLength(); i++) {
+            double d = operand.getDataAt(i);
+            if (na.check(d)) {
+                if (profiledNaRm) {
+                    continue;
+                } else {
+                    return RRuntime.DOUBLE_NA;
+                }
+            } else {
+                result = arithmetic.op(result, d);
+            }
+            opCount++;
+        }
+        if (opCount == 0) {
+            emptyWarning();
+        }
+        return result;
+    }
+
     @Specialization
     protected RComplex doComplexVector(RComplexVector operand, boolean naRm, @SuppressWarnings("unused") boolean finite) {
         RNode.reportWork(this, operand.getLength());
@@ -412,14 +412,14 @@ number returns [T v]
         double value = RRuntime.string2doubleNoCheck($i.text);
         if (value == (int) value) {
             if ($i.text.indexOf('.') != -1) {
-                RError.warning(RError.NO_CALLER, RError.Message.INTEGER_VALUE_UNNECESARY_DECIMAL, $i.text + "L");
+                builder.warning(RError.Message.INTEGER_VALUE_UNNECESARY_DECIMAL, $i.text + "L");
             }
             $v = builder.constant(src($i), (int) value);
         } else {
             if ($i.text.indexOf('.') != -1) {
-                RError.warning(RError.NO_CALLER, RError.Message.INTEGER_VALUE_DECIAML, $i.text + "L");
+                builder.warning(RError.Message.INTEGER_VALUE_DECIAML, $i.text + "L");
             } else {
-                RError.warning(RError.NO_CALLER, RError.Message.NON_INTEGER_VALUE, $i.text + "L");
+                builder.warning(RError.Message.NON_INTEGER_VALUE, $i.text + "L");
             }
             $v = builder.constant(src($i), value);
         }
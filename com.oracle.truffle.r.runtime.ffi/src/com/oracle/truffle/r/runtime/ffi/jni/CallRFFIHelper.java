@@ -50,12 +50,10 @@ import com.oracle.truffle.r.runtime.data.RAttributes;
 import com.oracle.truffle.r.runtime.data.RComplex;
 import com.oracle.truffle.r.runtime.data.RComplexVector;
 import com.oracle.truffle.r.runtime.data.RDataFactory;
-import com.oracle.truffle.r.runtime.data.RDoubleSequence;
 import com.oracle.truffle.r.runtime.data.RDoubleVector;
 import com.oracle.truffle.r.runtime.data.RExpression;
 import com.oracle.truffle.r.runtime.data.RExternalPtr;
 import com.oracle.truffle.r.runtime.data.RFunction;
-import com.oracle.truffle.r.runtime.data.RIntSequence;
 import com.oracle.truffle.r.runtime.data.RIntVector;
 import com.oracle.truffle.r.runtime.data.RLanguage;
 import com.oracle.truffle.r.runtime.data.RList;
@@ -71,6 +69,8 @@ import com.oracle.truffle.r.runtime.data.RStringVector;
 import com.oracle.truffle.r.runtime.data.RSymbol;
 import com.oracle.truffle.r.runtime.data.RUnboundValue;
 import com.oracle.truffle.r.runtime.data.model.RAbstractContainer;
+import com.oracle.truffle.r.runtime.data.model.RAbstractDoubleVector;
+import com.oracle.truffle.r.runtime.data.model.RAbstractIntVector;
 import com.oracle.truffle.r.runtime.data.model.RAbstractListVector;
 import com.oracle.truffle.r.runtime.data.model.RAbstractStringVector;
 import com.oracle.truffle.r.runtime.data.model.RAbstractVector;
@@ -602,8 +602,9 @@ public class CallRFFIHelper {
         }
         if (x instanceof RIntVector) {
             return ((RIntVector) x).getDataWithoutCopying();
-        } else if (x instanceof RIntSequence) {
-            return ((RIntSequence) x).materialize().getDataWithoutCopying();
+        } else if (x instanceof RAbstractIntVector) {
+            // native code needs contiguous memory, so compact vectors are materialized
+            return ((RAbstractIntVector) x).materialize().getDataWithoutCopying();
         } else if (x instanceof Integer) {
             return new int[]{(Integer) x};
         } else if (x instanceof RLogicalVector) {
@@ -625,8 +626,9 @@ public class CallRFFIHelper {
         }
         if (x instanceof RDoubleVector) {
             return ((RDoubleVector) x).getDataWithoutCopying();
-        } else if (x instanceof RDoubleSequence) {
-            return ((RDoubleSequence) x).materialize().getDataWithoutCopying();
+        } else if (x instanceof RAbstractDoubleVector) {
+            // native code needs contiguous memory, so compact vectors are materialized
+            return ((RAbstractDoubleVector) x).materialize().getDataWithoutCopying();
         } else {
             guaranteeInstanceOf(x, Double.class);
             return new double[]{(Double) x};
@@ -960,7 +962,7 @@ public class CallRFFIHelper {
             RFFIUtils.traceUpCall("Rf_createNewEnv", parent, name, hashed, initialSize);
         }
         REnvironment env = RDataFactory.createNewEnv(name, hashed, initialSize);
-        RArguments.initializeEnclosingFrame(env.getFrame(), parent.getFrame());
+        env.initializeParent(parent);
         return env;
     }
 
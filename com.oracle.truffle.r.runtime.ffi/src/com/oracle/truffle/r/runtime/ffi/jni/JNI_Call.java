@@ -28,6 +28,7 @@ import static com.oracle.truffle.r.runtime.ffi.RFFIUtils.traceEnabled;
 
 import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
 import com.oracle.truffle.r.runtime.RInternalError;
+import com.oracle.truffle.r.runtime.RMetrics;
 import com.oracle.truffle.r.runtime.ffi.BaseRFFI;
 import com.oracle.truffle.r.runtime.ffi.CallRFFI;
 import com.oracle.truffle.r.runtime.ffi.DLL;
@@ -95,6 +96,7 @@ public class JNI_Call implements CallRFFI {
         if (traceEnabled()) {
             traceDownCall(name, args);
         }
+        long start = System.nanoTime();
         try {
             switch (args.length) {
             // @formatter:off
@@ -114,6 +116,7 @@ public class JNI_Call implements CallRFFI {
             }
             return result;
         } finally {
+            recordCall(name, start);
             if (traceEnabled()) {
                 traceDownCallReturn(name, result);
             }
@@ -154,6 +157,7 @@ public class JNI_Call implements CallRFFI {
         if (traceEnabled()) {
             traceDownCall(name, args);
         }
+        long start = System.nanoTime();
         try {
             switch (args.length) {
                 case 0:
@@ -166,12 +170,19 @@ public class JNI_Call implements CallRFFI {
                     throw RInternalError.shouldNotReachHere();
             }
         } finally {
+            recordCall(name, start);
             if (traceEnabled()) {
                 traceDownCallReturn(name, null);
             }
         }
     }
 
+    private static void recordCall(String name, long start) {
+        if (RMetrics.isEnabled()) {
+            RMetrics.getNativeCallTimer(name).record(System.nanoTime() - start);
+        }
+    }
+
     private static native void callVoid0(long address);
 
     private static native void callVoid1(long address, Object arg1);
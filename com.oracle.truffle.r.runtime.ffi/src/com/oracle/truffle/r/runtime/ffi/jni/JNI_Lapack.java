@@ -92,6 +92,12 @@ public class JNI_Lapack implements LapackRFFI {
         return native_dgecon(norm, n, a, lda, anorm, rcond, work, iwork);
     }
 
+    @Override
+    @TruffleBoundary
+    public void dgemm(char transA, char transB, int m, int n, int k, double alpha, double[] a, int lda, double[] b, int ldb, double beta, double[] c, int ldc) {
+        native_dgemm(transA, transB, m, n, k, alpha, a, lda, b, ldb, beta, c, ldc);
+    }
+
     // Checkstyle: stop method name
 
     private static native void native_ilaver(int[] version);
@@ -116,4 +122,6 @@ public class JNI_Lapack implements LapackRFFI {
 
     private static native int native_dgecon(char norm, int n, double[] a, int lda, double anorm, double[] rcond, double[] work, int[] iwork);
 
+    private static native void native_dgemm(char transA, char transB, int m, int n, int k, double alpha, double[] a, int lda, double[] b, int ldb, double beta, double[] c, int ldc);
+
 }
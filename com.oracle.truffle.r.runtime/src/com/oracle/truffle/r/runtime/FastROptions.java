@@ -54,6 +54,23 @@ public enum FastROptions {
     RefCountIncrementOnly("Disable reference count decrements for experimental state transition implementation", false),
     UseInternalGraphics("Whether the internal (Java) graphics subsystem should be used", false),
 
+    // Parallel and native kernels
+    ParallelThreads("Number of threads used by parallel builtin kernels (0 means number of processors, 1 disables parallelism)", "0", true),
+    MatMultParallelThreshold("Minimal number of multiply-add operations for %*%, crossprod and tcrossprod to run in parallel", "2000000", true),
+    ReduceParallelThreshold("Minimal vector length for sum, mean, prod, max, min, colSums and rowSums to run in parallel", "1048576", true),
+    NativeMatMult("Route double matrix multiplication (%*%, crossprod, tcrossprod) to the native BLAS dgemm", false),
+    FuseArithmetic("Evaluate nested double vector arithmetic (+, -, *, /) in a single pass without intermediate vectors", true),
+    NamesIndexThreshold("Minimal length of a names vector for character subscripts to use a hashed index instead of a linear search", "64", true),
+    ParseCache("Parse R source text seen more than once only once per JVM and replay the recorded parse into each context", true),
+    ParseCacheDir("Directory in which parse trees of large R sources are stored across runs (not persisted if unset)", null, true),
+    HashedEnvironments("Keep the bindings of new.env(hash = TRUE) environments in a hash table until the environment is used for evaluation", true),
+    ContextPoolSize("Number of pre-initialized contexts kept ready for .fastr.context.spawn/eval (0 disables the pool)", "0", true),
+    ContextPoolWarmup("R code evaluated once in every pooled context after it has been created", null, true),
+    PasteParallelThreshold("Minimal result length for paste and paste0 to build the result strings in parallel", "262144", true),
+    OffHeapThreshold("Minimal size in MB of numeric vectors that I/O builtins allocate outside of the Java heap (0 keeps all vectors on the heap)", "0", true),
+    MapReadBin("readBin returns vectors of at least OffHeapThreshold MB read from files as memory mappings of the file (the file must not change while they are used)", false),
+    Metrics("Collect runtime metrics, see .fastr.metrics and the com.oracle.truffle.r:type=Metrics MBean", false),
+
     // Promises optimizations
     EagerEval("If enabled, overrides all other EagerEval switches (see EagerEvalHelper)", false),
     EagerEvalConstants("Unconditionally evaluates constants before creating Promises", true),
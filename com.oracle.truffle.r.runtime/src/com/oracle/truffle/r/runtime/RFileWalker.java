@@ -0,0 +1,480 @@
+/*
+ * Copyright (c) 2016, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.truffle.r.runtime;
+
+import java.io.IOException;
+import java.nio.file.DirectoryIteratorException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.nio.file.attribute.GroupPrincipal;
+import java.nio.file.attribute.PosixFileAttributes;
+import java.nio.file.attribute.PosixFilePermission;
+import java.nio.file.attribute.UserPrincipal;
+import java.util.ArrayList;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+import com.oracle.truffle.r.runtime.context.RContext;
+
+/**
+ * Directory traversal for {@code list.files}, {@code .fastr.list.files} and the
+ * {@code .fastr.dir.*} builtins. Each directory is listed by a fork-join task that forks a task for
+ * every subdirectory, so large trees are walked in parallel on the {@link RParallel} pool. A
+ * {@link Cursor} walks sequentially on a thread of its own. The attributes of every entry are read once, during the
+ * traversal, and are passed on together with the name, so that callers can report
+ * {@code file.info} data without a second pass over the files.
+ *
+ * As in GnuR, the pattern matches the file name, hidden entries (starting with {@code "."}) are
+ * skipped unless {@code allFiles} is set (and hidden directories are not entered) and symbolic
+ * links are not followed. Patterns that consist of a literal with optional {@code ^} and {@code $}
+ * anchors, e.g. {@code "\\.csv$"}, are matched without the regex engine.
+ */
+public final class RFileWalker {
+
+    /**
+     * A file or directory found by the walker.
+     */
+    public static final class Entry {
+        /**
+         * The path relative to the root, or the full path if requested.
+         */
+        public final String name;
+        /**
+         * {@link PosixFileAttributes} if requested, {@link BasicFileAttributes} otherwise.
+         */
+        public final BasicFileAttributes attributes;
+
+        Entry(String name, BasicFileAttributes attributes) {
+            this.name = name;
+            this.attributes = attributes;
+        }
+
+        /**
+         * The time of the last status change ({@code st_ctime}), which is what {@code file.info}
+         * reports as {@code ctime}, or {@code null} if it is not available.
+         */
+        public FileTime getStatusChangeTime() {
+            return attributes instanceof UnixAttributes ? ((UnixAttributes) attributes).ctime() : null;
+        }
+    }
+
+    /**
+     * The attributes of the {@code "unix"} view (a superset of {@code "posix"} that is available on
+     * Linux and Solaris), read with a single {@code stat} call. Unlike
+     * {@link BasicFileAttributes#creationTime()}, they include the status change time.
+     */
+    private static final class UnixAttributes implements PosixFileAttributes {
+        private final Map<String, Object> map;
+
+        UnixAttributes(Map<String, Object> map) {
+            this.map = map;
+        }
+
+        FileTime ctime() {
+            return (FileTime) map.get("ctime");
+        }
+
+        @Override
+        public FileTime lastModifiedTime() {
+            return (FileTime) map.get("lastModifiedTime");
+        }
+
+        @Override
+        public FileTime lastAccessTime() {
+            return (FileTime) map.get("lastAccessTime");
+        }
+
+        @Override
+        public FileTime creationTime() {
+            return (FileTime) map.get("creationTime");
+        }
+
+        @Override
+        public boolean isRegularFile() {
+            return (Boolean) map.get("isRegularFile");
+        }
+
+        @Override
+        public boolean isDirectory() {
+            return (Boolean) map.get("isDirectory");
+        }
+
+        @Override
+        public boolean isSymbolicLink() {
+            return (Boolean) map.get("isSymbolicLink");
+        }
+
+        @Override
+        public boolean isOther() {
+            return (Boolean) map.get("isOther");
+        }
+
+        @Override
+        public long size() {
+            return (Long) map.get("size");
+        }
+
+        @Override
+        public Object fileKey() {
+            return map.get("fileKey");
+        }
+
+        @Override
+        public UserPrincipal owner() {
+            return (UserPrincipal) map.get("owner");
+        }
+
+        @Override
+        public GroupPrincipal group() {
+            return (GroupPrincipal) map.get("group");
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public Set<PosixFilePermission> permissions() {
+            return (Set<PosixFilePermission>) map.get("permissions");
+        }
+    }
+
+    /**
+     * Cleared on the first failure to read the {@code "unix"} view.
+     */
+    private static volatile boolean unixViewSupported = true;
+
+    /**
+     * Receives the entries, possibly from several threads at once.
+     */
+    @FunctionalInterface
+    public interface Sink {
+        /**
+         * @return {@code false} if the walk should be stopped.
+         */
+        boolean accept(Entry entry);
+    }
+
+    private enum LiteralMode {
+        EQUALS,
+        PREFIX,
+        SUFFIX,
+        CONTAINS
+    }
+
+    private static final Pattern LITERAL_PATTERN = Pattern.compile("(\\^?)((?:[^\\\\.\\[\\](){}*+?|^$]|\\\\\\.)*)(\\$?)");
+
+    private final Path root;
+    private final String prefix;
+    private final Pattern pattern;
+    private final String literal;
+    private final LiteralMode literalMode;
+    private final boolean allFiles;
+    private final boolean recursive;
+    private final boolean includeDirs;
+    private final Class<? extends BasicFileAttributes> attributesClass;
+
+    private volatile boolean cancelled;
+
+    /**
+     * @param root the directory to walk
+     * @param fullNames whether the entry names start with {@code root}
+     * @param pattern a regular expression for the file names or {@code null}
+     * @param posixAttributes whether to read {@link PosixFileAttributes} (which includes the owner
+     *            and group names) instead of {@link BasicFileAttributes}
+     */
+    public RFileWalker(Path root, boolean fullNames, String pattern, boolean ignoreCase, boolean allFiles, boolean recursive, boolean includeDirs, boolean posixAttributes) {
+        this.root = root;
+        if (fullNames) {
+            String rootString = root.toString();
+            this.prefix = rootString.endsWith("/") ? rootString : rootString + "/";
+        } else {
+            this.prefix = "";
+        }
+        Matcher literalMatcher = pattern == null || ignoreCase ? null : LITERAL_PATTERN.matcher(pattern);
+        if (literalMatcher != null && literalMatcher.matches()) {
+            this.pattern = null;
+            this.literal = literalMatcher.group(2).replace("\\.", ".");
+            boolean start = !literalMatcher.group(1).isEmpty();
+            boolean end = !literalMatcher.group(3).isEmpty();
+            this.literalMode = start ? (end ? LiteralMode.EQUALS : LiteralMode.PREFIX) : (end ? LiteralMode.SUFFIX : LiteralMode.CONTAINS);
+        } else {
+            this.pattern = pattern == null ? null : Pattern.compile(pattern, ignoreCase ? Pattern.CASE_INSENSITIVE : 0);
+            this.literal = null;
+            this.literalMode = null;
+        }
+        this.allFiles = allFiles;
+        this.recursive = recursive;
+        this.includeDirs = includeDirs;
+        this.attributesClass = posixAttributes ? PosixFileAttributes.class : BasicFileAttributes.class;
+    }
+
+    /**
+     * Whether {@code name} matches the pattern given to the constructor.
+     */
+    public boolean matches(String name) {
+        if (literal != null) {
+            switch (literalMode) {
+                case EQUALS:
+                    return name.equals(literal);
+                case PREFIX:
+                    return name.startsWith(literal);
+                case SUFFIX:
+                    return name.endsWith(literal);
+                default:
+                    return name.contains(literal);
+            }
+        }
+        return pattern == null || pattern.matcher(name).find();
+    }
+
+    /**
+     * Walks the tree and passes all matching entries to {@code sink}, in no particular order.
+     */
+    @TruffleBoundary
+    public void walk(Sink sink) {
+        boolean parallel = RParallel.isEnabled();
+        DirectoryTask task = new DirectoryTask(root, "", sink, parallel);
+        if (parallel) {
+            RParallel.getPool().invoke(task);
+        } else {
+            task.compute();
+        }
+    }
+
+    private BasicFileAttributes readAttributes(Path path) throws IOException {
+        if (attributesClass == PosixFileAttributes.class && unixViewSupported) {
+            try {
+                return new UnixAttributes(Files.readAttributes(path, "unix:*", LinkOption.NOFOLLOW_LINKS));
+            } catch (UnsupportedOperationException | IllegalArgumentException ex) {
+                unixViewSupported = false;
+            }
+        }
+        return Files.readAttributes(path, attributesClass, LinkOption.NOFOLLOW_LINKS);
+    }
+
+    @SuppressWarnings("serial")
+    private final class DirectoryTask extends RecursiveAction {
+        private final Path directory;
+        private final String name;
+        private final Sink sink;
+        private final boolean parallel;
+
+        DirectoryTask(Path directory, String name, Sink sink, boolean parallel) {
+            this.directory = directory;
+            this.name = name;
+            this.sink = sink;
+            this.parallel = parallel;
+        }
+
+        @Override
+        protected void compute() {
+            ArrayList<DirectoryTask> subtasks = null;
+            try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory)) {
+                for (Path child : stream) {
+                    if (cancelled) {
+                        break;
+                    }
+                    String fileName = child.getFileName().toString();
+                    if (!allFiles && fileName.charAt(0) == '.') {
+                        continue;
+                    }
+                    BasicFileAttributes attributes;
+                    try {
+                        attributes = readAttributes(child);
+                    } catch (IOException ex) {
+                        // removed in the meantime or not accessible
+                        continue;
+                    }
+                    String childName = name.isEmpty() ? fileName : name + '/' + fileName;
+                    boolean isDirectory = attributes.isDirectory();
+                    if ((!isDirectory || includeDirs) && matches(fileName)) {
+                        if (!sink.accept(new Entry(prefix + childName, attributes))) {
+                            cancelled = true;
+                            break;
+                        }
+                    }
+                    if (isDirectory && recursive) {
+                        DirectoryTask subtask = new DirectoryTask(child, childName, sink, parallel);
+                        if (parallel) {
+                            subtask.fork();
+                            if (subtasks == null) {
+                                subtasks = new ArrayList<>();
+                            }
+                            subtasks.add(subtask);
+                        } else {
+                            subtask.compute();
+                        }
+                    }
+                }
+            } catch (IOException | DirectoryIteratorException ex) {
+                // an unreadable directory is treated as empty
+            }
+            if (subtasks != null) {
+                for (DirectoryTask subtask : subtasks) {
+                    subtask.join();
+                }
+            }
+        }
+    }
+
+    /**
+     * A walk that runs in the background and whose entries are consumed in batches by
+     * {@link #read}, in the order in which they are found. At most {@link #CAPACITY} entries are
+     * buffered, i.e. the walk is suspended while the consumer does not keep up. The walk runs on a
+     * producer thread of its own, so that a cursor that is read slowly (or never) does not block
+     * the workers of the {@link RParallel} pool. Cursors are owned by a context, see {@link ContextStateImpl},
+     * and identified by an integer id for the {@code .fastr.dir.*} builtins.
+     */
+    public static final class Cursor {
+
+        private static final int CAPACITY = 1 << 16;
+        private static final Object END = new Object();
+
+        private final int id;
+        private final ContextStateImpl owner;
+        private final RFileWalker walker;
+        private final BlockingQueue<Object> queue = new LinkedBlockingQueue<>(CAPACITY);
+        private boolean finished;
+
+        private Cursor(int id, ContextStateImpl owner, RFileWalker walker) {
+            this.id = id;
+            this.owner = owner;
+            this.walker = walker;
+        }
+
+        private void start() {
+            Thread producer = new Thread(() -> {
+                try {
+                    walker.new DirectoryTask(walker.root, "", this::offer, false).compute();
+                } finally {
+                    offer(END);
+                }
+            }, "FastR-dir-cursor-" + id);
+            producer.setDaemon(true);
+            producer.start();
+        }
+
+        public int getId() {
+            return id;
+        }
+
+        private boolean offer(Object entry) {
+            if (walker.cancelled) {
+                return false;
+            }
+            try {
+                // close() clears the queue, which releases a blocked put
+                queue.put(entry);
+            } catch (InterruptedException ex) {
+                walker.cancelled = true;
+            }
+            return !walker.cancelled;
+        }
+
+        /**
+         * Waits until entries are available and returns at most {@code max} of them; an empty list
+         * denotes the end of the walk, at which point the cursor is closed.
+         */
+        @TruffleBoundary
+        public ArrayList<Entry> read(int max) throws InterruptedException {
+            ArrayList<Entry> result = new ArrayList<>();
+            ArrayList<Object> items = new ArrayList<>();
+            if (!finished) {
+                items.add(queue.take());
+                queue.drainTo(items, max - 1);
+            }
+            for (Object item : items) {
+                if (item == END) {
+                    finished = true;
+                } else {
+                    result.add((Entry) item);
+                }
+            }
+            if (finished && result.isEmpty()) {
+                close();
+            }
+            return result;
+        }
+
+        /**
+         * Stops the walk and discards the buffered entries.
+         */
+        @TruffleBoundary
+        public void close() {
+            walker.cancelled = true;
+            owner.cursors.remove(id);
+            queue.clear();
+        }
+    }
+
+    /**
+     * The open {@link Cursor}s of a context; they are closed when the context is destroyed, so that
+     * a handle that is never read to the end does not keep its walk suspended forever.
+     */
+    public static final class ContextStateImpl implements RContext.ContextState {
+        private final Map<Integer, Cursor> cursors = new ConcurrentHashMap<>();
+        private final AtomicInteger nextId = new AtomicInteger(1);
+
+        @TruffleBoundary
+        public Cursor open(RFileWalker walker) {
+            Cursor cursor = new Cursor(nextId.getAndIncrement(), this, walker);
+            cursors.put(cursor.id, cursor);
+            cursor.start();
+            return cursor;
+        }
+
+        /**
+         * Returns the cursor with the given id or {@code null} if it was closed or has been read
+         * completely.
+         */
+        public Cursor get(int id) {
+            return cursors.get(id);
+        }
+
+        @TruffleBoundary
+        public void closeAll() {
+            for (Cursor cursor : cursors.values()) {
+                cursor.close();
+            }
+        }
+
+        @Override
+        public void beforeDestroy(RContext context) {
+            closeAll();
+        }
+
+        public static ContextStateImpl newContextState() {
+            return new ContextStateImpl();
+        }
+    }
+}
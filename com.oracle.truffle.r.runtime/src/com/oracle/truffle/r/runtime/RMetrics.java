@@ -0,0 +1,377 @@
+/*
+ * Copyright (c) 2016, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.truffle.r.runtime;
+
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+import com.oracle.truffle.api.CompilerDirectives;
+import com.oracle.truffle.api.CompilerDirectives.CompilationFinal;
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+import com.oracle.truffle.api.utilities.CyclicAssumption;
+import com.oracle.truffle.r.runtime.data.ROffHeapStorage;
+import com.oracle.truffle.r.runtime.data.RTypedValue;
+import com.oracle.truffle.r.runtime.data.RVector;
+import com.oracle.truffle.r.runtime.data.model.RAbstractVector;
+
+/**
+ * Process-wide operational metrics, collected while enabled (by {@link FastROptions#Metrics} or
+ * {@code .fastr.metrics(enable = TRUE)}): invocation counts and cumulative time per closure (by name), allocations per vector type, vector
+ * copies, promise forces, and native {@code .Call} counts and time per symbol. The bytes held
+ * by live off-heap vector storages, see {@link ROffHeapStorage#getAllocatedBytes()}, and the hit
+ * and miss counts of the caches, e.g. {@link RParseCache}, are always reported.
+ *
+ * All counters are {@link LongAdder}s, i.e. striped, so that concurrent contexts do not contend
+ * on them, and the counter objects are created once and then cached by the reporting nodes, so
+ * recording a value does not involve a lookup. The reporting methods only pass primitive values
+ * across the {@link TruffleBoundary}, so that reporting an allocation does not let the vector
+ * escape. {@link #reset()} zeroes the counters in place. The
+ * metrics can be read with {@code .fastr.metrics()} or through JMX, see {@link RMetricsMXBean}.
+ *
+ * When disabled, which is the default, {@link #isEnabled()} folds to a constant in compiled code
+ * (guarded by an assumption that is invalidated when the state changes), so the reporting sites
+ * compile away. When enabled, every closure call reads the clock twice and every allocation,
+ * copy and promise force updates a counter behind a {@link TruffleBoundary}.
+ */
+public final class RMetrics implements RMetricsMXBean {
+
+    public static final String MBEAN_NAME = "com.oracle.truffle.r:type=Metrics";
+
+    /**
+     * The number of events and their cumulative duration.
+     */
+    public static final class Timer {
+        private final LongAdder count = new LongAdder();
+        private final LongAdder nanos = new LongAdder();
+
+        @TruffleBoundary
+        public void record(long elapsedNanos) {
+            count.increment();
+            nanos.add(elapsedNanos);
+        }
+
+        public long getCount() {
+            return count.sum();
+        }
+
+        public long getNanos() {
+            return nanos.sum();
+        }
+
+        private void reset() {
+            count.reset();
+            nanos.reset();
+        }
+    }
+
+    /**
+     * The hit and miss counts of a cache, reported as {@code <name>.hits} and
+     * {@code <name>.misses}.
+     */
+    public static final class CacheCounter {
+        private final LongAdder hits = new LongAdder();
+        private final LongAdder misses = new LongAdder();
+
+        @TruffleBoundary
+        public void hit() {
+            hits.increment();
+        }
+
+        @TruffleBoundary
+        public void miss() {
+            misses.increment();
+        }
+
+        public long getHits() {
+            return hits.sum();
+        }
+
+        public long getMisses() {
+            return misses.sum();
+        }
+
+        private void reset() {
+            hits.reset();
+            misses.reset();
+        }
+    }
+
+    private static final RMetrics INSTANCE = new RMetrics();
+
+    private static final Map<String, Timer> functions = new ConcurrentHashMap<>();
+    private static final Map<String, Timer> nativeCalls = new ConcurrentHashMap<>();
+    private static final Map<String, CacheCounter> caches = new ConcurrentHashMap<>();
+
+    private static final RType[] TYPES = RType.values();
+    private static final LongAdder[] allocationCounts = createAdders(TYPES.length);
+    private static final LongAdder[] allocatedBytes = createAdders(TYPES.length);
+    private static final LongAdder copies = new LongAdder();
+    private static final LongAdder copiedBytes = new LongAdder();
+    private static final LongAdder promiseForces = new LongAdder();
+
+    private static boolean registered;
+
+    @CompilationFinal private static boolean enabled;
+    private static final CyclicAssumption enabledUnchangedAssumption = new CyclicAssumption("metrics enabled");
+
+    private RMetrics() {
+        // a single instance is exported through JMX
+    }
+
+    private static LongAdder[] createAdders(int count) {
+        LongAdder[] result = new LongAdder[count];
+        for (int i = 0; i < count; i++) {
+            result[i] = new LongAdder();
+        }
+        return result;
+    }
+
+    public static boolean isEnabled() {
+        if (!enabledUnchangedAssumption.getAssumption().isValid()) {
+            CompilerDirectives.transferToInterpreterAndInvalidate();
+        }
+        return enabled;
+    }
+
+    /**
+     * Switches the collection of metrics on or off, the counters keep their values.
+     */
+    @TruffleBoundary
+    public static synchronized void setEnabled(boolean newState) {
+        if (enabled != newState) {
+            enabled = newState;
+            enabledUnchangedAssumption.invalidate();
+        }
+        register();
+    }
+
+    /**
+     * Enables the metrics if requested by {@link FastROptions#Metrics}.
+     */
+    @TruffleBoundary
+    public static void initialize() {
+        if (FastROptions.Metrics.getBooleanValue()) {
+            setEnabled(true);
+        }
+    }
+
+    /**
+     * Registers the MBean with the platform MBean server, if the metrics are enabled and it is not
+     * yet registered.
+     */
+    private static synchronized void register() {
+        if (!registered && enabled) {
+            registered = true;
+            try {
+                ManagementFactory.getPlatformMBeanServer().registerMBean(INSTANCE, new ObjectName(MBEAN_NAME));
+            } catch (JMException | SecurityException e) {
+                // e.g., registered by another class loader, metrics are still available from R
+            }
+        }
+    }
+
+    public static RMetrics getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Returns the timer for closures named {@code name}; it is meant to be cached by the caller.
+     */
+    @TruffleBoundary
+    public static Timer getFunctionTimer(String name) {
+        return functions.computeIfAbsent(name, n -> new Timer());
+    }
+
+    @TruffleBoundary
+    public static Timer getNativeCallTimer(String name) {
+        return nativeCalls.computeIfAbsent(name, n -> new Timer());
+    }
+
+    /**
+     * Returns the counter for the cache named {@code name}; it is meant to be held in a static
+     * field of the cache's owner.
+     */
+    @TruffleBoundary
+    public static CacheCounter getCacheCounter(String name) {
+        return caches.computeIfAbsent(name, n -> new CacheCounter());
+    }
+
+    public static void reportAllocation(RTypedValue value) {
+        RType type = value.getRType();
+        long bytes = value instanceof RVector ? (long) ((RVector<?>) value).getLength() * elementSize(type) : 0;
+        recordAllocation(type.ordinal(), bytes);
+    }
+
+    @TruffleBoundary
+    private static void recordAllocation(int typeIndex, long bytes) {
+        allocationCounts[typeIndex].increment();
+        allocatedBytes[typeIndex].add(bytes);
+    }
+
+    public static void reportCopy(RAbstractVector source) {
+        recordCopy((long) source.getLength() * elementSize(source.getRType()));
+    }
+
+    @TruffleBoundary
+    private static void recordCopy(long bytes) {
+        copies.increment();
+        copiedBytes.add(bytes);
+    }
+
+    @TruffleBoundary
+    public static void reportPromiseForce() {
+        promiseForces.increment();
+    }
+
+    /**
+     * The (approximate) number of bytes used per element by a vector of the given type.
+     */
+    private static int elementSize(RType type) {
+        switch (type) {
+            case Raw:
+            case Logical:
+                return 1;
+            case Integer:
+                return 4;
+            case Double:
+                return 8;
+            case Complex:
+                return 16;
+            default:
+                // references
+                return 8;
+        }
+    }
+
+    @Override
+    public void reset() {
+        for (Timer timer : functions.values()) {
+            timer.reset();
+        }
+        for (Timer timer : nativeCalls.values()) {
+            timer.reset();
+        }
+        for (CacheCounter counter : caches.values()) {
+            counter.reset();
+        }
+        for (int i = 0; i < TYPES.length; i++) {
+            allocationCounts[i].reset();
+            allocatedBytes[i].reset();
+        }
+        copies.reset();
+        copiedBytes.reset();
+        promiseForces.reset();
+        RParseCache.resetStatistics();
+    }
+
+    private static Map<String, Long> snapshot(Map<String, Timer> timers, Function<Timer, Long> value) {
+        Map<String, Long> result = new TreeMap<>();
+        for (Map.Entry<String, Timer> entry : timers.entrySet()) {
+            long v = value.apply(entry.getValue());
+            if (v != 0) {
+                result.put(entry.getKey(), v);
+            }
+        }
+        return result;
+    }
+
+    private static Map<String, Long> snapshot(LongAdder[] adders) {
+        Map<String, Long> result = new TreeMap<>();
+        for (int i = 0; i < TYPES.length; i++) {
+            long v = adders[i].sum();
+            if (v != 0) {
+                result.put(TYPES[i].getName(), v);
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public Map<String, Long> getFunctionCalls() {
+        return snapshot(functions, Timer::getCount);
+    }
+
+    @Override
+    public Map<String, Long> getFunctionTime() {
+        return snapshot(functions, Timer::getNanos);
+    }
+
+    @Override
+    public Map<String, Long> getAllocationCounts() {
+        return snapshot(allocationCounts);
+    }
+
+    @Override
+    public Map<String, Long> getAllocatedBytes() {
+        return snapshot(allocatedBytes);
+    }
+
+    @Override
+    public long getCopies() {
+        return copies.sum();
+    }
+
+    @Override
+    public long getCopiedBytes() {
+        return copiedBytes.sum();
+    }
+
+    @Override
+    public long getPromiseForces() {
+        return promiseForces.sum();
+    }
+
+    @Override
+    public long getOffHeapBytes() {
+        return ROffHeapStorage.getAllocatedBytes();
+    }
+
+    @Override
+    public Map<String, Long> getNativeCalls() {
+        return snapshot(nativeCalls, Timer::getCount);
+    }
+
+    @Override
+    public Map<String, Long> getNativeTime() {
+        return snapshot(nativeCalls, Timer::getNanos);
+    }
+
+    @Override
+    public Map<String, Long> getCaches() {
+        Map<String, Long> result = new TreeMap<>();
+        result.put("parse.hits", RParseCache.getHits());
+        result.put("parse.misses", RParseCache.getMisses());
+        for (Map.Entry<String, CacheCounter> entry : caches.entrySet()) {
+            result.put(entry.getKey() + ".hits", entry.getValue().getHits());
+            result.put(entry.getKey() + ".misses", entry.getValue().getMisses());
+        }
+        return result;
+    }
+}
@@ -0,0 +1,60 @@
+/*
+ * Copyright (c) 2016, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.truffle.r.runtime;
+
+import java.util.Map;
+
+/**
+ * The JMX view of {@link RMetrics}, registered as {@value RMetrics#MBEAN_NAME}. Times are in
+ * nanoseconds.
+ */
+public interface RMetricsMXBean {
+
+    Map<String, Long> getFunctionCalls();
+
+    Map<String, Long> getFunctionTime();
+
+    Map<String, Long> getAllocationCounts();
+
+    Map<String, Long> getAllocatedBytes();
+
+    long getCopies();
+
+    long getCopiedBytes();
+
+    long getPromiseForces();
+
+    long getOffHeapBytes();
+
+    Map<String, Long> getNativeCalls();
+
+    Map<String, Long> getNativeTime();
+
+    /**
+     * Hit and miss counts of the runtime's caches, e.g. {@code parse.hits} and
+     * {@code parse.misses}.
+     */
+    Map<String, Long> getCaches();
+
+    void reset();
+}
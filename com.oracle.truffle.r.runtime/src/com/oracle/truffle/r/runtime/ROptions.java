@@ -96,6 +96,26 @@ public class ROptions {
             return previous;
         }
 
+        /**
+         * Returns a copy of the current values, for use with {@link #restore}.
+         */
+        @TruffleBoundary
+        public Map<String, Object> snapshot() {
+            return new HashMap<>(map);
+        }
+
+        /**
+         * Resets the values to a copy obtained by {@link #snapshot}.
+         */
+        @TruffleBoundary
+        public void restore(Map<String, Object> values) {
+            if (!map.equals(values)) {
+                map.clear();
+                map.putAll(values);
+                updateDotOptions();
+            }
+        }
+
         @TruffleBoundary
         public static ContextStateImpl newContextState(REnvVars envVars) {
             HashMap<String, Object> map = new HashMap<>();
@@ -0,0 +1,146 @@
+/*
+ * Copyright (c) 2016, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.truffle.r.runtime;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.RecursiveAction;
+
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+
+/**
+ * Support for data-parallel kernels in builtins. The work is distributed over a single,
+ * lazily-created {@link ForkJoinPool} that is shared by all contexts. The tasks executed on the
+ * pool must only operate on plain Java arrays, i.e., they must not touch nodes, frames or the
+ * {@link com.oracle.truffle.r.runtime.context.RContext}.
+ *
+ * The number of worker threads is controlled by {@link FastROptions#ParallelThreads}, a value of
+ * {@code 1} disables parallel execution altogether.
+ */
+public final class RParallel {
+
+    /**
+     * A piece of work over the half-open index range {@code [from, to)}.
+     */
+    @FunctionalInterface
+    public interface RangeTask {
+        void run(int from, int to);
+    }
+
+    private static volatile ForkJoinPool pool;
+
+    private RParallel() {
+        // no instances
+    }
+
+    /**
+     * Returns the number of threads that parallel kernels may use.
+     */
+    public static int getParallelism() {
+        int threads = FastROptions.ParallelThreads.getNonNegativeIntValue();
+        return threads == 0 ? Runtime.getRuntime().availableProcessors() : threads;
+    }
+
+    /**
+     * Returns {@code true} if parallel execution is possible at all, kernels use this to avoid the
+     * bookkeeping needed for splitting the work.
+     */
+    public static boolean isEnabled() {
+        return getParallelism() > 1;
+    }
+
+    @TruffleBoundary
+    public static ForkJoinPool getPool() {
+        ForkJoinPool result = pool;
+        if (result == null) {
+            synchronized (RParallel.class) {
+                result = pool;
+                if (result == null) {
+                    result = new ForkJoinPool(getParallelism(), p -> {
+                        ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(p);
+                        thread.setName("FastR-parallel-" + thread.getPoolIndex());
+                        thread.setDaemon(true);
+                        return thread;
+                    }, null, false);
+                    pool = result;
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Executes {@code task} over {@code [from, to)}, splitting the range recursively into chunks of
+     * at most {@code grain} elements that are processed in parallel. If the range is not larger
+     * than {@code grain} or parallelism is disabled, the task is run directly on the calling
+     * thread. Exceptions thrown by the task are propagated to the caller.
+     */
+    @TruffleBoundary
+    public static void forEachChunk(int from, int to, int grain, RangeTask task) {
+        assert grain > 0;
+        if (to - from <= grain || !isEnabled()) {
+            task.run(from, to);
+            return;
+        }
+        RangeAction action = new RangeAction(from, to, grain, task);
+        if (ForkJoinTask.inForkJoinPool()) {
+            action.invoke();
+        } else {
+            getPool().invoke(action);
+        }
+    }
+
+    /**
+     * Computes a chunk size such that the range {@code [0, length)} is split into roughly
+     * {@code 4 * parallelism} chunks of at least {@code minGrain} elements.
+     */
+    public static int grainSize(int length, int minGrain) {
+        return Math.max(minGrain, length / (getParallelism() * 4) + 1);
+    }
+
+    @SuppressWarnings("serial")
+    private static final class RangeAction extends RecursiveAction {
+        private final int from;
+        private final int to;
+        private final int grain;
+        private final RangeTask task;
+
+        RangeAction(int from, int to, int grain, RangeTask task) {
+            this.from = from;
+            this.to = to;
+            this.grain = grain;
+            this.task = task;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= grain) {
+                task.run(from, to);
+            } else {
+                int mid = (from + to) >>> 1;
+                invokeAll(new RangeAction(from, mid, grain, task), new RangeAction(mid, to, grain, task));
+            }
+        }
+    }
+}
@@ -0,0 +1,720 @@
+/*
+ * Copyright (c) 2016, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.truffle.r.runtime;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.oracle.truffle.api.RootCallTarget;
+import com.oracle.truffle.api.source.Source;
+import com.oracle.truffle.api.source.SourceSection;
+import com.oracle.truffle.r.runtime.context.Engine.ParseException;
+import com.oracle.truffle.r.runtime.data.RComplex;
+import com.oracle.truffle.r.runtime.data.RNull;
+import com.oracle.truffle.r.runtime.nodes.RCodeBuilder;
+import com.oracle.truffle.r.runtime.nodes.RCodeBuilder.Argument;
+
+/**
+ * Caches the result of parsing R source text, so that identical code (the base package, the
+ * default package overrides, deparsed package functions, ...) is only run through the parser once.
+ *
+ * The parser is run with a recording {@link RCodeBuilder} that produces an immutable,
+ * context-independent tree of the builder calls, including the source offsets. This tree is kept in
+ * a JVM-wide cache keyed by the source text and is replayed into the builder of each request (e.g.
+ * a fresh {@code RASTBuilder}), so every context still gets its own AST. A source is only recorded
+ * when its text is seen for the second time, so one-shot sources only pay for a hash code, and the
+ * cache is bounded by the approximate number of bytes it retains. If
+ * {@link FastROptions#ParseCacheDir} is set, trees of large sources are also stored in that
+ * directory in a compact binary form, keyed by a SHA-256 digest of the text, and survive the JVM;
+ * the stored trees are only used by the same build of the parser, see {@link #getBuildId()}. The
+ * warnings of the parser are recorded with the tree and reported again on every replay.
+ */
+public final class RParseCache {
+
+    /**
+     * Sources shorter than this are cheap to parse and not worth caching.
+     */
+    private static final int MIN_CACHED_LENGTH = 128;
+    /**
+     * Sources shorter than this are not written to the persistent cache.
+     */
+    private static final int MIN_PERSISTED_LENGTH = 4096;
+    /**
+     * The maximum number of bytes retained by the cached source texts and trees.
+     */
+    private static final long MAX_CACHED_BYTES = 64L << 20;
+    /**
+     * The approximate size of a recorded builder call.
+     */
+    private static final int ELEMENT_BYTES = 64;
+    /**
+     * The number of sources that are remembered as seen once.
+     */
+    private static final int MAX_SEEN = 8192;
+
+    private static final int MAGIC = 0x52505443;
+    private static final int VERSION = 3;
+
+    /**
+     * A warning reported by the parser, the arguments are kept as strings.
+     */
+    private static final class Warning {
+        final RError.Message message;
+        final String[] args;
+
+        Warning(RError.Message message, String[] args) {
+            this.message = message;
+            this.args = args;
+        }
+
+        void report() {
+            RError.warning(RError.NO_CALLER, message, (Object[]) args);
+        }
+    }
+
+    private static final Warning[] NO_WARNINGS = new Warning[0];
+
+    private static final class Entry {
+        final Element[] statements;
+        final Warning[] warnings;
+        final long bytes;
+
+        Entry(String code, Element[] statements, Warning[] warnings, long treeBytes) {
+            this.statements = statements;
+            this.warnings = warnings;
+            this.bytes = code.length() * 2L + treeBytes;
+        }
+    }
+
+    private static final Map<String, Entry> cache = new LinkedHashMap<>(256, 0.75f, true);
+    private static long cachedBytes;
+    private static final Map<Long, Boolean> seen = new LinkedHashMap<Long, Boolean>(256, 0.75f, true) {
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, Boolean> eldest) {
+            return size() > MAX_SEEN;
+        }
+    };
+
+    private static final AtomicLong hits = new AtomicLong();
+    private static final AtomicLong misses = new AtomicLong();
+
+    private static String buildId;
+
+    private RParseCache() {
+        // no instances
+    }
+
+    /**
+     * Equivalent to {@link RParserFactory.Parser#script(Source, RCodeBuilder)}, but reuses a
+     * previous parse of the same source text if possible.
+     */
+    public static <T> List<T> script(Source source, RCodeBuilder<T> builder) throws ParseException {
+        String code = source.getCode();
+        if (!FastROptions.ParseCache.getBooleanValue() || code.length() < MIN_CACHED_LENGTH) {
+            return RParserFactory.<T> getParser().script(source, builder);
+        }
+        Entry entry;
+        synchronized (cache) {
+            entry = cache.get(code);
+        }
+        if (entry == null) {
+            Path file = getCacheFile(code);
+            entry = load(file, code);
+            if (entry == null) {
+                if (!markSeen(code) && file == null) {
+                    // the first occurrence is not recorded, most sources are only parsed once
+                    misses.incrementAndGet();
+                    return RParserFactory.<T> getParser().script(source, builder);
+                }
+                Recorder recorder = new Recorder();
+                List<Element> parsed = RParserFactory.<Element> getParser().script(source, recorder);
+                Element[] statements = parsed.toArray(new Element[parsed.size()]);
+                Warning[] warnings = recorder.warnings.toArray(NO_WARNINGS);
+                store(file, code, statements, warnings);
+                entry = new Entry(code, statements, warnings, (long) recorder.count * ELEMENT_BYTES);
+                misses.incrementAndGet();
+                put(code, entry);
+                // the recorder has reported the warnings already
+                return build(entry, source, builder);
+            } else {
+                hits.incrementAndGet();
+            }
+            put(code, entry);
+        } else {
+            hits.incrementAndGet();
+        }
+        for (Warning warning : entry.warnings) {
+            warning.report();
+        }
+        return build(entry, source, builder);
+    }
+
+    private static <T> List<T> build(Entry entry, Source source, RCodeBuilder<T> builder) {
+        ArrayList<T> result = new ArrayList<>(entry.statements.length);
+        for (Element statement : entry.statements) {
+            result.add(statement.build(source, builder));
+        }
+        return result;
+    }
+
+    /**
+     * Returns whether the given source text was seen before, and remembers it.
+     */
+    private static boolean markSeen(String code) {
+        Long key = ((long) code.hashCode() << 32) | code.length();
+        synchronized (seen) {
+            return seen.put(key, Boolean.TRUE) != null;
+        }
+    }
+
+    private static void put(String code, Entry entry) {
+        if (entry.bytes > MAX_CACHED_BYTES) {
+            return;
+        }
+        synchronized (cache) {
+            Entry previous = cache.put(code, entry);
+            cachedBytes += entry.bytes - (previous == null ? 0 : previous.bytes);
+            Iterator<Entry> iterator = cache.values().iterator();
+            while (cachedBytes > MAX_CACHED_BYTES) {
+                // the new entry is the most recently used one and evicted last
+                Entry eldest = iterator.next();
+                cachedBytes -= eldest.bytes;
+                iterator.remove();
+            }
+        }
+    }
+
+    /**
+     * The number of parses that were replayed from the cache (in memory or persisted).
+     */
+    public static long getHits() {
+        return hits.get();
+    }
+
+    /**
+     * The number of cacheable parses that had to run the parser.
+     */
+    public static long getMisses() {
+        return misses.get();
+    }
+
+    public static void resetStatistics() {
+        hits.set(0);
+        misses.set(0);
+    }
+
+    /**
+     * Identifies the build that recorded a persisted tree: the release and the time stamp of the
+     * parser's class file, so that a rebuilt parser does not replay trees recorded by a previous
+     * one even if the release did not change.
+     */
+    private static synchronized String getBuildId() {
+        if (buildId == null) {
+            long stamp = 0;
+            Class<?> parserClass = RParserFactory.getParser().getClass();
+            URL classFile = parserClass.getResource(parserClass.getSimpleName() + ".class");
+            if (classFile != null) {
+                try {
+                    stamp = classFile.openConnection().getLastModified();
+                } catch (IOException e) {
+                    // no time stamp, the release has to do
+                }
+            }
+            buildId = RVersionNumber.VERSION_STRING + " " + parserClass.getName() + " " + stamp;
+        }
+        return buildId;
+    }
+
+    private static String digest(String code) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(code.getBytes(StandardCharsets.UTF_8));
+            StringBuilder str = new StringBuilder(hash.length * 2);
+            for (byte b : hash) {
+                str.append(Character.forDigit((b >> 4) & 0xf, 16)).append(Character.forDigit(b & 0xf, 16));
+            }
+            return str.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw RInternalError.shouldNotReachHere(e);
+        }
+    }
+
+    private static Path getCacheFile(String code) {
+        String dir = FastROptions.ParseCacheDir.getStringValue();
+        if (dir == null || dir.isEmpty() || code.length() < MIN_PERSISTED_LENGTH) {
+            return null;
+        }
+        return Paths.get(Utils.tildeExpand(dir), digest(code) + ".rpt");
+    }
+
+    private static Entry load(Path file, String code) {
+        if (file == null || !Files.isRegularFile(file)) {
+            return null;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION || !getBuildId().equals(readString(in)) || in.readInt() != code.length()) {
+                // recorded by another build of the parser, parse again and overwrite it
+                return null;
+            }
+            Element[] statements = new Element[in.readInt()];
+            for (int i = 0; i < statements.length; i++) {
+                statements[i] = readElement(in);
+            }
+            Warning[] warnings = new Warning[in.readInt()];
+            for (int i = 0; i < warnings.length; i++) {
+                RError.Message message = RError.Message.valueOf(readString(in));
+                String[] args = new String[in.readInt()];
+                for (int j = 0; j < args.length; j++) {
+                    args[j] = readString(in);
+                }
+                warnings[i] = new Warning(message, args);
+            }
+            // the trees in memory are several times larger than their compact form
+            return new Entry(code, statements, warnings, Files.size(file) * 4);
+        } catch (IOException | RuntimeException e) {
+            // corrupt or incompatible entry, parse again and overwrite it
+            return null;
+        }
+    }
+
+    private static void store(Path file, String code, Element[] statements, Warning[] warnings) {
+        if (file == null) {
+            return;
+        }
+        try {
+            Files.createDirectories(file.getParent());
+            Path tmp = Files.createTempFile(file.getParent(), "rpt", ".tmp");
+            try {
+                try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp)))) {
+                    out.writeInt(MAGIC);
+                    out.writeInt(VERSION);
+                    writeString(out, getBuildId());
+                    out.writeInt(code.length());
+                    out.writeInt(statements.length);
+                    for (Element statement : statements) {
+                        writeElement(out, statement);
+                    }
+                    out.writeInt(warnings.length);
+                    for (Warning warning : warnings) {
+                        writeString(out, warning.message.name());
+                        out.writeInt(warning.args.length);
+                        for (String arg : warning.args) {
+                            writeString(out, arg);
+                        }
+                    }
+                }
+                Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } finally {
+                Files.deleteIfExists(tmp);
+            }
+        } catch (IOException e) {
+            // the persistent cache is best effort
+        }
+    }
+
+    /**
+     * A recorded builder call. {@code start == -1} denotes a missing source section.
+     */
+    private abstract static class Element {
+        final int start;
+        final int length;
+
+        Element(SourceSection source) {
+            this.start = source == null ? -1 : source.getCharIndex();
+            this.length = source == null ? 0 : source.getCharLength();
+        }
+
+        Element(int start, int length) {
+            this.start = start;
+            this.length = length;
+        }
+
+        abstract <T> T build(Source source, RCodeBuilder<T> builder);
+
+        static SourceSection section(Source source, int start, int length) {
+            return start == -1 ? null : source.createSection(start, length);
+        }
+
+        SourceSection section(Source source) {
+            return section(source, start, length);
+        }
+    }
+
+    private static final class Call extends Element {
+        final Element lhs;
+        final String[] names;
+        final int[] starts;
+        final int[] lengths;
+        final Element[] values;
+
+        Call(SourceSection source, Element lhs, List<Argument<Element>> arguments) {
+            super(source);
+            int count = arguments.size();
+            this.lhs = lhs;
+            this.names = new String[count];
+            this.starts = new int[count];
+            this.lengths = new int[count];
+            this.values = new Element[count];
+            for (int i = 0; i < count; i++) {
+                Argument<Element> argument = arguments.get(i);
+                names[i] = argument.name;
+                starts[i] = argument.source == null ? -1 : argument.source.getCharIndex();
+                lengths[i] = argument.source == null ? 0 : argument.source.getCharLength();
+                values[i] = argument.value;
+            }
+        }
+
+        Call(int start, int length, Element lhs, String[] names, int[] starts, int[] lengths, Element[] values) {
+            super(start, length);
+            this.lhs = lhs;
+            this.names = names;
+            this.starts = starts;
+            this.lengths = lengths;
+            this.values = values;
+        }
+
+        <T> List<Argument<T>> buildArguments(Source source, RCodeBuilder<T> builder) {
+            ArrayList<Argument<T>> result = new ArrayList<>(values.length);
+            for (int i = 0; i < values.length; i++) {
+                T value = values[i] == null ? null : values[i].build(source, builder);
+                result.add(RCodeBuilder.argument(section(source, starts[i], lengths[i]), names[i], value));
+            }
+            return result;
+        }
+
+        @Override
+        <T> T build(Source source, RCodeBuilder<T> builder) {
+            List<Argument<T>> arguments = buildArguments(source, builder);
+            return builder.call(section(source), lhs.build(source, builder), arguments);
+        }
+    }
+
+    private static final class Function extends Element {
+        final Call parameters;
+        final Element body;
+        final String assignedTo;
+
+        Function(SourceSection source, Call parameters, Element body, String assignedTo) {
+            super(source);
+            this.parameters = parameters;
+            this.body = body;
+            this.assignedTo = assignedTo;
+        }
+
+        Function(int start, int length, Call parameters, Element body, String assignedTo) {
+            super(start, length);
+            this.parameters = parameters;
+            this.body = body;
+            this.assignedTo = assignedTo;
+        }
+
+        @Override
+        <T> T build(Source source, RCodeBuilder<T> builder) {
+            List<Argument<T>> params = parameters.buildArguments(source, builder);
+            return builder.function(section(source), params, body.build(source, builder), assignedTo);
+        }
+    }
+
+    private static final class Constant extends Element {
+        final Object value;
+
+        Constant(SourceSection source, Object value) {
+            super(source);
+            this.value = value;
+        }
+
+        Constant(int start, int length, Object value) {
+            super(start, length);
+            this.value = value;
+        }
+
+        @Override
+        <T> T build(Source source, RCodeBuilder<T> builder) {
+            return builder.constant(section(source), value);
+        }
+    }
+
+    private static final class Lookup extends Element {
+        final String symbol;
+        final boolean functionLookup;
+
+        Lookup(SourceSection source, String symbol, boolean functionLookup) {
+            super(source);
+            this.symbol = symbol;
+            this.functionLookup = functionLookup;
+        }
+
+        Lookup(int start, int length, String symbol, boolean functionLookup) {
+            super(start, length);
+            this.symbol = symbol;
+            this.functionLookup = functionLookup;
+        }
+
+        @Override
+        <T> T build(Source source, RCodeBuilder<T> builder) {
+            return builder.lookup(section(source), symbol, functionLookup);
+        }
+    }
+
+    private static final class Recorder implements RCodeBuilder<Element> {
+
+        /**
+         * The number of recorded builder calls.
+         */
+        int count;
+
+        final ArrayList<Warning> warnings = new ArrayList<>();
+
+        @Override
+        public void warning(RError.Message message, Object... args) {
+            String[] strings = new String[args.length];
+            for (int i = 0; i < args.length; i++) {
+                strings[i] = String.valueOf(args[i]);
+            }
+            Warning warning = new Warning(message, strings);
+            warnings.add(warning);
+            warning.report();
+        }
+
+        @Override
+        public Element call(SourceSection source, Element lhs, List<Argument<Element>> arguments) {
+            count++;
+            return new Call(source, lhs, arguments);
+        }
+
+        @Override
+        public Element constant(SourceSection source, Object value) {
+            count++;
+            return new Constant(source, value);
+        }
+
+        @Override
+        public Element lookup(SourceSection source, String symbol, boolean functionLookup) {
+            count++;
+            return new Lookup(source, symbol, functionLookup);
+        }
+
+        @Override
+        public Element function(SourceSection source, List<Argument<Element>> arguments, Element body, Object assignedTo) {
+            count++;
+            // the builder only derives the function's name from the assignment target
+            String name = assignedTo instanceof String ? (String) assignedTo : assignedTo instanceof Lookup ? ((Lookup) assignedTo).symbol : null;
+            return new Function(source, new Call(null, null, arguments), body, name);
+        }
+
+        @Override
+        public RootCallTarget rootFunction(SourceSection source, List<Argument<Element>> arguments, Element body, String name) {
+            throw RInternalError.shouldNotReachHere();
+        }
+    }
+
+    // binary format
+
+    private static final byte NULL = 0;
+    private static final byte CALL = 1;
+    private static final byte FUNCTION = 2;
+    private static final byte LOOKUP = 3;
+    private static final byte LOGICAL = 4;
+    private static final byte INTEGER = 5;
+    private static final byte DOUBLE = 6;
+    private static final byte COMPLEX = 7;
+    private static final byte STRING = 8;
+    private static final byte STRING_NA = 9;
+    private static final byte R_NULL = 10;
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+        } else {
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            out.writeInt(bytes.length);
+            out.write(bytes);
+        }
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        if (length == -1) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static void writeCall(DataOutputStream out, Call call) throws IOException {
+        out.writeInt(call.start);
+        out.writeInt(call.length);
+        writeElement(out, call.lhs);
+        out.writeInt(call.values.length);
+        for (int i = 0; i < call.values.length; i++) {
+            writeString(out, call.names[i]);
+            out.writeInt(call.starts[i]);
+            out.writeInt(call.lengths[i]);
+            writeElement(out, call.values[i]);
+        }
+    }
+
+    private static Call readCall(DataInputStream in) throws IOException {
+        int start = in.readInt();
+        int length = in.readInt();
+        Element lhs = readElement(in);
+        int count = in.readInt();
+        String[] names = new String[count];
+        int[] starts = new int[count];
+        int[] lengths = new int[count];
+        Element[] values = new Element[count];
+        for (int i = 0; i < count; i++) {
+            names[i] = readString(in);
+            starts[i] = in.readInt();
+            lengths[i] = in.readInt();
+            values[i] = readElement(in);
+        }
+        return new Call(start, length, lhs, names, starts, lengths, values);
+    }
+
+    private static void writeElement(DataOutputStream out, Element element) throws IOException {
+        if (element == null) {
+            out.writeByte(NULL);
+        } else if (element instanceof Call) {
+            out.writeByte(CALL);
+            writeCall(out, (Call) element);
+        } else if (element instanceof Function) {
+            Function function = (Function) element;
+            out.writeByte(FUNCTION);
+            out.writeInt(function.start);
+            out.writeInt(function.length);
+            writeCall(out, function.parameters);
+            writeElement(out, function.body);
+            writeString(out, function.assignedTo);
+        } else if (element instanceof Lookup) {
+            Lookup lookup = (Lookup) element;
+            out.writeByte(LOOKUP);
+            out.writeInt(lookup.start);
+            out.writeInt(lookup.length);
+            writeString(out, lookup.symbol);
+            out.writeBoolean(lookup.functionLookup);
+        } else {
+            Constant constant = (Constant) element;
+            Object value = constant.value;
+            if (value instanceof Byte) {
+                out.writeByte(LOGICAL);
+                out.writeByte((byte) value);
+            } else if (value instanceof Integer) {
+                out.writeByte(INTEGER);
+                out.writeInt((int) value);
+            } else if (value instanceof Double) {
+                out.writeByte(DOUBLE);
+                out.writeLong(Double.doubleToRawLongBits((double) value));
+            } else if (value instanceof RComplex) {
+                out.writeByte(COMPLEX);
+                out.writeLong(Double.doubleToRawLongBits(((RComplex) value).getRealPart()));
+                out.writeLong(Double.doubleToRawLongBits(((RComplex) value).getImaginaryPart()));
+            } else if (value instanceof String) {
+                if (RRuntime.isNA((String) value)) {
+                    out.writeByte(STRING_NA);
+                } else {
+                    out.writeByte(STRING);
+                    writeString(out, (String) value);
+                }
+            } else if (value == RNull.instance) {
+                out.writeByte(R_NULL);
+            } else {
+                throw new IOException("unexpected constant " + value);
+            }
+            out.writeInt(constant.start);
+            out.writeInt(constant.length);
+        }
+    }
+
+    private static Element readElement(DataInputStream in) throws IOException {
+        byte tag = in.readByte();
+        switch (tag) {
+            case NULL:
+                return null;
+            case CALL:
+                return readCall(in);
+            case FUNCTION: {
+                int start = in.readInt();
+                int length = in.readInt();
+                Call parameters = readCall(in);
+                Element body = readElement(in);
+                return new Function(start, length, parameters, body, readString(in));
+            }
+            case LOOKUP: {
+                int start = in.readInt();
+                int length = in.readInt();
+                String symbol = readString(in);
+                return new Lookup(start, length, symbol, in.readBoolean());
+            }
+            default:
+                Object value;
+                switch (tag) {
+                    case LOGICAL:
+                        value = in.readByte();
+                        break;
+                    case INTEGER:
+                        value = in.readInt();
+                        break;
+                    case DOUBLE:
+                        value = Double.longBitsToDouble(in.readLong());
+                        break;
+                    case COMPLEX:
+                        double real = Double.longBitsToDouble(in.readLong());
+                        value = RComplex.valueOf(real, Double.longBitsToDouble(in.readLong()));
+                        break;
+                    case STRING:
+                        value = readString(in);
+                        break;
+                    case STRING_NA:
+                        value = RRuntime.STRING_NA;
+                        break;
+                    case R_NULL:
+                        value = RNull.instance;
+                        break;
+                    default:
+                        throw new IOException("unexpected tag " + tag);
+                }
+                int start = in.readInt();
+                return new Constant(start, in.readInt(), value);
+        }
+    }
+}
@@ -0,0 +1,300 @@
+/*
+ * Copyright (c) 2016, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.truffle.r.runtime.conn;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+import com.oracle.truffle.r.runtime.RRuntime;
+import com.oracle.truffle.r.runtime.data.RComplex;
+import com.oracle.truffle.r.runtime.data.RDoubleVector;
+import com.oracle.truffle.r.runtime.data.RIntVector;
+import com.oracle.truffle.r.runtime.data.model.RAbstractComplexVector;
+import com.oracle.truffle.r.runtime.data.model.RAbstractDoubleVector;
+import com.oracle.truffle.r.runtime.data.model.RAbstractIntVector;
+import com.oracle.truffle.r.runtime.data.model.RAbstractLogicalVector;
+import com.oracle.truffle.r.runtime.data.model.RAbstractRawVector;
+
+/**
+ * Conversion between vectors and the binary layout of {@code readBin} and {@code writeBin}, i.e.
+ * elements of {@code size} bytes in native or swapped byte order. Data is transferred in chunks of
+ * at most {@link #CHUNK_SIZE} bytes through a direct buffer, so that neither builtin needs a buffer
+ * for the whole vector, and file channels read into and write from the buffer without an
+ * intermediate copy. Elements of the native size are converted with bulk transfers through typed
+ * buffer views.
+ */
+public final class BinaryIO {
+
+    /**
+     * The chunk size, a multiple of every element size.
+     */
+    public static final int CHUNK_SIZE = 1 << 20;
+
+    private BinaryIO() {
+        // no instances
+    }
+
+    public static ByteOrder order(boolean swap) {
+        ByteOrder order = ByteOrder.nativeOrder();
+        if (swap) {
+            return order == ByteOrder.BIG_ENDIAN ? ByteOrder.LITTLE_ENDIAN : ByteOrder.BIG_ENDIAN;
+        }
+        return order;
+    }
+
+    public static ByteBuffer allocateChunk(boolean swap) {
+        return ByteBuffer.allocateDirect(CHUNK_SIZE).order(order(swap));
+    }
+
+    /**
+     * Reads whole elements of {@code size} bytes from a connection.
+     */
+    public static final class Reader {
+        private final RConnection con;
+        private final int size;
+        private final ByteBuffer buffer;
+        private boolean eof;
+
+        public Reader(RConnection con, int size, boolean swap) {
+            this.con = con;
+            this.size = size;
+            this.buffer = allocateChunk(swap);
+            buffer.limit(0);
+        }
+
+        /**
+         * Returns a buffer with the next (at most {@code max}) elements between its position and
+         * limit, or {@code null} at the end of the input. A partial element at the end of the input
+         * is dropped. The buffer is only valid until the next call.
+         */
+        public ByteBuffer next(int max) throws IOException {
+            buffer.compact();
+            int want = (int) Math.min((long) max * size, CHUNK_SIZE);
+            buffer.limit(Math.max(want, buffer.position()));
+            while (!eof && buffer.position() < want) {
+                if (con.readBin(buffer) <= 0) {
+                    eof = true;
+                }
+            }
+            buffer.flip();
+            int available = buffer.remaining() - buffer.remaining() % size;
+            if (available == 0) {
+                buffer.position(buffer.limit());
+                return null;
+            }
+            ByteBuffer result = buffer.duplicate().order(buffer.order());
+            result.limit(buffer.position() + available);
+            buffer.position(buffer.position() + available);
+            return result;
+        }
+    }
+
+    /**
+     * Decodes the elements in {@code src} as integers of {@code size} bytes (1, 2, 4 or 8) into
+     * {@code dest}. Returns whether none of them is {@code NA}.
+     */
+    public static boolean getInts(ByteBuffer src, int size, boolean signed, int[] dest, int destIndex) {
+        int n = src.remaining() / size;
+        boolean complete = true;
+        switch (size) {
+            case 1:
+                for (int i = 0; i < n; i++) {
+                    byte value = src.get();
+                    dest[destIndex + i] = signed ? value : value & 0xff;
+                }
+                break;
+            case 2:
+                for (int i = 0; i < n; i++) {
+                    short value = src.getShort();
+                    dest[destIndex + i] = signed ? value : value & 0xffff;
+                }
+                break;
+            case 4:
+                src.asIntBuffer().get(dest, destIndex, n);
+                src.position(src.position() + n * 4);
+                for (int i = 0; i < n; i++) {
+                    complete &= !RRuntime.isNA(dest[destIndex + i]);
+                }
+                break;
+            default:
+                assert size == 8;
+                for (int i = 0; i < n; i++) {
+                    int value = (int) src.getLong();
+                    complete &= !RRuntime.isNA(value);
+                    dest[destIndex + i] = value;
+                }
+                break;
+        }
+        return complete;
+    }
+
+    /**
+     * Decodes the elements in {@code src} as doubles of {@code size} bytes (4 or 8) into
+     * {@code dest}. Returns whether none of them is {@code NA}.
+     */
+    public static boolean getDoubles(ByteBuffer src, int size, double[] dest, int destIndex) {
+        int n = src.remaining() / size;
+        if (size == 8) {
+            src.asDoubleBuffer().get(dest, destIndex, n);
+            src.position(src.position() + n * 8);
+        } else {
+            assert size == 4;
+            for (int i = 0; i < n; i++) {
+                dest[destIndex + i] = src.getFloat();
+            }
+        }
+        boolean complete = true;
+        for (int i = 0; i < n; i++) {
+            complete &= !RRuntime.isNA(dest[destIndex + i]);
+        }
+        return complete;
+    }
+
+    /**
+     * Decodes the elements in {@code src} as logicals stored in integers of {@code size} bytes.
+     * Returns whether none of them is {@code NA}.
+     */
+    public static boolean getLogicals(ByteBuffer src, int size, byte[] dest, int destIndex) {
+        int n = src.remaining() / size;
+        boolean complete = true;
+        for (int i = 0; i < n; i++) {
+            int value;
+            switch (size) {
+                case 1:
+                    value = src.get();
+                    break;
+                case 2:
+                    value = src.getShort();
+                    break;
+                case 4:
+                    value = src.getInt();
+                    break;
+                default:
+                    value = (int) src.getLong();
+                    break;
+            }
+            if (value == RRuntime.INT_NA) {
+                complete = false;
+                dest[destIndex + i] = RRuntime.LOGICAL_NA;
+            } else {
+                dest[destIndex + i] = value != 0 ? RRuntime.LOGICAL_TRUE : RRuntime.LOGICAL_FALSE;
+            }
+        }
+        return complete;
+    }
+
+    /**
+     * Decodes the elements in {@code src} as complex numbers of 16 bytes into {@code dest}, which
+     * holds the real and imaginary parts. Returns whether none of them is {@code NA}.
+     */
+    public static boolean getComplexes(ByteBuffer src, double[] dest, int destIndex) {
+        int n = src.remaining() / 16;
+        src.asDoubleBuffer().get(dest, 2 * destIndex, 2 * n);
+        src.position(src.position() + n * 16);
+        boolean complete = true;
+        for (int i = 0; i < n; i++) {
+            complete &= !(RRuntime.isNA(dest[2 * (destIndex + i)]) || RRuntime.isNA(dest[2 * (destIndex + i) + 1]));
+        }
+        return complete;
+    }
+
+    /**
+     * Encodes the elements {@code from} to {@code to} (exclusive) of {@code src} as integers of
+     * {@code size} bytes into {@code dst}.
+     */
+    public static void putInts(ByteBuffer dst, int size, RAbstractIntVector src, int from, int to) {
+        if (size == 4 && src instanceof RIntVector) {
+            dst.asIntBuffer().put(((RIntVector) src).getInternalStore(), from, to - from);
+            dst.position(dst.position() + (to - from) * 4);
+            return;
+        }
+        for (int i = from; i < to; i++) {
+            putInt(dst, size, src.getDataAt(i));
+        }
+    }
+
+    private static void putInt(ByteBuffer dst, int size, int value) {
+        switch (size) {
+            case 1:
+                dst.put((byte) value);
+                break;
+            case 2:
+                dst.putShort((short) value);
+                break;
+            case 4:
+                dst.putInt(value);
+                break;
+            default:
+                assert size == 8;
+                dst.putLong(value);
+                break;
+        }
+    }
+
+    /**
+     * Encodes the elements {@code from} to {@code to} (exclusive) of {@code src} as doubles of
+     * {@code size} bytes into {@code dst}.
+     */
+    public static void putDoubles(ByteBuffer dst, int size, RAbstractDoubleVector src, int from, int to) {
+        if (size == 8 && src instanceof RDoubleVector) {
+            dst.asDoubleBuffer().put(((RDoubleVector) src).getInternalStore(), from, to - from);
+            dst.position(dst.position() + (to - from) * 8);
+            return;
+        }
+        for (int i = from; i < to; i++) {
+            if (size == 8) {
+                dst.putDouble(src.getDataAt(i));
+            } else {
+                assert size == 4;
+                dst.putFloat((float) src.getDataAt(i));
+            }
+        }
+    }
+
+    /**
+     * Encodes the elements {@code from} to {@code to} (exclusive) of {@code src} as integers of
+     * {@code size} bytes, with {@code FALSE} as 0, {@code TRUE} as 1 and {@code NA} as
+     * {@code NA_integer_}.
+     */
+    public static void putLogicals(ByteBuffer dst, int size, RAbstractLogicalVector src, int from, int to) {
+        for (int i = from; i < to; i++) {
+            byte value = src.getDataAt(i);
+            putInt(dst, size, RRuntime.isNA(value) ? RRuntime.INT_NA : value == RRuntime.LOGICAL_FALSE ? 0 : 1);
+        }
+    }
+
+    public static void putComplexes(ByteBuffer dst, RAbstractComplexVector src, int from, int to) {
+        for (int i = from; i < to; i++) {
+            RComplex value = src.getDataAt(i);
+            dst.putDouble(value.getRealPart());
+            dst.putDouble(value.getImaginaryPart());
+        }
+    }
+
+    public static void putRaws(ByteBuffer dst, RAbstractRawVector src, int from, int to) {
+        for (int i = from; i < to; i++) {
+            dst.put(src.getRawDataAt(i));
+        }
+    }
+}
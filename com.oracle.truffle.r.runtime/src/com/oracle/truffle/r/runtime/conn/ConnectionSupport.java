@@ -30,6 +30,7 @@ import java.lang.ref.Reference;
 import java.lang.ref.ReferenceQueue;
 import java.lang.ref.WeakReference;
 import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 import java.util.ArrayList;
 
 import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
@@ -138,7 +139,14 @@ public class ConnectionSupport {
 
         @Override
         public void beforeDestroy(RContext context) {
-            // close all open connections
+            closeAll();
+        }
+
+        /**
+         * Closes and releases all connections except {@code stdin}, {@code stdout} and
+         * {@code stderr}.
+         */
+        public void closeAll() {
             for (int i = 3; i <= hwm; i++) {
                 WeakReference<BaseRConnection> ref = allConnections.get(i);
                 if (ref != null) {
@@ -147,8 +155,10 @@ public class ConnectionSupport {
                         closeAndDestroy(con);
                     }
                     ref.clear();
+                    allConnections.set(i, null);
                 }
             }
+            hwm = 2;
         }
 
         private void collectUnusedConnections() {
@@ -702,6 +712,12 @@ public class ConnectionSupport {
             return theConnection.readBinChars();
         }
 
+        @Override
+        public FileChannel getReadChannel() throws IOException {
+            checkOpen();
+            return theConnection.getReadChannel();
+        }
+
         @Override
         public void flush() throws IOException {
             checkOpen();
@@ -31,6 +31,7 @@ import java.io.InputStream;
 import java.io.OutputStream;
 import java.io.RandomAccessFile;
 import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 import java.util.zip.GZIPInputStream;
 
 import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
@@ -224,6 +225,11 @@ public class FileConnections {
             return inputStream.getChannel().read(buffer);
         }
 
+        @Override
+        public FileChannel getReadChannel() throws IOException {
+            return inputStream.getChannel();
+        }
+
         @Override
         public byte[] readBinChars() throws IOException {
             return readBinCharsHelper(inputStream);
@@ -26,6 +26,7 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 import java.util.LinkedList;
 
 import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
@@ -320,6 +321,16 @@ public abstract class RConnection extends RAttributeStorage implements AutoClose
      */
     public abstract byte[] readBinChars() throws IOException;
 
+    /**
+     * Returns the channel of a connection that reads a file in binary mode, positioned at the next
+     * byte to be read, or {@code null} for other connections. The {@code readBin} builtin uses it to
+     * size its result from the file length and to map large files. It may also be read through
+     * {@link #readBin}.
+     */
+    public FileChannel getReadChannel() throws IOException {
+        return null;
+    }
+
     /**
      * Returns {@code true} iff this is a text mode connection.
      */
@@ -90,7 +90,7 @@ public final class ContextInfo implements TruffleObject {
      * @param systemTimeZone the system's time zone
      */
     public static ContextInfo create(RStartParams startParams, String[] env, ContextKind kind, RContext parent, ConsoleHandler consoleHandler, TimeZone systemTimeZone) {
-        int id = contextInfoIds.incrementAndGet();
+        int id = newId();
         return new ContextInfo(startParams, env, kind, parent, consoleHandler, systemTimeZone, id);
     }
 
@@ -98,6 +98,14 @@ public final class ContextInfo implements TruffleObject {
         return create(startParams, env, kind, parent, consoleHandler, TimeZone.getDefault());
     }
 
+    /**
+     * Allocates an id from the same sequence as the context ids, e.g. for handles that are used in
+     * place of a context id.
+     */
+    public static int newId() {
+        return contextInfoIds.incrementAndGet();
+    }
+
     public static ContextInfo getContextInfo(PolyglotEngine vm) {
         return (ContextInfo) vm.findGlobalSymbol(ContextInfo.GLOBAL_SYMBOL).get();
     }
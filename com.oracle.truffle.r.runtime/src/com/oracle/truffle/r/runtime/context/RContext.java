@@ -23,6 +23,7 @@
 package com.oracle.truffle.r.runtime.context;
 
 import java.io.Closeable;
+import java.util.EnumMap;
 import java.util.EnumSet;
 import java.lang.ref.WeakReference;
 import java.util.HashMap;
@@ -45,6 +46,7 @@ import com.oracle.truffle.api.nodes.InvalidAssumptionException;
 import com.oracle.truffle.api.source.Source;
 import com.oracle.truffle.api.vm.PolyglotEngine;
 import com.oracle.truffle.r.runtime.ExitException;
+import com.oracle.truffle.r.runtime.FastROptions;
 import com.oracle.truffle.r.runtime.LazyDBCache;
 import com.oracle.truffle.r.runtime.PrimitiveMethodsInfo;
 import com.oracle.truffle.r.runtime.RCmdOptions;
@@ -53,6 +55,7 @@ import com.oracle.truffle.r.runtime.REnvVars;
 import com.oracle.truffle.r.runtime.RError;
 import com.oracle.truffle.r.runtime.RErrorHandling;
 import com.oracle.truffle.r.runtime.RInternalCode.ContextStateImpl;
+import com.oracle.truffle.r.runtime.RFileWalker;
 import com.oracle.truffle.r.runtime.RInternalError;
 import com.oracle.truffle.r.runtime.ROptions;
 import com.oracle.truffle.r.runtime.RProfile;
@@ -250,6 +253,19 @@ public final class RContext extends ExecutionContext implements TruffleObject {
          * Convenience method for {@code .fastr.context.eval} in same thread.
          */
         public static RList run(PolyglotEngine vm, ContextInfo info, Source source) {
+            try {
+                return runUntilExit(vm, info, source);
+            } catch (ExitException e) {
+                // termination, treat this as "success"
+                return RDataFactory.createList(new Object[]{e.getStatus()});
+            }
+        }
+
+        /**
+         * Variant of {@link #run} for callers that need to know whether the context was terminated
+         * by {@code quit}.
+         */
+        public static RList runUntilExit(PolyglotEngine vm, ContextInfo info, Source source) throws ExitException {
             RList evalResult;
             try {
                 PolyglotEngine.Value resultValue = vm.eval(source);
@@ -258,8 +274,7 @@ public final class RContext extends ExecutionContext implements TruffleObject {
                 e.report(info.getConsoleHandler());
                 evalResult = createErrorResult(e.getMessage());
             } catch (ExitException e) {
-                // termination, treat this as "success"
-                evalResult = RDataFactory.createList(new Object[]{e.getStatus()});
+                throw e;
             } catch (Throwable t) {
                 // some internal error
                 RInternalError.reportErrorAndConsoleLog(t, info.getConsoleHandler(), info.getId());
@@ -318,6 +333,12 @@ public final class RContext extends ExecutionContext implements TruffleObject {
      */
     private RContext sharedChild;
 
+    /**
+     * Pools of pre-initialized child contexts, created on demand by {@link #getContextPool}.
+     */
+    private final EnumMap<ContextKind, RContextPool> contextPools = new EnumMap<>(ContextKind.class);
+    private final EnumMap<ContextKind, Integer> contextPoolSizes = new EnumMap<>(ContextKind.class);
+
     /**
      * Typically there is a 1-1 relationship between an {@link RContext} and the thread that is
      * performing the evaluation, so we can store the {@link RContext} in a {@link ThreadLocal}.
@@ -408,6 +429,7 @@ public final class RContext extends ExecutionContext implements TruffleObject {
     public final RRNG.ContextStateImpl stateRNG;
     public final RSerialize.ContextStateImpl stateRSerialize;
     public final LazyDBCache.ContextStateImpl stateLazyDBCache;
+    public final RFileWalker.ContextStateImpl stateRFileWalker;
     public final InstrumentationState stateInstrumentation;
     public final ContextStateImpl stateInternalCode;
     /**
@@ -420,7 +442,7 @@ public final class RContext extends ExecutionContext implements TruffleObject {
 
     private ContextState[] contextStates() {
         return new ContextState[]{stateREnvVars, stateRProfile, stateROptions, stateREnvironment, stateRErrorHandling, stateRConnection, stateStdConnections, stateRNG, stateRFFI, stateRSerialize,
-                        stateLazyDBCache, stateInstrumentation};
+                        stateLazyDBCache, stateRFileWalker, stateInstrumentation};
     }
 
     public static void setEmbedded() {
@@ -462,6 +484,7 @@ public final class RContext extends ExecutionContext implements TruffleObject {
         this.stateRNG = RRNG.ContextStateImpl.newContextState();
         this.stateRSerialize = RSerialize.ContextStateImpl.newContextState();
         this.stateLazyDBCache = LazyDBCache.ContextStateImpl.newContextState();
+        this.stateRFileWalker = RFileWalker.ContextStateImpl.newContextState();
         this.stateInstrumentation = InstrumentationState.newContextState(instrumenter);
         this.stateInternalCode = ContextStateImpl.newContextState();
         this.engine = RContext.getRRuntimeASTAccess().createEngine(this);
@@ -526,6 +549,7 @@ public final class RContext extends ExecutionContext implements TruffleObject {
         stateRFFI.initialize(this);
         stateRSerialize.initialize(this);
         stateLazyDBCache.initialize(this);
+        stateRFileWalker.initialize(this);
         stateInstrumentation.initialize(this);
         stateInternalCode.initialize(this);
         state.add(State.INITIALIZED);
@@ -596,6 +620,10 @@ public final class RContext extends ExecutionContext implements TruffleObject {
                     contextState.beforeDestroy(this);
                 }
             }
+            for (RContextPool pool : contextPools.values()) {
+                pool.shutdown();
+            }
+            contextPools.clear();
             if (info.getKind() == ContextKind.SHARE_PARENT_RW) {
                 info.getParent().sharedChild = null;
             }
@@ -612,6 +640,39 @@ public final class RContext extends ExecutionContext implements TruffleObject {
         return info.getParent();
     }
 
+    /**
+     * Returns the pool of child contexts of the given kind, or {@code null} if pooling is disabled
+     * ({@link FastROptions#ContextPoolSize} is zero, unless changed by
+     * {@link #setContextPoolSize(ContextKind, int)}) or not possible for the kind.
+     */
+    public synchronized RContextPool getContextPool(ContextKind kind) {
+        Integer size = contextPoolSizes.get(kind);
+        if (size == null) {
+            size = FastROptions.ContextPoolSize.getNonNegativeIntValue();
+        }
+        if (kind == ContextKind.SHARE_PARENT_RW || size == 0 || state.contains(State.DESTROYED)) {
+            return null;
+        }
+        RContextPool pool = contextPools.get(kind);
+        if (pool == null) {
+            pool = new RContextPool(this, kind, size, FastROptions.ContextPoolWarmup.getStringValue());
+            contextPools.put(kind, pool);
+        }
+        return pool;
+    }
+
+    /**
+     * Changes the number of idle child contexts of the given kind that are kept ready, zero disables
+     * pooling. The current pool, if any, is shut down and replaced on the next use.
+     */
+    public synchronized void setContextPoolSize(ContextKind kind, int size) {
+        contextPoolSizes.put(kind, size);
+        RContextPool pool = contextPools.remove(kind);
+        if (pool != null) {
+            pool.shutdown();
+        }
+    }
+
     public Env getEnv() {
         return env;
     }
@@ -0,0 +1,415 @@
+/*
+ * Copyright (c) 2016, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.truffle.r.runtime.context;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.oracle.truffle.api.source.Source;
+import com.oracle.truffle.api.vm.PolyglotEngine;
+import com.oracle.truffle.r.runtime.ExitException;
+import com.oracle.truffle.r.runtime.RCmdOptions;
+import com.oracle.truffle.r.runtime.RCmdOptions.Client;
+import com.oracle.truffle.r.runtime.RInternalError;
+import com.oracle.truffle.r.runtime.RSource;
+import com.oracle.truffle.r.runtime.RStartParams;
+import com.oracle.truffle.r.runtime.conn.StdConnections;
+import com.oracle.truffle.r.runtime.context.RContext.ContextKind;
+import com.oracle.truffle.r.runtime.context.RContext.ContextThread;
+import com.oracle.truffle.r.runtime.context.RContext.EvalThread;
+import com.oracle.truffle.r.runtime.data.RDataFactory;
+import com.oracle.truffle.r.runtime.data.RList;
+import com.oracle.truffle.r.runtime.data.RStringVector;
+import com.oracle.truffle.r.runtime.env.REnvironment;
+import com.oracle.truffle.r.runtime.env.REnvironment.PutException;
+import com.oracle.truffle.r.runtime.ffi.RFFIFactory;
+
+/**
+ * A pool of pre-initialized child contexts of one {@link ContextKind} for the
+ * {@code .fastr.context.spawn/eval} builtins, which would otherwise pay for a complete context
+ * initialization (base package, profiles, ...) on every call.
+ *
+ * A {@link PolyglotEngine} must be used on the thread that created it, so each pooled context is
+ * owned by a {@link Worker} thread that evaluates the sources submitted to it. A context is
+ * {@link #lease() leased}, used for any number of {@link Lease#submit evaluations} and then
+ * {@link Lease#close() returned}. A returned context is restored to its state after initialization
+ * (and warmup) before it is leased again:
+ * <ul>
+ * <li>all bindings and attributes of the global environment are removed,</li>
+ * <li>the options and the environment variables ({@code Sys.setenv}) are restored,</li>
+ * <li>all sinks are removed and all connections other than the standard ones are closed,</li>
+ * <li>open {@code .fastr.dir.open} handles are closed,</li>
+ * <li>the working directory is changed back ({@code setwd} affects the whole process, i.e. it is
+ * not isolated from other contexts while the lease is active),</li>
+ * <li>the random number generators are reset and seeded from the time, as in a new context.</li>
+ * </ul>
+ * Attaching or detaching packages and loading namespaces cannot be undone, so contexts that changed
+ * the search path or the set of loaded namespaces, or were terminated by {@code quit}, are discarded
+ * instead. Other changes, e.g., to the base environment or to the bindings in namespaces, are not
+ * detected and are visible to later leases. If no context is ready when one is leased, a new one is
+ * created, and at most {@link #size} idle contexts are kept.
+ *
+ * Note that a {@link ContextKind#SHARE_PARENT_RO} context copies the package environments of the
+ * parent when it is created, i.e. a pooled context does not see packages that the parent loaded
+ * after the pool was created.
+ */
+public final class RContextPool {
+
+    private static final Source GET_CONTEXT = RSource.fromTextInternal("invisible(.fastr.context.get())", RSource.Internal.GET_CONTEXT);
+
+    /**
+     * The number of spawn latencies that are kept for {@link #getStatistics()}.
+     */
+    private static final int LATENCY_SAMPLES = 1024;
+
+    private static final Object RELEASE = new Object();
+    private static final Object SHUTDOWN = new Object();
+
+    /**
+     * The jobs that have been submitted but not yet completed, by {@link Job#getId()}.
+     */
+    private static final Map<Integer, Job> jobs = new ConcurrentHashMap<>();
+
+    private final RContext parent;
+    private final ContextKind kind;
+    private final int size;
+    private final String warmup;
+
+    private final BlockingQueue<Worker> idle = new LinkedBlockingQueue<>();
+    private volatile boolean shutdown;
+
+    private final AtomicLong created = new AtomicLong();
+    private final AtomicLong discarded = new AtomicLong();
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final long[] latencies = new long[LATENCY_SAMPLES];
+    private long latencyCount;
+
+    RContextPool(RContext parent, ContextKind kind, int size, String warmup) {
+        assert kind != ContextKind.SHARE_PARENT_RW;
+        this.parent = parent;
+        this.kind = kind;
+        this.size = size;
+        this.warmup = warmup == null || warmup.isEmpty() ? null : warmup;
+        for (int i = 0; i < size; i++) {
+            startWorker().tasks.add(RELEASE);
+        }
+    }
+
+    /**
+     * Takes a ready context from the pool, or creates a new one if there is none.
+     */
+    public Lease lease() {
+        long start = System.nanoTime();
+        Worker worker = idle.poll();
+        if (worker == null) {
+            misses.incrementAndGet();
+            worker = startWorker();
+        } else {
+            hits.incrementAndGet();
+        }
+        return new Lease(worker, start);
+    }
+
+    /**
+     * Returns the job with the given id, or {@code null} if it has already completed.
+     */
+    public static Job getJob(int id) {
+        return jobs.get(id);
+    }
+
+    private Worker startWorker() {
+        RStartParams startParams = new RStartParams(RCmdOptions.parseArguments(Client.RSCRIPT, new String[0], false), false);
+        Worker worker = new Worker(ContextInfo.create(startParams, null, kind, parent, parent.getConsoleHandler()));
+        created.incrementAndGet();
+        worker.start();
+        return worker;
+    }
+
+    private boolean returnToPool(Worker worker) {
+        synchronized (idle) {
+            if (shutdown || idle.size() >= size) {
+                return false;
+            }
+            idle.add(worker);
+            return true;
+        }
+    }
+
+    private synchronized void recordLatency(long nanos) {
+        latencies[(int) (latencyCount++ % LATENCY_SAMPLES)] = nanos;
+    }
+
+    /**
+     * Stops all idle contexts; leased contexts are stopped when they are returned.
+     */
+    void shutdown() {
+        synchronized (idle) {
+            shutdown = true;
+            for (Worker worker : idle) {
+                worker.tasks.add(SHUTDOWN);
+            }
+            idle.clear();
+        }
+    }
+
+    /**
+     * The pool statistics as a named list: the configured size, the number of idle contexts, the
+     * number of contexts created and discarded, the number of leases served by a ready context
+     * ("hits") or by a newly created one ("misses"), and the median and 99th percentile of the spawn
+     * latency (in milliseconds, from the lease until the evaluation starts) over the most recent
+     * evaluations.
+     */
+    public RList getStatistics() {
+        long[] samples;
+        synchronized (this) {
+            samples = Arrays.copyOf(latencies, (int) Math.min(latencyCount, LATENCY_SAMPLES));
+        }
+        Arrays.sort(samples);
+        Object[] data = new Object[]{kind.name(), size, idle.size(), (double) created.get(), (double) discarded.get(), (double) hits.get(), (double) misses.get(), percentile(samples, 0.5),
+                        percentile(samples, 0.99)};
+        String[] names = new String[]{"kind", "size", "idle", "created", "discarded", "hits", "misses", "latency.p50", "latency.p99"};
+        return RDataFactory.createList(data, RDataFactory.createStringVector(names, RDataFactory.COMPLETE_VECTOR));
+    }
+
+    private static double percentile(long[] sorted, double p) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.ceil(p * sorted.length) - 1;
+        return sorted[Math.max(0, index)] / 1e6;
+    }
+
+    /**
+     * Exclusive use of a pooled context until {@link #close()} is called.
+     */
+    public final class Lease implements AutoCloseable {
+        private final Worker worker;
+        private final long start;
+        private boolean closed;
+
+        private Lease(Worker worker, long start) {
+            this.worker = worker;
+            this.start = start;
+        }
+
+        /**
+         * Evaluates {@code source} asynchronously in the leased context. Evaluations are performed
+         * in the order in which they were submitted.
+         */
+        public Job submit(Source source) {
+            if (closed) {
+                throw RInternalError.shouldNotReachHere("context lease already closed");
+            }
+            Job job = new Job(source, start);
+            jobs.put(job.id, job);
+            worker.tasks.add(job);
+            return job;
+        }
+
+        /**
+         * Returns the context to the pool once all submitted evaluations are done.
+         */
+        @Override
+        public void close() {
+            if (!closed) {
+                closed = true;
+                worker.tasks.add(RELEASE);
+            }
+        }
+    }
+
+    /**
+     * An evaluation submitted to a pooled context.
+     */
+    public static final class Job {
+        private final int id = ContextInfo.newId();
+        private final Source source;
+        private final long leased;
+        private final CountDownLatch done = new CountDownLatch(1);
+        private RList result;
+
+        private Job(Source source, long leased) {
+            this.source = source;
+            this.leased = leased;
+        }
+
+        public int getId() {
+            return id;
+        }
+
+        /**
+         * Waits for the evaluation and returns its result in the format of
+         * {@link EvalThread#getEvalResult()}.
+         */
+        public RList getResult() throws InterruptedException {
+            done.await();
+            return result;
+        }
+
+        private void complete(RList evalResult) {
+            result = evalResult;
+            jobs.remove(id);
+            done.countDown();
+        }
+    }
+
+    private final class Worker extends ContextThread {
+        private final ContextInfo info;
+        private final BlockingQueue<Object> tasks = new LinkedBlockingQueue<>();
+
+        /**
+         * The state after initialization that is restored after each lease.
+         */
+        private String[] searchPath;
+        private String[] namespaces;
+        private Map<String, Object> options;
+        private Map<String, String> envVars;
+        private String workingDirectory;
+
+        /**
+         * Set if the context must not be reused, e.g., because it was terminated.
+         */
+        private boolean dirty;
+
+        Worker(ContextInfo info) {
+            super(null);
+            this.info = info;
+            setDaemon(true);
+            setName("context-pool-" + kind.name().toLowerCase() + "-" + info.getId());
+        }
+
+        @Override
+        public void run() {
+            PolyglotEngine vm = info.createVM();
+            try {
+                try {
+                    setContext(vm.eval(GET_CONTEXT).as(RContext.class));
+                    if (warmup != null) {
+                        EvalThread.runUntilExit(vm, info, RSource.fromTextInternal(warmup, RSource.Internal.CONTEXT_EVAL));
+                    }
+                    options = context.stateROptions.snapshot();
+                    envVars = new HashMap<>(context.stateREnvVars.getMap());
+                    workingDirectory = RFFIFactory.getRFFI().getBaseRFFI().getwd();
+                    searchPath = REnvironment.searchPath();
+                    namespaces = loadedNamespaces();
+                    resetGlobalEnv();
+                } catch (Throwable t) {
+                    RInternalError.reportErrorAndConsoleLog(t, info.getConsoleHandler(), info.getId());
+                    dirty = true;
+                }
+                while (true) {
+                    Object task = tasks.take();
+                    if (task instanceof Job) {
+                        evaluate((Job) task);
+                    } else if (task == RELEASE) {
+                        if (dirty || !reset() || !returnToPool(this)) {
+                            break;
+                        }
+                    } else {
+                        assert task == SHUTDOWN;
+                        break;
+                    }
+                }
+            } catch (InterruptedException e) {
+                // stop the context
+            } finally {
+                discarded.incrementAndGet();
+                vm.dispose();
+                for (Object task : tasks) {
+                    if (task instanceof Job) {
+                        ((Job) task).complete(EvalThread.createErrorResult("context terminated"));
+                    }
+                }
+            }
+        }
+
+        private void evaluate(Job job) {
+            if (dirty) {
+                job.complete(EvalThread.createErrorResult("context terminated"));
+                return;
+            }
+            recordLatency(System.nanoTime() - job.leased);
+            RList result;
+            try {
+                result = EvalThread.runUntilExit(info.getVM(), info, job.source);
+            } catch (ExitException e) {
+                dirty = true;
+                result = RDataFactory.createList(new Object[]{e.getStatus()});
+            }
+            job.complete(result);
+        }
+
+        /**
+         * Restores the state after initialization, returns {@code false} if the context cannot be
+         * reused.
+         */
+        private boolean reset() {
+            if (!Arrays.equals(searchPath, REnvironment.searchPath()) || !Arrays.equals(namespaces, loadedNamespaces())) {
+                return false;
+            }
+            try {
+                while (StdConnections.stdoutDiversions() > 0) {
+                    StdConnections.popDivertOut();
+                }
+                StdConnections.divertErr(StdConnections.getStderr());
+                context.stateRConnection.closeAll();
+                context.stateRFileWalker.closeAll();
+                resetGlobalEnv();
+            } catch (IOException | PutException e) {
+                return false;
+            }
+            context.stateROptions.restore(options);
+            Map<String, String> currentEnvVars = context.stateREnvVars.getMap();
+            currentEnvVars.clear();
+            currentEnvVars.putAll(envVars);
+            if (RFFIFactory.getRFFI().getBaseRFFI().setwd(workingDirectory) != 0) {
+                return false;
+            }
+            context.stateRNG.reset(context);
+            return true;
+        }
+
+        private String[] loadedNamespaces() {
+            String[] names = REnvironment.getNamespaceRegistry().ls(true, null, false).getDataCopy();
+            Arrays.sort(names);
+            return names;
+        }
+
+        private void resetGlobalEnv() throws PutException {
+            REnvironment globalEnv = REnvironment.globalEnv();
+            RStringVector names = globalEnv.ls(true, null, false);
+            for (int i = 0; i < names.getLength(); i++) {
+                globalEnv.rm(names.getDataAt(i));
+            }
+            globalEnv.initAttributes(null);
+        }
+    }
+}
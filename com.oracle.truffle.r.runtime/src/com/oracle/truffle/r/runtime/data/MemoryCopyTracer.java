@@ -28,6 +28,7 @@ import java.util.concurrent.ConcurrentLinkedDeque;
 
 import com.oracle.truffle.api.Assumption;
 import com.oracle.truffle.api.Truffle;
+import com.oracle.truffle.r.runtime.RMetrics;
 import com.oracle.truffle.r.runtime.data.model.RAbstractVector;
 
 /**
@@ -71,6 +72,9 @@ public final class MemoryCopyTracer {
      * no-op.
      */
     public static void reportCopying(RAbstractVector source, RAbstractVector dest) {
+        if (RMetrics.isEnabled()) {
+            RMetrics.reportCopy(source);
+        }
         if (!noMemoryCopyTracingAssumption.isValid() && enabled) {
             for (Listener listener : listeners) {
                 listener.reportCopying(source, dest);
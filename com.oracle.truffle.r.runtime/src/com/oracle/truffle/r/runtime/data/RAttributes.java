@@ -106,11 +106,17 @@ public final class RAttributes implements Iterable<RAttributes.RAttribute> {
         }
     }
 
+    /**
+     * The copy shares the arrays with {@code attrs} until either of them is modified, see
+     * {@link #arraysShared}.
+     */
     private RAttributes(RAttributes attrs) {
         if (attrs.size != 0) {
             size = attrs.size;
-            names = attrs.names.clone();
-            values = attrs.values.clone();
+            names = attrs.names;
+            values = attrs.values;
+            arraysShared = true;
+            attrs.arraysShared = true;
         }
     }
 
@@ -136,12 +142,14 @@ public final class RAttributes implements Iterable<RAttributes.RAttribute> {
         int spos = pos;
         if (pos == -1) {
             ensureFreeSpace();
+            ensureOwnArrays();
             pos = size++;
             names[pos] = name;
         }
         // TODO: this assertion should hold in general
         // assert value == null || !(value instanceof RShareable) || !((RShareable)
         // value).isTemporary();
+        ensureOwnArrays();
         values[pos] = value;
         if (AttributeTracer.enabled) {
             AttributeTracer.reportAttributeChange(spos == -1 ? AttributeTracer.Change.ADD : AttributeTracer.Change.UPDATE, this, name);
@@ -152,6 +160,7 @@ public final class RAttributes implements Iterable<RAttributes.RAttribute> {
         if (size == names.length) {
             names = Arrays.copyOf(names, (size + 1) * 2);
             values = Arrays.copyOf(values, (size + 1) * 2);
+            arraysShared = false;
             assert names.length == values.length;
             if (AttributeTracer.enabled) {
                 AttributeTracer.reportAttributeChange(AttributeTracer.Change.GROW, this, names.length);
@@ -159,6 +168,17 @@ public final class RAttributes implements Iterable<RAttributes.RAttribute> {
         }
     }
 
+    /**
+     * Copies the arrays before they are modified if they are shared with another instance.
+     */
+    private void ensureOwnArrays() {
+        if (arraysShared) {
+            names = names.clone();
+            values = values.clone();
+            arraysShared = false;
+        }
+    }
+
     @TruffleBoundary
     private static boolean isInterned(String name) {
         assert name == name.intern() : name;
@@ -172,6 +192,14 @@ public final class RAttributes implements Iterable<RAttributes.RAttribute> {
     private Object[] values = EMPTY_OBJECT_ARRAY;
     private int size;
 
+    /**
+     * Set if {@link #names} and {@link #values} may also be used by a {@link #copy()} of this
+     * instance (or by the instance this one was copied from), in which case they are copied on the
+     * first modification. Attributes are copied together with every copied vector, but most copies
+     * never modify them.
+     */
+    private boolean arraysShared;
+
     public int size() {
         return size;
     }
@@ -185,12 +213,14 @@ public final class RAttributes implements Iterable<RAttributes.RAttribute> {
     }
 
     public void setNameAtIndex(int i, String v) {
+        ensureOwnArrays();
         names[i] = v;
     }
 
     public void setValueAtIndex(int i, Object v) {
         // TODO: this assertion should hold in general
         // assert v == null || !(v instanceof RShareable) || !((RShareable) v).isTemporary();
+        ensureOwnArrays();
         values[i] = v;
     }
 
@@ -202,6 +232,7 @@ public final class RAttributes implements Iterable<RAttributes.RAttribute> {
         assert isInterned(name);
         int pos = find(name);
         if (pos != -1) {
+            ensureOwnArrays();
             size--;
             for (int i = pos; i < size; i++) {
                 names[i] = names[i + 1];
@@ -225,6 +256,7 @@ public final class RAttributes implements Iterable<RAttributes.RAttribute> {
         names = EMPTY_STRING_ARRAY;
         values = EMPTY_OBJECT_ARRAY;
         size = 0;
+        arraysShared = false;
     }
 
     public RAttributes copy() {
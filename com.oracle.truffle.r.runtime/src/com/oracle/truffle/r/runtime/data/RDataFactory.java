@@ -36,11 +36,15 @@ import com.oracle.truffle.api.utilities.CyclicAssumption;
 import com.oracle.truffle.r.runtime.FastROptions;
 import com.oracle.truffle.r.runtime.RCaller;
 import com.oracle.truffle.r.runtime.RInternalError;
+import com.oracle.truffle.r.runtime.RMetrics;
 import com.oracle.truffle.r.runtime.RRuntime;
 import com.oracle.truffle.r.runtime.builtins.RBuiltinDescriptor;
 import com.oracle.truffle.r.runtime.data.RPromise.Closure;
 import com.oracle.truffle.r.runtime.data.RPromise.EagerFeedback;
 import com.oracle.truffle.r.runtime.data.RPromise.PromiseState;
+import com.oracle.truffle.r.runtime.data.model.RAbstractDoubleVector;
+import com.oracle.truffle.r.runtime.data.model.RAbstractIntVector;
+import com.oracle.truffle.r.runtime.data.model.RAbstractVector;
 import com.oracle.truffle.r.runtime.env.REnvironment;
 import com.oracle.truffle.r.runtime.gnur.SEXPTYPE;
 import com.oracle.truffle.r.runtime.nodes.RBaseNode;
@@ -251,6 +255,48 @@ public final class RDataFactory {
         return traceDataCreated(new RDoubleSequence(start, stride, length));
     }
 
+    public static ROffHeapDoubleVector createOffHeapDoubleVector(ROffHeapStorage storage, int length, boolean complete) {
+        return traceDataCreated(new ROffHeapDoubleVector(storage, length, complete));
+    }
+
+    public static ROffHeapIntVector createOffHeapIntVector(ROffHeapStorage storage, int length, boolean complete) {
+        return traceDataCreated(new ROffHeapIntVector(storage, length, complete));
+    }
+
+    public static ROffHeapRawVector createOffHeapRawVector(ROffHeapStorage storage, int length) {
+        return traceDataCreated(new ROffHeapRawVector(storage, length));
+    }
+
+    /**
+     * Creates a vector that repeats each element of {@code pattern} {@code each} times, recycled to
+     * {@code length} elements. A mutable pattern is made shared permanent, so that it is copied
+     * instead of being updated in place.
+     */
+    public static RRepeatedIntVector createRepeatedIntVector(RAbstractIntVector pattern, int each, int length) {
+        if (pattern instanceof RShareable) {
+            ((RShareable) pattern).makeSharedPermanent();
+        }
+        return traceDataCreated(new RRepeatedIntVector(pattern, each, length));
+    }
+
+    public static RRepeatedDoubleVector createRepeatedDoubleVector(RAbstractDoubleVector pattern, int each, int length) {
+        if (pattern instanceof RShareable) {
+            ((RShareable) pattern).makeSharedPermanent();
+        }
+        return traceDataCreated(new RRepeatedDoubleVector(pattern, each, length));
+    }
+
+    /**
+     * Creates an integer or double repeated vector, see {@link RRepeatedVector#isRepeatable}.
+     */
+    public static RRepeatedVector createRepeatedVector(RAbstractVector pattern, int each, int length) {
+        if (pattern instanceof RAbstractIntVector) {
+            return createRepeatedIntVector((RAbstractIntVector) pattern, each, length);
+        } else {
+            return createRepeatedDoubleVector((RAbstractDoubleVector) pattern, each, length);
+        }
+    }
+
     public static RIntVector createEmptyIntVector() {
         return createIntVector(new int[0], true);
     }
@@ -484,10 +530,7 @@ public final class RDataFactory {
 
     @TruffleBoundary
     public static REnvironment createNewEnv(String name, boolean hashed, int initialSize) {
-        REnvironment.NewEnv env = new REnvironment.NewEnv(RRuntime.createNonFunctionFrame("<new-env-" + environmentCount.incrementAndGet() + ">"), name);
-        env.setHashed(hashed);
-        env.setInitialSize(initialSize);
-        return traceDataCreated(env);
+        return traceDataCreated(new REnvironment.NewEnv(RRuntime.createNonFunctionFrame("<new-env-" + environmentCount.incrementAndGet() + ">"), name, hashed, initialSize));
     }
 
     public static RS4Object createS4Object() {
@@ -520,6 +563,9 @@ public final class RDataFactory {
     }
 
     private static <T> T traceDataCreated(T data) {
+        if (RMetrics.isEnabled()) {
+            RMetrics.reportAllocation((RTypedValue) data);
+        }
         if (enabled) {
             for (Listener listener : listeners) {
                 listener.reportAllocation((RTypedValue) data);
@@ -37,11 +37,16 @@ public final class RDoubleVector extends RVector<double[]> implements RAbstractD
 
     public static final RStringVector implicitClassHeader = RDataFactory.createStringVectorFromScalar(RType.Double.getClazz());
 
-    private final double[] data;
+    /**
+     * The elements, followed by spare capacity if the vector was extended by {@link #growInPlace}.
+     */
+    private double[] data;
+    private int length;
 
     RDoubleVector(double[] data, boolean complete, int[] dims, RStringVector names) {
         super(complete, data.length, dims, names);
         this.data = data;
+        this.length = data.length;
         assert verify();
     }
 
@@ -69,7 +74,7 @@ public final class RDoubleVector extends RVector<double[]> implements RAbstractD
 
     @Override
     protected RDoubleVector internalCopy() {
-        return new RDoubleVector(Arrays.copyOf(data, data.length), this.isComplete(), null);
+        return new RDoubleVector(Arrays.copyOf(data, length), this.isComplete(), null);
     }
 
     @Override
@@ -104,7 +109,7 @@ public final class RDoubleVector extends RVector<double[]> implements RAbstractD
 
     @Override
     public int getLength() {
-        return data.length;
+        return length;
     }
 
     @Override
@@ -115,8 +120,8 @@ public final class RDoubleVector extends RVector<double[]> implements RAbstractD
     @Override
     protected boolean internalVerify() {
         if (isComplete()) {
-            for (double d : data) {
-                if (d == RRuntime.DOUBLE_NA) {
+            for (int i = 0; i < length; i++) {
+                if (data[i] == RRuntime.DOUBLE_NA) {
                     return false;
                 }
             }
@@ -131,7 +136,7 @@ public final class RDoubleVector extends RVector<double[]> implements RAbstractD
 
     @Override
     public double[] getDataCopy() {
-        return Arrays.copyOf(data, data.length);
+        return Arrays.copyOf(data, length);
     }
 
     /**
@@ -140,12 +145,15 @@ public final class RDoubleVector extends RVector<double[]> implements RAbstractD
      */
     @Override
     public double[] getDataWithoutCopying() {
+        if (data.length != length) {
+            data = Arrays.copyOf(data, length);
+        }
         return data;
     }
 
     @Override
     public RDoubleVector copyWithNewDimensions(int[] newDimensions) {
-        return RDataFactory.createDoubleVector(data, isComplete(), newDimensions);
+        return RDataFactory.createDoubleVector(getDataWithoutCopying(), isComplete(), newDimensions);
     }
 
     public RDoubleVector updateDataAt(int i, double right, NACheck valueNACheck) {
@@ -184,9 +192,21 @@ public final class RDoubleVector extends RVector<double[]> implements RAbstractD
         return resizeData(newData, this.data, this.getLength(), fillNA);
     }
 
+    @Override
+    public boolean growInPlace(int size) {
+        assert !isShared() && size > length;
+        if (size > data.length) {
+            data = Arrays.copyOf(data, growCapacity(length, size));
+        }
+        Arrays.fill(data, length, size, RRuntime.DOUBLE_NA);
+        length = size;
+        complete = false;
+        return true;
+    }
+
     @Override
     protected RDoubleVector internalCopyResized(int size, boolean fillNA) {
-        boolean isComplete = isComplete() && ((data.length >= size) || !fillNA);
+        boolean isComplete = isComplete() && ((length >= size) || !fillNA);
         return RDataFactory.createDoubleVector(copyResizedData(size, fillNA), isComplete);
     }
 
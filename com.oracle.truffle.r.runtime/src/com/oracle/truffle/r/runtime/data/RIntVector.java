@@ -37,11 +37,16 @@ public final class RIntVector extends RVector<int[]> implements RAbstractIntVect
 
     public static final RStringVector implicitClassHeader = RDataFactory.createStringVectorFromScalar(RType.Integer.getClazz());
 
-    private final int[] data;
+    /**
+     * The elements, followed by spare capacity if the vector was extended by {@link #growInPlace}.
+     */
+    private int[] data;
+    private int length;
 
     RIntVector(int[] data, boolean complete, int[] dims, RStringVector names) {
         super(complete, data.length, dims, names);
         this.data = data;
+        this.length = data.length;
         assert verify();
     }
 
@@ -91,7 +96,7 @@ public final class RIntVector extends RVector<int[]> implements RAbstractIntVect
 
     @Override
     protected RIntVector internalCopy() {
-        return new RIntVector(Arrays.copyOf(data, data.length), isComplete(), null);
+        return new RIntVector(Arrays.copyOf(data, length), isComplete(), null);
     }
 
     public RIntVector copyResetData(int[] newData) {
@@ -109,7 +114,7 @@ public final class RIntVector extends RVector<int[]> implements RAbstractIntVect
 
     @Override
     public int getLength() {
-        return data.length;
+        return length;
     }
 
     @Override
@@ -120,8 +125,8 @@ public final class RIntVector extends RVector<int[]> implements RAbstractIntVect
     @Override
     protected boolean internalVerify() {
         if (isComplete()) {
-            for (int x : data) {
-                if (x == RRuntime.INT_NA) {
+            for (int i = 0; i < length; i++) {
+                if (data[i] == RRuntime.INT_NA) {
                     return false;
                 }
             }
@@ -131,7 +136,7 @@ public final class RIntVector extends RVector<int[]> implements RAbstractIntVect
 
     @Override
     public int[] getDataCopy() {
-        return Arrays.copyOf(data, data.length);
+        return Arrays.copyOf(data, length);
     }
 
     /**
@@ -140,12 +145,15 @@ public final class RIntVector extends RVector<int[]> implements RAbstractIntVect
      */
     @Override
     public int[] getDataWithoutCopying() {
+        if (data.length != length) {
+            data = Arrays.copyOf(data, length);
+        }
         return data;
     }
 
     @Override
     public RIntVector copyWithNewDimensions(int[] newDimensions) {
-        return RDataFactory.createIntVector(data, isComplete(), newDimensions);
+        return RDataFactory.createIntVector(getDataWithoutCopying(), isComplete(), newDimensions);
     }
 
     public RIntVector updateDataAt(int i, int right, NACheck valueNACheck) {
@@ -183,9 +191,21 @@ public final class RIntVector extends RVector<int[]> implements RAbstractIntVect
         return resizeData(newData, this.data, this.getLength(), fillNA);
     }
 
+    @Override
+    public boolean growInPlace(int size) {
+        assert !isShared() && size > length;
+        if (size > data.length) {
+            data = Arrays.copyOf(data, growCapacity(length, size));
+        }
+        Arrays.fill(data, length, size, RRuntime.INT_NA);
+        length = size;
+        complete = false;
+        return true;
+    }
+
     @Override
     protected RIntVector internalCopyResized(int size, boolean fillNA) {
-        boolean isComplete = isComplete() && ((data.length >= size) || !fillNA);
+        boolean isComplete = isComplete() && ((length >= size) || !fillNA);
         return RDataFactory.createIntVector(copyResizedData(size, fillNA), isComplete);
     }
 
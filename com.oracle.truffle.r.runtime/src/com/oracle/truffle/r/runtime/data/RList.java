@@ -44,14 +44,14 @@ public final class RList extends RListBase implements RAbstractListVector {
 
     @Override
     protected RList internalCopy() {
-        return new RList(Arrays.copyOf(data, data.length), dimensions, null);
+        return markDataShared(new RList(shareData(), dimensions, null));
     }
 
     @Override
     protected RList internalDeepCopy() {
         // TOOD: only used for nested list updates, but still could be made faster (through a
         // separate AST node?)
-        RList listCopy = new RList(Arrays.copyOf(data, data.length), dimensions, null);
+        RList listCopy = new RList(Arrays.copyOf(data, getLength()), dimensions, null);
         for (int i = 0; i < listCopy.getLength(); i++) {
             Object el = listCopy.getDataAt(i);
             if (el instanceof RVector) {
@@ -69,7 +69,7 @@ public final class RList extends RListBase implements RAbstractListVector {
 
     @Override
     public RList copyWithNewDimensions(int[] newDimensions) {
-        return RDataFactory.createList(data, newDimensions);
+        return markDataShared(RDataFactory.createList(shareData(), newDimensions));
     }
 
     @Override
@@ -46,24 +46,86 @@ import com.oracle.truffle.r.runtime.ops.na.NACheck;
  * to increment the refcount of such data. Consult also the documentation of
  * {@code ExtractListElement}, which is a node that can extract an element of a list or abstract
  * vector and put it in the consistent sharing state.
+ *
+ * Copies of lists with at least {@link #SHARED_COPY_MIN_LENGTH} elements initially use the same
+ * data array as the original (see {@link #shareData()}), which is only copied by the first of the
+ * two lists that writes to it. This makes copies that only change attributes (e.g.
+ * {@code attr(x, "a") <- v} or {@code class(x) <- "c"} on a shared list) independent of the length
+ * of the list. Element replacement (e.g. {@code x$field <- v}) on a shared list still copies the
+ * whole array once, because the array is handed out as it is. All write access and all access that
+ * exposes the array for writing, i.e. {@link #getInternalStore()} and
+ * {@link #getDataWithoutCopying()}, goes through {@link #getOwnData()}, whereas
+ * {@link #getInternalStoreForReading()} does not copy.
  */
 public abstract class RListBase extends RVector<Object[]> implements RAbstractListBaseVector {
 
-    protected final Object[] data;
+    protected static final int SHARED_COPY_MIN_LENGTH = 64;
+
+    /**
+     * The elements, followed by spare capacity if the list was extended by {@link #growInPlace}.
+     */
+    protected Object[] data;
+    private int length;
+
+    /**
+     * Set if {@link #data} may also be used by another list.
+     */
+    private boolean dataShared;
 
     RListBase(Object[] data, int[] dims, RStringVector names) {
         super(false, data.length, dims, names);
         this.data = data;
+        this.length = data.length;
         assert verify();
     }
 
+    /**
+     * Returns the data array for a copy of this list, which must then be marked with
+     * {@link #markDataShared()}.
+     */
+    protected final Object[] shareData() {
+        if (length < SHARED_COPY_MIN_LENGTH || data.length != length) {
+            return Arrays.copyOf(data, length);
+        }
+        dataShared = true;
+        return data;
+    }
+
+    protected final <T extends RListBase> T markDataShared(T copy) {
+        if (copy.data == data) {
+            copy.dataShared = true;
+        }
+        return copy;
+    }
+
+    /**
+     * Returns the data array after copying it if it is shared with another list.
+     */
+    protected final Object[] getOwnData() {
+        if (dataShared) {
+            copyData();
+        }
+        return data;
+    }
+
+    @TruffleBoundary
+    private void copyData() {
+        data = Arrays.copyOf(data, length);
+        dataShared = false;
+    }
+
     @Override
     public final int getLength() {
-        return data.length;
+        return length;
     }
 
     @Override
     public Object[] getInternalStore() {
+        return getOwnData();
+    }
+
+    @Override
+    public Object[] getInternalStoreForReading() {
         return data;
     }
 
@@ -81,7 +143,7 @@ public abstract class RListBase extends RVector<Object[]> implements RAbstractLi
     @Override
     public void setDataAt(Object store, int index, Object valueArg) {
         Object value = valueArg;
-        assert store == data;
+        assert store == data && !dataShared;
         ((Object[]) store)[index] = value;
     }
 
@@ -101,13 +163,17 @@ public abstract class RListBase extends RVector<Object[]> implements RAbstractLi
      */
     @Override
     public final Object[] getDataWithoutCopying() {
-        return data;
+        if (data.length != length) {
+            data = Arrays.copyOf(data, length);
+            dataShared = false;
+        }
+        return getOwnData();
     }
 
     @Override
     public final Object[] getDataCopy() {
-        Object[] copy = new Object[data.length];
-        System.arraycopy(data, 0, copy, 0, data.length);
+        Object[] copy = new Object[length];
+        System.arraycopy(data, 0, copy, 0, length);
         return copy;
     }
 
@@ -123,7 +189,7 @@ public abstract class RListBase extends RVector<Object[]> implements RAbstractLi
 
     public final RListBase updateDataAt(int i, Object right, @SuppressWarnings("unused") NACheck rightNACheck) {
         assert !this.isShared() : "data in shared list must not be updated, make a copy";
-        data[i] = right;
+        getOwnData()[i] = right;
         return this;
     }
 
@@ -136,7 +202,7 @@ public abstract class RListBase extends RVector<Object[]> implements RAbstractLi
     @Override
     public final void transferElementSameType(int toIndex, RAbstractVector fromVector, int fromIndex) {
         RAbstractListVector other = (RAbstractListVector) fromVector;
-        data[toIndex] = other.getDataAtAsObject(fromIndex);
+        getOwnData()[toIndex] = other.getDataAtAsObject(fromIndex);
     }
 
     @Override
@@ -184,7 +250,7 @@ public abstract class RListBase extends RVector<Object[]> implements RAbstractLi
                     newData[i] = RNull.instance;
                 }
             } else {
-                for (int i = oldData.length, j = 0; i < newData.length; ++i, j = Utils.incMod(j, oldData.length)) {
+                for (int i = oldDataLength, j = 0; i < newData.length; ++i, j = Utils.incMod(j, oldDataLength)) {
                     newData[i] = oldData[j];
                 }
             }
@@ -192,6 +258,18 @@ public abstract class RListBase extends RVector<Object[]> implements RAbstractLi
         return newData;
     }
 
+    @Override
+    public final boolean growInPlace(int size) {
+        assert !isShared() && size > length;
+        if (size > data.length || dataShared) {
+            data = Arrays.copyOf(data, growCapacity(length, size));
+            dataShared = false;
+        }
+        Arrays.fill(data, length, size, RNull.instance);
+        length = size;
+        return true;
+    }
+
     @Override
     public final boolean checkCompleteness() {
         return true;
@@ -199,6 +277,6 @@ public abstract class RListBase extends RVector<Object[]> implements RAbstractLi
 
     @Override
     public final void setElement(int i, Object value) {
-        data[i] = value;
+        getOwnData()[i] = value;
     }
 }
@@ -37,11 +37,16 @@ public final class RLogicalVector extends RVector<byte[]> implements RAbstractLo
 
     public static final RStringVector implicitClassHeader = RDataFactory.createStringVectorFromScalar(RType.Logical.getClazz());
 
-    private final byte[] data;
+    /**
+     * The elements, followed by spare capacity if the vector was extended by {@link #growInPlace}.
+     */
+    private byte[] data;
+    private int length;
 
     RLogicalVector(byte[] data, boolean complete, int[] dims, RStringVector names) {
         super(complete, data.length, dims, names);
         this.data = data;
+        this.length = data.length;
         assert verify();
     }
 
@@ -88,7 +93,7 @@ public final class RLogicalVector extends RVector<byte[]> implements RAbstractLo
 
     @Override
     protected RLogicalVector internalCopy() {
-        return new RLogicalVector(Arrays.copyOf(data, data.length), isComplete(), null);
+        return new RLogicalVector(Arrays.copyOf(data, length), isComplete(), null);
     }
 
     public RLogicalVector copyResetData(byte[] newData) {
@@ -106,7 +111,7 @@ public final class RLogicalVector extends RVector<byte[]> implements RAbstractLo
 
     @Override
     public int getLength() {
-        return data.length;
+        return length;
     }
 
     @Override
@@ -117,8 +122,8 @@ public final class RLogicalVector extends RVector<byte[]> implements RAbstractLo
     @Override
     protected boolean internalVerify() {
         if (isComplete()) {
-            for (byte b : data) {
-                if (b == RRuntime.LOGICAL_NA) {
+            for (int i = 0; i < length; i++) {
+                if (data[i] == RRuntime.LOGICAL_NA) {
                     return false;
                 }
             }
@@ -151,11 +156,11 @@ public final class RLogicalVector extends RVector<byte[]> implements RAbstractLo
         byte[] newData = Arrays.copyOf(data, size);
         if (size > this.getLength()) {
             if (fillNA) {
-                for (int i = data.length; i < size; i++) {
+                for (int i = length; i < size; i++) {
                     newData[i] = RRuntime.LOGICAL_NA;
                 }
             } else {
-                for (int i = data.length, j = 0; i < size; ++i, j = Utils.incMod(j, data.length)) {
+                for (int i = length, j = 0; i < size; ++i, j = Utils.incMod(j, length)) {
                     newData[i] = data[j];
                 }
             }
@@ -165,10 +170,22 @@ public final class RLogicalVector extends RVector<byte[]> implements RAbstractLo
 
     @Override
     protected RLogicalVector internalCopyResized(int size, boolean fillNA) {
-        boolean isComplete = isComplete() && ((data.length >= size) || !fillNA);
+        boolean isComplete = isComplete() && ((length >= size) || !fillNA);
         return RDataFactory.createLogicalVector(copyResizedData(size, fillNA), isComplete);
     }
 
+    @Override
+    public boolean growInPlace(int size) {
+        assert !isShared() && size > length;
+        if (size > data.length) {
+            data = Arrays.copyOf(data, growCapacity(length, size));
+        }
+        Arrays.fill(data, length, size, RRuntime.LOGICAL_NA);
+        length = size;
+        complete = false;
+        return true;
+    }
+
     @Override
     public RLogicalVector createEmptySameType(int newLength, boolean newIsComplete) {
         return RDataFactory.createLogicalVector(new byte[newLength], newIsComplete);
@@ -182,7 +199,7 @@ public final class RLogicalVector extends RVector<byte[]> implements RAbstractLo
 
     @Override
     public byte[] getDataCopy() {
-        return Arrays.copyOf(data, data.length);
+        return Arrays.copyOf(data, length);
     }
 
     /**
@@ -191,12 +208,15 @@ public final class RLogicalVector extends RVector<byte[]> implements RAbstractLo
      */
     @Override
     public byte[] getDataWithoutCopying() {
+        if (data.length != length) {
+            data = Arrays.copyOf(data, length);
+        }
         return data;
     }
 
     @Override
     public RLogicalVector copyWithNewDimensions(int[] newDimensions) {
-        return RDataFactory.createLogicalVector(data, isComplete(), newDimensions);
+        return RDataFactory.createLogicalVector(getDataWithoutCopying(), isComplete(), newDimensions);
     }
 
     @Override
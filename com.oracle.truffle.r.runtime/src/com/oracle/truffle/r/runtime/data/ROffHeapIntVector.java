@@ -0,0 +1,90 @@
+/*
+ * Copyright (c) 2016, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.truffle.r.runtime.data;
+
+import com.oracle.truffle.api.CompilerAsserts;
+import com.oracle.truffle.api.profiles.ConditionProfile;
+import com.oracle.truffle.r.runtime.RType;
+import com.oracle.truffle.r.runtime.data.closures.RClosures;
+import com.oracle.truffle.r.runtime.data.model.RAbstractIntVector;
+import com.oracle.truffle.r.runtime.data.model.RAbstractVector;
+
+public final class ROffHeapIntVector extends ROffHeapVector implements RAbstractIntVector {
+
+    ROffHeapIntVector(ROffHeapStorage storage, int length, boolean complete) {
+        super(storage, length, complete);
+        assert storage.getByteLength() >= (long) length << 2;
+    }
+
+    @Override
+    public int getDataAt(int index) {
+        assert index >= 0 && index < getLength();
+        return storage.getInt(index);
+    }
+
+    @Override
+    public RAbstractVector castSafe(RType type, ConditionProfile isNAProfile) {
+        switch (type) {
+            case Integer:
+                return this;
+            case Double:
+                return RClosures.createIntToDoubleVector(this);
+            case Complex:
+                return RClosures.createIntToComplexVector(this);
+            case Character:
+                return RClosures.createIntToStringVector(this);
+            case List:
+                return RClosures.createAbstractVectorToListVector(this);
+            default:
+                return null;
+        }
+    }
+
+    @Override
+    protected RIntVector internalCreateVector() {
+        int[] result = new int[getLength()];
+        storage.getInts(0, result, 0, result.length);
+        return RDataFactory.createIntVector(result, isComplete());
+    }
+
+    @Override
+    public RIntVector materialize() {
+        return internalCreateVector();
+    }
+
+    @Override
+    public RStringVector getImplicitClass() {
+        return RIntVector.implicitClassHeader;
+    }
+
+    @Override
+    public RIntVector createEmptySameType(int newLength, boolean newIsComplete) {
+        return RDataFactory.createIntVector(new int[newLength], newIsComplete);
+    }
+
+    @Override
+    public String toString() {
+        CompilerAsserts.neverPartOfCompilation();
+        return "off-heap int[" + getLength() + "]";
+    }
+}
@@ -0,0 +1,96 @@
+/*
+ * Copyright (c) 2016, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.truffle.r.runtime.data;
+
+import com.oracle.truffle.api.CompilerAsserts;
+import com.oracle.truffle.api.profiles.ConditionProfile;
+import com.oracle.truffle.r.runtime.RType;
+import com.oracle.truffle.r.runtime.data.closures.RClosures;
+import com.oracle.truffle.r.runtime.data.model.RAbstractRawVector;
+import com.oracle.truffle.r.runtime.data.model.RAbstractVector;
+
+public final class ROffHeapRawVector extends ROffHeapVector implements RAbstractRawVector {
+
+    ROffHeapRawVector(ROffHeapStorage storage, int length) {
+        super(storage, length, true);
+        assert storage.getByteLength() >= length;
+    }
+
+    @Override
+    public RRaw getDataAt(int index) {
+        return RDataFactory.createRaw(getRawDataAt(index));
+    }
+
+    @Override
+    public byte getRawDataAt(int index) {
+        assert index >= 0 && index < getLength();
+        return storage.getByte(index);
+    }
+
+    @Override
+    public RAbstractVector castSafe(RType type, ConditionProfile isNAProfile) {
+        switch (type) {
+            case Raw:
+                return this;
+            case Integer:
+                return RClosures.createRawToIntVector(this);
+            case Double:
+                return RClosures.createRawToDoubleVector(this);
+            case Complex:
+                return RClosures.createRawToComplexVector(this);
+            case Character:
+                return RClosures.createRawToStringVector(this);
+            default:
+                return null;
+        }
+    }
+
+    @Override
+    protected RRawVector internalCreateVector() {
+        byte[] result = new byte[getLength()];
+        storage.getBytes(0, result, 0, result.length);
+        return RDataFactory.createRawVector(result);
+    }
+
+    @Override
+    public RRawVector materialize() {
+        return internalCreateVector();
+    }
+
+    @Override
+    public RStringVector getImplicitClass() {
+        return RRawVector.implicitClassHeader;
+    }
+
+    @Override
+    public RRawVector createEmptySameType(int newLength, boolean newIsComplete) {
+        assert newIsComplete == true;
+        return RDataFactory.createRawVector(new byte[newLength]);
+    }
+
+    @Override
+    public String toString() {
+        CompilerAsserts.neverPartOfCompilation();
+        return "off-heap raw[" + getLength() + "]";
+    }
+}
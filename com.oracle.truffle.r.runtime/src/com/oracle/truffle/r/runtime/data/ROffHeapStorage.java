@@ -0,0 +1,440 @@
+/*
+ * Copyright (c) 2016, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.truffle.r.runtime.data;
+
+import java.io.IOException;
+import java.lang.ref.PhantomReference;
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.oracle.truffle.r.runtime.FastROptions;
+import com.oracle.truffle.r.runtime.RInternalError;
+
+/**
+ * Element storage outside of the Java heap for the {@link ROffHeapVector}s, made of direct
+ * {@link ByteBuffer} slabs of {@link #SLAB_SIZE} bytes (the last one may be shorter) in native byte
+ * order. Elements are addressed by a {@code long} index, so the storage itself is not limited to
+ * {@link Integer#MAX_VALUE} elements.
+ *
+ * The storage is reference counted: every {@link ROffHeapVector} over it holds a reference, as may
+ * other users (e.g. native code) by {@link #retain()} and {@link #release()}. The reference of a
+ * vector is released by a cleaner thread once the vector has been collected. When the last
+ * reference is released, the storage drops its buffers and no longer counts in
+ * {@link #getAllocatedBytes()}; any further access fails with an {@link RInternalError}. A storage
+ * that never had a reference is freed when it becomes unreachable.
+ *
+ * The memory itself is not freed eagerly: it is returned by the JDK when the dropped direct
+ * buffers are collected, i.e. after a later GC, since buffers handed out by {@link #getSlab} may
+ * still be in use. {@link #getAllocatedBytes()} is therefore the number of bytes held by live
+ * storages, not the process' direct memory usage, which is limited by
+ * {@code -XX:MaxDirectMemorySize}.
+ */
+public final class ROffHeapStorage {
+
+    private static final int SLAB_SHIFT = 30;
+    public static final long SLAB_SIZE = 1L << SLAB_SHIFT;
+    private static final long SLAB_MASK = SLAB_SIZE - 1;
+
+    private static final AtomicLong allocatedBytes = new AtomicLong();
+    private static final ReferenceQueue<Object> released = new ReferenceQueue<>();
+    /**
+     * Keeps the pending phantom references reachable.
+     */
+    private static final Set<Reference<?>> pending = ConcurrentHashMap.newKeySet();
+
+    static {
+        Thread cleaner = new Thread(ROffHeapStorage::clean, "FastR-offheap-cleaner");
+        cleaner.setDaemon(true);
+        cleaner.start();
+    }
+
+    /**
+     * The accounting of an allocated storage, it must not refer to the storage itself.
+     */
+    private static final class Allocation {
+        private final long bytes;
+        private final AtomicBoolean freed = new AtomicBoolean();
+
+        Allocation(long bytes) {
+            this.bytes = bytes;
+        }
+
+        void free() {
+            if (freed.compareAndSet(false, true)) {
+                allocatedBytes.addAndGet(-bytes);
+            }
+        }
+    }
+
+    /**
+     * Frees the allocation once the storage is unreachable (only relevant if it never had a
+     * reference).
+     */
+    private static final class StorageReference extends PhantomReference<ROffHeapStorage> {
+        private final Allocation allocation;
+
+        StorageReference(ROffHeapStorage storage, Allocation allocation) {
+            super(storage, released);
+            this.allocation = allocation;
+        }
+    }
+
+    /**
+     * Releases the reference of a vector to its storage once the vector is unreachable.
+     */
+    private static final class VectorReference extends PhantomReference<ROffHeapVector> {
+        private final ROffHeapStorage storage;
+
+        VectorReference(ROffHeapVector vector, ROffHeapStorage storage) {
+            super(vector, released);
+            this.storage = storage;
+        }
+    }
+
+    /**
+     * {@code null} once the last reference has been released.
+     */
+    private ByteBuffer[] slabs;
+    private final long byteLength;
+    /**
+     * {@code null} for storages that are not allocated by this class, e.g. mapped files.
+     */
+    private final Allocation allocation;
+    private final AtomicInteger references = new AtomicInteger();
+
+    private ROffHeapStorage(ByteBuffer[] slabs, long byteLength, Allocation allocation) {
+        this.slabs = slabs;
+        this.byteLength = byteLength;
+        this.allocation = allocation;
+    }
+
+    /**
+     * Allocates {@code bytes} zeroed bytes.
+     */
+    public static ROffHeapStorage allocate(long bytes) {
+        ByteBuffer[] slabs = new ByteBuffer[(int) ((bytes + SLAB_MASK) >>> SLAB_SHIFT)];
+        for (int i = 0; i < slabs.length; i++) {
+            slabs[i] = ByteBuffer.allocateDirect((int) Math.min(SLAB_SIZE, bytes - ((long) i << SLAB_SHIFT))).order(ByteOrder.nativeOrder());
+        }
+        Allocation allocation = new Allocation(bytes);
+        ROffHeapStorage storage = new ROffHeapStorage(slabs, bytes, allocation);
+        pending.add(new StorageReference(storage, allocation));
+        allocatedBytes.addAndGet(bytes);
+        return storage;
+    }
+
+    /**
+     * Adds a reference to the storage, which must not have been released yet.
+     */
+    public void retain() {
+        slabs();
+        references.incrementAndGet();
+    }
+
+    /**
+     * Removes a reference added by {@link #retain()}; when the last one is removed, the storage
+     * drops its buffers, no longer counts as allocated and must not be used any more.
+     */
+    public void release() {
+        int remaining = references.decrementAndGet();
+        assert remaining >= 0;
+        if (remaining == 0) {
+            slabs = null;
+            if (allocation != null) {
+                allocation.free();
+            }
+        }
+    }
+
+    private ByteBuffer[] slabs() {
+        ByteBuffer[] result = slabs;
+        if (result == null) {
+            throw RInternalError.shouldNotReachHere("off-heap storage used after its last reference was released");
+        }
+        return result;
+    }
+
+    /**
+     * Registers {@code vector} as a user of this storage until it is collected.
+     */
+    void retain(ROffHeapVector vector) {
+        retain();
+        pending.add(new VectorReference(vector, this));
+    }
+
+    private static void clean() {
+        while (true) {
+            Reference<?> ref;
+            try {
+                ref = released.remove();
+            } catch (InterruptedException e) {
+                continue;
+            }
+            pending.remove(ref);
+            if (ref instanceof VectorReference) {
+                ((VectorReference) ref).storage.release();
+            } else {
+                ((StorageReference) ref).allocation.free();
+            }
+        }
+    }
+
+    /**
+     * Creates a storage over existing buffers, e.g. mapped files, which are not counted as
+     * allocated. All buffers but the last one must have a capacity of {@link #SLAB_SIZE}.
+     */
+    public static ROffHeapStorage wrap(ByteBuffer[] buffers) {
+        ByteBuffer[] slabs = new ByteBuffer[buffers.length];
+        long bytes = 0;
+        for (int i = 0; i < buffers.length; i++) {
+            assert i == buffers.length - 1 || buffers[i].capacity() == SLAB_SIZE;
+            slabs[i] = buffers[i].duplicate().order(ByteOrder.nativeOrder());
+            bytes += buffers[i].capacity();
+        }
+        return new ROffHeapStorage(slabs, bytes, null);
+    }
+
+    /**
+     * Maps {@code bytes} bytes of the file {@code path}, starting at {@code offset}. A writable
+     * mapping creates the file or extends it with zeros if it is too short, a read-only mapping
+     * requires the file to be long enough. The mapping stays valid after the file is closed, and
+     * changes to the file by other writers are visible through it.
+     */
+    public static ROffHeapStorage map(Path path, long offset, long bytes, boolean readOnly) throws IOException {
+        StandardOpenOption[] options = readOnly ? new StandardOpenOption[]{StandardOpenOption.READ}
+                        : new StandardOpenOption[]{StandardOpenOption.READ, StandardOpenOption.WRITE, StandardOpenOption.CREATE};
+        try (FileChannel channel = FileChannel.open(path, options)) {
+            if (channel.size() < offset + bytes) {
+                if (readOnly) {
+                    throw new IOException("file is shorter than " + (offset + bytes) + " bytes");
+                }
+                channel.write(ByteBuffer.allocate(1), offset + bytes - 1);
+            }
+            return map(channel, offset, bytes, readOnly ? MapMode.READ_ONLY : MapMode.READ_WRITE);
+        }
+    }
+
+    /**
+     * Maps {@code bytes} bytes of an open file channel, starting at {@code offset}.
+     */
+    public static ROffHeapStorage map(FileChannel channel, long offset, long bytes, MapMode mode) throws IOException {
+        ByteBuffer[] slabs = new ByteBuffer[(int) ((bytes + SLAB_MASK) >>> SLAB_SHIFT)];
+        for (int i = 0; i < slabs.length; i++) {
+            long start = (long) i << SLAB_SHIFT;
+            slabs[i] = channel.map(mode, offset + start, Math.min(SLAB_SIZE, bytes - start));
+        }
+        return wrap(slabs);
+    }
+
+    /**
+     * Whether a vector of {@code bytes} should be allocated off heap by default, according to
+     * {@link FastROptions#OffHeapThreshold}.
+     */
+    public static boolean useFor(long bytes) {
+        long threshold = FastROptions.OffHeapThreshold.getNonNegativeIntValue();
+        return threshold > 0 && bytes >= threshold << 20;
+    }
+
+    /**
+     * The number of bytes in storages that have been allocated and are still referenced, i.e. held
+     * by live vectors (or other users). Released memory is returned by the JDK only after a GC.
+     */
+    public static long getAllocatedBytes() {
+        return allocatedBytes.get();
+    }
+
+    public long getByteLength() {
+        return byteLength;
+    }
+
+    public int getSlabCount() {
+        return slabs().length;
+    }
+
+    /**
+     * Returns a buffer over the slab {@code index}, e.g. to read data into it directly. The buffer
+     * has its own position and limit.
+     */
+    public ByteBuffer getSlab(int index) {
+        return slabs()[index].duplicate().order(ByteOrder.nativeOrder());
+    }
+
+    /**
+     * Reverses the byte order of the first {@code count} elements of {@code size} bytes (2, 4 or
+     * 8).
+     */
+    public void reverseByteOrder(int size, long count) {
+        for (long i = 0; i < count; i++) {
+            long offset = i * size;
+            ByteBuffer slab = slab(offset);
+            int index = (int) (offset & SLAB_MASK);
+            switch (size) {
+                case 2:
+                    slab.putShort(index, Short.reverseBytes(slab.getShort(index)));
+                    break;
+                case 4:
+                    slab.putInt(index, Integer.reverseBytes(slab.getInt(index)));
+                    break;
+                default:
+                    assert size == 8;
+                    slab.putLong(index, Long.reverseBytes(slab.getLong(index)));
+                    break;
+            }
+        }
+    }
+
+    private ByteBuffer slab(long offset) {
+        return slabs()[(int) (offset >>> SLAB_SHIFT)];
+    }
+
+    public double getDouble(long index) {
+        long offset = index << 3;
+        return slab(offset).getDouble((int) (offset & SLAB_MASK));
+    }
+
+    public void putDouble(long index, double value) {
+        long offset = index << 3;
+        slab(offset).putDouble((int) (offset & SLAB_MASK), value);
+    }
+
+    public int getInt(long index) {
+        long offset = index << 2;
+        return slab(offset).getInt((int) (offset & SLAB_MASK));
+    }
+
+    public void putInt(long index, int value) {
+        long offset = index << 2;
+        slab(offset).putInt((int) (offset & SLAB_MASK), value);
+    }
+
+    public byte getByte(long index) {
+        return slab(index).get((int) (index & SLAB_MASK));
+    }
+
+    public void putByte(long index, byte value) {
+        slab(index).put((int) (index & SLAB_MASK), value);
+    }
+
+    /**
+     * Copies {@code length} doubles starting at element {@code index} into {@code dest}.
+     */
+    public void getDoubles(long index, double[] dest, int destIndex, int length) {
+        int done = 0;
+        while (done < length) {
+            long offset = (index + done) << 3;
+            ByteBuffer slab = slab(offset).duplicate().order(ByteOrder.nativeOrder());
+            slab.position((int) (offset & SLAB_MASK));
+            int n = Math.min(length - done, slab.remaining() >> 3);
+            slab.asDoubleBuffer().get(dest, destIndex + done, n);
+            done += n;
+        }
+    }
+
+    /**
+     * Copies {@code length} doubles from {@code src} to the storage, starting at element
+     * {@code index}.
+     */
+    public void putDoubles(long index, double[] src, int srcIndex, int length) {
+        int done = 0;
+        while (done < length) {
+            long offset = (index + done) << 3;
+            ByteBuffer slab = slab(offset).duplicate().order(ByteOrder.nativeOrder());
+            slab.position((int) (offset & SLAB_MASK));
+            int n = Math.min(length - done, slab.remaining() >> 3);
+            slab.asDoubleBuffer().put(src, srcIndex + done, n);
+            done += n;
+        }
+    }
+
+    /**
+     * Copies {@code length} ints starting at element {@code index} into {@code dest}.
+     */
+    public void getInts(long index, int[] dest, int destIndex, int length) {
+        int done = 0;
+        while (done < length) {
+            long offset = (index + done) << 2;
+            ByteBuffer slab = slab(offset).duplicate().order(ByteOrder.nativeOrder());
+            slab.position((int) (offset & SLAB_MASK));
+            int n = Math.min(length - done, slab.remaining() >> 2);
+            slab.asIntBuffer().get(dest, destIndex + done, n);
+            done += n;
+        }
+    }
+
+    /**
+     * Copies {@code length} ints from {@code src} to the storage, starting at element
+     * {@code index}.
+     */
+    public void putInts(long index, int[] src, int srcIndex, int length) {
+        int done = 0;
+        while (done < length) {
+            long offset = (index + done) << 2;
+            ByteBuffer slab = slab(offset).duplicate().order(ByteOrder.nativeOrder());
+            slab.position((int) (offset & SLAB_MASK));
+            int n = Math.min(length - done, slab.remaining() >> 2);
+            slab.asIntBuffer().put(src, srcIndex + done, n);
+            done += n;
+        }
+    }
+
+    /**
+     * Copies {@code length} bytes starting at {@code index} into {@code dest}.
+     */
+    public void getBytes(long index, byte[] dest, int destIndex, int length) {
+        int done = 0;
+        while (done < length) {
+            long offset = index + done;
+            ByteBuffer slab = slab(offset).duplicate();
+            slab.position((int) (offset & SLAB_MASK));
+            int n = Math.min(length - done, slab.remaining());
+            slab.get(dest, destIndex + done, n);
+            done += n;
+        }
+    }
+
+    /**
+     * Copies {@code length} bytes from {@code src} to the storage, starting at {@code index}.
+     */
+    public void putBytes(long index, byte[] src, int srcIndex, int length) {
+        int done = 0;
+        while (done < length) {
+            long offset = index + done;
+            ByteBuffer slab = slab(offset).duplicate();
+            slab.position((int) (offset & SLAB_MASK));
+            int n = Math.min(length - done, slab.remaining());
+            slab.put(src, srcIndex + done, n);
+            done += n;
+        }
+    }
+}
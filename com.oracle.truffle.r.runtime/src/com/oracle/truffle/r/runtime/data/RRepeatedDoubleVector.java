@@ -0,0 +1,99 @@
+/*
+ * Copyright (c) 2016, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.truffle.r.runtime.data;
+
+import com.oracle.truffle.api.CompilerAsserts;
+import com.oracle.truffle.api.profiles.ConditionProfile;
+import com.oracle.truffle.r.runtime.RType;
+import com.oracle.truffle.r.runtime.data.closures.RClosures;
+import com.oracle.truffle.r.runtime.data.model.RAbstractDoubleVector;
+import com.oracle.truffle.r.runtime.data.model.RAbstractVector;
+
+public final class RRepeatedDoubleVector extends RRepeatedVector implements RAbstractDoubleVector {
+
+    private final RAbstractDoubleVector pattern;
+
+    RRepeatedDoubleVector(RAbstractDoubleVector pattern, int each, int length) {
+        super(pattern.getLength(), each, length, pattern.isComplete());
+        this.pattern = pattern;
+    }
+
+    @Override
+    public RAbstractDoubleVector getPattern() {
+        return pattern;
+    }
+
+    @Override
+    public double getDataAt(int index) {
+        assert index >= 0 && index < getLength();
+        return pattern.getDataAt(patternIndex(index));
+    }
+
+    @Override
+    public RAbstractVector castSafe(RType type, ConditionProfile isNAProfile) {
+        switch (type) {
+            case Double:
+                return this;
+            case Integer:
+                return RClosures.createDoubleToIntVector(this);
+            case Complex:
+                return RClosures.createDoubleToComplexVector(this);
+            case Character:
+                return RClosures.createDoubleToStringVector(this);
+            case List:
+                return RClosures.createAbstractVectorToListVector(this);
+            default:
+                return null;
+        }
+    }
+
+    @Override
+    protected RDoubleVector internalCreateVector() {
+        double[] result = new double[getLength()];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = pattern.getDataAt(patternIndex(i));
+        }
+        return RDataFactory.createDoubleVector(result, isComplete());
+    }
+
+    @Override
+    public RDoubleVector materialize() {
+        return internalCreateVector();
+    }
+
+    @Override
+    public RStringVector getImplicitClass() {
+        return RDoubleVector.implicitClassHeader;
+    }
+
+    @Override
+    public RDoubleVector createEmptySameType(int newLength, boolean newIsComplete) {
+        return RDataFactory.createDoubleVector(new double[newLength], newIsComplete);
+    }
+
+    @Override
+    public String toString() {
+        CompilerAsserts.neverPartOfCompilation();
+        return "repeated double[" + getLength() + "]";
+    }
+}
@@ -0,0 +1,273 @@
+/*
+ * Copyright (c) 2016, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.truffle.r.runtime.data;
+
+import com.oracle.truffle.r.runtime.RInternalError;
+import com.oracle.truffle.r.runtime.data.model.RAbstractContainer;
+import com.oracle.truffle.r.runtime.data.model.RAbstractDoubleVector;
+import com.oracle.truffle.r.runtime.data.model.RAbstractIntVector;
+import com.oracle.truffle.r.runtime.data.model.RAbstractVector;
+
+/**
+ * A vector that repeats the elements of a pattern vector, as created by {@code rep} and
+ * {@code rep_len}: each element of the pattern is repeated {@link #getEach() each} times, and the
+ * resulting block is recycled up to the length of the vector. Element {@code i} is therefore
+ * {@code pattern[(i / each) % patternLength]}.
+ *
+ * Like an {@link RSequence}, a repeated vector is read-only and has no attributes: it is accessed
+ * through the {@code RAbstract*Vector} interfaces, and all operations that modify the vector or its
+ * attributes work on the {@link #materialize() materialized} vector. The pattern must not change
+ * while the repeated vector is alive, so the factory methods in {@link RDataFactory} make mutable
+ * patterns shared permanent.
+ */
+public abstract class RRepeatedVector implements RAbstractVector {
+
+    /**
+     * Results shorter than this are allocated, since a short vector is cheaper to copy once than to
+     * index through a division on every access.
+     */
+    public static final int MIN_LENGTH = 1024;
+
+    private final int length;
+    private final int each;
+    protected final int patternLength;
+    private boolean complete;
+
+    protected RRepeatedVector(int patternLength, int each, int length, boolean complete) {
+        assert patternLength > 0 && each > 0 && length >= 0;
+        this.patternLength = patternLength;
+        this.each = each;
+        this.length = length;
+        this.complete = complete;
+    }
+
+    /**
+     * Whether repeating {@code pattern} to {@code length} elements should yield a repeated vector.
+     * Only attribute-free integer and double vectors that are either read-only or reference counted
+     * are used as patterns.
+     */
+    public static boolean isRepeatable(RAbstractVector pattern, long length) {
+        if (length < MIN_LENGTH || length > Integer.MAX_VALUE || length <= pattern.getLength() || pattern.getLength() == 0) {
+            return false;
+        }
+        if (pattern instanceof RIntVector || pattern instanceof RDoubleVector) {
+            RAttributes attributes = pattern.getAttributes();
+            return attributes == null || attributes.isEmpty();
+        }
+        return (pattern instanceof RAbstractIntVector || pattern instanceof RAbstractDoubleVector) &&
+                        (pattern instanceof RSequence || pattern instanceof ROffHeapVector || pattern instanceof RRepeatedVector);
+    }
+
+    public abstract RAbstractVector getPattern();
+
+    public final int getEach() {
+        return each;
+    }
+
+    /**
+     * The index into the pattern of the element at {@code index}.
+     */
+    protected final int patternIndex(int index) {
+        return (index / each) % patternLength;
+    }
+
+    /**
+     * Whether the vector contains every element of the pattern, as is the case for all vectors
+     * created by {@code rep}; a shorter {@code length.out} may cut the pattern short.
+     */
+    public final boolean coversPattern() {
+        return (long) patternLength * each <= length;
+    }
+
+    /**
+     * How often the pattern element at {@code patternIndex} occurs in the vector.
+     */
+    public final long getOccurrences(int patternIndex) {
+        long block = (long) patternLength * each;
+        long count = (length / block) * each;
+        long rest = length % block - (long) patternIndex * each;
+        return count + Math.max(0, Math.min(each, rest));
+    }
+
+    @Override
+    public final int getLength() {
+        return length;
+    }
+
+    @Override
+    public RAbstractContainer resize(int size) {
+        return materialize().resize(size);
+    }
+
+    @Override
+    public final boolean isComplete() {
+        return complete;
+    }
+
+    @Override
+    public void setComplete(boolean complete) {
+        this.complete = complete;
+    }
+
+    @Override
+    public final boolean hasDimensions() {
+        return false;
+    }
+
+    @Override
+    public final int[] getDimensions() {
+        return null;
+    }
+
+    @Override
+    public void setDimensions(int[] newDimensions) {
+        // should only be used on materialized vector
+        throw RInternalError.shouldNotReachHere();
+    }
+
+    public final RVector<?> createVector() {
+        RVector<?> result = internalCreateVector();
+        MemoryCopyTracer.reportCopying(this, result);
+        return result;
+    }
+
+    protected abstract RVector<?> internalCreateVector();
+
+    @Override
+    public final RAbstractVector copy() {
+        return createVector();
+    }
+
+    @Override
+    public final RAbstractVector copyDropAttributes() {
+        return createVector();
+    }
+
+    @Override
+    public final RAbstractVector copyWithNewDimensions(int[] newDimensions) {
+        return createVector().copyWithNewDimensions(newDimensions);
+    }
+
+    @Override
+    public RVector<?> copyResized(int size, boolean fillNA) {
+        return materialize().copyResized(size, fillNA);
+    }
+
+    @Override
+    public final RVector<?> copyResizedWithDimensions(int[] newDimensions, boolean fillNA) {
+        return materialize().copyResizedWithDimensions(newDimensions, fillNA);
+    }
+
+    @Override
+    public final RStringVector getNames(RAttributeProfiles attrProfiles) {
+        return null;
+    }
+
+    @Override
+    public void setNames(RStringVector newNames) {
+        // should only be used on materialized vector
+        throw RInternalError.shouldNotReachHere();
+    }
+
+    @Override
+    public final RList getDimNames(RAttributeProfiles attrProfiles) {
+        return null;
+    }
+
+    @Override
+    public void setDimNames(RList newDimNames) {
+        // should only be used on materialized vector
+        throw RInternalError.shouldNotReachHere();
+    }
+
+    @Override
+    public final Object getRowNames(RAttributeProfiles attrProfiles) {
+        return RNull.instance;
+    }
+
+    @Override
+    public void setRowNames(RAbstractVector rowNames) {
+        // should only be used on materialized vector
+        throw RInternalError.shouldNotReachHere();
+    }
+
+    @Override
+    public final RAttributes initAttributes() {
+        throw RInternalError.shouldNotReachHere();
+    }
+
+    @Override
+    public final void initAttributes(RAttributes newAttributes) {
+        throw RInternalError.shouldNotReachHere();
+    }
+
+    @Override
+    public final RAttributes getAttributes() {
+        return null;
+    }
+
+    @Override
+    public final boolean isMatrix() {
+        return false;
+    }
+
+    @Override
+    public final boolean isArray() {
+        return false;
+    }
+
+    @Override
+    public final boolean isObject(RAttributeProfiles attrProfiles) {
+        return false;
+    }
+
+    @Override
+    public final RStringVector getClassHierarchy() {
+        return getImplicitClass();
+    }
+
+    @Override
+    public final RTypedValue getNonShared() {
+        return materialize().getNonShared();
+    }
+
+    @Override
+    public final RShareable materializeToShareable() {
+        return materialize();
+    }
+
+    @Override
+    public int getTypedValueInfo() {
+        return 0;
+    }
+
+    @Override
+    public void setTypedValueInfo(int value) {
+        throw RInternalError.shouldNotReachHere();
+    }
+
+    @Override
+    public boolean isS4() {
+        return false;
+    }
+}
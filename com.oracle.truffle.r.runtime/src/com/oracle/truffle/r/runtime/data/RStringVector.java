@@ -24,6 +24,7 @@ package com.oracle.truffle.r.runtime.data;
 
 import java.util.Arrays;
 
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
 import com.oracle.truffle.api.profiles.ConditionProfile;
 import com.oracle.truffle.r.runtime.RInternalError;
 import com.oracle.truffle.r.runtime.RRuntime;
@@ -38,11 +39,23 @@ public final class RStringVector extends RVector<String[]> implements RAbstractS
 
     public static final RStringVector implicitClassHeader = RDataFactory.createStringVectorFromScalar(RType.Character.getClazz());
 
-    private final String[] data;
+    /**
+     * The elements, followed by spare capacity if the vector was extended by {@link #growInPlace}.
+     */
+    private String[] data;
+    private int length;
+
+    /**
+     * Lazily built open-addressing hash table that maps each non-NA element to (one plus) the
+     * position of its first occurrence, see {@link #getFirstIndexOf(String)}. It is dropped by every
+     * update of the data.
+     */
+    private int[] firstIndexTable;
 
     RStringVector(String[] data, boolean complete, int[] dims, RStringVector names) {
         super(complete, data.length, dims, names);
         this.data = data;
+        this.length = data.length;
         assert verify();
     }
 
@@ -70,6 +83,7 @@ public final class RStringVector extends RVector<String[]> implements RAbstractS
     @Override
     public void setDataAt(Object store, int index, String value) {
         assert data == store;
+        firstIndexTable = null;
         ((String[]) store)[index] = value;
     }
 
@@ -81,18 +95,18 @@ public final class RStringVector extends RVector<String[]> implements RAbstractS
 
     @Override
     protected RStringVector internalCopy() {
-        return new RStringVector(Arrays.copyOf(data, data.length), isComplete(), null);
+        return new RStringVector(Arrays.copyOf(data, length), isComplete(), null);
     }
 
     @Override
     public int getLength() {
-        return data.length;
+        return length;
     }
 
     @Override
     public String[] getDataCopy() {
-        String[] copy = new String[data.length];
-        System.arraycopy(data, 0, copy, 0, data.length);
+        String[] copy = new String[length];
+        System.arraycopy(data, 0, copy, 0, length);
         return copy;
     }
 
@@ -102,6 +116,9 @@ public final class RStringVector extends RVector<String[]> implements RAbstractS
      */
     @Override
     public String[] getDataWithoutCopying() {
+        if (data.length != length) {
+            data = Arrays.copyOf(data, length);
+        }
         return data;
     }
 
@@ -113,8 +130,8 @@ public final class RStringVector extends RVector<String[]> implements RAbstractS
     @Override
     protected boolean internalVerify() {
         if (isComplete()) {
-            for (String b : data) {
-                if (b == RRuntime.STRING_NA) {
+            for (int i = 0; i < length; i++) {
+                if (data[i] == RRuntime.STRING_NA) {
                     return false;
                 }
             }
@@ -132,6 +149,7 @@ public final class RStringVector extends RVector<String[]> implements RAbstractS
             throw RInternalError.shouldNotReachHere("update shared vector");
         }
         data[i] = right;
+        firstIndexTable = null;
         if (rightNACheck.check(right)) {
             setComplete(false);
         }
@@ -149,11 +167,11 @@ public final class RStringVector extends RVector<String[]> implements RAbstractS
         String[] newData = Arrays.copyOf(data, size);
         if (size > this.getLength()) {
             if (fill != null) {
-                for (int i = data.length; i < size; i++) {
+                for (int i = length; i < size; i++) {
                     newData[i] = fill;
                 }
             } else {
-                for (int i = data.length, j = 0; i < size; ++i, j = Utils.incMod(j, data.length)) {
+                for (int i = length, j = 0; i < size; ++i, j = Utils.incMod(j, length)) {
                     newData[i] = data[j];
                 }
             }
@@ -167,10 +185,23 @@ public final class RStringVector extends RVector<String[]> implements RAbstractS
 
     @Override
     protected RStringVector internalCopyResized(int size, boolean fillNA) {
-        boolean isComplete = isComplete() && ((data.length >= size) || !fillNA);
+        boolean isComplete = isComplete() && ((length >= size) || !fillNA);
         return RDataFactory.createStringVector(copyResizedData(size, fillNA ? RRuntime.STRING_NA : null), isComplete);
     }
 
+    @Override
+    public boolean growInPlace(int size) {
+        assert !isShared() && size > length;
+        if (size > data.length) {
+            data = Arrays.copyOf(data, growCapacity(length, size));
+        }
+        Arrays.fill(data, length, size, RRuntime.STRING_NA);
+        length = size;
+        firstIndexTable = null;
+        complete = false;
+        return true;
+    }
+
     public RStringVector resizeWithEmpty(int size) {
         return RDataFactory.createStringVector(createResizedData(size, RRuntime.NAMES_ATTR_EMPTY_VALUE), isComplete());
     }
@@ -183,12 +214,13 @@ public final class RStringVector extends RVector<String[]> implements RAbstractS
     @Override
     public void transferElementSameType(int toIndex, RAbstractVector fromVector, int fromIndex) {
         RAbstractStringVector other = (RAbstractStringVector) fromVector;
+        firstIndexTable = null;
         data[toIndex] = other.getDataAt(fromIndex);
     }
 
     @Override
     public RStringVector copyWithNewDimensions(int[] newDimensions) {
-        return RDataFactory.createStringVector(data, isComplete(), newDimensions);
+        return RDataFactory.createStringVector(getDataWithoutCopying(), isComplete(), newDimensions);
     }
 
     @Override
@@ -208,6 +240,71 @@ public final class RStringVector extends RVector<String[]> implements RAbstractS
 
     @Override
     public void setElement(int i, Object value) {
+        firstIndexTable = null;
         data[i] = (String) value;
     }
+
+    /**
+     * Returns the position of the first element equal to {@code element} (which must not be NA), or
+     * {@code -1}. The first call builds a hash index over the data, so that repeated lookups, e.g.
+     * character subscripts into a large {@code names} vector, do not scan the whole vector.
+     */
+    @TruffleBoundary
+    public int getFirstIndexOf(String element) {
+        assert !RRuntime.isNA(element);
+        int[] table = firstIndexTable;
+        if (table == null) {
+            table = createFirstIndexTable(data, length);
+            firstIndexTable = table;
+        }
+        int hash = element.hashCode();
+        int mask = table.length - 1;
+        int i = mixHash(hash) & mask;
+        while (true) {
+            int position = table[i] - 1;
+            if (position < 0) {
+                return -1;
+            }
+            String value = data[position];
+            if (value == element || (value.hashCode() == hash && value.equals(element))) {
+                return position;
+            }
+            i = (i + 1) & mask;
+        }
+    }
+
+    private static int mixHash(int hash) {
+        return hash ^ (hash >>> 16);
+    }
+
+    private static int[] createFirstIndexTable(String[] data, int length) {
+        int capacity = 16;
+        while (capacity < (1 << 30) && capacity < length * 2) {
+            capacity <<= 1;
+        }
+        int[] table = new int[capacity];
+        int mask = capacity - 1;
+        for (int position = 0; position < length; position++) {
+            String value = data[position];
+            if (RRuntime.isNA(value)) {
+                continue;
+            }
+            int hash = value.hashCode();
+            int i = mixHash(hash) & mask;
+            while (true) {
+                int existing = table[i] - 1;
+                if (existing < 0) {
+                    table[i] = position + 1;
+                    break;
+                }
+                String other = data[existing];
+                if (other == value || (other.hashCode() == hash && other.equals(value))) {
+                    // keep the first occurrence
+                    break;
+                }
+                i = (i + 1) & mask;
+            }
+        }
+        return table;
+    }
 }
@@ -602,6 +602,28 @@ public abstract class RVector<ArrayT> extends RSharingAttributeStorage implement
         return internalCopyResizedAndReport(size, fillNA);
     }
 
+    /**
+     * Extends this (non-shared) vector to {@code size} elements, filling the new elements with NA
+     * ({@code NULL} for lists), without changing its attributes. The backing array grows
+     * geometrically and the spare capacity is kept, so that extending a vector by one element at a
+     * time, e.g. {@code x[[length(x) + 1]] <- v} in a loop, takes amortized constant time.
+     *
+     * @return {@code false} if this vector type does not support in-place growth, in which case
+     *         the caller has to use {@link #copyResized(int, boolean)}
+     */
+    public boolean growInPlace(@SuppressWarnings("unused") int size) {
+        return false;
+    }
+
+    /**
+     * The capacity for {@link #growInPlace} that grows from {@code length} to at least
+     * {@code size}.
+     */
+    protected static int growCapacity(int length, int size) {
+        long capacity = length + (length >> 1) + 8L;
+        return (int) Math.min(Math.max(capacity, size), Integer.MAX_VALUE - 8);
+    }
+
     // *internalCopyAndReport* methods do just the copy and report it to MemoryTracer. These should
     // be used if additional logic in public interface *copy* method is not desired.
 
@@ -0,0 +1,174 @@
+/*
+ * Copyright (c) 2016, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.truffle.r.runtime.data;
+
+import java.nio.ByteBuffer;
+import java.nio.DoubleBuffer;
+import java.nio.IntBuffer;
+
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+import com.oracle.truffle.r.runtime.data.model.RAbstractDoubleVector;
+import com.oracle.truffle.r.runtime.data.model.RAbstractIntVector;
+import com.oracle.truffle.r.runtime.data.model.RAbstractLogicalVector;
+import com.oracle.truffle.r.runtime.data.model.RAbstractRawVector;
+
+/**
+ * Bulk access to the data of R vectors for Java applications that embed FastR, as an alternative to
+ * the per-element {@code READ} interop message, and wrapping of Java arrays and buffers as R vectors
+ * for {@code .fastr.interop.import}.
+ *
+ * The arrays returned by {@link #getIntArray}, {@link #getDoubleArray} and {@link #getByteArray}
+ * are the backing store of the vector, i.e. no copy is made unless the vector is not materialized
+ * (e.g. a sequence). To keep R's value semantics, the vector is made
+ * {@link RShareable#makeSharedPermanent() shared permanent} first, so that R code never updates it
+ * in place; the host must treat the arrays as read-only. The buffer variants enforce that by
+ * returning read-only views.
+ *
+ * In the other direction, {@link #wrap} creates vectors that use the given array (or the backing
+ * array of a heap buffer) as their store. These vectors are also shared permanent, so they are
+ * read-only for R, which copies them before any modification; the host must not change the array
+ * while R uses the vector.
+ */
+public final class RVectorBuffers {
+
+    private RVectorBuffers() {
+        // no instances
+    }
+
+    private static <T extends RVector<?>> T share(T vector) {
+        if (!vector.isSharedPermanent()) {
+            vector.makeSharedPermanent();
+        }
+        return vector;
+    }
+
+    private static IllegalArgumentException unsupported(Object value, String type) {
+        return new IllegalArgumentException("cannot access " + (value == null ? "null" : value.getClass().getSimpleName()) + " as " + type);
+    }
+
+    /**
+     * The data of an integer vector (also factors).
+     */
+    @TruffleBoundary
+    public static int[] getIntArray(Object vector) {
+        if (vector instanceof RAbstractIntVector) {
+            return share(((RAbstractIntVector) vector).materialize()).getDataWithoutCopying();
+        }
+        throw unsupported(vector, "int[]");
+    }
+
+    /**
+     * The data of a double vector.
+     */
+    @TruffleBoundary
+    public static double[] getDoubleArray(Object vector) {
+        if (vector instanceof RAbstractDoubleVector) {
+            return share(((RAbstractDoubleVector) vector).materialize()).getDataWithoutCopying();
+        }
+        throw unsupported(vector, "double[]");
+    }
+
+    /**
+     * The data of a raw vector, or of a logical vector in its internal encoding (see
+     * {@link com.oracle.truffle.r.runtime.RRuntime#LOGICAL_NA}).
+     */
+    @TruffleBoundary
+    public static byte[] getByteArray(Object vector) {
+        if (vector instanceof RAbstractRawVector) {
+            return share(((RAbstractRawVector) vector).materialize()).getDataWithoutCopying();
+        } else if (vector instanceof RAbstractLogicalVector) {
+            return share(((RAbstractLogicalVector) vector).materialize()).getDataWithoutCopying();
+        }
+        throw unsupported(vector, "byte[]");
+    }
+
+    public static IntBuffer getIntBuffer(Object vector) {
+        return IntBuffer.wrap(getIntArray(vector)).asReadOnlyBuffer();
+    }
+
+    public static DoubleBuffer getDoubleBuffer(Object vector) {
+        return DoubleBuffer.wrap(getDoubleArray(vector)).asReadOnlyBuffer();
+    }
+
+    public static ByteBuffer getByteBuffer(Object vector) {
+        return ByteBuffer.wrap(getByteArray(vector)).asReadOnlyBuffer();
+    }
+
+    /**
+     * Wraps an {@code int[]}, {@code double[]} or {@code byte[]} (as raw vector), or the
+     * corresponding {@link IntBuffer}, {@link DoubleBuffer} or {@link ByteBuffer}, as an R vector.
+     * Arrays, and buffers that are backed by an array which they span completely, become the store
+     * of the vector without copying. Other buffers (direct, read-only or sliced ones) cannot be used
+     * as a store and are copied with a single bulk transfer.
+     *
+     * @return the vector or {@code null} if {@code value} is not one of the supported types.
+     */
+    @TruffleBoundary
+    public static RVector<?> wrap(Object value) {
+        /*
+         * The wrapped vectors are shared permanent, i.e. R copies them before any modification and
+         * never writes to the host's array. This is the same contract as for the arrays returned by
+         * getIntArray etc. in the other direction: the host must not change the array while R may
+         * still use the vector. Copying instead would make every import O(n) in time and memory,
+         * which is what passing arrays (rather than converting the elements) is meant to avoid.
+         */
+        if (value instanceof int[]) {
+            return share(RDataFactory.createIntVector((int[]) value, RDataFactory.INCOMPLETE_VECTOR));
+        } else if (value instanceof double[]) {
+            return share(RDataFactory.createDoubleVector((double[]) value, RDataFactory.INCOMPLETE_VECTOR));
+        } else if (value instanceof byte[]) {
+            return share(RDataFactory.createRawVector((byte[]) value));
+        } else if (value instanceof IntBuffer) {
+            IntBuffer buffer = (IntBuffer) value;
+            int[] data;
+            if (buffer.hasArray() && buffer.arrayOffset() == 0 && buffer.position() == 0 && buffer.limit() == buffer.array().length) {
+                data = buffer.array();
+            } else {
+                data = new int[buffer.remaining()];
+                buffer.duplicate().get(data);
+            }
+            return share(RDataFactory.createIntVector(data, RDataFactory.INCOMPLETE_VECTOR));
+        } else if (value instanceof DoubleBuffer) {
+            DoubleBuffer buffer = (DoubleBuffer) value;
+            double[] data;
+            if (buffer.hasArray() && buffer.arrayOffset() == 0 && buffer.position() == 0 && buffer.limit() == buffer.array().length) {
+                data = buffer.array();
+            } else {
+                data = new double[buffer.remaining()];
+                buffer.duplicate().get(data);
+            }
+            return share(RDataFactory.createDoubleVector(data, RDataFactory.INCOMPLETE_VECTOR));
+        } else if (value instanceof ByteBuffer) {
+            ByteBuffer buffer = (ByteBuffer) value;
+            byte[] data;
+            if (buffer.hasArray() && buffer.arrayOffset() == 0 && buffer.position() == 0 && buffer.limit() == buffer.array().length) {
+                data = buffer.array();
+            } else {
+                data = new byte[buffer.remaining()];
+                buffer.duplicate().get(data);
+            }
+            return share(RDataFactory.createRawVector(data));
+        }
+        return null;
+    }
+}
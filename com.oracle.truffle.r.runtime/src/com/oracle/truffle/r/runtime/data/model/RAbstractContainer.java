@@ -64,6 +64,14 @@ public interface RAbstractContainer extends RAttributable, RTypedValue {
         return null;
     }
 
+    /**
+     * Like {@link #getInternalStore()}, but the store must only be read. Vectors that share their
+     * store with a copy (see {@code RListBase}) do not copy it for such callers.
+     */
+    default Object getInternalStoreForReading() {
+        return getInternalStore();
+    }
+
     RStringVector getNames(RAttributeProfiles attrProfiles);
 
     void setNames(RStringVector newNames);
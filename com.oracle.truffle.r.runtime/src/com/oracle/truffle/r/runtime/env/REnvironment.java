@@ -31,6 +31,7 @@ import com.oracle.truffle.api.frame.Frame;
 import com.oracle.truffle.api.frame.MaterializedFrame;
 import com.oracle.truffle.api.profiles.ValueProfile;
 import com.oracle.truffle.r.runtime.AnonymousFrameVariable;
+import com.oracle.truffle.r.runtime.FastROptions;
 import com.oracle.truffle.r.runtime.RArguments;
 import com.oracle.truffle.r.runtime.RError;
 import com.oracle.truffle.r.runtime.RError.RErrorException;
@@ -50,6 +51,7 @@ import com.oracle.truffle.r.runtime.data.RStringVector;
 import com.oracle.truffle.r.runtime.env.frame.NSBaseMaterializedFrame;
 import com.oracle.truffle.r.runtime.env.frame.REnvEmptyFrameAccess;
 import com.oracle.truffle.r.runtime.env.frame.REnvFrameAccess;
+import com.oracle.truffle.r.runtime.env.frame.REnvHashFrameAccess;
 import com.oracle.truffle.r.runtime.env.frame.REnvTruffleFrameAccess;
 
 /**
@@ -759,7 +761,7 @@ public abstract class REnvironment extends RAttributeStorage {
     }
 
     public REnvironment getParent() {
-        MaterializedFrame enclosingFrame = RArguments.getEnclosingFrame(getFrame());
+        MaterializedFrame enclosingFrame = RArguments.getEnclosingFrame(frameAccess.getArgumentsFrame());
         return enclosingFrame == null ? emptyEnv : frameToEnvironment(enclosingFrame);
     }
 
@@ -769,10 +771,17 @@ public abstract class REnvironment extends RAttributeStorage {
      */
     public void setParent(REnvironment env) {
         if (getParent() != env) {
-            RArguments.setEnclosingFrame(getFrame(), env.getFrame());
+            RArguments.setEnclosingFrame(frameAccess.getArgumentsFrame(), env.getFrame());
         }
     }
 
+    /**
+     * Set the parent of a newly created environment, without moving its bindings into the frame.
+     */
+    public void initializeParent(REnvironment env) {
+        RArguments.initializeEnclosingFrame(frameAccess.getArgumentsFrame(), env.getFrame());
+    }
+
     /**
      * The "simple" name of the environment. This is the value returned by the R
      * {@code environmentName} function.
@@ -1002,9 +1011,11 @@ public abstract class REnvironment extends RAttributeStorage {
     /**
      * An environment explicitly created with, typically, {@code new.env}, but also used internally.
      * Such environments are always {@link #UNNAMED} but can later be given a name as an attribute.
-     * This is the class used by the {@code new.env} function. We record but do not interpret the
-     * {@code hash} input, as we always use a hashmap, for possible use by the serialization code
-     * (GnuR generates different output format for hash environments).
+     * This is the class used by the {@code new.env} function. The {@code hash} input is recorded for
+     * possible use by the serialization code (GnuR generates different output format for hash
+     * environments) and, unless disabled by {@link FastROptions#HashedEnvironments}, selects an
+     * {@link REnvHashFrameAccess} that keeps the bindings out of the frame while the environment is
+     * only used as a map.
      *
      */
     public static final class NewEnv extends REnvironment {
@@ -1018,6 +1029,16 @@ public abstract class REnvironment extends RAttributeStorage {
             }
         }
 
+        public NewEnv(MaterializedFrame frame, String name, boolean hashed, int initialSize) {
+            super(UNNAMED, hashed && FastROptions.HashedEnvironments.getBooleanValue() ? new REnvHashFrameAccess(frame, initialSize) : new REnvTruffleFrameAccess(frame));
+            RArguments.setEnvironment(frame, this);
+            if (name != null) {
+                setAttr(NAME_ATTR_KEY, name);
+            }
+            this.hashed = hashed;
+            this.initialSize = initialSize;
+        }
+
         public boolean isHashed() {
             return hashed;
         }
@@ -77,4 +77,12 @@ public abstract class REnvFrameAccess {
 
     public abstract MaterializedFrame getFrame();
 
+    /**
+     * Return the frame that holds the arguments (enclosing frame, environment) of the environment.
+     * Unlike {@link #getFrame()}, this does not require the bindings to be stored in the frame.
+     */
+    public MaterializedFrame getArgumentsFrame() {
+        return getFrame();
+    }
+
 }
@@ -0,0 +1,323 @@
+/*
+ * Copyright (c) 2016, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.truffle.r.runtime.env.frame;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+import com.oracle.truffle.api.frame.MaterializedFrame;
+import com.oracle.truffle.r.runtime.RError;
+import com.oracle.truffle.r.runtime.RInternalError;
+import com.oracle.truffle.r.runtime.data.RDataFactory;
+import com.oracle.truffle.r.runtime.data.RStringVector;
+import com.oracle.truffle.r.runtime.env.REnvironment;
+import com.oracle.truffle.r.runtime.env.REnvironment.PutException;
+
+/**
+ * Variant of {@link REnvFrameAccess} for environments created with {@code new.env(hash = TRUE)}
+ * that are used as maps, i.e. only through {@code assign}, {@code get}, {@code exists},
+ * {@code rm}, {@code ls}, {@code mget}, {@code $} and {@code [[}. The bindings are kept in an
+ * open-addressing hash table (linear probing, backward-shift deletion), so none of these operations
+ * adds frame slots or invalidates the assumptions of the frame lookup machinery, and removed
+ * bindings really go away.
+ *
+ * The frame itself still exists from the start, since it carries the {@code RArguments} (enclosing
+ * frame and environment). The first time the frame is requested through {@link #getFrame()},
+ * e.g. for {@code eval}, as the enclosing frame of a closure or a child environment, or for
+ * {@code attach}, the bindings are moved into it and all further operations are delegated to an
+ * {@link REnvTruffleFrameAccess}.
+ */
+public final class REnvHashFrameAccess extends REnvFrameAccess {
+
+    private static final int MIN_CAPACITY = 16;
+
+    private final MaterializedFrame frame;
+
+    /**
+     * The table; {@code keys[i] == null} denotes a free slot. The capacity is always a power of two
+     * and at most two thirds of the slots are used.
+     */
+    private String[] keys;
+    private int[] hashes;
+    private Object[] values;
+    private int size;
+
+    /**
+     * Same as {@link REnvTruffleFrameAccess#lockedBindings}.
+     */
+    private Set<String> lockedBindings;
+
+    /**
+     * Non-{@code null} once the bindings have been moved into {@link #frame}.
+     */
+    private REnvTruffleFrameAccess frameAccess;
+
+    public REnvHashFrameAccess(MaterializedFrame frame, int initialSize) {
+        this.frame = frame;
+        int capacity = MIN_CAPACITY;
+        while (capacity < Integer.MAX_VALUE / 4 && capacity * 2 < initialSize * 3) {
+            capacity <<= 1;
+        }
+        allocate(capacity);
+    }
+
+    private void allocate(int capacity) {
+        keys = new String[capacity];
+        hashes = new int[capacity];
+        values = new Object[capacity];
+    }
+
+    private static int hash(String key) {
+        int h = key.hashCode();
+        return h ^ (h >>> 16);
+    }
+
+    private int find(String key, int hash) {
+        int mask = keys.length - 1;
+        int i = hash & mask;
+        while (true) {
+            String k = keys[i];
+            if (k == null) {
+                return -1;
+            } else if (hashes[i] == hash && (k == key || k.equals(key))) {
+                return i;
+            }
+            i = (i + 1) & mask;
+        }
+    }
+
+    private void insert(String key, int hash, Object value) {
+        int mask = keys.length - 1;
+        int i = hash & mask;
+        while (keys[i] != null) {
+            i = (i + 1) & mask;
+        }
+        keys[i] = key;
+        hashes[i] = hash;
+        values[i] = value;
+        size++;
+    }
+
+    private void grow() {
+        String[] oldKeys = keys;
+        int[] oldHashes = hashes;
+        Object[] oldValues = values;
+        allocate(oldKeys.length * 2);
+        size = 0;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != null) {
+                insert(oldKeys[i], oldHashes[i], oldValues[i]);
+            }
+        }
+    }
+
+    /**
+     * Removes the entry at {@code index} and shifts the following entries of the probe sequence
+     * back, so that lookups never need tombstones.
+     */
+    private void delete(int index) {
+        int mask = keys.length - 1;
+        int hole = index;
+        int i = (index + 1) & mask;
+        while (keys[i] != null) {
+            int home = hashes[i] & mask;
+            // move the entry into the hole if the hole lies on its probe path
+            if (((i - home) & mask) >= ((i - hole) & mask)) {
+                keys[hole] = keys[i];
+                hashes[hole] = hashes[i];
+                values[hole] = values[i];
+                hole = i;
+            }
+            i = (i + 1) & mask;
+        }
+        keys[hole] = null;
+        values[hole] = null;
+        size--;
+    }
+
+    @Override
+    public MaterializedFrame getFrame() {
+        if (frameAccess == null) {
+            moveToFrame();
+        }
+        return frame;
+    }
+
+    @Override
+    public MaterializedFrame getArgumentsFrame() {
+        return frame;
+    }
+
+    @TruffleBoundary
+    private void moveToFrame() {
+        REnvTruffleFrameAccess access = new REnvTruffleFrameAccess(frame);
+        try {
+            for (int i = 0; i < keys.length; i++) {
+                if (keys[i] != null) {
+                    access.put(keys[i], values[i]);
+                }
+            }
+        } catch (PutException ex) {
+            throw RInternalError.shouldNotReachHere(ex);
+        }
+        if (lockedBindings != null) {
+            for (String key : lockedBindings) {
+                access.lockBinding(key);
+            }
+        }
+        keys = null;
+        hashes = null;
+        values = null;
+        lockedBindings = null;
+        frameAccess = access;
+    }
+
+    @Override
+    @TruffleBoundary
+    public Object get(String key) {
+        if (frameAccess != null) {
+            return frameAccess.get(key);
+        }
+        int index = find(key, hash(key));
+        return index < 0 ? null : values[index];
+    }
+
+    @Override
+    @TruffleBoundary
+    public void put(String key, Object value) throws PutException {
+        if (frameAccess != null) {
+            frameAccess.put(key, value);
+            return;
+        }
+        assert key != null;
+        if (lockedBindings != null && lockedBindings.contains(key)) {
+            throw new PutException(RError.Message.ENV_CHANGE_BINDING, key);
+        }
+        int hash = hash(key);
+        int index = find(key, hash);
+        if (value == null) {
+            if (index >= 0) {
+                delete(index);
+            }
+        } else if (index >= 0) {
+            values[index] = value;
+        } else {
+            if ((size + 1) * 3 > keys.length * 2) {
+                grow();
+            }
+            insert(key, hash, value);
+        }
+    }
+
+    @Override
+    @TruffleBoundary
+    public void rm(String key) throws PutException {
+        if (frameAccess != null) {
+            frameAccess.rm(key);
+            return;
+        }
+        assert key != null;
+        if (lockedBindings != null) {
+            lockedBindings.remove(key);
+        }
+        int index = find(key, hash(key));
+        if (index < 0) {
+            throw new PutException(RError.Message.UNKNOWN_OBJECT, key);
+        }
+        delete(index);
+    }
+
+    @Override
+    @TruffleBoundary
+    public RStringVector ls(boolean allNames, Pattern pattern, boolean sorted) {
+        if (frameAccess != null) {
+            return frameAccess.ls(allNames, pattern, sorted);
+        }
+        String[] data = new String[size];
+        int count = 0;
+        for (int i = 0; i < keys.length; i++) {
+            String name = keys[i];
+            if (name != null && REnvironment.includeName(name, allNames, pattern)) {
+                data[count++] = name;
+            }
+        }
+        if (count != data.length) {
+            data = Arrays.copyOf(data, count);
+        }
+        if (sorted) {
+            Arrays.sort(data);
+        }
+        return RDataFactory.createStringVector(data, RDataFactory.COMPLETE_VECTOR);
+    }
+
+    @Override
+    @TruffleBoundary
+    public boolean bindingIsLocked(String key) {
+        if (frameAccess != null) {
+            return frameAccess.bindingIsLocked(key);
+        }
+        return lockedBindings != null && lockedBindings.contains(key);
+    }
+
+    @Override
+    @TruffleBoundary
+    public void lockBindings() {
+        if (frameAccess != null) {
+            frameAccess.lockBindings();
+            return;
+        }
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != null) {
+                lockBinding(keys[i]);
+            }
+        }
+    }
+
+    @Override
+    @TruffleBoundary
+    public void lockBinding(String key) {
+        if (frameAccess != null) {
+            frameAccess.lockBinding(key);
+            return;
+        }
+        if (lockedBindings == null) {
+            lockedBindings = new HashSet<>();
+        }
+        lockedBindings.add(key);
+    }
+
+    @Override
+    @TruffleBoundary
+    public void unlockBinding(String key) {
+        if (frameAccess != null) {
+            frameAccess.unlockBinding(key);
+            return;
+        }
+        if (lockedBindings != null) {
+            lockedBindings.remove(key);
+        }
+    }
+}
@@ -82,4 +82,10 @@ public interface LapackRFFI {
      * See <a href="http://www.netlib.org/lapack/explore-html/db/de4/dgecon_8f.html">spec</a>.
      */
     int dgecon(char norm, int n, double[] a, int lda, double anorm, double[] rcond, double[] work, int[] iwork);
+
+    /**
+     * See <a href="http://www.netlib.org/lapack/explore-html/d7/d2b/dgemm_8f.html">spec</a>. This
+     * is a BLAS (not Lapack) routine, but it comes from the same native library.
+     */
+    void dgemm(char transA, char transB, int m, int n, int k, double alpha, double[] a, int lda, double[] b, int ldb, double beta, double[] c, int ldc);
 }
@@ -38,6 +38,8 @@ import com.oracle.truffle.r.runtime.data.RPromise;
 import com.oracle.truffle.r.runtime.data.RPromise.EagerPromise;
 import com.oracle.truffle.r.runtime.data.RRaw;
 import com.oracle.truffle.r.runtime.data.RRawVector;
+import com.oracle.truffle.r.runtime.data.RRepeatedDoubleVector;
+import com.oracle.truffle.r.runtime.data.RRepeatedIntVector;
 import com.oracle.truffle.r.runtime.data.RS4Object;
 import com.oracle.truffle.r.runtime.data.RStringVector;
 import com.oracle.truffle.r.runtime.data.RSymbol;
@@ -71,8 +73,8 @@ public enum SEXPTYPE {
     BUILTINSXP(8), /* builtin non-special forms */
     CHARSXP(9), /* "scalar" string type (GnuR internal only) */
     LGLSXP(10, RLogicalVector.class), /* logical vectors */
-    INTSXP(13, RIntVector.class, RIntSequence.class), /* integer vectors */
-    REALSXP(14, RDoubleVector.class, RDoubleSequence.class), /* real variables */
+    INTSXP(13, RIntVector.class, RIntSequence.class, RRepeatedIntVector.class), /* integer vectors */
+    REALSXP(14, RDoubleVector.class, RDoubleSequence.class, RRepeatedDoubleVector.class), /* real variables */
     CPLXSXP(15, RComplexVector.class), /* complex variables */
     STRSXP(16, RStringVector.class, String.class), /* string vectors */
     DOTSXP(17, RArgsValuesAndNames.class), /* dot-dot-dot object */
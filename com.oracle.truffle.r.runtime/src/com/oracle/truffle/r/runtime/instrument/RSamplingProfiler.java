@@ -0,0 +1,384 @@
+/*
+ * Copyright (c) 2016, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.truffle.r.runtime.instrument;
+
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import com.oracle.truffle.api.CompilerDirectives;
+import com.oracle.truffle.api.CompilerDirectives.CompilationFinal;
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+import com.oracle.truffle.api.frame.FrameInstance.FrameAccess;
+import com.oracle.truffle.api.nodes.Node;
+import com.oracle.truffle.api.nodes.RootNode;
+import com.oracle.truffle.api.source.SourceSection;
+import com.oracle.truffle.api.utilities.CyclicAssumption;
+import com.oracle.truffle.r.runtime.RArguments;
+import com.oracle.truffle.r.runtime.RCaller;
+import com.oracle.truffle.r.runtime.RSource;
+import com.oracle.truffle.r.runtime.Utils;
+import com.oracle.truffle.r.runtime.nodes.RSyntaxCall;
+import com.oracle.truffle.r.runtime.nodes.RSyntaxElement;
+import com.oracle.truffle.r.runtime.nodes.RSyntaxFunction;
+import com.oracle.truffle.r.runtime.nodes.RSyntaxLookup;
+import com.oracle.truffle.r.runtime.nodes.RSyntaxNode;
+
+/**
+ * A sampling profiler for R call stacks, used by {@code Rprof} and {@code .fastr.prof.sample}.
+ *
+ * A timer thread per profiler marks a sample as due every interval. The R code itself is not
+ * instrumented: function entries and loop iterations {@link #poll(Node) poll} a single static flag,
+ * and the thread that started the profiler takes the sample at the next poll by walking its R
+ * frames. While no profiler is running, the poll is guarded by an assumption and compiles to
+ * nothing. As with any safepoint-based sampler, time spent in a long-running builtin is attributed
+ * to the next poll, i.e. to the function that called the builtin. With line profiling, the callers
+ * are reported at the line of their call, and the innermost function at the line of the statement
+ * that is about to run at the poll, i.e. the first statement of the function or loop body.
+ *
+ * Samples are not kept in memory: in the {@link Format#RPROF} format each sample is written as
+ * soon as it is taken, in the {@link Format#COLLAPSED} (flame graph) format the samples are
+ * aggregated into a call tree, which is only as large as the number of distinct stacks, and written
+ * when the profiler is {@link #stop() stopped}.
+ */
+public final class RSamplingProfiler {
+
+    public enum Format {
+        /**
+         * One line of quoted function names per sample, innermost first, as written by GnuR.
+         */
+        RPROF,
+        /**
+         * One line {@code outer;...;inner count} per distinct stack, as read by flame graph tools.
+         */
+        COLLAPSED;
+
+        public static Format fromName(String name) {
+            for (Format format : values()) {
+                if (format.name().equalsIgnoreCase(name)) {
+                    return format;
+                }
+            }
+            return null;
+        }
+    }
+
+    /**
+     * The memory allocated and copied between two samples, see {@code Rprof(memory.profiling =
+     * TRUE)}.
+     */
+    public static final class MemoryCounters {
+        public long smallV;
+        public long largeV;
+        public long nodes;
+        public long copied;
+    }
+
+    /**
+     * Set whenever any profiler has a sample due, this is the only state read by {@link #poll}.
+     */
+    private static volatile boolean sampleRequested;
+
+    /**
+     * Whether any profiler is running, folded into compiled code under
+     * {@link #activeUnchangedAssumption}.
+     */
+    @CompilationFinal private static boolean anyActive;
+    private static final CyclicAssumption activeUnchangedAssumption = new CyclicAssumption("sampling profiler active");
+
+    private static final List<RSamplingProfiler> active = new CopyOnWriteArrayList<>();
+
+    private final Thread owner;
+    private final PrintStream out;
+    private final Format format;
+    private final long intervalMillis;
+    private final boolean lineProfiling;
+    private final MemoryCounters memory;
+    private final Timer timer;
+
+    private final Map<String, Integer> files = new HashMap<>();
+    private final CallTreeNode callTree = new CallTreeNode(null);
+
+    private volatile boolean due;
+    private long samples;
+
+    private RSamplingProfiler(PrintStream out, Format format, long intervalMillis, boolean lineProfiling, boolean memoryProfiling) {
+        this.owner = Thread.currentThread();
+        this.out = out;
+        this.format = format;
+        this.intervalMillis = Math.max(1, intervalMillis);
+        this.lineProfiling = lineProfiling;
+        this.memory = memoryProfiling ? new MemoryCounters() : null;
+        this.timer = new Timer();
+    }
+
+    /**
+     * Starts sampling the R frames of the current thread every {@code intervalMillis} into
+     * {@code out}, which is closed by {@link #stop()}.
+     */
+    public static RSamplingProfiler start(PrintStream out, Format format, long intervalMillis, boolean lineProfiling, boolean memoryProfiling) {
+        RSamplingProfiler profiler = new RSamplingProfiler(out, format, intervalMillis, lineProfiling, memoryProfiling);
+        if (format == Format.RPROF) {
+            if (memoryProfiling) {
+                out.print("memory profiling: ");
+            }
+            if (lineProfiling) {
+                out.print("line profiling: ");
+            }
+            out.printf("sample.interval=%d\n", profiler.intervalMillis * 1000);
+        }
+        active.add(profiler);
+        updateActive();
+        profiler.timer.start();
+        return profiler;
+    }
+
+    private static synchronized void updateActive() {
+        boolean newState = !active.isEmpty();
+        if (anyActive != newState) {
+            anyActive = newState;
+            activeUnchangedAssumption.invalidate();
+        }
+    }
+
+    /**
+     * Stops sampling, writes the call tree if the format requires it and closes the output.
+     */
+    public void stop() {
+        timer.running = false;
+        timer.interrupt();
+        active.remove(this);
+        updateActive();
+        if (format == Format.COLLAPSED) {
+            writeCollapsed(callTree, new StringBuilder());
+        }
+        out.close();
+    }
+
+    /**
+     * The counters to be updated by the memory allocation listeners, or {@code null} if memory
+     * profiling is not enabled.
+     */
+    public MemoryCounters getMemory() {
+        return memory;
+    }
+
+    public long getSampleCount() {
+        return samples;
+    }
+
+    /**
+     * Takes a sample if one is due; {@code location} is the function or loop that is being
+     * executed.
+     */
+    public static void poll(Node location) {
+        if (!activeUnchangedAssumption.getAssumption().isValid()) {
+            CompilerDirectives.transferToInterpreterAndInvalidate();
+        }
+        if (anyActive && CompilerDirectives.injectBranchProbability(CompilerDirectives.SLOWPATH_PROBABILITY, sampleRequested)) {
+            sample(location);
+        }
+    }
+
+    @TruffleBoundary
+    private static void sample(Node location) {
+        Thread current = Thread.currentThread();
+        boolean pending = false;
+        for (RSamplingProfiler profiler : active) {
+            if (profiler.due && profiler.owner == current) {
+                profiler.due = false;
+                profiler.takeSample(location);
+            }
+            pending |= profiler.due;
+        }
+        sampleRequested = pending;
+    }
+
+    private void takeSample(Node location) {
+        ArrayList<String> stack = new ArrayList<>();
+        addEntry(stack, location.getRootNode(), lineProfiling ? getNextStatement(location) : null);
+        Utils.iterateRFrames(FrameAccess.READ_ONLY, f -> {
+            RCaller call = RArguments.getCall(f);
+            if (call != null && call.isValidCaller()) {
+                while (call.isPromise()) {
+                    call = call.getParent();
+                }
+                RSyntaxNode syntaxNode = call.getSyntaxNode();
+                addEntry(stack, syntaxNode.asRNode().getRootNode(), syntaxNode.getSourceSection());
+            }
+            return null;
+        });
+        samples++;
+        if (format == Format.RPROF) {
+            if (memory != null) {
+                out.printf(":%d:%d:%d:%d:", memory.largeV, memory.smallV, memory.nodes, memory.copied);
+            }
+            for (String entry : stack) {
+                out.print(entry);
+                out.print(' ');
+            }
+            out.println();
+        } else {
+            CallTreeNode node = callTree;
+            for (int i = stack.size() - 1; i >= 0; i--) {
+                node = node.child(stack.get(i));
+            }
+            node.count++;
+        }
+        if (memory != null) {
+            memory.smallV = 0;
+            memory.largeV = 0;
+            memory.nodes = 0;
+            memory.copied = 0;
+        }
+    }
+
+    /**
+     * The source section of the statement that runs next at a poll in {@code location}, i.e. the
+     * first statement of the body of a function or loop.
+     */
+    private static SourceSection getNextStatement(Node location) {
+        RSyntaxElement element = null;
+        if (location instanceof RSyntaxFunction) {
+            element = ((RSyntaxFunction) location).getSyntaxBody();
+        } else if (location instanceof RSyntaxCall) {
+            // the body is the last argument of for, while and repeat
+            RSyntaxElement[] arguments = ((RSyntaxCall) location).getSyntaxArguments();
+            element = arguments.length == 0 ? null : arguments[arguments.length - 1];
+        }
+        while (element instanceof RSyntaxCall && isBlock((RSyntaxCall) element)) {
+            RSyntaxElement[] statements = ((RSyntaxCall) element).getSyntaxArguments();
+            if (statements.length == 0 || statements[0] == null || statements[0].getSourceSection() == null) {
+                break;
+            }
+            element = statements[0];
+        }
+        SourceSection section = element == null ? null : element.getSourceSection();
+        return section == null ? location.getSourceSection() : section;
+    }
+
+    private static boolean isBlock(RSyntaxCall call) {
+        RSyntaxElement lhs = call.getSyntaxLHS();
+        return lhs instanceof RSyntaxLookup && "{".equals(((RSyntaxLookup) lhs).getIdentifier());
+    }
+
+    /**
+     * Adds the function {@code rootNode}, currently executing at {@code section}, to the stack.
+     */
+    private void addEntry(ArrayList<String> stack, RootNode rootNode, SourceSection section) {
+        if (!(rootNode instanceof RSyntaxFunction)) {
+            return;
+        }
+        String name = rootNode.getName();
+        String line = null;
+        if (lineProfiling && section != null) {
+            String path = RSource.getPath(section.getSource());
+            if (path != null) {
+                if (format == Format.RPROF) {
+                    Integer index = files.get(path);
+                    if (index == null) {
+                        index = files.size() + 1;
+                        files.put(path, index);
+                        out.printf("#File %d: %s\n", index, path);
+                    }
+                    line = index + "#" + section.getStartLine();
+                } else {
+                    line = path + ":" + section.getStartLine();
+                }
+            }
+        }
+        if (format == Format.RPROF) {
+            stack.add(line == null ? "\"" + name + "\"" : line + " \"" + name + "\"");
+        } else {
+            stack.add(line == null ? name : name + " (" + line + ")");
+        }
+    }
+
+    private void writeCollapsed(CallTreeNode node, StringBuilder path) {
+        int length = path.length();
+        if (node.label != null) {
+            if (length > 0) {
+                path.append(';');
+            }
+            path.append(node.label);
+            if (node.count > 0) {
+                out.print(path);
+                out.print(' ');
+                out.println(node.count);
+            }
+        }
+        if (node.children != null) {
+            for (CallTreeNode child : node.children.values()) {
+                writeCollapsed(child, path);
+            }
+        }
+        path.setLength(length);
+    }
+
+    private static final class CallTreeNode {
+        private final String label;
+        private Map<String, CallTreeNode> children;
+        private long count;
+
+        CallTreeNode(String label) {
+            this.label = label;
+        }
+
+        CallTreeNode child(String childLabel) {
+            if (children == null) {
+                children = new HashMap<>();
+            }
+            CallTreeNode child = children.get(childLabel);
+            if (child == null) {
+                child = new CallTreeNode(childLabel);
+                children.put(childLabel, child);
+            }
+            return child;
+        }
+    }
+
+    private final class Timer extends Thread {
+        private volatile boolean running = true;
+
+        Timer() {
+            setDaemon(true);
+            setName("r-sampling-profiler");
+        }
+
+        @Override
+        public void run() {
+            while (running) {
+                try {
+                    Thread.sleep(intervalMillis);
+                } catch (InterruptedException e) {
+                    continue;
+                }
+                due = true;
+                sampleRequested = true;
+            }
+        }
+    }
+}
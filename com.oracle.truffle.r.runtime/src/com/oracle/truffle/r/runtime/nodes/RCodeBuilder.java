@@ -30,6 +30,7 @@ import java.util.List;
 import com.oracle.truffle.api.RootCallTarget;
 import com.oracle.truffle.api.source.SourceSection;
 import com.oracle.truffle.r.runtime.ArgumentsSignature;
+import com.oracle.truffle.r.runtime.RError;
 
 /**
  * Implementers of this interface can be used to generate a representation of an R closure.
@@ -93,6 +94,14 @@ public interface RCodeBuilder<T> {
      */
     T function(SourceSection source, List<Argument<T>> arguments, T body, Object assignedTo);
 
+    /**
+     * Reports a warning of the parser, e.g. about an integer literal with a decimal point. Builders
+     * that record the parse for later replay have to record the warning as well.
+     */
+    default void warning(RError.Message message, Object... args) {
+        RError.warning(RError.NO_CALLER, message, args);
+    }
+
     /**
      * Creates a new call target from a given function expression literal.
      */
@@ -0,0 +1,220 @@
+/*
+ * Copyright (c) 2016, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.truffle.r.runtime.ops;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+import com.oracle.truffle.r.runtime.RInternalError;
+import com.oracle.truffle.r.runtime.RParallel;
+import com.oracle.truffle.r.runtime.RRuntime;
+import com.oracle.truffle.r.runtime.Utils;
+
+/**
+ * Checksums of files and byte arrays for {@code tools::md5sum}, {@code utils:::crc64} and
+ * {@code .fastr.checksum}.
+ *
+ * Files are read through a {@link FileChannel} in chunks of {@link #CHUNK_SIZE} bytes, so the
+ * memory needed does not depend on the size of the files. Several files are hashed in parallel on
+ * the {@link RParallel} pool (each task hashes a contiguous range of the files with its own buffer),
+ * and the results are stored by index, i.e. they are in the order of the input.
+ */
+public final class Checksums {
+
+    private static final int CHUNK_SIZE = 1 << 20;
+
+    public enum Algorithm {
+        MD5("md5"),
+        SHA256("sha256"),
+        CRC32C("crc32c"),
+        /**
+         * The CRC-64 of xz (ECMA-182 polynomial), formatted without leading zeros like GnuR does.
+         */
+        CRC64("crc64");
+
+        public final String name;
+
+        Algorithm(String name) {
+            this.name = name;
+        }
+
+        public static Algorithm fromName(String name) {
+            for (Algorithm algorithm : values()) {
+                if (algorithm.name.equals(name)) {
+                    return algorithm;
+                }
+            }
+            return null;
+        }
+    }
+
+    private Checksums() {
+        // no instances
+    }
+
+    private abstract static class Hasher {
+        abstract void update(byte[] data, int offset, int length);
+
+        abstract String finish();
+    }
+
+    private static final class DigestHasher extends Hasher {
+        private final MessageDigest digest;
+
+        DigestHasher(String name) {
+            try {
+                digest = MessageDigest.getInstance(name);
+            } catch (NoSuchAlgorithmException ex) {
+                throw RInternalError.shouldNotReachHere(ex);
+            }
+        }
+
+        @Override
+        void update(byte[] data, int offset, int length) {
+            digest.update(data, offset, length);
+        }
+
+        @Override
+        String finish() {
+            return Utils.toHexString(digest.digest());
+        }
+    }
+
+    private static final int[] CRC32C_TABLE = new int[256];
+    private static final long[] CRC64_TABLE = new long[256];
+
+    static {
+        for (int i = 0; i < 256; i++) {
+            int c = i;
+            long l = i;
+            for (int k = 0; k < 8; k++) {
+                c = (c & 1) != 0 ? (c >>> 1) ^ 0x82F63B78 : c >>> 1;
+                l = (l & 1) != 0 ? (l >>> 1) ^ 0xC96C5795D7870F42L : l >>> 1;
+            }
+            CRC32C_TABLE[i] = c;
+            CRC64_TABLE[i] = l;
+        }
+    }
+
+    private static final class Crc32cHasher extends Hasher {
+        private int crc = ~0;
+
+        @Override
+        void update(byte[] data, int offset, int length) {
+            int c = crc;
+            for (int i = offset; i < offset + length; i++) {
+                c = CRC32C_TABLE[(c ^ data[i]) & 0xFF] ^ (c >>> 8);
+            }
+            crc = c;
+        }
+
+        @Override
+        String finish() {
+            return String.format("%08x", ~crc);
+        }
+    }
+
+    private static final class Crc64Hasher extends Hasher {
+        private long crc = ~0L;
+
+        @Override
+        void update(byte[] data, int offset, int length) {
+            long c = crc;
+            for (int i = offset; i < offset + length; i++) {
+                c = CRC64_TABLE[(int) (c ^ data[i]) & 0xFF] ^ (c >>> 8);
+            }
+            crc = c;
+        }
+
+        @Override
+        String finish() {
+            return Long.toHexString(~crc);
+        }
+    }
+
+    private static Hasher createHasher(Algorithm algorithm) {
+        switch (algorithm) {
+            case MD5:
+                return new DigestHasher("MD5");
+            case SHA256:
+                return new DigestHasher("SHA-256");
+            case CRC32C:
+                return new Crc32cHasher();
+            case CRC64:
+                return new Crc64Hasher();
+            default:
+                throw RInternalError.shouldNotReachHere();
+        }
+    }
+
+    /**
+     * The checksum of {@code data} as a lower-case hex string.
+     */
+    @TruffleBoundary
+    public static String hash(byte[] data, Algorithm algorithm) {
+        Hasher hasher = createHasher(algorithm);
+        hasher.update(data, 0, data.length);
+        return hasher.finish();
+    }
+
+    /**
+     * The checksums of the given files, {@link RRuntime#STRING_NA} for files that cannot be read
+     * (including directories and {@code NA} paths).
+     */
+    @TruffleBoundary
+    public static String[] hashFiles(String[] paths, Algorithm algorithm) {
+        String[] result = new String[paths.length];
+        RParallel.forEachChunk(0, paths.length, RParallel.grainSize(paths.length, 1), (from, to) -> {
+            ByteBuffer buffer = ByteBuffer.allocate(CHUNK_SIZE);
+            for (int i = from; i < to; i++) {
+                result[i] = RRuntime.isNA(paths[i]) ? RRuntime.STRING_NA : hashFile(paths[i], algorithm, buffer);
+            }
+        });
+        return result;
+    }
+
+    private static String hashFile(String path, Algorithm algorithm, ByteBuffer buffer) {
+        Hasher hasher = createHasher(algorithm);
+        try (FileChannel channel = FileChannel.open(Paths.get(path), StandardOpenOption.READ)) {
+            while (true) {
+                buffer.clear();
+                int read = channel.read(buffer);
+                if (read < 0) {
+                    break;
+                }
+                hasher.update(buffer.array(), 0, buffer.position());
+            }
+        } catch (IOException | InvalidPathException ex) {
+            // non-existent, unreadable or a directory (or an invalid path)
+            return RRuntime.STRING_NA;
+        }
+        return hasher.finish();
+    }
+}
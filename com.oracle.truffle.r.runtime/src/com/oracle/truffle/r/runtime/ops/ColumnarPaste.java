@@ -0,0 +1,178 @@
+/*
+ * Copyright (c) 2016, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.truffle.r.runtime.ops;
+
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+import com.oracle.truffle.r.runtime.FastROptions;
+import com.oracle.truffle.r.runtime.RParallel;
+import com.oracle.truffle.r.runtime.RRuntime;
+
+/**
+ * The string building kernel of {@code paste}: concatenates the recycled elements of a number of
+ * columns, separated by {@code sep}, into one result string per row. A column is either a
+ * {@code String[]} or an {@code int[]}; integer columns are formatted as by {@code as.character}
+ * directly into the output, without creating an intermediate string per element.
+ *
+ * Rows are processed in blocks: the lengths of all strings of a block are computed first, the
+ * characters are then written into a single buffer that is reused for all blocks of a chunk, and
+ * the result strings are cut out of it. Recycling is done with one cursor per column, so there is
+ * no modulo per element. Results with at least {@link FastROptions#PasteParallelThreshold} rows
+ * are split into chunks on the {@link RParallel} pool.
+ */
+public final class ColumnarPaste {
+
+    private static final int BLOCK_SIZE = 1024;
+    private static final int MIN_GRAIN = 16 * BLOCK_SIZE;
+
+    private ColumnarPaste() {
+        // no instances
+    }
+
+    /**
+     * Pastes {@code columns} into {@code rows} strings; the columns must not be empty.
+     */
+    @TruffleBoundary
+    public static String[] paste(Object[] columns, String sep, int rows) {
+        for (Object column : columns) {
+            assert column instanceof String[] || column instanceof int[];
+            assert columnLength(column) > 0;
+        }
+        String[] result = new String[rows];
+        if (rows >= FastROptions.PasteParallelThreshold.getNonNegativeIntValue() && RParallel.isEnabled()) {
+            RParallel.forEachChunk(0, rows, RParallel.grainSize(rows, MIN_GRAIN), (from, to) -> pasteRange(columns, sep, result, from, to));
+        } else {
+            pasteRange(columns, sep, result, 0, rows);
+        }
+        return result;
+    }
+
+    private static int columnLength(Object column) {
+        return column instanceof String[] ? ((String[]) column).length : ((int[]) column).length;
+    }
+
+    private static void pasteRange(Object[] columns, String sep, String[] result, int from, int to) {
+        int[] cursors = new int[columns.length];
+        int[] lengths = new int[Math.min(BLOCK_SIZE, to - from)];
+        char[] buffer = new char[64];
+        for (int blockStart = from; blockStart < to; blockStart += BLOCK_SIZE) {
+            int blockEnd = Math.min(to, blockStart + BLOCK_SIZE);
+            // first pass: the length of each string of the block
+            setCursors(columns, cursors, blockStart);
+            int total = 0;
+            for (int i = blockStart; i < blockEnd; i++) {
+                int length = sep.length() * (columns.length - 1);
+                for (int c = 0; c < columns.length; c++) {
+                    Object column = columns[c];
+                    int cursor = cursors[c];
+                    if (column instanceof String[]) {
+                        String[] strings = (String[]) column;
+                        length += strings[cursor].length();
+                        cursors[c] = cursor + 1 == strings.length ? 0 : cursor + 1;
+                    } else {
+                        int[] ints = (int[]) column;
+                        length += intLength(ints[cursor]);
+                        cursors[c] = cursor + 1 == ints.length ? 0 : cursor + 1;
+                    }
+                }
+                lengths[i - blockStart] = length;
+                total += length;
+            }
+            if (buffer.length < total) {
+                buffer = new char[Math.max(total, buffer.length * 2)];
+            }
+            // second pass: write the characters and cut out the strings
+            setCursors(columns, cursors, blockStart);
+            int pos = 0;
+            for (int i = blockStart; i < blockEnd; i++) {
+                int start = pos;
+                for (int c = 0; c < columns.length; c++) {
+                    if (c != 0) {
+                        sep.getChars(0, sep.length(), buffer, pos);
+                        pos += sep.length();
+                    }
+                    Object column = columns[c];
+                    int cursor = cursors[c];
+                    if (column instanceof String[]) {
+                        String[] strings = (String[]) column;
+                        String element = strings[cursor];
+                        element.getChars(0, element.length(), buffer, pos);
+                        pos += element.length();
+                        cursors[c] = cursor + 1 == strings.length ? 0 : cursor + 1;
+                    } else {
+                        int[] ints = (int[]) column;
+                        pos = writeInt(ints[cursor], buffer, pos);
+                        cursors[c] = cursor + 1 == ints.length ? 0 : cursor + 1;
+                    }
+                }
+                assert pos - start == lengths[i - blockStart];
+                result[i] = new String(buffer, start, pos - start);
+            }
+        }
+    }
+
+    private static void setCursors(Object[] columns, int[] cursors, int row) {
+        for (int c = 0; c < columns.length; c++) {
+            cursors[c] = row % columnLength(columns[c]);
+        }
+    }
+
+    /**
+     * The number of characters of {@link RRuntime#intToString(int)}.
+     */
+    static int intLength(int value) {
+        if (RRuntime.isNA(value)) {
+            return RRuntime.STRING_NA.length();
+        }
+        int length = value < 0 ? 2 : 1;
+        // NA is Integer.MIN_VALUE, so the negation cannot overflow
+        int v = Math.abs(value);
+        while (v >= 10) {
+            v /= 10;
+            length++;
+        }
+        return length;
+    }
+
+    /**
+     * Writes {@link RRuntime#intToString(int)} into {@code buffer} at {@code pos} and returns the
+     * position after the last character.
+     */
+    static int writeInt(int value, char[] buffer, int pos) {
+        if (RRuntime.isNA(value)) {
+            RRuntime.STRING_NA.getChars(0, RRuntime.STRING_NA.length(), buffer, pos);
+            return pos + RRuntime.STRING_NA.length();
+        }
+        int end = pos + intLength(value);
+        int v = Math.abs(value);
+        int i = end;
+        do {
+            buffer[--i] = (char) ('0' + v % 10);
+            v /= 10;
+        } while (v != 0);
+        if (value < 0) {
+            buffer[--i] = '-';
+        }
+        assert i == pos;
+        return end;
+    }
+}
@@ -0,0 +1,834 @@
+/*
+ * Copyright (c) 2016, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.truffle.r.runtime.ops;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.zone.ZoneOffsetTransition;
+import java.time.zone.ZoneRules;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+import com.oracle.truffle.r.runtime.RParallel;
+import com.oracle.truffle.r.runtime.RRuntime;
+
+/**
+ * Date-time kernels for {@code strptime}, {@code format.POSIXlt}, {@code as.POSIXlt} and
+ * {@code as.POSIXct} that work on the broken-down fields and on epoch seconds directly, i.e. without
+ * creating {@code java.time} objects per element.
+ *
+ * Formats are compiled once into a {@link Plan} (and cached by their text). Only the numeric
+ * conversions ({@code %Y %m %d %H %M %S %OS %F %T %R}, and {@code %z} on input) are supported, which
+ * covers the common fixed layouts such as {@code "%Y-%m-%d %H:%M:%S"} and ISO 8601; for other
+ * formats {@link Plan#get} returns {@code null} and the callers use {@code java.time} formatters.
+ * The offsets of a time zone are looked up in a {@link ZoneTable}, which is also cached per zone.
+ * Long vectors are processed in parallel chunks on the {@link RParallel} pool.
+ *
+ * The weekday and day of year are computed with the same conventions as the {@code java.time}
+ * based code, i.e. as {@code DayOfWeek.ordinal()} and {@code getDayOfYear()}.
+ */
+public final class DateTimes {
+
+    public static final int SECONDS_PER_DAY = 86400;
+
+    private static final int MIN_GRAIN = 4096;
+
+    private static final int[] POWERS_OF_TEN = {1, 10, 100, 1000, 10000, 100000, 1000000};
+
+    private DateTimes() {
+        // no instances
+    }
+
+    /**
+     * The broken-down time of a {@code POSIXlt} object, field by field.
+     */
+    public static class Fields {
+        public final double[] sec;
+        public final int[] min;
+        public final int[] hour;
+        public final int[] mday;
+        public final int[] mon;
+        public final int[] year;
+        public final int[] wday;
+        public final int[] yday;
+        public final int[] isdst;
+
+        public Fields(int length) {
+            this(new double[length], new int[length], new int[length], new int[length], new int[length], new int[length], new int[length], new int[length], new int[length]);
+        }
+
+        public Fields(double[] sec, int[] min, int[] hour, int[] mday, int[] mon, int[] year, int[] wday, int[] yday, int[] isdst) {
+            this.sec = sec;
+            this.min = min;
+            this.hour = hour;
+            this.mday = mday;
+            this.mon = mon;
+            this.year = year;
+            this.wday = wday;
+            this.yday = yday;
+            this.isdst = isdst;
+        }
+
+        public final void setNA(int index) {
+            sec[index] = RRuntime.DOUBLE_NA;
+            min[index] = RRuntime.INT_NA;
+            hour[index] = RRuntime.INT_NA;
+            mday[index] = RRuntime.INT_NA;
+            mon[index] = RRuntime.INT_NA;
+            year[index] = RRuntime.INT_NA;
+            wday[index] = RRuntime.INT_NA;
+            yday[index] = RRuntime.INT_NA;
+            isdst[index] = -1;
+        }
+
+        /**
+         * Sets the entry from seconds since the epoch in local time ({@code sec} gets
+         * {@code fraction} added).
+         */
+        public final void setLocal(int index, long localSecond, double fraction) {
+            long days = Math.floorDiv(localSecond, SECONDS_PER_DAY);
+            int secondOfDay = (int) Math.floorMod(localSecond, SECONDS_PER_DAY);
+            setDate(index, days);
+            hour[index] = secondOfDay / 3600;
+            min[index] = (secondOfDay / 60) % 60;
+            sec[index] = secondOfDay % 60 + fraction;
+        }
+
+        public final void setDate(int index, long days) {
+            long civil = civilFromDays(days);
+            int y = civilYear(civil);
+            int m = civilMonth(civil);
+            int d = civilDay(civil);
+            year[index] = y - 1900;
+            mon[index] = m - 1;
+            mday[index] = d;
+            wday[index] = dayOfWeek(days);
+            yday[index] = dayOfYear(y, m, d);
+            isdst[index] = 0;
+            hour[index] = 0;
+            min[index] = 0;
+            sec[index] = 0;
+        }
+
+        public final int getLength() {
+            return sec.length;
+        }
+
+        public final boolean isComplete() {
+            for (int value : year) {
+                if (RRuntime.isNA(value)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    // civil calendar arithmetic, see http://howardhinnant.github.io/date_algorithms.html
+
+    /**
+     * The number of days since 1970-01-01 of the given date in the proleptic Gregorian calendar
+     * ({@code month} from 1 to 12).
+     */
+    public static long daysFromCivil(long year, int month, int day) {
+        long y = month <= 2 ? year - 1 : year;
+        long era = Math.floorDiv(y, 400);
+        long yoe = y - era * 400;
+        long doy = (153 * (month + (month > 2 ? -3 : 9)) + 2) / 5 + day - 1;
+        long doe = yoe * 365 + yoe / 4 - yoe / 100 + doy;
+        return era * 146097 + doe - 719468;
+    }
+
+    /**
+     * The inverse of {@link #daysFromCivil}, the result is packed and can be unpacked with
+     * {@link #civilYear}, {@link #civilMonth} and {@link #civilDay}.
+     */
+    public static long civilFromDays(long days) {
+        long z = days + 719468;
+        long era = Math.floorDiv(z, 146097);
+        long doe = z - era * 146097;
+        long yoe = (doe - doe / 1460 + doe / 36524 - doe / 146096) / 365;
+        long doy = doe - (365 * yoe + yoe / 4 - yoe / 100);
+        long mp = (5 * doy + 2) / 153;
+        long d = doy - (153 * mp + 2) / 5 + 1;
+        long m = mp < 10 ? mp + 3 : mp - 9;
+        long y = yoe + era * 400 + (m <= 2 ? 1 : 0);
+        return (y << 9) | (m << 5) | d;
+    }
+
+    public static int civilYear(long civil) {
+        return (int) (civil >> 9);
+    }
+
+    public static int civilMonth(long civil) {
+        return (int) ((civil >> 5) & 0xF);
+    }
+
+    public static int civilDay(long civil) {
+        return (int) (civil & 0x1F);
+    }
+
+    public static boolean isLeapYear(long year) {
+        return (year & 3) == 0 && (year % 100 != 0 || year % 400 == 0);
+    }
+
+    public static int daysInMonth(long year, int month) {
+        switch (month) {
+            case 2:
+                return isLeapYear(year) ? 29 : 28;
+            case 4:
+            case 6:
+            case 9:
+            case 11:
+                return 30;
+            default:
+                return 31;
+        }
+    }
+
+    /**
+     * The day of the year, starting at 1.
+     */
+    public static int dayOfYear(long year, int month, int day) {
+        return (int) (daysFromCivil(year, month, day) - daysFromCivil(year, 1, 1)) + 1;
+    }
+
+    /**
+     * The day of the week, Monday being 0.
+     */
+    public static int dayOfWeek(long days) {
+        // 1970-01-01 was a Thursday
+        return (int) Math.floorMod(days + 3, 7);
+    }
+
+    /**
+     * The offsets of a time zone from 1900 to 2100 as a table of the transitions, so that looking
+     * up an offset is a binary search without allocation. Outside of that range, the
+     * {@link ZoneRules} are used.
+     */
+    public static final class ZoneTable {
+
+        private static final ConcurrentHashMap<ZoneId, ZoneTable> cache = new ConcurrentHashMap<>();
+
+        private static final long TABLE_START = -2208988800L; // 1900-01-01T00:00:00Z
+        private static final long TABLE_END = 4102444800L; // 2100-01-01T00:00:00Z
+
+        /**
+         * The maximum offset of any zone in seconds.
+         */
+        private static final int MAX_OFFSET = 18 * 3600;
+
+        private final ZoneId zone;
+        private final ZoneRules rules;
+        private final boolean fixed;
+
+        /**
+         * Interval {@code i} starts at {@code starts[i]} (inclusive) and ends at
+         * {@code starts[i + 1]}, the last one at {@link #TABLE_END}.
+         */
+        private final long[] starts;
+        private final int[] offsets;
+
+        private ZoneTable(ZoneId zone) {
+            this.zone = zone;
+            this.rules = zone.getRules();
+            this.fixed = rules.isFixedOffset();
+            if (fixed) {
+                starts = new long[]{Long.MIN_VALUE};
+                offsets = new int[]{rules.getOffset(Instant.EPOCH).getTotalSeconds()};
+            } else {
+                ArrayList<ZoneOffsetTransition> transitions = new ArrayList<>();
+                Instant instant = Instant.ofEpochSecond(TABLE_START);
+                ZoneOffsetTransition transition = rules.nextTransition(instant);
+                while (transition != null && transition.toEpochSecond() < TABLE_END) {
+                    transitions.add(transition);
+                    transition = rules.nextTransition(transition.getInstant());
+                }
+                starts = new long[transitions.size() + 1];
+                offsets = new int[transitions.size() + 1];
+                starts[0] = TABLE_START;
+                offsets[0] = rules.getOffset(instant).getTotalSeconds();
+                for (int i = 0; i < transitions.size(); i++) {
+                    starts[i + 1] = transitions.get(i).toEpochSecond();
+                    offsets[i + 1] = transitions.get(i).getOffsetAfter().getTotalSeconds();
+                }
+            }
+        }
+
+        @TruffleBoundary
+        public static ZoneTable get(ZoneId zone) {
+            ZoneTable table = cache.get(zone);
+            if (table == null) {
+                table = new ZoneTable(zone);
+                ZoneTable existing = cache.putIfAbsent(zone, table);
+                if (existing != null) {
+                    table = existing;
+                }
+            }
+            return table;
+        }
+
+        private boolean inTable(long epochSecond) {
+            return fixed || (epochSecond >= TABLE_START + SECONDS_PER_DAY && epochSecond < TABLE_END - SECONDS_PER_DAY);
+        }
+
+        private int index(long epochSecond) {
+            int index = Arrays.binarySearch(starts, epochSecond);
+            return index >= 0 ? index : -index - 2;
+        }
+
+        /**
+         * The offset from UTC in seconds at the given instant.
+         */
+        public int getOffset(long epochSecond) {
+            if (fixed) {
+                return offsets[0];
+            } else if (inTable(epochSecond)) {
+                return offsets[index(epochSecond)];
+            }
+            return slowGetOffset(epochSecond);
+        }
+
+        @TruffleBoundary
+        private int slowGetOffset(long epochSecond) {
+            return rules.getOffset(Instant.ofEpochSecond(epochSecond)).getTotalSeconds();
+        }
+
+        /**
+         * Converts seconds since the epoch in local time to seconds since the epoch (UTC) with the
+         * semantics of {@code LocalDateTime.atZone}: in an overlap the earlier offset is used, a
+         * time in a gap is moved forward by the length of the gap.
+         */
+        public long toEpochSecond(long localSecond) {
+            if (fixed) {
+                return localSecond - offsets[0];
+            } else if (!inTable(localSecond - MAX_OFFSET) || !inTable(localSecond + MAX_OFFSET)) {
+                return slowToEpochSecond(localSecond);
+            }
+            int from = index(localSecond - MAX_OFFSET);
+            int to = index(localSecond + MAX_OFFSET);
+            for (int i = from; i <= to; i++) {
+                long epochSecond = localSecond - offsets[i];
+                if (epochSecond >= starts[i] && (i + 1 == starts.length || epochSecond < starts[i + 1])) {
+                    return epochSecond;
+                }
+            }
+            for (int i = from + 1; i <= to; i++) {
+                if (localSecond >= starts[i] + offsets[i - 1] && localSecond < starts[i] + offsets[i]) {
+                    return localSecond - offsets[i - 1];
+                }
+            }
+            return slowToEpochSecond(localSecond);
+        }
+
+        @TruffleBoundary
+        private long slowToEpochSecond(long localSecond) {
+            return LocalDateTime.ofEpochSecond(localSecond, 0, ZoneOffset.UTC).atZone(zone).toEpochSecond();
+        }
+    }
+
+    /**
+     * A compiled format, see {@link #get}.
+     */
+    public static final class Plan {
+
+        private static final ConcurrentHashMap<String, Plan> inputCache = new ConcurrentHashMap<>();
+        private static final ConcurrentHashMap<String, Plan> outputCache = new ConcurrentHashMap<>();
+        private static final int MAX_CACHE_SIZE = 1024;
+
+        /**
+         * Marks formats that cannot be compiled.
+         */
+        private static final Plan UNSUPPORTED = new Plan(new int[0], new char[0], false);
+
+        private static final int LITERAL = 0;
+        private static final int SPACE = 1;
+        private static final int YEAR = 2;
+        private static final int MONTH = 3;
+        private static final int DAY = 4;
+        private static final int HOUR = 5;
+        private static final int MINUTE = 6;
+        private static final int SECOND = 7;
+        /**
+         * {@code %OS}, the digits on output are stored in the upper bits of the op.
+         */
+        private static final int FRACTIONAL_SECOND = 8;
+        private static final int OFFSET = 9;
+
+        private static final int OP_MASK = 0xFF;
+
+        private final int[] ops;
+        /**
+         * The character of each {@link #LITERAL} op, indexed like {@link #ops}.
+         */
+        private final char[] literals;
+        private final boolean hasOffset;
+
+        private Plan(int[] ops, char[] literals, boolean hasOffset) {
+            this.ops = ops;
+            this.literals = literals;
+            this.hasOffset = hasOffset;
+        }
+
+        /**
+         * Returns the compiled {@code format} for input (parsing) or output (formatting), or
+         * {@code null} if the format contains conversions that are not supported by the plans.
+         */
+        @TruffleBoundary
+        public static Plan get(String format, boolean forInput) {
+            ConcurrentHashMap<String, Plan> cache = forInput ? inputCache : outputCache;
+            Plan plan = cache.get(format);
+            if (plan == null) {
+                plan = compile(format, forInput);
+                if (cache.size() >= MAX_CACHE_SIZE) {
+                    cache.clear();
+                }
+                cache.put(format, plan);
+            }
+            return plan == UNSUPPORTED ? null : plan;
+        }
+
+        private static Plan compile(String format, boolean forInput) {
+            if (RRuntime.isNA(format)) {
+                return UNSUPPORTED;
+            }
+            ArrayList<Integer> ops = new ArrayList<>();
+            StringBuilder literals = new StringBuilder();
+            boolean hasOffset = false;
+            int i = 0;
+            while (i < format.length()) {
+                char c = format.charAt(i++);
+                if (c != '%') {
+                    if (forInput && Character.isWhitespace(c)) {
+                        add(ops, literals, SPACE, ' ');
+                    } else {
+                        add(ops, literals, LITERAL, c);
+                    }
+                    continue;
+                }
+                if (i == format.length()) {
+                    return UNSUPPORTED;
+                }
+                c = format.charAt(i++);
+                switch (c) {
+                    case 'Y':
+                        add(ops, literals, YEAR, ' ');
+                        break;
+                    case 'm':
+                        add(ops, literals, MONTH, ' ');
+                        break;
+                    case 'd':
+                        add(ops, literals, DAY, ' ');
+                        break;
+                    case 'H':
+                        add(ops, literals, HOUR, ' ');
+                        break;
+                    case 'M':
+                        add(ops, literals, MINUTE, ' ');
+                        break;
+                    case 'S':
+                        add(ops, literals, SECOND, ' ');
+                        break;
+                    case 'F':
+                        add(ops, literals, YEAR, ' ');
+                        add(ops, literals, LITERAL, '-');
+                        add(ops, literals, MONTH, ' ');
+                        add(ops, literals, LITERAL, '-');
+                        add(ops, literals, DAY, ' ');
+                        break;
+                    case 'T':
+                    case 'R':
+                        add(ops, literals, HOUR, ' ');
+                        add(ops, literals, LITERAL, ':');
+                        add(ops, literals, MINUTE, ' ');
+                        if (c == 'T') {
+                            add(ops, literals, LITERAL, ':');
+                            add(ops, literals, SECOND, ' ');
+                        }
+                        break;
+                    case 'O':
+                        if (i == format.length() || format.charAt(i) != 'S') {
+                            return UNSUPPORTED;
+                        }
+                        i++;
+                        int digits = 0;
+                        if (i < format.length() && format.charAt(i) >= '0' && format.charAt(i) <= '6') {
+                            digits = format.charAt(i++) - '0';
+                        }
+                        add(ops, literals, FRACTIONAL_SECOND | (digits << 8), ' ');
+                        break;
+                    case 'z':
+                        if (!forInput) {
+                            return UNSUPPORTED;
+                        }
+                        hasOffset = true;
+                        add(ops, literals, OFFSET, ' ');
+                        break;
+                    case '%':
+                        add(ops, literals, LITERAL, '%');
+                        break;
+                    default:
+                        return UNSUPPORTED;
+                }
+            }
+            int[] result = new int[ops.size()];
+            for (int j = 0; j < result.length; j++) {
+                result[j] = ops.get(j);
+            }
+            return new Plan(result, literals.toString().toCharArray(), hasOffset);
+        }
+
+        private static void add(ArrayList<Integer> ops, StringBuilder literals, int op, char literal) {
+            ops.add(op);
+            literals.append(literal);
+        }
+
+        /**
+         * An upper bound of the length of the output, numbers that do not fit their width are
+         * printed in full (at most 11 characters).
+         */
+        private int getMaxOutputLength() {
+            int length = 0;
+            for (int op : ops) {
+                length += (op & OP_MASK) == LITERAL ? 1 : (op & OP_MASK) == FRACTIONAL_SECOND ? 18 : 11;
+            }
+            return length;
+        }
+    }
+
+    /**
+     * Parses {@code input[i]} with {@code plans[i % plans.length]} into {@code result}. The fields of
+     * elements that do not match are set to {@code NA}. If a plan contains {@code %z}, the time is
+     * converted to {@code zone}.
+     *
+     * As in GnuR, a missing year, month or day is taken from the current date in {@code zone}, but
+     * a month without a day is invalid.
+     */
+    @TruffleBoundary
+    public static void parse(String[] input, Plan[] plans, ZoneTable zone, Fields result) {
+        long now = System.currentTimeMillis() / 1000;
+        long today = civilFromDays(Math.floorDiv(now + zone.getOffset(now), SECONDS_PER_DAY));
+        RParallel.forEachChunk(0, input.length, RParallel.grainSize(input.length, MIN_GRAIN), (from, to) -> {
+            Parser parser = new Parser(today);
+            for (int i = from; i < to; i++) {
+                Plan plan = plans[i % plans.length];
+                if (RRuntime.isNA(input[i]) || !parser.parse(input[i], plan)) {
+                    result.setNA(i);
+                } else if (plan.hasOffset && parser.offset != Integer.MIN_VALUE) {
+                    long epochSecond = parser.getLocalSecond() - parser.offset;
+                    result.setLocal(i, epochSecond + zone.getOffset(epochSecond), parser.fraction);
+                } else if (parser.hour == 24) {
+                    result.setLocal(i, parser.getLocalSecond(), parser.fraction);
+                } else {
+                    result.setDate(i, daysFromCivil(parser.year, parser.month, parser.day));
+                    result.hour[i] = parser.hour;
+                    result.min[i] = parser.minute;
+                    result.sec[i] = parser.second + parser.fraction;
+                }
+            }
+        });
+    }
+
+    private static final class Parser {
+        /**
+         * Marks a date field that is not set by the format.
+         */
+        private static final int UNSET = Integer.MIN_VALUE;
+
+        /**
+         * The current date, packed like the result of {@link #civilFromDays}.
+         */
+        private final long today;
+
+        int year;
+        int month;
+        int day;
+        int hour;
+        int minute;
+        int second;
+        double fraction;
+        int offset;
+
+        private String text;
+        private int pos;
+
+        Parser(long today) {
+            this.today = today;
+        }
+
+        long getLocalSecond() {
+            return daysFromCivil(year, month, day) * SECONDS_PER_DAY + hour * 3600L + minute * 60L + second;
+        }
+
+        boolean parse(String str, Plan plan) {
+            text = str;
+            pos = 0;
+            year = UNSET;
+            month = UNSET;
+            day = UNSET;
+            hour = 0;
+            minute = 0;
+            second = 0;
+            fraction = 0;
+            offset = Integer.MIN_VALUE;
+            int[] ops = plan.ops;
+            for (int i = 0; i < ops.length; i++) {
+                switch (ops[i] & Plan.OP_MASK) {
+                    case Plan.LITERAL:
+                        if (pos == text.length() || text.charAt(pos) != plan.literals[i]) {
+                            return false;
+                        }
+                        pos++;
+                        break;
+                    case Plan.SPACE:
+                        while (pos < text.length() && Character.isWhitespace(text.charAt(pos))) {
+                            pos++;
+                        }
+                        break;
+                    case Plan.YEAR:
+                        year = number(4, 0, 9999);
+                        break;
+                    case Plan.MONTH:
+                        month = number(2, 1, 12);
+                        break;
+                    case Plan.DAY:
+                        day = number(2, 1, 31);
+                        break;
+                    case Plan.HOUR:
+                        hour = number(2, 0, 24);
+                        break;
+                    case Plan.MINUTE:
+                        minute = number(2, 0, 59);
+                        break;
+                    case Plan.SECOND:
+                        second = number(2, 0, 61);
+                        break;
+                    case Plan.FRACTIONAL_SECOND:
+                        second = number(2, 0, 61);
+                        if (second >= 0 && pos < text.length() && (text.charAt(pos) == '.' || text.charAt(pos) == ',')) {
+                            pos++;
+                            double scale = 0.1;
+                            while (pos < text.length() && text.charAt(pos) >= '0' && text.charAt(pos) <= '9') {
+                                fraction += (text.charAt(pos++) - '0') * scale;
+                                scale /= 10;
+                            }
+                        }
+                        break;
+                    case Plan.OFFSET:
+                        if (!parseOffset()) {
+                            return false;
+                        }
+                        break;
+                    default:
+                        throw new AssertionError();
+                }
+                if (year == -1 || month == -1 || day == -1 || hour < 0 || minute < 0 || second < 0) {
+                    return false;
+                }
+            }
+            if (day == UNSET && month != UNSET) {
+                return false;
+            }
+            if (year == UNSET) {
+                year = civilYear(today);
+            }
+            if (day == UNSET) {
+                day = civilDay(today);
+            }
+            if (month == UNSET) {
+                month = civilMonth(today);
+            }
+            if (day > daysInMonth(year, month) || (hour == 24 && (minute != 0 || second != 0 || fraction != 0))) {
+                return false;
+            }
+            return true;
+        }
+
+        /**
+         * Reads an unsigned number of at most {@code width} digits after optional blanks, returns
+         * -1 if there is none or it is not within {@code [min, max]}.
+         */
+        private int number(int width, int min, int max) {
+            while (pos < text.length() && text.charAt(pos) == ' ') {
+                pos++;
+            }
+            int value = 0;
+            int start = pos;
+            while (pos < text.length() && pos - start < width) {
+                char c = text.charAt(pos);
+                if (c < '0' || c > '9') {
+                    break;
+                }
+                value = value * 10 + (c - '0');
+                pos++;
+            }
+            return pos == start || value < min || value > max ? -1 : value;
+        }
+
+        /**
+         * Reads {@code Z}, {@code +hhmm} or {@code +hh:mm}.
+         */
+        private boolean parseOffset() {
+            if (pos < text.length() && text.charAt(pos) == 'Z') {
+                pos++;
+                offset = 0;
+                return true;
+            }
+            if (pos == text.length() || (text.charAt(pos) != '+' && text.charAt(pos) != '-')) {
+                return false;
+            }
+            int sign = text.charAt(pos++) == '-' ? -1 : 1;
+            int start = pos;
+            int hours = number(2, 0, 14);
+            if (hours < 0 || pos - start != 2) {
+                return false;
+            }
+            if (pos < text.length() && text.charAt(pos) == ':') {
+                pos++;
+            }
+            start = pos;
+            int minutes = number(2, 0, 59);
+            if (minutes < 0 || pos - start != 2) {
+                return false;
+            }
+            offset = sign * (hours * 3600 + minutes * 60);
+            return true;
+        }
+    }
+
+    /**
+     * Formats element {@code i} of {@code fields} with {@code plans[i % plans.length]}, the result
+     * is {@code NA} for elements with {@code NA} fields. Out-of-range fields are normalized first
+     * like GnuR does, e.g. January 32 is printed as February 1 (a second of 60 is kept, it denotes a
+     * leap second).
+     */
+    @TruffleBoundary
+    public static String[] format(Fields fields, Plan[] plans) {
+        String[] result = new String[fields.getLength()];
+        int maxLength = 0;
+        for (Plan plan : plans) {
+            maxLength = Math.max(maxLength, plan.getMaxOutputLength());
+        }
+        int bufferLength = maxLength;
+        RParallel.forEachChunk(0, result.length, RParallel.grainSize(result.length, MIN_GRAIN), (from, to) -> {
+            char[] buffer = new char[bufferLength];
+            for (int i = from; i < to; i++) {
+                result[i] = format(fields, i, plans[i % plans.length], buffer);
+            }
+        });
+        return result;
+    }
+
+    private static String format(Fields fields, int i, Plan plan, char[] buffer) {
+        double sec = fields.sec[i];
+        if (!RRuntime.isFinite(sec) || RRuntime.isNA(fields.min[i]) || RRuntime.isNA(fields.hour[i]) || RRuntime.isNA(fields.mday[i]) || RRuntime.isNA(fields.mon[i]) ||
+                        RRuntime.isNA(fields.year[i])) {
+            return RRuntime.STRING_NA;
+        }
+        int year = fields.year[i] + 1900;
+        int mon = fields.mon[i];
+        int mday = fields.mday[i];
+        int hour = fields.hour[i];
+        int min = fields.min[i];
+        if (sec < 0 || sec >= 61 || min < 0 || min > 59 || hour < 0 || hour > 23 || mon < 0 || mon > 11 || mday < 1 || mday > daysInMonth(year, mon + 1)) {
+            long days = daysFromCivil(year + Math.floorDiv(mon, 12), Math.floorMod(mon, 12) + 1, 1) + mday - 1L;
+            double floorSec = Math.floor(sec);
+            long localSecond = days * SECONDS_PER_DAY + hour * 3600L + min * 60L + (long) floorSec;
+            days = Math.floorDiv(localSecond, SECONDS_PER_DAY);
+            int secondOfDay = (int) Math.floorMod(localSecond, SECONDS_PER_DAY);
+            long civil = civilFromDays(days);
+            year = civilYear(civil);
+            mon = civilMonth(civil) - 1;
+            mday = civilDay(civil);
+            hour = secondOfDay / 3600;
+            min = (secondOfDay / 60) % 60;
+            sec = secondOfDay % 60 + (sec - floorSec);
+        }
+        int length = 0;
+        for (int j = 0; j < plan.ops.length; j++) {
+            int op = plan.ops[j];
+            switch (op & Plan.OP_MASK) {
+                case Plan.LITERAL:
+                    buffer[length++] = plan.literals[j];
+                    break;
+                case Plan.YEAR:
+                    if (year >= 0 && year <= 9999) {
+                        length = digits(buffer, length, year, 4);
+                    } else {
+                        String str = Integer.toString(year);
+                        str.getChars(0, str.length(), buffer, length);
+                        length += str.length();
+                    }
+                    break;
+                case Plan.MONTH:
+                    length = digits(buffer, length, mon + 1, 2);
+                    break;
+                case Plan.DAY:
+                    length = digits(buffer, length, mday, 2);
+                    break;
+                case Plan.HOUR:
+                    length = digits(buffer, length, hour, 2);
+                    break;
+                case Plan.MINUTE:
+                    length = digits(buffer, length, min, 2);
+                    break;
+                case Plan.SECOND:
+                    length = digits(buffer, length, (int) sec, 2);
+                    break;
+                case Plan.FRACTIONAL_SECOND:
+                    int fractionDigits = op >>> 8;
+                    length = digits(buffer, length, (int) sec, 2);
+                    if (fractionDigits > 0) {
+                        // truncated like GnuR does
+                        long scale = POWERS_OF_TEN[fractionDigits];
+                        long scaled = (long) Math.floor(sec * scale);
+                        buffer[length++] = '.';
+                        length = digits(buffer, length, (int) (scaled % scale), fractionDigits);
+                    }
+                    break;
+                default:
+                    throw new AssertionError();
+            }
+        }
+        return new String(buffer, 0, length);
+    }
+
+    private static int digits(char[] buffer, int offset, int value, int width) {
+        int v = value;
+        int end = offset + width;
+        if (v < 0 || v >= POWERS_OF_TEN[width]) {
+            String str = Integer.toString(v);
+            str.getChars(0, str.length(), buffer, offset);
+            return offset + str.length();
+        }
+        for (int i = end - 1; i >= offset; i--) {
+            buffer[i] = (char) ('0' + v % 10);
+            v /= 10;
+        }
+        return end;
+    }
+}
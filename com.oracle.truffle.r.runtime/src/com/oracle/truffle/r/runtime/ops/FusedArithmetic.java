@@ -0,0 +1,218 @@
+/*
+ * Copyright (c) 2016, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.truffle.r.runtime.ops;
+
+import java.util.Arrays;
+
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+import com.oracle.truffle.r.runtime.RRuntime;
+
+/**
+ * A deferred element-wise arithmetic expression over double vectors and scalars, e.g.,
+ * {@code a * b + c * d - e}. Instead of allocating a result vector for each operator, the operators
+ * are recorded as a small postfix program and the whole expression is materialized by
+ * {@link #evaluate()} in a single pass over the operands.
+ *
+ * The evaluation proceeds in blocks of {@link #BLOCK} elements: for each block, the program is run
+ * with a stack of block-sized buffers. The buffers stay in the cache, so every operand is read from
+ * memory once and only the final result is written, and every operator is a simple loop over
+ * arrays.
+ *
+ * All operands are either scalars or have the same length, recycling of shorter vectors (and the
+ * associated warnings) is left to the regular arithmetic nodes. The NA semantics are the same as in
+ * {@code BinaryMapArithmeticFunctionNode}.
+ */
+public final class FusedArithmetic {
+
+    public static final int ADD = 0;
+    public static final int SUBTRACT = 1;
+    public static final int MULTIPLY = 2;
+    public static final int DIVIDE = 3;
+    public static final int NEGATE = 4;
+
+    private static final int BLOCK = 1024;
+
+    /**
+     * The operators in postfix order, an operand {@code k} is encoded as {@code ~k}.
+     */
+    private final int[] program;
+    /**
+     * The operands, scalars are stored as arrays of length one.
+     */
+    private final double[][] operands;
+    private final int length;
+    private final int depth;
+    private final boolean complete;
+
+    private FusedArithmetic(int[] program, double[][] operands, int length, int depth, boolean complete) {
+        this.program = program;
+        this.operands = operands;
+        this.length = length;
+        this.depth = depth;
+        this.complete = complete;
+    }
+
+    public static FusedArithmetic operand(double[] data, boolean complete) {
+        return new FusedArithmetic(new int[]{~0}, new double[][]{data}, data.length, 1, complete);
+    }
+
+    public static FusedArithmetic operand(double value) {
+        return operand(new double[]{value}, !RRuntime.isNA(value));
+    }
+
+    public static FusedArithmetic unary(int op, FusedArithmetic operand) {
+        assert op == NEGATE;
+        int[] program = Arrays.copyOf(operand.program, operand.program.length + 1);
+        program[operand.program.length] = op;
+        return new FusedArithmetic(program, operand.operands, operand.length, operand.depth, operand.complete);
+    }
+
+    /**
+     * Combines two expressions, returns {@code null} if their lengths are neither equal nor one of
+     * them is a scalar.
+     */
+    public static FusedArithmetic binary(int op, FusedArithmetic left, FusedArithmetic right) {
+        assert op >= ADD && op <= DIVIDE;
+        int resultLength;
+        if (left.length == right.length || right.length == 1) {
+            resultLength = left.length;
+        } else if (left.length == 1) {
+            resultLength = right.length;
+        } else {
+            return null;
+        }
+        int leftCount = left.operands.length;
+        double[][] operands = Arrays.copyOf(left.operands, leftCount + right.operands.length);
+        System.arraycopy(right.operands, 0, operands, leftCount, right.operands.length);
+        int[] program = new int[left.program.length + right.program.length + 1];
+        System.arraycopy(left.program, 0, program, 0, left.program.length);
+        for (int i = 0; i < right.program.length; i++) {
+            int instruction = right.program[i];
+            program[left.program.length + i] = instruction < 0 ? ~(~instruction + leftCount) : instruction;
+        }
+        program[program.length - 1] = op;
+        int depth = Math.max(left.depth, right.depth + 1);
+        return new FusedArithmetic(program, operands, resultLength, depth, left.complete && right.complete);
+    }
+
+    public int getLength() {
+        return length;
+    }
+
+    /**
+     * Returns {@code true} if no operand contains NA, in which case the result cannot contain NA.
+     */
+    public boolean isComplete() {
+        return complete;
+    }
+
+    @TruffleBoundary
+    public double[] evaluate() {
+        double[] result = new double[length];
+        double[][] stack = new double[depth][BLOCK];
+        double[] scratch = complete ? null : new double[BLOCK];
+        for (int start = 0; start < length; start += BLOCK) {
+            int count = Math.min(BLOCK, length - start);
+            int top = 0;
+            for (int instruction : program) {
+                if (instruction < 0) {
+                    double[] operand = operands[~instruction];
+                    if (operand.length == 1) {
+                        Arrays.fill(stack[top], 0, count, operand[0]);
+                    } else {
+                        System.arraycopy(operand, start, stack[top], 0, count);
+                    }
+                    top++;
+                } else if (instruction == NEGATE) {
+                    negate(stack[top - 1], count);
+                } else {
+                    top--;
+                    apply(instruction, stack[top - 1], stack[top], count, scratch);
+                }
+            }
+            assert top == 1;
+            System.arraycopy(stack[0], 0, result, start, count);
+        }
+        return result;
+    }
+
+    private void negate(double[] values, int count) {
+        for (int i = 0; i < count; i++) {
+            values[i] = -values[i];
+        }
+        if (!complete) {
+            for (int i = 0; i < count; i++) {
+                if (values[i] != values[i] && Double.doubleToRawLongBits(-values[i]) == Double.doubleToRawLongBits(RRuntime.DOUBLE_NA)) {
+                    values[i] = RRuntime.DOUBLE_NA;
+                }
+            }
+        }
+    }
+
+    /**
+     * Computes {@code left[i] = left[i] op right[i]}. If there may be NA values, the left operands
+     * are saved in {@code scratch} and the NA values are fixed up in a second loop, so that the
+     * first loop has no branches.
+     */
+    private static void apply(int op, double[] left, double[] right, int count, double[] scratch) {
+        if (scratch != null) {
+            System.arraycopy(left, 0, scratch, 0, count);
+        }
+        switch (op) {
+            case ADD:
+                for (int i = 0; i < count; i++) {
+                    left[i] = left[i] + right[i];
+                }
+                break;
+            case SUBTRACT:
+                for (int i = 0; i < count; i++) {
+                    left[i] = left[i] - right[i];
+                }
+                break;
+            case MULTIPLY:
+                for (int i = 0; i < count; i++) {
+                    left[i] = left[i] * right[i];
+                }
+                break;
+            case DIVIDE:
+                for (int i = 0; i < count; i++) {
+                    left[i] = left[i] / right[i];
+                }
+                break;
+            default:
+                throw new IllegalArgumentException();
+        }
+        if (scratch != null) {
+            for (int i = 0; i < count; i++) {
+                if (left[i] != left[i]) {
+                    double l = scratch[i];
+                    if (RRuntime.isNA(l)) {
+                        left[i] = RRuntime.DOUBLE_NA;
+                    } else if (RRuntime.isNA(right[i])) {
+                        left[i] = l != l ? l : RRuntime.DOUBLE_NA;
+                    }
+                }
+            }
+        }
+    }
+}
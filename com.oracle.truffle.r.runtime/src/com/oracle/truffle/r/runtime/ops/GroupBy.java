@@ -0,0 +1,790 @@
+/*
+ * Copyright (c) 2016, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.truffle.r.runtime.ops;
+
+import java.util.Arrays;
+
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+import com.oracle.truffle.r.runtime.RParallel;
+import com.oracle.truffle.r.runtime.RRuntime;
+import com.oracle.truffle.r.runtime.data.model.RAbstractDoubleVector;
+import com.oracle.truffle.r.runtime.data.model.RAbstractIntVector;
+import com.oracle.truffle.r.runtime.data.model.RAbstractLogicalVector;
+import com.oracle.truffle.r.runtime.data.model.RAbstractStringVector;
+import com.oracle.truffle.r.runtime.data.model.RAbstractVector;
+
+/**
+ * Group-by kernels for {@code split}, {@code rowsum}, {@code tapply},
+ * {@code .fastr.group.aggregate} and the key matching of {@code merge}.
+ *
+ * Groups are either given as 1-based integer codes (e.g. the codes of a factor, {@code NA} and
+ * out-of-range codes denote rows that belong to no group), or computed from one or more key vectors
+ * by {@link #group}, which hashes the primitive key values directly (no boxing) and numbers the
+ * groups in the order of their first appearance, as {@code unique} does.
+ *
+ * Inputs with at least {@link com.oracle.truffle.r.runtime.FastROptions#ReduceParallelThreshold}
+ * rows are partitioned into chunks on the {@link RParallel} pool: each chunk is grouped or
+ * aggregated into private tables, which are then merged in chunk order, so the results do not
+ * depend on the number of threads.
+ */
+public final class GroupBy {
+
+    /**
+     * The aggregations computed by {@link #aggregate}.
+     */
+    public enum Aggregator {
+        SUM,
+        MEAN,
+        COUNT,
+        MIN,
+        MAX,
+        FIRST,
+        LAST;
+
+        /**
+         * Returns the aggregator for the (lower case) name, or {@code null} if there is none.
+         */
+        public static Aggregator fromName(String name) {
+            for (Aggregator aggregator : values()) {
+                if (aggregator.name().equalsIgnoreCase(name)) {
+                    return aggregator;
+                }
+            }
+            return null;
+        }
+    }
+
+    private static final int MIN_GRAIN = 1 << 16;
+
+    private GroupBy() {
+        // no instances
+    }
+
+    private static int chunkCount(int length, int grain) {
+        return (length + grain - 1) / grain;
+    }
+
+    private static int code(int[] codes, int row, int groups) {
+        int code = codes[row % codes.length];
+        return code >= 1 && code <= groups ? code - 1 : -1;
+    }
+
+    /**
+     * Returns the number of rows in each group, the codes are recycled to {@code length} rows.
+     */
+    @TruffleBoundary
+    public static int[] counts(int[] codes, int length, int groups) {
+        int[] counts = new int[groups];
+        if (codes.length > 0) {
+            for (int i = 0; i < length; i++) {
+                int g = code(codes, i, groups);
+                if (g >= 0) {
+                    counts[g]++;
+                }
+            }
+        }
+        return counts;
+    }
+
+    /*
+     * Aggregation by group codes.
+     */
+
+    /**
+     * Per-chunk aggregation state. {@code rows} counts all rows of a group, {@code count} the rows
+     * that contributed a value (i.e. not {@code NaN} if {@code naRm} is set).
+     */
+    private static final class Partial {
+        final int[] rows;
+        final int[] count;
+        final double[] value;
+        /**
+         * Row of the first/last value for {@link Aggregator#FIRST}/{@link Aggregator#LAST}.
+         */
+        final int[] position;
+        /**
+         * For {@link Aggregator#MIN}/{@link Aggregator#MAX}: 1 if a {@code NaN} was seen, 2 if
+         * an {@code NA} was seen.
+         */
+        final byte[] nan;
+
+        Partial(int groups, Aggregator aggregator) {
+            rows = new int[groups];
+            count = new int[groups];
+            value = aggregator == Aggregator.COUNT || aggregator == Aggregator.FIRST || aggregator == Aggregator.LAST ? null : new double[groups];
+            position = aggregator == Aggregator.FIRST || aggregator == Aggregator.LAST ? new int[groups] : null;
+            nan = aggregator == Aggregator.MIN || aggregator == Aggregator.MAX ? new byte[groups] : null;
+            if (aggregator == Aggregator.MIN) {
+                Arrays.fill(value, Double.POSITIVE_INFINITY);
+            } else if (aggregator == Aggregator.MAX) {
+                Arrays.fill(value, Double.NEGATIVE_INFINITY);
+            }
+            if (position != null) {
+                Arrays.fill(position, -1);
+            }
+        }
+
+        void accumulate(double[] x, int[] codes, int groups, Aggregator aggregator, boolean naRm, int from, int to) {
+            for (int i = from; i < to; i++) {
+                int g = code(codes, i, groups);
+                if (g < 0) {
+                    continue;
+                }
+                rows[g]++;
+                double d = x[i];
+                if (d != d) {
+                    if (naRm) {
+                        continue;
+                    }
+                    if (nan != null) {
+                        nan[g] = (byte) Math.max(nan[g], RRuntime.isNA(d) ? 2 : 1);
+                        continue;
+                    }
+                }
+                count[g]++;
+                switch (aggregator) {
+                    case SUM:
+                    case MEAN:
+                        value[g] += d;
+                        break;
+                    case MIN:
+                        if (d < value[g]) {
+                            value[g] = d;
+                        }
+                        break;
+                    case MAX:
+                        if (d > value[g]) {
+                            value[g] = d;
+                        }
+                        break;
+                    case FIRST:
+                        if (position[g] == -1) {
+                            position[g] = i;
+                        }
+                        break;
+                    case LAST:
+                        position[g] = i;
+                        break;
+                    default:
+                        break;
+                }
+            }
+        }
+
+        /**
+         * Merges {@code other}, which covers rows after the rows of this partial.
+         */
+        void merge(Partial other, Aggregator aggregator) {
+            for (int g = 0; g < rows.length; g++) {
+                rows[g] += other.rows[g];
+                count[g] += other.count[g];
+                switch (aggregator) {
+                    case SUM:
+                    case MEAN:
+                        value[g] += other.value[g];
+                        break;
+                    case MIN:
+                        value[g] = Math.min(value[g], other.value[g]);
+                        nan[g] = (byte) Math.max(nan[g], other.nan[g]);
+                        break;
+                    case MAX:
+                        value[g] = Math.max(value[g], other.value[g]);
+                        nan[g] = (byte) Math.max(nan[g], other.nan[g]);
+                        break;
+                    case FIRST:
+                        if (position[g] == -1) {
+                            position[g] = other.position[g];
+                        }
+                        break;
+                    case LAST:
+                        if (other.position[g] != -1) {
+                            position[g] = other.position[g];
+                        }
+                        break;
+                    default:
+                        break;
+                }
+            }
+        }
+    }
+
+    @FunctionalInterface
+    private interface ChunkTask {
+        void run(int chunk, int from, int to);
+    }
+
+    private static void forEachChunk(int length, int grain, ChunkTask task) {
+        RParallel.forEachChunk(0, chunkCount(length, grain), 1, (c0, c1) -> {
+            for (int c = c0; c < c1; c++) {
+                task.run(c, c * grain, Math.min(length, (c + 1) * grain));
+            }
+        });
+    }
+
+    private static Partial accumulate(double[] x, int[] codes, int groups, Aggregator aggregator, boolean naRm) {
+        int length = x.length;
+        if (!VectorReductions.isParallel(length) || codes.length == 0) {
+            Partial partial = new Partial(groups, aggregator);
+            if (codes.length > 0) {
+                partial.accumulate(x, codes, groups, aggregator, naRm, 0, length);
+            }
+            return partial;
+        }
+        int grain = RParallel.grainSize(length, MIN_GRAIN);
+        Partial[] partials = new Partial[chunkCount(length, grain)];
+        forEachChunk(length, grain, (c, from, to) -> {
+            Partial partial = new Partial(groups, aggregator);
+            partial.accumulate(x, codes, groups, aggregator, naRm, from, to);
+            partials[c] = partial;
+        });
+        for (int c = 1; c < partials.length; c++) {
+            partials[0].merge(partials[c], aggregator);
+        }
+        return partials[0];
+    }
+
+    /**
+     * Aggregates {@code x} by the group {@code codes}, which are recycled to the length of
+     * {@code x}. The result for groups without rows is {@code NA} (or 0 for
+     * {@link Aggregator#COUNT}). Otherwise the results follow the corresponding R functions, e.g.
+     * for a group whose values are all removed by {@code naRm} the sum is 0, the mean {@code NaN}
+     * and the minimum {@code Inf} (GnuR additionally warns in that case). {@link Aggregator#COUNT}
+     * counts the rows that are not removed by {@code naRm}.
+     */
+    @TruffleBoundary
+    public static double[] aggregate(double[] x, int[] codes, int groups, Aggregator aggregator, boolean naRm) {
+        Partial partial = accumulate(x, codes, groups, aggregator, naRm);
+        double[] result = new double[groups];
+        boolean checkNA = false;
+        for (int g = 0; g < groups; g++) {
+            if (partial.rows[g] == 0 && aggregator != Aggregator.COUNT) {
+                result[g] = RRuntime.DOUBLE_NA;
+                continue;
+            }
+            switch (aggregator) {
+                case SUM:
+                    result[g] = partial.value[g];
+                    break;
+                case MEAN:
+                    result[g] = partial.value[g] / partial.count[g];
+                    break;
+                case COUNT:
+                    result[g] = partial.count[g];
+                    break;
+                case MIN:
+                case MAX:
+                    result[g] = partial.nan[g] == 0 ? partial.value[g] : partial.nan[g] == 2 ? RRuntime.DOUBLE_NA : Double.NaN;
+                    break;
+                case FIRST:
+                case LAST:
+                    result[g] = partial.position[g] == -1 ? RRuntime.DOUBLE_NA : x[partial.position[g]];
+                    break;
+                default:
+                    throw new AssertionError();
+            }
+            checkNA |= (aggregator == Aggregator.SUM || aggregator == Aggregator.MEAN) && Double.isNaN(result[g]);
+        }
+        if (aggregator == Aggregator.MEAN) {
+            correctMeans(x, codes, groups, result);
+        }
+        if (checkNA && !naRm) {
+            // NaN results are NA if the group contains an NA, see VectorReductions
+            for (int i = 0; i < x.length; i++) {
+                int g = code(codes, i, groups);
+                if (g >= 0 && RRuntime.isNA(x[i]) && Double.isNaN(result[g])) {
+                    result[g] = RRuntime.DOUBLE_NA;
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Second pass of the mean, as in GnuR: adds the mean of the deviations from the first
+     * estimate.
+     */
+    private static void correctMeans(double[] x, int[] codes, int groups, double[] means) {
+        double[] deviations = new double[groups];
+        int[] counts = new int[groups];
+        for (int i = 0; i < x.length; i++) {
+            int g = code(codes, i, groups);
+            if (g >= 0 && !Double.isNaN(x[i]) && RRuntime.isFinite(means[g])) {
+                deviations[g] += x[i] - means[g];
+                counts[g]++;
+            }
+        }
+        for (int g = 0; g < groups; g++) {
+            if (counts[g] > 0) {
+                means[g] += deviations[g] / counts[g];
+            }
+        }
+    }
+
+    /**
+     * Integer variant of {@link #aggregate(double[], int[], int, Aggregator, boolean)} for all
+     * aggregators except {@link Aggregator#MEAN}, which always produces doubles. Returns
+     * {@code null} if a sum overflows the integer range, so that the caller can produce the
+     * appropriate warning.
+     */
+    @TruffleBoundary
+    public static int[] aggregate(int[] x, int[] codes, int groups, Aggregator aggregator, boolean naRm) {
+        assert aggregator != Aggregator.MEAN;
+        double[] values = new double[x.length];
+        for (int i = 0; i < x.length; i++) {
+            values[i] = RRuntime.isNA(x[i]) ? RRuntime.DOUBLE_NA : x[i];
+        }
+        double[] result = aggregate(values, codes, groups, aggregator, naRm);
+        int[] intResult = new int[groups];
+        for (int g = 0; g < groups; g++) {
+            double d = result[g];
+            if (Double.isNaN(d)) {
+                intResult[g] = RRuntime.INT_NA;
+            } else if (d < Integer.MIN_VALUE || d > Integer.MAX_VALUE) {
+                if (aggregator == Aggregator.SUM) {
+                    return null;
+                }
+                // min/max of an empty set, GnuR uses NA for integers
+                intResult[g] = RRuntime.INT_NA;
+            } else {
+                intResult[g] = (int) d;
+            }
+        }
+        return intResult;
+    }
+
+    /*
+     * Grouping by key vectors.
+     */
+
+    /**
+     * The key columns of a grouping. Rows are compared by value, {@code NA} is equal to
+     * {@code NA}, all {@code NaN}s are equal and {@code -0} equals {@code 0}, as in
+     * {@code unique} and {@code match}.
+     */
+    public abstract static class Keys {
+        protected final int length;
+
+        protected Keys(int length) {
+            this.length = length;
+        }
+
+        public final int getLength() {
+            return length;
+        }
+
+        /**
+         * Returns {@code true} if {@code other} has the same layout, i.e., if the keys can be used
+         * together in {@link GroupBy#match}.
+         */
+        public boolean isCompatible(Keys other) {
+            return getClass() == other.getClass();
+        }
+
+        protected abstract int hash(int row);
+
+        /**
+         * Compares the key of {@code row} to the key of {@code otherRow} in {@code other}, which
+         * has the same layout as this object.
+         */
+        protected abstract boolean equal(int row, Keys other, int otherRow);
+
+        /**
+         * Creates the keys for the given columns, which must all have the same length. Returns
+         * {@code null} if a column has a type that cannot be grouped by this class.
+         */
+        @TruffleBoundary
+        public static Keys create(RAbstractVector... columns) {
+            if (columns.length == 1) {
+                return createColumn(columns[0]);
+            }
+            Keys[] keys = new Keys[columns.length];
+            for (int i = 0; i < columns.length; i++) {
+                keys[i] = createColumn(columns[i]);
+                if (keys[i] == null || keys[i].length != keys[0].length) {
+                    return null;
+                }
+            }
+            return new MultiKeys(keys);
+        }
+
+        private static Keys createColumn(RAbstractVector column) {
+            if (column instanceof RAbstractIntVector) {
+                return new IntKeys(((RAbstractIntVector) column).materialize().getDataWithoutCopying());
+            } else if (column instanceof RAbstractDoubleVector) {
+                return new DoubleKeys(((RAbstractDoubleVector) column).materialize().getDataWithoutCopying());
+            } else if (column instanceof RAbstractStringVector) {
+                return new StringKeys(((RAbstractStringVector) column).materialize().getDataWithoutCopying());
+            } else if (column instanceof RAbstractLogicalVector) {
+                byte[] data = ((RAbstractLogicalVector) column).materialize().getDataWithoutCopying();
+                int[] values = new int[data.length];
+                for (int i = 0; i < data.length; i++) {
+                    values[i] = data[i];
+                }
+                return new IntKeys(values);
+            }
+            return null;
+        }
+    }
+
+    private static int mix(int h) {
+        int result = h * 0x9E3779B9;
+        return result ^ (result >>> 16);
+    }
+
+    private static final class IntKeys extends Keys {
+        private final int[] data;
+
+        IntKeys(int[] data) {
+            super(data.length);
+            this.data = data;
+        }
+
+        @Override
+        protected int hash(int row) {
+            return mix(data[row]);
+        }
+
+        @Override
+        protected boolean equal(int row, Keys other, int otherRow) {
+            return data[row] == ((IntKeys) other).data[otherRow];
+        }
+    }
+
+    private static final class DoubleKeys extends Keys {
+        private final double[] data;
+
+        DoubleKeys(double[] data) {
+            super(data.length);
+            this.data = data;
+        }
+
+        private long bits(int row) {
+            double d = data[row];
+            if (d != d) {
+                return RRuntime.isNA(d) ? 1L : 2L;
+            }
+            // -0 and 0 are the same
+            return Double.doubleToLongBits(d + 0.0);
+        }
+
+        @Override
+        protected int hash(int row) {
+            long bits = bits(row);
+            return mix((int) (bits ^ (bits >>> 32)));
+        }
+
+        @Override
+        protected boolean equal(int row, Keys other, int otherRow) {
+            return bits(row) == ((DoubleKeys) other).bits(otherRow);
+        }
+    }
+
+    private static final class StringKeys extends Keys {
+        private final String[] data;
+
+        StringKeys(String[] data) {
+            super(data.length);
+            this.data = data;
+        }
+
+        @Override
+        protected int hash(int row) {
+            String s = data[row];
+            return RRuntime.isNA(s) ? 0 : mix(s.hashCode());
+        }
+
+        @Override
+        protected boolean equal(int row, Keys other, int otherRow) {
+            String a = data[row];
+            String b = ((StringKeys) other).data[otherRow];
+            if (RRuntime.isNA(a) || RRuntime.isNA(b)) {
+                return RRuntime.isNA(a) && RRuntime.isNA(b);
+            }
+            return a.equals(b);
+        }
+    }
+
+    private static final class MultiKeys extends Keys {
+        private final Keys[] columns;
+
+        MultiKeys(Keys[] columns) {
+            super(columns[0].length);
+            this.columns = columns;
+        }
+
+        @Override
+        public boolean isCompatible(Keys other) {
+            if (!(other instanceof MultiKeys) || ((MultiKeys) other).columns.length != columns.length) {
+                return false;
+            }
+            for (int i = 0; i < columns.length; i++) {
+                if (!columns[i].isCompatible(((MultiKeys) other).columns[i])) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        @Override
+        protected int hash(int row) {
+            int h = 0;
+            for (Keys column : columns) {
+                h = h * 31 + column.hash(row);
+            }
+            return mix(h);
+        }
+
+        @Override
+        protected boolean equal(int row, Keys other, int otherRow) {
+            Keys[] otherColumns = ((MultiKeys) other).columns;
+            for (int i = 0; i < columns.length; i++) {
+                if (!columns[i].equal(row, otherColumns[i], otherRow)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    /**
+     * The result of {@link #group}.
+     */
+    public static final class Grouping {
+        /**
+         * The 0-based group of each row.
+         */
+        public final int[] ids;
+        /**
+         * The first row of each group, in the order of first appearance.
+         */
+        public final int[] first;
+
+        Grouping(int[] ids, int[] first) {
+            this.ids = ids;
+            this.first = first;
+        }
+
+        public int getGroupCount() {
+            return first.length;
+        }
+
+        /**
+         * The group ids as 1-based codes for {@link GroupBy#aggregate}.
+         */
+        public int[] getCodes() {
+            int[] codes = new int[ids.length];
+            for (int i = 0; i < ids.length; i++) {
+                codes[i] = ids[i] + 1;
+            }
+            return codes;
+        }
+    }
+
+    /**
+     * An open-addressing hash table from keys to group ids, identifying each group by its first row
+     * in {@link #keys}.
+     */
+    private static final class Table {
+        private final Keys keys;
+        private int[] slots; // group id + 1, 0 for free slots
+        private int[] hashes;
+        private int[] first;
+        private int size;
+
+        Table(Keys keys, int expected) {
+            this.keys = keys;
+            int capacity = 16;
+            while (capacity < Integer.MAX_VALUE / 4 && capacity < expected * 2) {
+                capacity <<= 1;
+            }
+            slots = new int[capacity];
+            hashes = new int[capacity];
+            first = new int[Math.max(4, expected)];
+        }
+
+        /**
+         * Returns the group of {@code row} in {@code rowKeys}, or -1 if there is none.
+         */
+        int find(Keys rowKeys, int row, int hash) {
+            int mask = slots.length - 1;
+            for (int i = hash & mask;; i = (i + 1) & mask) {
+                int slot = slots[i];
+                if (slot == 0) {
+                    return -1;
+                } else if (hashes[i] == hash && keys.equal(first[slot - 1], rowKeys, row)) {
+                    return slot - 1;
+                }
+            }
+        }
+
+        /**
+         * Returns the group of {@code row} in {@link #keys}, adding a new group if necessary.
+         */
+        int add(int row) {
+            int hash = keys.hash(row);
+            int id = find(keys, row, hash);
+            if (id >= 0) {
+                return id;
+            }
+            if ((size + 1) * 2 > slots.length) {
+                rehash();
+            }
+            if (size == first.length) {
+                first = Arrays.copyOf(first, size * 2);
+            }
+            first[size] = row;
+            insert(size, hash);
+            return size++;
+        }
+
+        private void insert(int id, int hash) {
+            int mask = slots.length - 1;
+            int i = hash & mask;
+            while (slots[i] != 0) {
+                i = (i + 1) & mask;
+            }
+            slots[i] = id + 1;
+            hashes[i] = hash;
+        }
+
+        private void rehash() {
+            int[] oldSlots = slots;
+            int[] oldHashes = hashes;
+            slots = new int[oldSlots.length * 2];
+            hashes = new int[oldSlots.length * 2];
+            for (int i = 0; i < oldSlots.length; i++) {
+                if (oldSlots[i] != 0) {
+                    insert(oldSlots[i] - 1, oldHashes[i]);
+                }
+            }
+        }
+
+        int[] getFirst() {
+            return Arrays.copyOf(first, size);
+        }
+    }
+
+    /**
+     * Assigns each row of {@code keys} to a group, numbering the groups in the order of their first
+     * appearance.
+     */
+    @TruffleBoundary
+    public static Grouping group(Keys keys) {
+        int length = keys.length;
+        int[] ids = new int[length];
+        if (!VectorReductions.isParallel(length)) {
+            Table table = new Table(keys, 16);
+            for (int i = 0; i < length; i++) {
+                ids[i] = table.add(i);
+            }
+            return new Grouping(ids, table.getFirst());
+        }
+        // group the chunks separately, then merge the chunk-local groups in chunk order
+        int grain = RParallel.grainSize(length, MIN_GRAIN);
+        int[][] chunkFirst = new int[chunkCount(length, grain)][];
+        forEachChunk(length, grain, (c, from, to) -> {
+            Table table = new Table(keys, 16);
+            for (int i = from; i < to; i++) {
+                ids[i] = table.add(i);
+            }
+            chunkFirst[c] = table.getFirst();
+        });
+        Table table = new Table(keys, chunkFirst[0].length);
+        int[][] mapping = new int[chunkFirst.length][];
+        for (int c = 0; c < chunkFirst.length; c++) {
+            mapping[c] = new int[chunkFirst[c].length];
+            for (int k = 0; k < chunkFirst[c].length; k++) {
+                mapping[c][k] = table.add(chunkFirst[c][k]);
+            }
+        }
+        forEachChunk(length, grain, (c, from, to) -> {
+            int[] map = mapping[c];
+            for (int i = from; i < to; i++) {
+                ids[i] = map[ids[i]];
+            }
+        });
+        return new Grouping(ids, table.getFirst());
+    }
+
+    /**
+     * Returns for each row of {@code probe} the 0-based index of the first row in {@code table} with
+     * the same key, or -1 if there is none. The keys must be {@link Keys#isCompatible compatible}.
+     */
+    @TruffleBoundary
+    public static int[] match(Keys table, Keys probe) {
+        assert table.isCompatible(probe);
+        Table index = new Table(table, table.length);
+        for (int i = 0; i < table.length; i++) {
+            index.add(i);
+        }
+        int[] first = index.getFirst();
+        int length = probe.length;
+        int[] result = new int[length];
+        RParallel.forEachChunk(0, length, VectorReductions.isParallel(length) ? RParallel.grainSize(length, MIN_GRAIN) : Math.max(1, length), (from, to) -> {
+            for (int i = from; i < to; i++) {
+                int id = index.find(probe, i, probe.hash(i));
+                result[i] = id < 0 ? -1 : first[id];
+            }
+        });
+        return result;
+    }
+
+    /**
+     * Computes the key codes of the rows of {@code x} and {@code y} that {@code merge} works on,
+     * i.e. {@code match(bx, bxy, 0L)} and {@code match(by, bxy, 0L)} where {@code bxy} are the
+     * keys of the rows of {@code x} that also occur in {@code y}: a row of {@code x} or {@code y}
+     * gets the 1-based position in {@code bxy} of the first row of {@code x} with the same key, or
+     * 0 if the key does not occur on both sides. The keys must be {@link Keys#isCompatible
+     * compatible}.
+     */
+    @TruffleBoundary
+    public static int[][] joinCodes(Keys x, Keys y) {
+        assert x.isCompatible(y);
+        Grouping grouping = group(x);
+        int[] firstInX = match(x, y);
+        boolean[] common = new boolean[grouping.getGroupCount()];
+        for (int row : firstInX) {
+            if (row >= 0) {
+                common[grouping.ids[row]] = true;
+            }
+        }
+        int[] groupCodes = new int[common.length];
+        int[] xCodes = new int[x.length];
+        int position = 0;
+        for (int i = 0; i < xCodes.length; i++) {
+            int id = grouping.ids[i];
+            if (common[id]) {
+                position++;
+                if (groupCodes[id] == 0) {
+                    groupCodes[id] = position;
+                }
+                xCodes[i] = groupCodes[id];
+            }
+        }
+        int[] yCodes = new int[y.length];
+        for (int i = 0; i < yCodes.length; i++) {
+            yCodes[i] = firstInX[i] < 0 ? 0 : groupCodes[grouping.ids[firstInX[i]]];
+        }
+        return new int[][]{xCodes, yCodes};
+    }
+}
@@ -0,0 +1,670 @@
+/*
+ * Copyright (c) 2016, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.truffle.r.runtime.ops;
+
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+import com.oracle.truffle.r.runtime.FastROptions;
+import com.oracle.truffle.r.runtime.RParallel;
+import com.oracle.truffle.r.runtime.RRuntime;
+
+/**
+ * Reduction kernels over plain {@code double[]} ranges used by the summary builtins ({@code sum},
+ * {@code mean}, {@code prod}, {@code max}, {@code min}, {@code range}) and by {@code colSums} and
+ * {@code rowSums}. {@code sum}, {@code max} and {@code min} are also available for a
+ * {@link DoubleSource}, which is read in blocks and reduced with the same results.
+ *
+ * The kernels do not consult an {@link com.oracle.truffle.r.runtime.ops.na.NACheck}: NA and NaN are
+ * both NaN values, so the inner loops run without per-element checks and the (rare) NaN result is
+ * inspected afterwards to decide between {@link RRuntime#DOUBLE_NA} and {@code NaN}. If
+ * {@code naRm} is set, all NaN values (including NA) are skipped, as in GnuR.
+ *
+ * Ranges with at least {@link FastROptions#ReduceParallelThreshold} elements are split into chunks
+ * that are reduced on the {@link RParallel} pool. The chunk boundaries only depend on the length,
+ * so the result of a reduction is reproducible for a given thread count.
+ */
+public final class VectorReductions {
+
+    /**
+     * Summation algorithm used by {@link #sum}.
+     */
+    public enum SumPrecision {
+        /**
+         * Plain double arithmetic with four independent partial sums, the default of {@code sum}.
+         * The rounding differs from a single left-to-right accumulator (and from GnuR's long
+         * double accumulator) in the last bits.
+         */
+        DOUBLE,
+        /**
+         * Neumaier's variant of Kahan compensated summation.
+         */
+        COMPENSATED
+    }
+
+    /**
+     * Doubles that are not kept in a Java array, e.g. in an off-heap storage, which the kernels read
+     * in blocks of {@link #BLOCK} elements.
+     */
+    @FunctionalInterface
+    public interface DoubleSource {
+        /**
+         * Copies {@code length} elements starting at {@code index} to {@code dest}.
+         */
+        void get(long index, double[] dest, int destIndex, int length);
+    }
+
+    @FunctionalInterface
+    private interface ChunkTask {
+        void run(int chunk, int from, int to);
+    }
+
+    /**
+     * Reduces a chunk into {@code result[index]} (and {@code result[index + 1]} for compensated
+     * sums).
+     */
+    @FunctionalInterface
+    private interface RangeSum {
+        void run(int from, int to, double[] result, int index);
+    }
+
+    /**
+     * Reduces a chunk to its extreme and records in {@code nan[index]} whether it contains NaN.
+     */
+    @FunctionalInterface
+    private interface RangeExtreme {
+        double run(int from, int to, boolean[] nan, int index);
+    }
+
+    /**
+     * The number of elements read from a {@link DoubleSource} at a time, a multiple of four so that
+     * the blocks keep the accumulator assignment of {@link #sumRange}.
+     */
+    private static final int BLOCK = 1 << 12;
+
+    private static final int MIN_GRAIN = 1 << 16;
+
+    /**
+     * Number of rows for which {@link #rowSums} accumulates partial sums while walking over the
+     * columns, the partial sums of one block stay in the L1 cache.
+     */
+    private static final int ROW_BLOCK = 512;
+
+    private static final long NEGATIVE_ZERO = Double.doubleToRawLongBits(-0.0d);
+
+    private VectorReductions() {
+        // no instances
+    }
+
+    public static boolean isParallel(int length) {
+        return length >= FastROptions.ReduceParallelThreshold.getNonNegativeIntValue() && RParallel.isEnabled();
+    }
+
+    @TruffleBoundary
+    private static int forEachChunk(int from, int to, ChunkTask task) {
+        int grain = RParallel.grainSize(to - from, MIN_GRAIN);
+        int chunks = (to - from + grain - 1) / grain;
+        RParallel.forEachChunk(0, chunks, 1, (c0, c1) -> {
+            for (int c = c0; c < c1; c++) {
+                int start = from + c * grain;
+                task.run(c, start, Math.min(to, start + grain));
+            }
+        });
+        return chunks;
+    }
+
+    private static int chunkCount(int length) {
+        int grain = RParallel.grainSize(length, MIN_GRAIN);
+        return (length + grain - 1) / grain;
+    }
+
+    /**
+     * Returns {@code true} if {@code [from, to)} contains {@link RRuntime#DOUBLE_NA}.
+     */
+    public static boolean containsNA(double[] data, int from, int to) {
+        for (int i = from; i < to; i++) {
+            double d = data[i];
+            if (d != d && RRuntime.isNA(d)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns {@code true} if all values in {@code [from, to)} are NaN (or NA), i.e., nothing is
+     * left after removing them.
+     */
+    public static boolean isAllNaN(double[] data, int from, int to) {
+        for (int i = from; i < to; i++) {
+            double d = data[i];
+            if (d == d) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /*
+     * NaN results are NA if there was an NA in the input, since the payload is not reliably
+     * propagated by the hardware.
+     */
+    private static double checkNaN(double[] data, int from, int to, boolean naRm, double result) {
+        if (!naRm && result != result && containsNA(data, from, to)) {
+            return RRuntime.DOUBLE_NA;
+        }
+        return result;
+    }
+
+    // sum
+
+    public static double sum(double[] data, int from, int to, boolean naRm, SumPrecision precision) {
+        double result;
+        if (isParallel(to - from)) {
+            boolean compensated = precision == SumPrecision.COMPENSATED;
+            result = sumParallel(from, to, compensated, (start, end, partial, index) -> {
+                if (compensated) {
+                    sumCompensated(data, start, end, naRm, partial, index);
+                } else {
+                    partial[index] = sumRange(data, start, end, naRm);
+                }
+            });
+        } else if (precision == SumPrecision.COMPENSATED) {
+            double[] partial = new double[2];
+            sumCompensated(data, from, to, naRm, partial, 0);
+            result = finishCompensated(partial[0], partial[1]);
+        } else {
+            result = sumRange(data, from, to, naRm);
+        }
+        return checkNaN(data, from, to, naRm, result);
+    }
+
+    /**
+     * Computes the same sum as {@link #sum(double[], int, int, boolean, SumPrecision)} for the
+     * first {@code length} elements of {@code source}, the result is identical to that of the
+     * elements copied to an array.
+     */
+    @TruffleBoundary
+    public static double sum(DoubleSource source, int length, boolean naRm, SumPrecision precision) {
+        boolean compensated = precision == SumPrecision.COMPENSATED;
+        RangeSum rangeSum = (start, end, partial, index) -> sumSource(source, start, end, naRm, compensated, partial, index);
+        double result;
+        if (isParallel(length)) {
+            result = sumParallel(0, length, compensated, rangeSum);
+        } else {
+            double[] partial = new double[2];
+            rangeSum.run(0, length, partial, 0);
+            result = compensated ? finishCompensated(partial[0], partial[1]) : partial[0];
+        }
+        if (!naRm && result != result && containsNA(source, length)) {
+            return RRuntime.DOUBLE_NA;
+        }
+        return result;
+    }
+
+    private static double sumParallel(int from, int to, boolean compensated, RangeSum rangeSum) {
+        double[] partial = new double[2 * chunkCount(to - from)];
+        int chunks = forEachChunk(from, to, (chunk, start, end) -> rangeSum.run(start, end, partial, 2 * chunk));
+        double sum = 0;
+        double compensation = 0;
+        for (int c = 0; c < chunks; c++) {
+            double value = partial[2 * c];
+            if (compensated) {
+                double t = sum + value;
+                compensation += partial[2 * c + 1] + (Math.abs(sum) >= Math.abs(value) ? (sum - t) + value : (value - t) + sum);
+                sum = t;
+            } else {
+                sum += value;
+            }
+        }
+        return compensated ? finishCompensated(sum, compensation) : sum;
+    }
+
+    /*
+     * Four independent accumulators break the dependency chain between the additions, which lets
+     * the compiler keep several additions in flight.
+     */
+    private static double sumRange(double[] data, int from, int to, boolean naRm) {
+        double s0 = 0;
+        double s1 = 0;
+        double s2 = 0;
+        double s3 = 0;
+        int i = from;
+        if (naRm) {
+            for (; i < to; i++) {
+                double d = data[i];
+                if (d == d) {
+                    s0 += d;
+                }
+            }
+            return s0;
+        }
+        for (; i <= to - 4; i += 4) {
+            s0 += data[i];
+            s1 += data[i + 1];
+            s2 += data[i + 2];
+            s3 += data[i + 3];
+        }
+        for (; i < to; i++) {
+            s0 += data[i];
+        }
+        return (s0 + s1) + (s2 + s3);
+    }
+
+    private static void sumCompensated(double[] data, int from, int to, boolean naRm, double[] result, int index) {
+        double sum = 0;
+        double compensation = 0;
+        for (int i = from; i < to; i++) {
+            double d = data[i];
+            if (naRm && d != d) {
+                continue;
+            }
+            double t = sum + d;
+            if (Math.abs(sum) >= Math.abs(d)) {
+                compensation += (sum - t) + d;
+            } else {
+                compensation += (d - t) + sum;
+            }
+            sum = t;
+        }
+        result[index] = sum;
+        result[index + 1] = compensation;
+    }
+
+    /*
+     * The loops of sumRange and sumCompensated, with the accumulators carried over from one block
+     * to the next.
+     */
+    private static void sumSource(DoubleSource source, int from, int to, boolean naRm, boolean compensated, double[] result, int index) {
+        double[] block = new double[Math.min(BLOCK, to - from)];
+        double s0 = 0;
+        double s1 = 0;
+        double s2 = 0;
+        double s3 = 0;
+        for (int start = from; start < to; start += BLOCK) {
+            int n = Math.min(BLOCK, to - start);
+            source.get(start, block, 0, n);
+            int i = 0;
+            if (compensated) {
+                // s0 is the sum, s1 the compensation
+                for (; i < n; i++) {
+                    double d = block[i];
+                    if (naRm && d != d) {
+                        continue;
+                    }
+                    double t = s0 + d;
+                    if (Math.abs(s0) >= Math.abs(d)) {
+                        s1 += (s0 - t) + d;
+                    } else {
+                        s1 += (d - t) + s0;
+                    }
+                    s0 = t;
+                }
+            } else if (naRm) {
+                for (; i < n; i++) {
+                    double d = block[i];
+                    if (d == d) {
+                        s0 += d;
+                    }
+                }
+            } else {
+                for (; i <= n - 4; i += 4) {
+                    s0 += block[i];
+                    s1 += block[i + 1];
+                    s2 += block[i + 2];
+                    s3 += block[i + 3];
+                }
+                // only in the last block
+                for (; i < n; i++) {
+                    s0 += block[i];
+                }
+            }
+        }
+        if (compensated) {
+            result[index] = s0;
+            result[index + 1] = s1;
+        } else {
+            result[index] = naRm ? s0 : (s0 + s1) + (s2 + s3);
+        }
+    }
+
+    private static double finishCompensated(double sum, double compensation) {
+        // the compensation is meaningless (NaN) once the sum overflowed
+        return Double.isFinite(sum) ? sum + compensation : sum;
+    }
+
+    // mean
+
+    /**
+     * Computes the mean like GnuR: the compensated sum divided by the length is refined by the mean
+     * of the deviations from it.
+     */
+    public static double mean(double[] data, int from, int to) {
+        int n = to - from;
+        double sum = sum(data, from, to, false, SumPrecision.COMPENSATED);
+        if (sum != sum) {
+            return sum;
+        }
+        double mean = sum / n;
+        if (Double.isFinite(mean)) {
+            double correction;
+            if (isParallel(n)) {
+                double[] partial = new double[chunkCount(n)];
+                int chunks = forEachChunk(from, to, (chunk, start, end) -> partial[chunk] = sumDeviations(data, start, end, mean));
+                correction = 0;
+                for (int c = 0; c < chunks; c++) {
+                    correction += partial[c];
+                }
+            } else {
+                correction = sumDeviations(data, from, to, mean);
+            }
+            return mean + correction / n;
+        }
+        return mean;
+    }
+
+    private static double sumDeviations(double[] data, int from, int to, double mean) {
+        double s0 = 0;
+        double s1 = 0;
+        int i = from;
+        for (; i <= to - 2; i += 2) {
+            s0 += data[i] - mean;
+            s1 += data[i + 1] - mean;
+        }
+        if (i < to) {
+            s0 += data[i] - mean;
+        }
+        return s0 + s1;
+    }
+
+    // prod
+
+    public static double prod(double[] data, int from, int to, boolean naRm) {
+        double result;
+        if (isParallel(to - from)) {
+            double[] partial = new double[chunkCount(to - from)];
+            int chunks = forEachChunk(from, to, (chunk, start, end) -> partial[chunk] = prodRange(data, start, end, naRm));
+            result = 1;
+            for (int c = 0; c < chunks; c++) {
+                result *= partial[c];
+            }
+        } else {
+            result = prodRange(data, from, to, naRm);
+        }
+        return checkNaN(data, from, to, naRm, result);
+    }
+
+    private static double prodRange(double[] data, int from, int to, boolean naRm) {
+        double result = 1;
+        for (int i = from; i < to; i++) {
+            double d = data[i];
+            if (!naRm || d == d) {
+                result *= d;
+            }
+        }
+        return result;
+    }
+
+    // max, min
+
+    /**
+     * Returns the maximum of {@code [from, to)}, {@code -Inf} if the range is empty (after removing
+     * NaN values if {@code naRm} is set). Without {@code naRm}, the result is NA if there is an NA
+     * value, or the first NaN value if there is a NaN value.
+     */
+    public static double max(double[] data, int from, int to, boolean naRm) {
+        return extreme(data, from, to, naRm, true);
+    }
+
+    /**
+     * Returns the minimum of {@code [from, to)}, see {@link #max}.
+     */
+    public static double min(double[] data, int from, int to, boolean naRm) {
+        return extreme(data, from, to, naRm, false);
+    }
+
+    /**
+     * Computes the same maximum as {@link #max(double[], int, int, boolean)} for the first
+     * {@code length} elements of {@code source}.
+     */
+    @TruffleBoundary
+    public static double max(DoubleSource source, int length, boolean naRm) {
+        return extreme(source, length, naRm, true);
+    }
+
+    /**
+     * Computes the same minimum as {@link #min(double[], int, int, boolean)} for the first
+     * {@code length} elements of {@code source}.
+     */
+    @TruffleBoundary
+    public static double min(DoubleSource source, int length, boolean naRm) {
+        return extreme(source, length, naRm, false);
+    }
+
+    private static double extreme(double[] data, int from, int to, boolean naRm, boolean max) {
+        boolean[] seenNaN = new boolean[1];
+        double result = extreme(from, to, max, seenNaN, (start, end, nan, index) -> extremeRange(data, start, end, max, nan, index));
+        if (seenNaN[0] && !naRm) {
+            return firstNaN(data, from, to);
+        }
+        return result;
+    }
+
+    private static double extreme(DoubleSource source, int length, boolean naRm, boolean max) {
+        boolean[] seenNaN = new boolean[1];
+        double result = extreme(0, length, max, seenNaN, (start, end, nan, index) -> extremeSource(source, start, end, max, nan, index));
+        if (seenNaN[0] && !naRm) {
+            return firstNaN(source, length);
+        }
+        return result;
+    }
+
+    private static double extreme(int from, int to, boolean max, boolean[] seenNaN, RangeExtreme rangeExtreme) {
+        if (isParallel(to - from)) {
+            int chunkCount = chunkCount(to - from);
+            double[] partial = new double[chunkCount];
+            boolean[] nan = new boolean[chunkCount];
+            int chunks = forEachChunk(from, to, (chunk, start, end) -> partial[chunk] = rangeExtreme.run(start, end, nan, chunk));
+            double result = max ? Double.NEGATIVE_INFINITY : Double.POSITIVE_INFINITY;
+            for (int c = 0; c < chunks; c++) {
+                result = max ? maxStep(result, partial[c]) : minStep(result, partial[c]);
+                seenNaN[0] |= nan[c];
+            }
+            return result;
+        } else {
+            return rangeExtreme.run(from, to, seenNaN, 0);
+        }
+    }
+
+    private static double extremeSource(DoubleSource source, int from, int to, boolean max, boolean[] nan, int index) {
+        double[] block = new double[Math.min(BLOCK, to - from)];
+        double result = max ? Double.NEGATIVE_INFINITY : Double.POSITIVE_INFINITY;
+        boolean seenNaN = false;
+        for (int start = from; start < to; start += BLOCK) {
+            int n = Math.min(BLOCK, to - start);
+            source.get(start, block, 0, n);
+            for (int i = 0; i < n; i++) {
+                double d = block[i];
+                seenNaN |= d != d;
+                result = max ? maxStep(result, d) : minStep(result, d);
+            }
+        }
+        nan[index] = seenNaN;
+        return result;
+    }
+
+    /*
+     * NaN values never compare greater (smaller) than the current result and are therefore skipped,
+     * the loop only records whether there were any.
+     */
+    private static double extremeRange(double[] data, int from, int to, boolean max, boolean[] nan, int index) {
+        boolean seenNaN = false;
+        double result;
+        if (max) {
+            result = Double.NEGATIVE_INFINITY;
+            for (int i = from; i < to; i++) {
+                double d = data[i];
+                seenNaN |= d != d;
+                result = maxStep(result, d);
+            }
+        } else {
+            result = Double.POSITIVE_INFINITY;
+            for (int i = from; i < to; i++) {
+                double d = data[i];
+                seenNaN |= d != d;
+                result = minStep(result, d);
+            }
+        }
+        nan[index] = seenNaN;
+        return result;
+    }
+
+    // +0 is greater than -0, as in BinaryArithmetic.MAX
+    private static double maxStep(double result, double d) {
+        return d > result || (d == result && Double.doubleToRawLongBits(result) == NEGATIVE_ZERO) ? d : result;
+    }
+
+    // -0 is smaller than +0, as in BinaryArithmetic.MIN
+    private static double minStep(double result, double d) {
+        return d < result || (d == result && Double.doubleToRawLongBits(d) == NEGATIVE_ZERO) ? d : result;
+    }
+
+    private static double firstNaN(double[] data, int from, int to) {
+        double first = Double.NaN;
+        boolean found = false;
+        for (int i = from; i < to; i++) {
+            double d = data[i];
+            if (d != d) {
+                if (RRuntime.isNA(d)) {
+                    return RRuntime.DOUBLE_NA;
+                } else if (!found) {
+                    first = d;
+                    found = true;
+                }
+            }
+        }
+        return first;
+    }
+
+    private static double firstNaN(DoubleSource source, int length) {
+        double[] block = new double[Math.min(BLOCK, length)];
+        double first = Double.NaN;
+        boolean found = false;
+        for (int start = 0; start < length; start += BLOCK) {
+            int n = Math.min(BLOCK, length - start);
+            source.get(start, block, 0, n);
+            for (int i = 0; i < n; i++) {
+                double d = block[i];
+                if (d != d) {
+                    if (RRuntime.isNA(d)) {
+                        return RRuntime.DOUBLE_NA;
+                    } else if (!found) {
+                        first = d;
+                        found = true;
+                    }
+                }
+            }
+        }
+        return first;
+    }
+
+    private static boolean containsNA(DoubleSource source, int length) {
+        double[] block = new double[Math.min(BLOCK, length)];
+        for (int start = 0; start < length; start += BLOCK) {
+            int n = Math.min(BLOCK, length - start);
+            source.get(start, block, 0, n);
+            if (containsNA(block, 0, n)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns {@code true} if all of the first {@code length} elements of {@code source} are NaN
+     * (or NA).
+     */
+    @TruffleBoundary
+    public static boolean isAllNaN(DoubleSource source, int length) {
+        double[] block = new double[Math.min(BLOCK, length)];
+        for (int start = 0; start < length; start += BLOCK) {
+            int n = Math.min(BLOCK, length - start);
+            source.get(start, block, 0, n);
+            if (!isAllNaN(block, 0, n)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // colSums, rowSums
+
+    /**
+     * Computes the column sums of a column-major {@code rows x cols} matrix, see {@link #sum} for
+     * the handling of NA and NaN values.
+     */
+    public static double[] colSums(double[] data, int rows, int cols, boolean naRm) {
+        double[] result = new double[cols];
+        if (isParallel(data.length) && cols >= RParallel.getParallelism()) {
+            RParallel.forEachChunk(0, cols, RParallel.grainSize(cols, 1), (c0, c1) -> {
+                for (int c = c0; c < c1; c++) {
+                    int start = c * rows;
+                    result[c] = checkNaN(data, start, start + rows, naRm, sumRange(data, start, start + rows, naRm));
+                }
+            });
+        } else {
+            for (int c = 0; c < cols; c++) {
+                result[c] = sum(data, c * rows, (c + 1) * rows, naRm, SumPrecision.DOUBLE);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Computes the row sums of a column-major {@code rows x cols} matrix without NA values. The
+     * matrix is traversed in memory order, column by column, for a block of rows at a time, so that
+     * every element is loaded exactly once and the inner loop is a simple vector addition. Each row
+     * is summed in column order, the results are identical to the row-wise traversal.
+     */
+    public static double[] rowSums(double[] data, int rows, int cols) {
+        double[] result = new double[rows];
+        int blocks = (rows + ROW_BLOCK - 1) / ROW_BLOCK;
+        RParallel.RangeTask task = (b0, b1) -> {
+            for (int b = b0; b < b1; b++) {
+                int r0 = b * ROW_BLOCK;
+                int r1 = Math.min(rows, r0 + ROW_BLOCK);
+                int pos = 0;
+                for (int c = 0; c < cols; c++) {
+                    for (int r = r0; r < r1; r++) {
+                        result[r] += data[pos + r];
+                    }
+                    pos += rows;
+                }
+            }
+        };
+        if (isParallel(data.length) && blocks > 1) {
+            RParallel.forEachChunk(0, blocks, 1, task);
+        } else {
+            task.run(0, blocks);
+        }
+        return result;
+    }
+}
@@ -11,6 +11,7 @@
  */
 package com.oracle.truffle.r.runtime.rng;
 
+import java.util.Arrays;
 import java.util.function.Supplier;
 
 import com.oracle.truffle.api.CompilerDirectives.CompilationFinal;
@@ -188,6 +189,16 @@ public class RRNG {
             }
         }
 
+        /**
+         * Forgets all generators and starts over with the default kinds, seeded from the time, as
+         * after {@link #initialize(RContext)}.
+         */
+        public void reset(RContext context) {
+            Arrays.fill(allGenerators, null);
+            currentNormKind = DEFAULT_NORM_KIND;
+            initialize(context);
+        }
+
         public static ContextStateImpl newContextState() {
             return new ContextStateImpl();
         }
@@ -22,4 +22,13 @@ public class TestBuiltin_asS4 extends TestBase {
     public void testasS41() {
         assertEval("argv <- structure(list(object = structure(NA, .Dim = c(1L, 1L))),     .Names = 'object');do.call('asS4', argv)");
     }
+
+    @Test
+    public void testasS4CompactVectors() {
+        assertEval("{ x <- asS4(1:10); c(isS4(x), sum(x)) }");
+        assertEval("{ x <- asS4(seq(0.5, 5, by=0.5)); c(isS4(x), sum(x)) }");
+        assertEval("{ x <- asS4(rep(1:10, each=1000)); c(isS4(x), length(x), sum(x)) }");
+        assertEval("{ x <- asS4(rep(c(1.5, 2.5), times=1000)); c(isS4(x), length(x), sum(x)) }");
+        assertEval("{ x <- asS4(rep_len(1:3, 2000)); c(isS4(x), x[1999:2000]) }");
+    }
 }
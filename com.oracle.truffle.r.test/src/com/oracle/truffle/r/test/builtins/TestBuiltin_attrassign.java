@@ -103,4 +103,13 @@ public class TestBuiltin_attrassign extends TestBase {
         assertEval(Output.IgnoreErrorContext, "x<-42; attr(x, NULL) <- NULL");
         assertEval(Output.IgnoreErrorContext, "x<-42; attr(x, 42) <- NULL");
     }
+
+    @Test
+    public void testSharedList() {
+        assertEval("{ x <- as.list(1:100); y <- x; attr(y, 'a') <- 1; y[[1]] <- 0L; list(x[[1]], y[[1]], attributes(x), attributes(y)) }");
+        assertEval("{ x <- as.list(1:100); attr(x, 'a') <- 1; y <- x; attr(y, 'b') <- 2; x[[2]] <- 'x'; list(x[[2]], y[[2]], attributes(x), attributes(y)) }");
+        assertEval("{ x <- structure(as.list(1:100), a = 1, b = 2); y <- x; attr(y, 'a') <- NULL; list(attributes(x), attributes(y)) }");
+        // a shared list that is only read by a replacement keeps sharing its elements with its copy
+        assertEval("{ x <- as.list(1:100); y <- x; attr(y, 'a') <- 1; z <- vector('list', 100); z[1:100] <- x; y[[3]] <- 0L; z[[4]] <- 0L; list(x[3:4], y[3:4], z[3:4]) }");
+    }
 }
@@ -91,4 +91,11 @@ public class TestBuiltin_colSums extends TestBase {
         // colSums on array have correct values
         assertEval("{ a = colSums(array(1:24,c(2,3,4))); c(a[1,1],a[2,2],a[3,3],a[3,4]) }");
     }
+
+    @Test
+    public void testColSumsLarge() {
+        assertEval("{ m <- matrix(sin(1:2000000), 1000); s <- colSums(m); c(length(s), s[1], s[2000]) }");
+        assertEval("{ m <- matrix(sin(1:2000000), 4); s <- colSums(m); c(length(s), s[1], s[500000]) }");
+        assertEval("{ m <- matrix(c(1, NaN, 3, 4), 2); colSums(m, na.rm=TRUE) }");
+    }
 }
@@ -61,4 +61,11 @@ public class TestBuiltin_formatPOSIXlt extends TestBase {
     public void testformatPOSIXlt9() {
         assertEval("argv <- list(structure(list(sec = numeric(0), min = integer(0), hour = integer(0), mday = integer(0), mon = integer(0), year = integer(0), wday = integer(0), yday = integer(0), isdst = integer(0)), .Names = c('sec', 'min', 'hour', 'mday', 'mon', 'year', 'wday', 'yday', 'isdst'), class = c('POSIXlt', 'POSIXt'), tzone = 'UTC'), '%Y-%m-%d', TRUE); .Internal(format.POSIXlt(argv[[1]], argv[[2]], argv[[3]]))");
     }
+
+    @Test
+    public void testformatPOSIXltNormalize() {
+        assertEval("{ x <- as.POSIXlt('2016-01-31', tz='UTC'); x$mday <- x$mday + 1L; format(x, '%Y-%m-%d') }");
+        assertEval("{ x <- as.POSIXlt('2016-12-31 23:59:30', tz='UTC'); x$sec <- x$sec + 45; format(x, '%Y-%m-%d %H:%M:%S') }");
+        assertEval("{ x <- as.POSIXlt('2016-03-01 00:00:00', tz='UTC'); x$min <- -1L; x$mon <- 14L; format(x, '%F %T') }");
+    }
 }
@@ -49,4 +49,41 @@ public class TestBuiltin_listfiles extends TestBase {
         // TODO Why does GnuR not require the leading "." when Java does?
         assertEval("{ list.files(\"test/r/simple/data/tree1\", pattern=\".*.tx\") }");
     }
+
+    private static final String TREE = "d <- tempfile(); dir.create(file.path(d, 'sub'), recursive=TRUE); dir.create(file.path(d, '.hidden')); " +
+                    "invisible(file.create(file.path(d, c('a.CSV', 'b.csv', 'c.txt', '.h.csv', 'sub/d.Csv', '.hidden/e.csv')))); ";
+
+    @Test
+    public void testFileListingOptions() {
+        assertEval("{ " + TREE + "r <- list.files(d, pattern='\\\\.csv$', ignore.case=TRUE); unlink(d, recursive=TRUE); r }");
+        assertEval("{ " + TREE + "r <- list.files(d, pattern='\\\\.csv$', ignore.case=TRUE, recursive=TRUE); unlink(d, recursive=TRUE); r }");
+        assertEval("{ " + TREE + "r <- list.files(d, pattern='^[AB]', ignore.case=TRUE); unlink(d, recursive=TRUE); r }");
+        assertEval("{ " + TREE + "r <- list.files(d, pattern='\\\\.csv$', recursive=TRUE, all.files=TRUE); unlink(d, recursive=TRUE); r }");
+        assertEval("{ " + TREE + "r <- list.files(d, all.files=TRUE); unlink(d, recursive=TRUE); r }");
+    }
+
+    @Test
+    public void testFastRListFiles() {
+        assertEvalFastR("{ " + TREE + "r <- .fastr.list.files(d, pattern='csv$', recursive=TRUE, ignore.case=TRUE); unlink(d, recursive=TRUE); r }", "c('a.CSV', 'b.csv', 'sub/d.Csv')");
+        assertEvalFastR("{ " + TREE + "writeLines('abc', file.path(d, 'c.txt')); i <- .fastr.list.files(d, info=TRUE); f <- file.info(file.path(d, i$name)); " +
+                        "r <- list(i$name, i$size[!i$isdir], i$isdir, all(i$size == f$size), all(i$mode == f$mode), all(abs(i$mtime - as.numeric(f$mtime)) < 1), " +
+                        "!anyNA(i$ctime), all(i$ctime >= floor(i$mtime)), all(i$uname == f$uname)); unlink(d, recursive=TRUE); r }",
+                        "list(c('a.CSV', 'b.csv', 'c.txt', 'sub'), c(0, 0, 4), c(FALSE, FALSE, FALSE, TRUE), TRUE, TRUE, TRUE, TRUE, TRUE, TRUE)");
+    }
+
+    @Test
+    public void testFastRDirCursor() {
+        assertEvalFastR("{ d <- tempfile(); dir.create(d); invisible(file.create(file.path(d, sprintf('f%02d', 1:25)))); h <- .fastr.dir.open(d); r <- character(); n <- 0; " +
+                        "repeat { b <- .fastr.dir.read(h, 10); if (length(b) == 0) break; stopifnot(length(b) <= 10); r <- c(r, b); n <- n + 1 }; " +
+                        "e <- tryCatch(.fastr.dir.read(h), error=function(e) conditionMessage(e)); unlink(d, recursive=TRUE); list(sort(r), n >= 3, e) }",
+                        "list(sprintf('f%02d', 1:25), TRUE, 'invalid directory handle')");
+        assertEvalFastR("{ d <- tempfile(); dir.create(d); invisible(file.create(file.path(d, sprintf('f%02d', 1:5)))); h <- .fastr.dir.open(d, pattern='[13]$', full.names=TRUE); " +
+                        "r <- character(); repeat { b <- .fastr.dir.read(h, 100); if (length(b) == 0) break; r <- c(r, b) }; r <- sort(r); .fastr.dir.close(h); e <- tryCatch(.fastr.dir.read(h), error=function(e) conditionMessage(e)); unlink(d, recursive=TRUE); " +
+                        "list(basename(r), dirname(r) == d, e) }", "list(c('f01', 'f03'), c(TRUE, TRUE), 'invalid directory handle')");
+        // handles that are closed while the walk is running
+        assertEvalFastR("{ d <- tempfile(); dir.create(d); invisible(file.create(file.path(d, sprintf('f%02d', 1:25)))); h1 <- .fastr.dir.open(d); h2 <- .fastr.dir.open(d); " +
+                        "b <- .fastr.dir.read(h2, 1); .fastr.dir.close(h1); .fastr.dir.close(h2); .fastr.dir.close(h2); " +
+                        "e <- tryCatch(.fastr.dir.read(h2), error=function(e) conditionMessage(e)); unlink(d, recursive=TRUE); list(length(b), h1 != h2, e) }",
+                        "list(1L, TRUE, 'invalid directory handle')");
+    }
 }
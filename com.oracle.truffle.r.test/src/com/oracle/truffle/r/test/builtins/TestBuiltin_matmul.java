@@ -35,4 +35,11 @@ public class TestBuiltin_matmul extends TestBase {
         assertEval("vec <- c(1,2); names(vec) <- c('a','b'); mat <- matrix(c(8,3),1,2,dimnames=list('row',c('c1','c2'))); vec %*% mat; ");
     }
 
+    @Test
+    public void testMatmulLarge() {
+        // large enough to be computed in tiles by multiple threads
+        assertEval("{ m <- matrix(as.double(1:40000) %% 7, 200); r <- m %*% m; c(dim(r), sum(r), r[1,1], r[200,200]) }");
+        assertEval("{ m <- matrix(as.double(1:40000) %% 7, 200); identical(m %*% t(m), tcrossprod(m)) && identical(t(m) %*% m, crossprod(m)) }");
+        assertEval("{ m <- matrix(as.double(1:40000) %% 7, 200); m[3, 5] <- NA; r <- m %*% m; c(sum(is.na(r)), sum(r, na.rm=TRUE)) }");
+    }
 }
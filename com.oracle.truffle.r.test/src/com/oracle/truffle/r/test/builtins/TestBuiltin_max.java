@@ -220,4 +220,13 @@ public class TestBuiltin_max extends TestBase {
         assertEval(Ignored.Unknown, Output.IgnoreWarningContext, "{ max(as.integer(NA), na.rm=TRUE) }");
         assertEval(Ignored.Unknown, Output.IgnoreWarningContext, "{ max(as.integer(NA), as.integer(NA), na.rm=TRUE) }");
     }
+
+    @Test
+    public void testMaxLarge() {
+        assertEval("{ x <- sin(1:2000000); c(max(x), min(x), range(x)) }");
+        assertEval("{ x <- sin(1:2000000); x[1000] <- NaN; x[1500000] <- NA; c(max(x), min(x), max(x, na.rm=TRUE)) }");
+        assertEval("{ x <- sin(1:2000000); x[1000] <- NaN; max(x) }");
+        assertEval("{ max(c(-0, 0, -0)) }");
+        assertEval("{ max(c(NA_real_, NaN), na.rm=TRUE) }");
+    }
 }
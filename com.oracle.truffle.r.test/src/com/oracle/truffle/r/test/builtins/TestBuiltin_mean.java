@@ -141,4 +141,11 @@ public class TestBuiltin_mean extends TestBase {
         assertEval("{ mean(c(TRUE, TRUE))}");
         assertEval("{ mean(c(TRUE, FALSE))}");
     }
+
+    @Test
+    public void testMeanLarge() {
+        assertEval("{ x <- sin(1:2000000); mean(x) }");
+        assertEval("{ x <- sin(1:2000000); x[1500000] <- NA; mean(x) }");
+        assertEval("{ mean(c(1e16, 1, -1e16, 3)) }");
+    }
 }
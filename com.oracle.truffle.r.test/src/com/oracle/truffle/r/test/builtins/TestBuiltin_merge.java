@@ -46,4 +46,16 @@ public class TestBuiltin_merge extends TestBase {
         assertEval(init + "merge(x, y, by = 'k1')");
         assertEval(Ignored.ImplementationError, init + "merge(x, y, by = 'k2', incomparables = NA)");
     }
+
+    @Test
+    public void testMergeJoin() {
+        String init = "x <- data.frame(a = c(3L,1L,2L,1L,5L), b = c('u','v','u','v','w'), vx = c(1.5,2.5,3.5,4.5,5.5));" +
+                        "y <- data.frame(a = c(1L,2L,3L,1L,4L), b = c('v','u','x','v','w'), vy = 11:15, stringsAsFactors = FALSE);";
+        assertEval(init + "merge(x, y)");
+        assertEval(init + "merge(x, y, by = 'a')");
+        assertEval(init + "merge(x, y, by = 'a', all.x = TRUE)");
+        assertEval(init + "merge(x[-2], y[-2], all = TRUE)");
+        assertEval(init + "merge(x[-2], y[-2], by = 'a', all.y = TRUE, sort = FALSE)");
+        assertEval(init + "merge(x, y, by.x = 'a', by.y = 'vy')");
+    }
 }
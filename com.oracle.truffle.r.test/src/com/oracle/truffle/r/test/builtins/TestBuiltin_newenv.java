@@ -37,4 +37,15 @@ public class TestBuiltin_newenv extends TestBase {
         assertEval(Output.ContainsReferences, "parent.env(new.env())");
         assertEval(Output.ContainsReferences, "e <- new.env(); e; parent.env(new.env(TRUE, e))");
     }
+
+    @Test
+    public void testNewEnvHashed() {
+        assertEval("e <- new.env(hash=TRUE); for (i in 1:1000) assign(paste0('k', i), i, envir=e); length(ls(e)); e$k500; get('k1000', envir=e); exists('k1001', envir=e)");
+        assertEval("e <- new.env(); for (i in 1:100) e[[paste0('k', i)]] <- i; for (i in seq(1, 100, 2)) rm(list=paste0('k', i), envir=e); ls(e); mget(c('k2', 'k100'), envir=e)");
+        assertEval("e <- new.env(); assign('a', 1, e); assign('b', 2, e); rm('a', envir=e); assign('c', 3, e); evalq(b + c, e); exists('a', envir=e); assign('d', 4, e); ls(e)");
+        assertEval("e <- new.env(); e$x <- 1; f <- function() x; environment(f) <- e; e$x <- 2; f()");
+        assertEval("e <- new.env(); e$x <- 1; e2 <- new.env(parent=e); get('x', envir=e2); exists('x', envir=e2, inherits=FALSE)");
+        assertEval("e <- new.env(); e$x <- 1; lockBinding('x', e); tryCatch(e$x <- 2, error=function(c) 'locked'); evalq(x, e); unlockBinding('x', e); e$x <- 3; e$x");
+        assertEval("e <- new.env(); e$.h <- 1; e$v <- 2; ls(e); ls(e, all.names=TRUE); sort(names(as.list(e, all.names=TRUE)))");
+    }
 }
@@ -163,4 +163,12 @@ public class TestBuiltin_order extends TestBase {
 
         assertEval("order(c('40 50', '405', '40 51', '4028', '40 20', '40 30', '404'))");
     }
+
+    @Test
+    public void testOrderSequence() {
+        assertEval("{ order(1:5) }");
+        assertEval("{ order(5:1) }");
+        assertEval("{ order(1:5, decreasing=TRUE) }");
+        assertEval("{ order(seq(10, 1, by=-3)) }");
+    }
 }
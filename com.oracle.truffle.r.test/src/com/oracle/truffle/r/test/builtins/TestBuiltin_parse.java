@@ -53,6 +53,23 @@ public class TestBuiltin_parse extends TestBase {
         assertEval(Ignored.ImplementationError, "attributes(parse(text='somethingthatdoesnotexist'))");
     }
 
+    @Test
+    public void testParseRepeated() {
+        // long enough to go through the parse cache, the second parse replays the first one
+        String code = "f <- function(x, y = 2L, ...) { z <- x * y + 1.5; if (is.na(z)) NA_character_ else paste0('value: ', z, ...) }; f(3); f(NA); f(1, 1, '!')";
+        assertEval("{ p1 <- parse(text=\"" + code + "\"); p2 <- parse(text=\"" + code + "\"); identical(p1, p2) }");
+        assertEval("{ for (i in 1:2) print(eval(parse(text=\"" + code + "\"))) }");
+        // the first parse of a new text is not recorded, the second one is, the third one replays it
+        assertEvalFastR("{ code <- paste0(\"" + code + "\", '; ', sample.int(1e9, 1)); h <- NULL; for (i in 1:3) { p <- parse(text=code); h <- c(h, .fastr.metrics()$caches[['parse.hits']]) }; diff(h) }", "c(0, 1)");
+    }
+
+    @Test
+    public void testParseRepeatedWarnings() {
+        // the warnings of the parser are reported on every parse, also when the tree is cached
+        String code = "f <- function(x, y = 2L, ...) { z <- x * y + 1.0L; if (is.na(z)) NA_character_ else paste0('value: ', z * 1e-3L, ...) }; f(3); f(NA); f(1, 1, '!')";
+        assertEval("{ n <- 0; for (i in 1:3) withCallingHandlers(parse(text=\"" + code + "\"), warning=function(w) { n <<- n + 1; invokeRestart('muffleWarning') }); n }");
+    }
+
     @Test
     public void testArgumentsCasts() {
         assertEval(".Internal(parse(stdin(), c(1,2), c('expr1', 'expr2'), '?', '<weird-text', 'unknown'))");
@@ -81,4 +81,13 @@ public class TestBuiltin_paste extends TestBase {
         assertEval("{ paste(sep=\"\") }");
         assertEval("{ paste(1:2, 1:3, FALSE, collapse=\"-\", sep=\"+\") }");
     }
+
+    @Test
+    public void testPasteColumns() {
+        assertEval("{ paste0(\"id_\", c(1L, -20L, NA, 300L), c(\"a\", \"b\")) }");
+        assertEval("{ paste(1:3, c(\"x\", \"y\", \"z\", \"w\", \"v\"), sep=\"::\") }");
+        assertEval("{ paste(integer(), 1:2, character()) }");
+        assertEval("{ x <- paste0(\"p\", 1:100000, \"s\"); c(length(x), x[c(1, 99999, 100000)]) }");
+        assertEval("{ paste(c(.Machine$integer.max, -.Machine$integer.max), collapse=\"/\") }");
+    }
 }
@@ -24,7 +24,7 @@ public class TestBuiltin_prod extends TestBase {
 
     @Test
     public void testprod2() {
-        assertEval(Ignored.Unknown, "argv <- list(c(1000L, 1000L));prod(argv[[1]]);");
+        assertEval("argv <- list(c(1000L, 1000L));prod(argv[[1]]);");
     }
 
     @Test
@@ -39,7 +39,7 @@ public class TestBuiltin_prod extends TestBase {
 
     @Test
     public void testprod5() {
-        assertEval(Ignored.Unknown, "argv <- list(integer(0));prod(argv[[1]]);");
+        assertEval("argv <- list(integer(0));prod(argv[[1]]);");
     }
 
     @Test
@@ -59,17 +59,17 @@ public class TestBuiltin_prod extends TestBase {
 
     @Test
     public void testprod9() {
-        assertEval(Ignored.Unknown, "argv <- list(NA_integer_);prod(argv[[1]]);");
+        assertEval("argv <- list(NA_integer_);prod(argv[[1]]);");
     }
 
     @Test
     public void testprod10() {
-        assertEval(Ignored.Unknown, "prod( );");
+        assertEval("prod( );");
     }
 
     @Test
     public void testprod11() {
-        assertEval(Ignored.Unknown, "argv <- list(numeric(0));prod(argv[[1]]);");
+        assertEval("argv <- list(numeric(0));prod(argv[[1]]);");
     }
 
     @Test
@@ -86,8 +86,30 @@ public class TestBuiltin_prod extends TestBase {
 
     @Test
     public void testProdNa() {
-        assertEval(Ignored.Unknown, "{prod(c(2,4,NA))}");
-        assertEval(Ignored.Unknown, "{prod(c(2,4,3,NA),TRUE)}");
-        assertEval(Ignored.Unknown, "{prod(c(1,2,3,4,5,NA),FALSE)}");
+        assertEval("{prod(c(2,4,NA))}");
+        assertEval("{prod(c(2,4,3,NA),TRUE)}");
+        assertEval("{prod(c(1,2,3,4,5,NA),FALSE)}");
+    }
+
+    @Test
+    public void testProdLarge() {
+        assertEval("{ x <- 1 + sin(1:2000000) / 1e6; prod(x) }");
+        assertEval("{ prod(numeric(0)) }");
+        assertEval("{ prod(c(2, NA, 3)) }");
+        assertEval("{ x <- c(1 + sin(1:200000) / 1e6, NA, NaN); list(prod(x), prod(x, na.rm=TRUE) == prod(x[1:200000])) }");
+    }
+
+    @Test
+    public void testProdNaRm() {
+        assertEval("{ prod(c(2, NaN, 3), na.rm=TRUE) }");
+        assertEval("{ prod(c(2L, NA, 3L)) }");
+        assertEval("{ prod(c(2L, NA, 3L), na.rm=TRUE) }");
+        assertEval("{ prod(c(TRUE, NA, TRUE)) }");
+        assertEval("{ prod(c(TRUE, NA, TRUE), na.rm=TRUE) }");
+        assertEval("{ prod(c(1+2i, NA, 3i), na.rm=TRUE) }");
+        assertEval("{ prod(complex(0)) }");
+        assertEval("{ prod(logical(0)) }");
+        assertEval("{ prod(NULL) }");
+        assertEval("{ prod(2:3, c(4, NA), na.rm=TRUE) }");
     }
 }
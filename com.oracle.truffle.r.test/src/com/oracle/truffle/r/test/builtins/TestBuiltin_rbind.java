@@ -72,4 +72,14 @@ public class TestBuiltin_rbind extends TestBase {
 
         assertEval("{ x<-data.frame(c(1,2),c(3,4)); dimnames(x) <- list(c(\"A\", \"B\"), c(\"C\", \"D\")); rbind(x) }");
     }
+
+    @Test
+    public void testRbindDataFrames() {
+        String init = "chunks <- lapply(1:5, function(i) data.frame(id = seq_len(i) + i, v = i / 2, f = letters[i:(2 * i - 1)], ok = i %% 2 == 0));";
+        assertEval(init + "do.call(rbind, chunks)");
+        assertEval(init + "r <- do.call(rbind, chunks); list(levels(r$f), sapply(r, class), attributes(r)$row.names)");
+        assertEval("{ rbind(data.frame(x = 1:2, y = c(TRUE, NA)), data.frame(x = 2.5, y = 3L)) }");
+        assertEval("{ rbind(data.frame(x = 1:2, y = c('a', 'b')), data.frame(x = 3L, y = 'c', stringsAsFactors = FALSE)) }");
+        assertEval("{ rbind(data.frame(x = 1:2, y = 3:4), data.frame(y = 5L, x = 6L)) }");
+    }
 }
@@ -219,4 +219,22 @@ public class TestBuiltin_rep extends TestBase {
         assertEval("{ rep(c(7, 42), times=c(2, NA)) }");
         assertEval(Output.IgnoreWarningContext, "{ rep(7, times=\"foo\") }");
     }
+
+    @Test
+    public void testRepRepeated() {
+        assertEval("{ x <- rep(1:3, each=1000); list(length(x), sum(x), range(x), x[c(1, 1000, 1001, 3000)]) }");
+        assertEval("{ x <- rep(c(2.5, NA, -1), times=500); list(sum(x), sum(x, na.rm=TRUE), range(x, na.rm=TRUE), max(x)) }");
+        assertEval("{ x <- rep(c(1L, 2L), each=600, length.out=2000); list(sum(x), min(x), tail(x, 3)) }");
+        assertEval("{ x <- rep(5:1, length.out=1001, each=300); list(sum(x), range(x)) }");
+        assertEval("{ x <- rep(0, 1e4); x[2] <- 1; list(sum(x), x[1:3]) }");
+        assertEval("{ x <- c(1, 2); y <- rep(x, times=1000); x[1] <- 10; list(y[1:4], x) }");
+        assertEval("{ y <- rep(1:4, times=500); y[2] <- 100L; list(sum(y), y[1:6]) }");
+        assertEval("{ y <- rep(1:4, times=500); z <- y * 2L + 1L; w <- 1 / y; v <- 10 - y; list(sum(z), z[1:5], w[1:4], v[1:4], typeof(z), typeof(w), typeof(v)) }");
+        assertEval("{ y <- rep(c(1.5, NA), each=1000); z <- y * 2; list(z[c(1, 1001)], sum(z, na.rm=TRUE)) }");
+        assertEval("{ x <- rep(c(1.5, 2.5), each=600); y <- c(x, 3); list(length(y), y[1199:1201]) }");
+        assertEval("{ x <- rep(1:2, each=600); list(typeof(as.double(x)), sum(as.double(x)), sum(as.integer(rep(c(1.5, 2.5), 600)))) }");
+        assertEval("{ x <- rep(1:2, 1000); y <- unserialize(serialize(x, NULL)); list(identical(x, y), sum(y)) }");
+        assertEval("{ s <- split(rep(1:3, each=500), rep(c('a', 'b'), 750)); sapply(s, sum) }");
+        assertEval("{ order(rep(3:1, each=400))[c(1, 400, 401, 1200)] }");
+    }
 }
@@ -56,4 +56,17 @@ public class TestBuiltin_rep_len extends TestBase {
         assertEval("{ rep_len(7, c(7, 42)) }");
 
     }
+
+    @Test
+    public void testRepLenSequence() {
+        assertEval("{ rep_len(1:10, 4) }");
+        assertEval("{ rep_len(10:1, 12) }");
+        assertEval("{ rep_len(1:3, 0) }");
+    }
+
+    @Test
+    public void testRepLenRepeated() {
+        assertEval("{ x <- rep_len(c(1, 2, 3), 2000); list(sum(x), x[1999:2000]) }");
+        assertEval("{ x <- rep_len(1:7, 5000); list(sum(x), range(x), x[4999:5000]) }");
+    }
 }
@@ -174,4 +174,10 @@ public class TestBuiltin_repint extends TestBase {
         assertEval("{ rep_int(7, function() 42) }");
         assertEval(Output.IgnoreErrorContext, "{ rep.int(7, NA)  }");
     }
+
+    @Test
+    public void testRepIntRepeated() {
+        assertEval("{ x <- rep.int(c(3L, 5L), 1000); list(length(x), sum(x), x[1999:2000]) }");
+        assertEval("{ x <- rep.int(c(0.5, 1.5), 1000); list(sum(x), max(x)) }");
+    }
 }
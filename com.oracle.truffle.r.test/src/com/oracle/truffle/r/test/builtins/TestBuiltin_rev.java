@@ -28,4 +28,14 @@ public class TestBuiltin_rev extends TestBase {
         assertEval("{ rev(1:3) }");
         assertEval("{ rev(c(1+1i, 2+2i)) }");
     }
+
+    @Test
+    public void testRevSequence() {
+        assertEval("{ x <- rev(1:10); x; sum(x); range(x); x[2:4] }");
+        assertEval("{ x <- rev(seq_len(5)); x[5:1] }");
+        assertEval("{ x <- 10:1; x[c(3:5)] + 1L }");
+        assertEval("{ x <- seq(2, 20, by=2); rev(x) }");
+        assertEval("{ x <- 1:5; x[4:7] }");
+        assertEval("{ x <- 1:5; x[0:2] }");
+    }
 }
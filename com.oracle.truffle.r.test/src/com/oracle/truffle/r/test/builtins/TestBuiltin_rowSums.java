@@ -102,4 +102,11 @@ public class TestBuiltin_rowSums extends TestBase {
 
         assertEval("{x<-matrix(c(\"1\",\"2\",\"3\",\"4\"),ncol=2);rowSums(x)}");
     }
+
+    @Test
+    public void testRowSumsLarge() {
+        assertEval("{ m <- matrix(sin(1:2000000), 1000); s <- rowSums(m); c(length(s), s[1], s[513], s[1000]) }");
+        assertEval("{ m <- matrix(sin(1:2000000), 1000); s <- rowMeans(m); c(length(s), s[1], s[1000]) }");
+        assertEval("{ m <- matrix(sin(1:2000000), 1000); m[3, 5] <- NA; s <- rowSums(m); c(s[2], s[3]) }");
+    }
 }
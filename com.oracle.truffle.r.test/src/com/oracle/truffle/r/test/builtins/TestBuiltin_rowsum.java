@@ -58,4 +58,11 @@ public class TestBuiltin_rowsum extends TestBase {
     public void testrowsum8() {
         assertEval("argv <- list(structure(c(1.33333333333333, -1.33333333333333, 1, 1.33333333333333, -2, 0.666666666666667, -0.666666666666667, 0.666666666666667, -0.666666666666667), .Dim = c(9L, 1L), .Dimnames = list(c('1', '2', '3', '4', '5', '6', '7', '8', '9'), 'x')), structure(c(1, 1, 2, 2, 2, 2, 3, 4, 5), .Names = c('1', '2', '3', '4', '5', '6', '7', '8', '9')), c(1, 2, 3, 4, 5), FALSE, c('1', '2', '3', '4', '5')); .Internal(rowsum_matrix(argv[[1]], argv[[2]], argv[[3]], argv[[4]], argv[[5]]))");
     }
+
+    @Test
+    public void testRowsumGroups() {
+        assertEval("rowsum(c(1, 2, 3, 4, 5), c('b', 'a', 'b', NA, 'a'))");
+        assertEval("rowsum(matrix(1:12, 6), c(2.5, -0, 2.5, 0, NA, NA))");
+        assertEval("rowsum(1:6, c(TRUE, FALSE, TRUE, NA, FALSE, TRUE), reorder = FALSE)");
+    }
 }
@@ -118,4 +118,24 @@ public class TestBuiltin_split extends TestBase {
         assertEval("{ g <- factor(round(c(0.4,1.3,0.6,1.8,2.5,4.1,2.2,1.0))) ; x <- c(0.1,3.2,1,0.6,1.9,3.3,1.6,1.7) + sqrt(as.numeric(g)) ; xg <- split(x, g) ; xg }");
         assertEval("{ x <- factor(c(\"a\", \"b\", \"a\")); attr(x, \"levels\")<-c(7L, 42L) ; split(1:3, x) }");
     }
+
+    @Test
+    public void testSplitNALevels() {
+        assertEval("split(c(1, 2, NA, 4, 5), factor(c('a', NA, 'b', 'a', NA)))");
+        assertEval("split(1:10, factor(c(1, 2, NA), levels = 1:3))");
+        assertEval("split(c('x', 'y', 'z'), factor(c('b', 'a', 'b')))");
+    }
+
+    @Test
+    public void testTapplySummaries() {
+        assertEval("tapply(c(1.5, 2, NA, 4, 5, 6), c('a', 'b', 'a', 'c', 'b', 'a'), sum)");
+        assertEval("tapply(c(1.5, 2, NA, 4, 5, 6), c('a', 'b', 'a', 'c', 'b', 'a'), sum, na.rm = TRUE)");
+        assertEval("tapply(c(1.5, 2, NA, 4, 5, 6), c('a', 'b', 'a', 'c', 'b', 'a'), mean, na.rm = TRUE)");
+        assertEval("tapply(1:12, rep(1:3, 4), max)");
+        assertEval("tapply(1:12, factor(rep(1:3, 4), levels = 1:4), length)");
+        assertEval("tapply(c(3L, NA, 1L, 7L), c(1, 1, 2, 2), min)");
+        assertEval("tapply(1:8, list(rep(c('x', 'y'), 4), rep(c('p', 'q', 'r', 's'), each = 2)), sum)");
+        assertEval("tapply(c(.Machine$integer.max, 1L, 2L), c(1, 1, 2), sum)");
+        assertEval("tapply(1:6, rep(1:2, 3), function(x) sum(x))");
+    }
 }
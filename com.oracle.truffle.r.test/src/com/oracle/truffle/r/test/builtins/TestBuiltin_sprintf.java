@@ -146,4 +146,12 @@ public class TestBuiltin_sprintf extends TestBase {
         assertEval("{ sprintf(c(\"foo %f %d\", \"bar %f %d\"), c(7,1), c(42L, 2L)) }");
         assertEval("{ sprintf(\"%.3g\", 1.234) }");
     }
+
+    @Test
+    public void testSprintfFormatPlan() {
+        assertEval("{ sprintf(\"%s_%05d\", c(\"a\", \"bb\"), c(42L, -42L, 7L, 123456L)) }");
+        assertEval("{ sprintf(\"%-4d|%4s|\", 1:3, c(\"x\", \"yy\", \"zzz\")) }");
+        assertEval("{ sprintf(\"%%%s%% %2$s\", \"a\", \"b\") }");
+        assertEval("{ sprintf(c(\"%d\", \"%5d\", \"%d\"), 3L) }");
+    }
 }
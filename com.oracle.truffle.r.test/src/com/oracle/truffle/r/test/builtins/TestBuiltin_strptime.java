@@ -66,4 +66,18 @@ public class TestBuiltin_strptime extends TestBase {
     public void teststrptime10() {
         assertEval("argv <- list(c('1937/01/01', '1916/01/01', '1913/01/01', '1927/01/01', '1947/01/01', '1913/01/01', '1917/01/01', '1923/01/01', '1921/01/01', '1926/01/01', '1920/01/01', '1915/01/01', '1914/01/01', '1914/01/01', '1914/01/01', '1919/01/01', '1948/01/01', '1911/01/01', '1909/01/01', '1913/01/01', '1925/01/01', '1926/01/01', '1910/01/01', '1917/01/01', '1936/01/01', '1938/01/01', '1960/01/01', '1915/01/01', '1919/01/01', '1924/01/01', '1914/01/01', '1905/01/01', '1921/01/01', '1929/01/01', '1926/01/01', '1921/01/01', '1908/01/01', '1928/01/01', '1919/01/01', '1921/01/01', '1925/01/01', '1934/01/01', '1927/01/01', '1928/01/01', '1934/01/01', '1922/01/01', '1923/01/01', '1915/01/01', '1934/01/01', '1925/01/01', '1922/01/01', '1930/01/01', '1924/01/01', '1923/01/01', '1919/01/01', '1932/01/01', '1930/01/01', '1923/01/01', '1930/01/01', '1922/01/01', '1919/01/01', '1932/01/01', '1939/01/01', '1923/01/01', '1920/01/01', '1919/01/01', '1952/01/01', '1927/01/01', '1924/01/01', '1919/01/01', '1925/01/01', '1945/01/01', '1916/01/01', '1943/01/01', '1920/01/01', '1920/01/01', '1931/01/01', '1924/01/01', '1919/01/01', '1926/01/01', '1920/01/01', '1952/01/01', '1919/01/01', '1930/01/01', '1925/01/01', '1924/01/01', '1926/01/01', '1918/01/01', '1922/01/01', '1921/01/01', '1925/01/01', '1928/01/01', '1925/01/01', '1929/01/01', '1933/01/01', '1947/01/01', '1950/01/01', '1945/01/01', '1924/01/01', '1939/01/01', '1924/01/01', '1933/01/01', '1928/01/01'), '%Y/%m/%d', ''); .Internal(strptime(argv[[1]], argv[[2]], argv[[3]]))");
     }
+
+    @Test
+    public void teststrptimeFixedLayouts() {
+        assertEval("{ x <- strptime(c('2016-01-02 03:04:05', '2016-02-30 00:00:00', '2016-2-3 4:05:06', NA), '%Y-%m-%d %H:%M:%S', tz='UTC'); format(x, '%Y-%m-%d %H:%M:%S') }");
+        assertEval("{ x <- strptime('2016-06-01T12:00:00.5+0200', '%Y-%m-%dT%H:%M:%OS%z', tz='UTC'); format(x, '%Y-%m-%d %H:%M:%OS1') }");
+        assertEval("{ x <- strptime('2016-06-01T12:00:00', '%FT%T', tz='UTC'); as.numeric(as.POSIXct(x)) }");
+    }
+
+    @Test
+    public void teststrptimeMissingDate() {
+        assertEval("{ x <- strptime('10:11:12', '%H:%M:%S', tz='UTC'); c(format(x, '%H:%M:%S'), format(x, '%Y-%m-%d') == format(Sys.time(), '%Y-%m-%d', tz='UTC')) }");
+        assertEval("{ x <- strptime('2016', '%Y', tz='UTC'); c(format(x, '%Y'), format(x, '%m-%d') == format(Sys.time(), '%m-%d', tz='UTC')) }");
+        assertEval("{ x <- strptime('2016-05', '%Y-%m', tz='UTC'); is.na(x) }");
+    }
 }
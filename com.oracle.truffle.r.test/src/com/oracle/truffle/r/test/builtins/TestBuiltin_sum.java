@@ -179,4 +179,37 @@ public class TestBuiltin_sum extends TestBase {
 
         assertEval("sum(v <- 42)");
     }
+
+    @Test
+    public void testSumLarge() {
+        assertEval("{ x <- sin(1:2000000); sum(x) }");
+        assertEval("{ x <- sin(1:2000000); x[1500000] <- NA; sum(x) }");
+        assertEval("{ x <- sin(1:2000000); x[1500000] <- NA; sum(x, na.rm=TRUE) }");
+        assertEval("{ x <- sin(1:2000000); x[10] <- NaN; sum(x) }");
+        assertEval("{ sum(c(1, NaN, 3), na.rm=TRUE) }");
+        assertEval("{ sum(c(Inf, 1, 2, 3, 4)) }");
+        assertEvalFastR("{ .fastr.sum(c(1e100, 1, -1e100)) }", "1");
+        assertEvalFastR("{ .fastr.sum(c(1e100, 1, -1e100), precision=\"double\") }", "0");
+        assertEvalFastR("{ .fastr.sum(c(1, NA, 3), na.rm=TRUE) }", "4");
+    }
+
+    @Test
+    public void testSumRounding() {
+        // sum uses four partial sums, the results agree with GnuR at the printed precision
+        assertEval("{ sum(c(0.1, 0.2, 0.3)) }");
+        assertEval("{ sum(seq(0.1, 1000, by=0.1)) }");
+        assertEval("{ sum((1:100000) / 3) }");
+        assertEval("{ sum(c(1e100, 1, -1e100)) }");
+        assertEval("{ sum(c(1, 1e100, 1, -1e100)) }");
+        // but not always in the last bits, GnuR accumulates in long double
+        assertEval(Ignored.ImplementationError, "{ sum(c(0.1, 0.2, 0.3)) == 0.6 }");
+        assertEvalFastR("{ .fastr.sum(c(0.1, 0.2, 0.3), precision=\"extended\") == 0.6 }", "TRUE");
+    }
+
+    @Test
+    public void testSumSequence() {
+        assertEval("{ sum(1:10000) }");
+        assertEval("{ sum(-5:5) }");
+        assertEval("{ max(10:1); min(10:1); range(seq(5, 50, by=5)) }");
+    }
 }
@@ -62,4 +62,15 @@ public class TestBuiltin_tcrossprod extends TestBase {
         assertEval(Ignored.Unknown,
                         "argv <- list(structure(c(1.1173625565162, 1.46907016195074, 1.1173625565162, -0.59596185089264, -1.32605913508878e-308, 0.595961850892641), .Dim = c(3L, 2L)), structure(c(0.517876924314756, 0.680886908762812, 0.517876924314755, -0.707106781186547, -1.57336481399136e-308, 0.707106781186548), .Dim = c(3L, 2L))); .Internal(tcrossprod(argv[[1]], argv[[2]]))");
     }
+
+    @Test
+    public void testTcrossprod() {
+        assertEval("{ x <- matrix(1:6, 2); tcrossprod(x) }");
+        assertEval("{ x <- matrix(c(1.5, 2, 3, 4, 5, 6), 2); y <- matrix(c(2, 1, 0, 3, 1, 1), 2); tcrossprod(x, y) }");
+        assertEval("{ tcrossprod(1:3) }");
+        assertEval("{ tcrossprod(c(1, 2), c(3, 4, 5)) }");
+        assertEval("{ tcrossprod(matrix(c(1, 2, 3, 4, 5, 6), 2), c(1, 0, 2)) }");
+        assertEval("{ x <- matrix(c(1, 2, 3, 4), 2, dimnames=list(c('a', 'b'), NULL)); tcrossprod(x) }");
+        assertEval("{ tcrossprod(c(1, NA, 2), matrix(c(1, 2, 3, 4, 5, 6), 2)) }");
+    }
 }
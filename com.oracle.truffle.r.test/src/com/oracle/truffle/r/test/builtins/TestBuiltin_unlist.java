@@ -343,4 +343,16 @@ public class TestBuiltin_unlist extends TestBase {
 
         assertEval("{ x<-quote(f(1,2)); y<-function(z) 42; l<-list(x, y, NULL); y<-unlist(l); c(length(y), typeof(y)) }");
     }
+
+    @Test
+    public void testUnlistUnnamed() {
+        assertEval("{ unlist(lapply(1:5, function(i) i * 2L)) }");
+        assertEval("{ unlist(lapply(1:5, function(i) if (i == 3) NA else i / 2)) }");
+        assertEval("{ unlist(list(1L, TRUE, NULL, 2:3, c(NA, FALSE))) }");
+        assertEval("{ unlist(list(\"a\", c(\"b\", NA), character())) }");
+        assertEval("{ unlist(list(1L, 2.5, 3:4), use.names = FALSE) }");
+        assertEval("{ unlist(list(1L, c(a = 2L), 3L)) }");
+        assertEval("{ unlist(list(1, list(2, 3)), recursive = FALSE) }");
+        assertEval("{ x <- unlist(lapply(1:3, function(i) c(i, NA))); c(anyNA(x), sum(x, na.rm = TRUE)) }");
+    }
 }
@@ -77,6 +77,17 @@ public class TestS3Dispatch extends TestRBase {
         assertEval("{ f.default<-function(x, a=7) a; f.foo<-function(x, a=v) { b<-NextMethod(\"f\"); v=42; c(a,b) }; x<-1; class(x)<-\"foo\"; f<-function(x) UseMethod(\"f\"); f(x) }");
     }
 
+    @Test
+    public void testMegamorphicDispatch() {
+        // more receiver classes than the cached call matchers handle, repeated with the same signatures
+        assertEval("{ f <- function(x, ...) UseMethod('f'); for (i in 1:6) assign(paste0('f.c', i), eval(substitute(function(x, a=0, ..., b=1) c(I, a, b, length(list(...))), list(I=i)))); r <- NULL; for (k in 1:3) for (i in 1:6) { o <- structure(1, class=paste0('c', i)); r <- rbind(r, f(o, 5, b=2), f(o, b=3), f(o, 7, 8, 9)) }; r }");
+        assertEval("{ g <- function(x, ...) UseMethod('g'); g.default <- function(x, value, ...) list(value, ...); for (i in 1:6) assign(paste0('g.c', i), function(x, ...) NextMethod()); r <- list(); for (k in 1:2) for (i in 1:6) { o <- structure(1, class=paste0('c', i)); r[[length(r) + 1]] <- g(o, val=i, extra=k) }; r[c(1, 7, 12)] }");
+        assertEval("{ h <- function(x, ...) UseMethod('h'); for (i in 1:5) assign(paste0('h.c', i), function(x, alpha, beta) alpha - beta); for (i in 1:5) print(h(structure(1, class=paste0('c', i)), be=1, al=10)) }");
+        // the repeated signatures are found in the permutation caches
+        assertEvalFastR("{ f <- function(x, ...) UseMethod('f'); for (i in 1:6) assign(paste0('f.c', i), function(x, a, b) a - b); hits <- function() .fastr.metrics()$caches[['permutation.hits']]; " +
+                        "h <- hits(); for (k in 1:3) for (i in 1:6) f(structure(1, class=paste0('c', i)), b=1, a=2); hits() > h }", "TRUE");
+    }
+
     @Test
     public void testSummaryGroupDispatch() {
         assertEval("{x<-c(1,2,3);class(x)<-\"foo\";Summary.foo<-function(x,...){\"summary\"};max(x)}");
@@ -76,6 +76,17 @@ public class TestConnections extends TestBase {
         assertEval(TestBase.template("{ readBin(file(\"%0\", \"rb\"), 3) }", testDir.subDir("wb1")));
     }
 
+    @Test
+    public void testFileWriteReadBinLayout() {
+        assertEval("{ f <- tempfile(); writeBin(c(1L, -2L, 300L), f, size=2); r <- readBin(f, \"integer\", 5, size=2); unlink(f); r }");
+        assertEval("{ f <- tempfile(); writeBin(as.raw(c(255, 1, 128)), f); r <- list(readBin(f, \"integer\", 3, size=1), readBin(f, \"integer\", 3, size=1, signed=FALSE)); unlink(f); r }");
+        assertEval("{ f <- tempfile(); writeBin(c(1.5, NA, -3), f, endian=\"swap\"); r <- readBin(f, \"double\", 10, endian=\"swap\"); unlink(f); r }");
+        assertEval("{ f <- tempfile(); writeBin(c(1.5, -3), f, size=4); r <- readBin(f, \"double\", 10, size=4); unlink(f); r }");
+        assertEval("{ f <- tempfile(); writeBin(c(TRUE, NA, FALSE), f); r <- readBin(f, \"logical\", 10); unlink(f); r }");
+        assertEval("{ f <- tempfile(); writeBin(as.double(1:300000), f); r <- readBin(f, \"double\", 1e6); unlink(f); c(length(r), sum(r)) }");
+        assertEval("{ f <- tempfile(); r <- list(writeBin(integer(0), f, size=3), writeBin(double(0), f, size=2), file.size(f), writeBin(integer(0), raw(), size=3)); unlink(f); r }");
+    }
+
     @Test
     public void testWriteTextReadConnection() {
         assertEval(Output.IgnoreErrorContext, "{ writeChar(\"x\", textConnection(\"abc\")) }");
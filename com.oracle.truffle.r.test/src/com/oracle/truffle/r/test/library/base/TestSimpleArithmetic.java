@@ -755,4 +755,25 @@ public class TestSimpleArithmetic extends TestBase {
         assertEval("{ xor(0:2, 2:4) }");
         assertEval("{ xor(0:2, 2:7) }");
     }
+
+    @Test
+    public void testFusedArithmetic() {
+        assertEval("{ a <- c(1, 2, 3, 4); b <- c(5, 6, 7, 8); c <- c(0.5, 0.25, 2, 4); d <- 3; e <- c(10, 20, 30, 40); a * b + c * d - e }");
+        assertEval("{ f <- function(a, b, c) (a + b) / c - -a; f(c(1, 2, 3), c(4, 5, 6), c(7, 8, 9)) }");
+        assertEval("{ a <- c(1, NA, 3, NaN); b <- c(NaN, 2, NA, 4); c(a * b + b, -a - b / a) }");
+        assertEval("{ a <- c(1, 2, 3, 4); b <- c(5, 6); a * b + a }");
+        assertEval("{ a <- c(1, 2, 3); b <- c(5, 6); a * b + a }");
+        assertEval("{ a <- c(x=1, y=2, z=3); b <- c(5, 6, 7); a * b + b }");
+        assertEval("{ a <- matrix(1:4 + 0.5, 2); b <- c(5, 6, 7, 8); a * b - b }");
+        assertEval("{ a <- c(1, 2, 3); b <- 1:3; a * b + a }");
+        assertEval("{ a <- 2; b <- 3; a * b + a }");
+        assertEval("{ a <- numeric(0); b <- numeric(0); a * b + a }");
+        assertEval("{ f <- function(a, b) a * b + a; f(c(1, 2), c(3, 4)); `+` <- function(x, y) 42; f(c(1, 2), c(3, 4)) }");
+        assertEval("{ a <- sin(1:100000); b <- cos(1:100000); x <- a * a + b * b - 1; max(abs(x)) < 1e-10 }");
+        assertEval("{ x <- c(.Machine$integer.max, 1L); x + x + 1 }");
+        assertEval("{ n <- 0; Ops.foo <- function(e1, e2) { n <<- n + 1; e1 }; a <- structure(c(1, 2), class='foo'); b <- c(3, 4); a * b + b; n }");
+        assertEval("{ n <- 0; Ops.foo <- function(e1, e2) { n <<- n + 1; e1 }; a <- structure(c(1, 2), class='foo'); b <- c(3, 4); b * b - a * b + b; n }");
+        assertEval("{ n <- 0; Ops.foo <- function(e1, e2) { n <<- n + 1; unclass(e1) }; a <- structure(1, class='foo'); x <- list(10, 20); c(x[[a + 1]], n) }");
+        assertEval("{ n <- 0; Ops.foo <- function(e1, e2) { n <<- n + 1; unclass(e1) }; a <- structure(2, class='foo'); x <- c(10, 20); c(x[a * 1], n) }");
+    }
 }
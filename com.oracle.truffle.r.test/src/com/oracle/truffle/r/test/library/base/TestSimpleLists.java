@@ -146,4 +146,24 @@ public class TestSimpleLists extends TestBase {
         assertEval("l <- list(); l$x <- c(NA); length(l$x) <- 10; l$x[1] <- 42; invisible(tracemem(l$x)); l$x[2:9] <- 42;");
         assertEval("x <- list(c(1,2,3)); invisible(tracemem(x)); x[[1]] <- 42;");
     }
+
+    @Test
+    public void testListGrowth() {
+        assertEval("{ l <- list(); for (i in 1:100) l[[i]] <- i; y <- l; l[[101]] <- 'a'; list(length(l), length(y), l[[100]], l[[101]], y[[100]]) }");
+        assertEval("{ l <- list(a=1); for (i in 2:20) l[[length(l) + 1]] <- i; names(l) }");
+        assertEval("{ x <- integer(); for (i in 1:50) x[length(x) + 1] <- i; y <- x; x[60] <- 0L; list(x, y, sum(x, na.rm=TRUE)) }");
+        assertEval("{ x <- c('a', 'b'); for (i in 3:30) x[[i]] <- letters[i %% 26 + 1]; match(c('a', 'e'), x) }");
+        assertEvalFastR("l <- list(0); l[[2]] <- 1; id <- .fastr.identity(l); for (i in 3:100) l[[i]] <- i; id == .fastr.identity(l)", "TRUE");
+    }
+
+    @Test
+    public void testGrownVectorArithmetic() {
+        // grown vectors have spare capacity in their stores, arithmetic may reuse them as results
+        assertEval("{ x <- c(1, 2, 3); n <- length(x); x[n + 1] <- 4; x + 1 }");
+        assertEval("{ x <- c(1, 2, 3); for (n in 3:20) x[n + 1] <- n; list(x * 2, -x, x - x, sqrt(x)) }");
+        assertEval("{ x <- 1:3; for (n in 3:20) x[n + 1] <- n; list(x + 1L, -x, x %/% 2L, !x) }");
+        assertEval("{ x <- c(TRUE, FALSE); for (n in 2:20) x[n + 1] <- n %% 2 == 0; list(!x, x & TRUE, x + 0L) }");
+        assertEval("{ f <- function(n) { x <- numeric(); for (i in 1:n) x[i] <- i; x }; list(f(10) + 1, f(10) * f(10), -f(10), abs(-f(10))) }");
+        assertEval("{ x <- c(1, 2); x[[3]] <- 3; (x[4] <- 4) + x }");
+    }
 }
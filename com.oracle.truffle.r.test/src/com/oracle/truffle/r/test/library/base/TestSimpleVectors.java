@@ -2272,6 +2272,17 @@ public class TestSimpleVectors extends TestBase {
         assertEval("{ x<-c(a=7, 42); x$a<-NULL; x }");
     }
 
+    @Test
+    public void testLargeNamesIndex() {
+        assertEval("{ x <- 1:1000; names(x) <- paste0('n', 1:1000); x[c('n5', 'n1000', 'zz', 'n5', NA, '')] }");
+        assertEval("{ x <- 1:200; names(x) <- rep(c('a', 'b'), 100); x[c('b', 'a')] }");
+        assertEval("{ x <- as.list(1:200); names(x) <- paste0('n', 1:200); x[['n150']]; x$n150; x$n15; x$n1999 }");
+        assertEval("{ x <- as.list(1:200); names(x) <- c(paste0('n', 1:199), 'uniq'); x$un; x$n19 }");
+        assertEval("{ x <- 1:100; names(x) <- paste0('n', 1:100); x[c('n3', 'new1', 'new1')] <- 0L; x[c(1:4, 99:102)] }");
+        assertEval("{ x <- 1:100; names(x) <- paste0('n', 1:100); x['n7']; names(x)[7] <- 'm7'; x[c('n7', 'm7')] }");
+        assertEval("{ m <- matrix(1:200, 2, 100, dimnames=list(c('r1', 'r2'), paste0('c', 1:100))); m[, c('c100', 'c1')]; m['r2', 'c50'] }");
+    }
+
     @Test
     public void testLengthUpdate() {
         assertEval("{ k <- c(1,2,3) ; length(k) <- 5 ; k }");
@@ -0,0 +1,65 @@
+/*
+ * Copyright (c) 2016, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.truffle.r.test.library.fastr;
+
+import org.junit.Test;
+
+import com.oracle.truffle.r.test.TestBase;
+
+// Checkstyle: stop line length check
+public class TestChecksum extends TestBase {
+
+    /**
+     * Creates the files {@code check} ("123456789", the input of the usual CRC check values),
+     * {@code empty} and {@code large} (1280000 bytes, i.e. more than one read chunk).
+     */
+    private static final String FILES = "d <- tempfile(); dir.create(d); check <- file.path(d, 'check'); empty <- file.path(d, 'empty'); large <- file.path(d, 'large'); " +
+                    "writeBin(charToRaw('123456789'), check); invisible(file.create(empty)); writeBin(as.raw(rep(0:255, 5000)), large); files <- c(check, empty, large); ";
+
+    @Test
+    public void testFastRChecksum() {
+        assertEvalFastR("{ " + FILES + "r <- unname(.fastr.checksum(files)); unlink(d, recursive=TRUE); r }",
+                        "c('25f9e794323b453885f5181f1b624d0b', 'd41d8cd98f00b204e9800998ecf8427e', '4b7fc6acd4f7b48d23e38ebf35ed28af')");
+        assertEvalFastR("{ " + FILES + "r <- unname(.fastr.checksum(files, 'sha256')); unlink(d, recursive=TRUE); r }",
+                        "c('15e2b0d3c33891ebb0f1ef609ec419420c20e320ce94c65fbc8c3312448eb225', 'e3b0c44298fc1c149afbf4c8996fb92427ae41e4649b934ca495991b7852b855', '7d471e4af16db5a30ce10aebbc29f5178b2edbad6c7dc2e8ff8ee6e4848a726f')");
+        assertEvalFastR("{ " + FILES + "r <- unname(.fastr.checksum(files, 'crc32c')); unlink(d, recursive=TRUE); r }", "c('e3069283', '00000000', 'c6f6fd9d')");
+        assertEvalFastR("{ " + FILES + "r <- unname(.fastr.checksum(files, 'crc64')); unlink(d, recursive=TRUE); r }", "c('995dc9bbdf1939fa', '0', '5ad041db6976f89b')");
+        // names are the files as given, unreadable files and directories are NA
+        assertEvalFastR("{ " + FILES + "r <- .fastr.checksum(c(check, NA, file.path(d, 'missing'), d), 'crc32c'); n <- basename(names(r)); r <- list(unname(r), n[1:3], n[4] == basename(d)); unlink(d, recursive=TRUE); r }",
+                        "list(c('e3069283', NA, NA, NA), c('check', NA, 'missing'), TRUE)");
+        assertEvalFastR("{ tryCatch(.fastr.checksum('x', 'sha1'), error=function(e) conditionMessage(e)) }", "\"invalid 'algorithm' argument\"");
+    }
+
+    @Test
+    public void testMd5sum() {
+        assertEval("{ " + FILES + "r <- unname(tools::md5sum(files)); unlink(d, recursive=TRUE); r }");
+        assertEval("{ " + FILES + "r <- tools::md5sum(c(check, file.path(d, 'missing'))); unlink(d, recursive=TRUE); list(unname(r), basename(names(r))) }");
+    }
+
+    @Test
+    public void testCrc64() {
+        assertEval("{ utils:::crc64('123456789') }");
+        assertEval("{ utils:::crc64('') }");
+        assertEval("{ utils:::crc64(paste(rep('abcdefghij', 200000), collapse='')) }");
+    }
+}
@@ -0,0 +1,54 @@
+/*
+ * Copyright (c) 2016, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.truffle.r.test.library.fastr;
+
+import org.junit.Test;
+
+import com.oracle.truffle.r.test.TestBase;
+
+// Checkstyle: stop line length check
+public class TestContextPool extends TestBase {
+
+    @Test
+    public void testPoolStats() {
+        assertEvalFastR("{ invisible(.fastr.context.pool.size(1)); s <- .fastr.context.pool.stats(); invisible(.fastr.context.pool.size(0)); list(s$kind, s$size, names(s), is.null(.fastr.context.pool.stats())) }",
+                        "list('SHARE_NOTHING', 1L, c('kind', 'size', 'idle', 'created', 'discarded', 'hits', 'misses', 'latency.p50', 'latency.p99'), TRUE)");
+        assertEvalFastR("{ invisible(.fastr.context.pool.size(1)); r <- .fastr.context.eval(c('1 + 1', '2 * 3'), 2); s <- .fastr.context.pool.stats(); invisible(.fastr.context.pool.size(0)); " +
+                        "list(r[[1]][[1]], r[[2]][[1]], s$hits + s$misses) }", "list(2, 6, 2)");
+    }
+
+    @Test
+    public void testLeaseIsolation() {
+        // contexts are initialized and reset (or discarded) asynchronously, wait for them for at most 5s
+        assertEvalFastR("{ invisible(.fastr.context.pool.size(1)); wd <- getwd(); " +
+                        "waitIdle <- function() for (i in 1:100) { if (.fastr.context.pool.stats()$idle >= 1) break; Sys.sleep(0.05) }; waitIdle(); " +
+                        "invisible(.fastr.context.eval(\"x <- 1; Sys.setenv(FASTR_POOL_TEST='a'); options(fastr.pool.test=1); set.seed(42); setwd(tempdir()); attr(globalenv(), 'a') <- 1; con <- file(tempfile(), 'w'); sink(tempfile()); 1\")); " +
+                        "waitIdle(); " +
+                        "r <- .fastr.context.eval(\"list(exists('x'), Sys.getenv('FASTR_POOL_TEST'), getOption('fastr.pool.test'), exists('.Random.seed'), attributes(globalenv()), nrow(showConnections()), sink.number(), getwd())\")[[1]][[1]]; " +
+                        "s <- .fastr.context.pool.stats(); invisible(.fastr.context.pool.size(0)); list(r[1:7], r[[8]] == wd, getwd() == wd, s$hits >= 1) }",
+                        "list(list(FALSE, '', NULL, FALSE, NULL, 0L, 0L), TRUE, TRUE, TRUE)");
+        assertEvalFastR("{ invisible(.fastr.context.pool.size(1)); invisible(.fastr.context.eval(\"attach(list(a=1), name='pooltest'); 1\")); " +
+                        "for (i in 1:100) { if (.fastr.context.pool.stats()$discarded >= 1) break; Sys.sleep(0.05) }; r <- .fastr.context.eval(\"'pooltest' %in% search()\")[[1]][[1]]; " +
+                        "s <- .fastr.context.pool.stats(); invisible(.fastr.context.pool.size(0)); list(r, s$discarded >= 1) }", "list(FALSE, TRUE)");
+    }
+}
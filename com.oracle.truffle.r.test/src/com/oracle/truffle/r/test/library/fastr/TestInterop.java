@@ -22,10 +22,25 @@
  */
 package com.oracle.truffle.r.test.library.fastr;
 
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.ByteBuffer;
+import java.nio.DoubleBuffer;
+import java.nio.IntBuffer;
+import java.nio.ReadOnlyBufferException;
+
 import org.junit.Test;
 
 import com.oracle.truffle.api.interop.java.JavaInterop;
 import com.oracle.truffle.api.vm.PolyglotEngine;
+import com.oracle.truffle.r.runtime.data.RDataFactory;
+import com.oracle.truffle.r.runtime.data.RDoubleVector;
+import com.oracle.truffle.r.runtime.data.RIntVector;
+import com.oracle.truffle.r.runtime.data.RRawVector;
+import com.oracle.truffle.r.runtime.data.RVectorBuffers;
 import com.oracle.truffle.r.test.TestBase;
 
 public class TestInterop extends TestBase {
@@ -77,6 +92,9 @@ public class TestInterop extends TestBase {
         for (TestJavaObject t : TestInterop.testJavaObjects) {
             builder.globalSymbol(t.name, JavaInterop.asTruffleObject(t.object));
         }
+        builder.globalSymbol("testPlainIntArray", new int[]{1, -5, 199});
+        builder.globalSymbol("testDoubleBuffer", DoubleBuffer.wrap(new double[]{0.5, 1.5, 2.5}));
+        builder.globalSymbol("testByteBuffer", ByteBuffer.allocateDirect(4).put(new byte[]{1, 2, 3, 4}).flip());
     }
 
     @Test
@@ -111,4 +129,87 @@ public class TestInterop extends TestBase {
                         "attr(,\"is.truffle.object\")\\n" +
                         "[1] TRUE\\n')");
     }
+
+    @Test
+    public void testImportArrays() {
+        assertEvalFastR("v <- .fastr.interop.import('testPlainIntArray'); v", "c(1L, -5L, 199L)");
+        assertEvalFastR("v <- .fastr.interop.import('testPlainIntArray'); v[2] <- 0L; v", "c(1L, 0L, 199L)");
+        assertEvalFastR("v <- .fastr.interop.import('testPlainIntArray'); v[2] <- 0L; .fastr.interop.import('testPlainIntArray')", "c(1L, -5L, 199L)");
+        assertEvalFastR("v <- .fastr.interop.import('testDoubleBuffer'); sum(v)", "4.5");
+        assertEvalFastR("v <- .fastr.interop.import('testByteBuffer'); v", "as.raw(1:4)");
+    }
+
+    @Test
+    public void testExportArrays() {
+        RIntVector ints = RDataFactory.createIntVector(new int[]{1, -5, 199}, RDataFactory.COMPLETE_VECTOR);
+        int[] intData = RVectorBuffers.getIntArray(ints);
+        assertArrayEquals(new int[]{1, -5, 199}, intData);
+        // the backing store is exported, so R must copy the vector before updating it
+        assertSame(ints.getDataWithoutCopying(), intData);
+        assertTrue(ints.isSharedPermanent());
+
+        RDoubleVector doubles = RDataFactory.createDoubleVector(new double[]{0.5, 1.5, 2.5}, RDataFactory.COMPLETE_VECTOR);
+        double[] doubleData = RVectorBuffers.getDoubleArray(doubles);
+        assertArrayEquals(new double[]{0.5, 1.5, 2.5}, doubleData, 0);
+        assertSame(doubles.getDataWithoutCopying(), doubleData);
+        assertTrue(doubles.isSharedPermanent());
+
+        // sequences are materialized
+        assertArrayEquals(new int[]{3, 4, 5, 6}, RVectorBuffers.getIntArray(RDataFactory.createIntSequence(3, 1, 4)));
+    }
+
+    @Test
+    public void testExportBuffers() {
+        RIntVector ints = RDataFactory.createIntVector(new int[]{1, -5, 199}, RDataFactory.COMPLETE_VECTOR);
+        IntBuffer intBuffer = RVectorBuffers.getIntBuffer(ints);
+        assertTrue(intBuffer.isReadOnly());
+        assertEquals(3, intBuffer.remaining());
+        assertEquals(-5, intBuffer.get(1));
+        assertTrue(ints.isSharedPermanent());
+        try {
+            intBuffer.put(0, 2);
+            throw new AssertionError("buffer must be read-only");
+        } catch (ReadOnlyBufferException e) {
+            // expected
+        }
+
+        RDoubleVector doubles = RDataFactory.createDoubleVector(new double[]{0.5, 1.5, 2.5}, RDataFactory.COMPLETE_VECTOR);
+        DoubleBuffer doubleBuffer = RVectorBuffers.getDoubleBuffer(doubles);
+        assertTrue(doubleBuffer.isReadOnly());
+        assertEquals(2.5, doubleBuffer.get(2), 0);
+        assertTrue(doubles.isSharedPermanent());
+
+        RRawVector raws = RDataFactory.createRawVector(new byte[]{1, 2, 3, 4});
+        ByteBuffer byteBuffer = RVectorBuffers.getByteBuffer(raws);
+        assertTrue(byteBuffer.isReadOnly());
+        assertEquals(4, byteBuffer.remaining());
+        assertEquals(3, byteBuffer.get(2));
+        assertTrue(raws.isSharedPermanent());
+    }
+
+    @Test
+    public void testWrapShares() {
+        // arrays and buffers spanning their whole array become the store, read-only for R
+        int[] data = {1, -5, 199};
+        RIntVector vector = (RIntVector) RVectorBuffers.wrap(data);
+        assertSame(data, vector.getDataWithoutCopying());
+        assertTrue(vector.isSharedPermanent());
+
+        double[] doubles = {0.5, 1.5, 2.5};
+        RDoubleVector wrapped = (RDoubleVector) RVectorBuffers.wrap(DoubleBuffer.wrap(doubles));
+        assertSame(doubles, wrapped.getDataWithoutCopying());
+        assertTrue(wrapped.isSharedPermanent());
+
+        // other buffers are copied in bulk
+        DoubleBuffer buffer = DoubleBuffer.wrap(new double[]{0.5, 1.5, 2.5, 3.5});
+        buffer.position(1);
+        RDoubleVector slice = (RDoubleVector) RVectorBuffers.wrap(buffer.slice());
+        buffer.put(1, 0);
+        assertArrayEquals(new double[]{1.5, 2.5, 3.5}, slice.getDataWithoutCopying(), 0);
+        assertEquals(1, buffer.position());
+        assertTrue(slice.isSharedPermanent());
+
+        RRawVector raws = (RRawVector) RVectorBuffers.wrap(ByteBuffer.wrap(new byte[]{1, 2, 3}).asReadOnlyBuffer());
+        assertArrayEquals(new byte[]{1, 2, 3}, raws.getDataWithoutCopying());
+    }
 }
@@ -0,0 +1,48 @@
+/*
+ * Copyright (c) 2016, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.truffle.r.test.library.fastr;
+
+import org.junit.Test;
+
+import com.oracle.truffle.r.test.TestBase;
+
+// Checkstyle: stop line length check
+public class TestMetrics extends TestBase {
+
+    @Test
+    public void testMetrics() {
+        assertEvalFastR("{ names(.fastr.metrics()) }",
+                        "c('function.calls', 'function.time', 'allocation.counts', 'allocated.bytes', 'copies', 'copied.bytes', 'promise.forces', 'native.calls', 'native.time', 'offheap.bytes', 'caches')");
+        assertEvalFastR("{ invisible(.fastr.metrics(reset=TRUE, enable=FALSE)); f <- function() 1; f(); m <- .fastr.metrics(); list(length(m$function.calls), m$copies) }", "list(0L, 0)");
+        assertEvalFastR("{ invisible(.fastr.metrics(reset=TRUE, enable=TRUE)); f <- function(x) x + 1; for (i in 1:10) f(i); g <- function() stop('e'); for (i in 1:3) try(g(), silent=TRUE); " +
+                        "m <- .fastr.metrics(enable=FALSE); list(m$function.calls[['f']], m$function.calls[['g']], m$function.time[['f']] >= 0) }", "list(10, 3, TRUE)");
+        assertEvalFastR("{ invisible(.fastr.metrics(reset=TRUE, enable=TRUE)); x <- numeric(1000); m <- .fastr.metrics(reset=TRUE, enable=FALSE); m$allocated.bytes[['double']] >= 8000 }", "TRUE");
+    }
+
+    @Test
+    public void testRepeatedVectorAllocation() {
+        // a repeated vector only allocates its pattern
+        assertEvalFastR("{ invisible(.fastr.metrics(reset=TRUE, enable=TRUE)); x <- rep(1:10, each=1e5); y <- rep(c(1.5, 2.5), times=1e6); s <- c(sum(x), sum(y)); m <- .fastr.metrics(reset=TRUE, enable=FALSE); " +
+                        "b <- m$allocated.bytes; c(identical(s, c(5500000, 4e6)), sum(b[names(b) == 'integer']) < 4e5, sum(b[names(b) == 'double']) < 1.6e6) }", "c(TRUE, TRUE, TRUE)");
+    }
+}
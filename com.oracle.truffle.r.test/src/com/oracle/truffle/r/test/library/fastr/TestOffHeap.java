@@ -0,0 +1,89 @@
+/*
+ * Copyright (c) 2016, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.truffle.r.test.library.fastr;
+
+import org.junit.Test;
+
+import com.oracle.truffle.r.test.TestBase;
+
+// Checkstyle: stop line length check
+public class TestOffHeap extends TestBase {
+
+    @Test
+    public void testOffHeap() {
+        assertEvalFastR("{ x <- .fastr.offheap(c(1.5, 2, NA, 4)); list(sum(x, na.rm=TRUE), x[2:3], x * 2, max(x)) }", "list(7.5, c(2, NA), c(3, 4, NA, 8), NA_real_)");
+        assertEvalFastR("{ x <- .fastr.offheap(1:10); x[3] <- 0L; names(x) <- letters[1:10]; list(x[1:3], sum(.fastr.offheap(1:10))) }", "list(c(a=1L, b=2L, c=0L), 55L)");
+        assertEvalFastR("{ x <- .fastr.offheap(as.raw(1:3)); as.integer(x) }", "1:3");
+    }
+
+    @Test
+    public void testOffHeapRoundTrip() {
+        assertEvalFastR("{ x <- c(seq(0.5, 1e5, by=0.5), NA, -Inf); y <- .fastr.offheap(x); list(length(y), all(y == x, na.rm=TRUE), which(is.na(y)), y[c(1, 200002)], typeof(y)) }",
+                        "list(200002L, TRUE, 200001L, c(0.5, -Inf), 'double')");
+        assertEvalFastR("{ x <- c(1:150000, NA); y <- .fastr.offheap(x); list(length(y), all(y == x, na.rm=TRUE), anyNA(y), typeof(y), y[150000]) }", "list(150001L, TRUE, TRUE, 'integer', 150000L)");
+        assertEvalFastR("{ x <- as.raw(0:255); y <- .fastr.offheap(x); list(as.integer(y[c(1, 256)]), typeof(y), as.integer(.fastr.offheap(y)[2])) }", "list(c(0L, 255L), 'raw', 1L)");
+        assertEvalFastR("{ tryCatch(.fastr.offheap(c(a=1)), error=function(e) conditionMessage(e)) }", "'off-heap vectors cannot have attributes'");
+        assertEvalFastR("{ tryCatch(.fastr.offheap('a'), error=function(e) conditionMessage(e)) }", "'only double, integer and raw vectors can be stored off heap'");
+    }
+
+    @Test
+    public void testOffHeapAttributes() {
+        assertEvalFastR("{ x <- .fastr.offheap(c(1.5, 2.5, 3.5)); y <- x; attr(y, 'foo') <- 'bar'; dim(y) <- c(3L, 1L); list(attributes(x), attributes(y), y[2, 1]) }",
+                        "list(NULL, list(foo='bar', dim=c(3L, 1L)), 2.5)");
+        assertEvalFastR("{ x <- .fastr.offheap(1:3); y <- x; class(y) <- 'myclass'; names(x) <- c('a', 'b', 'c'); list(inherits(y, 'myclass'), x, unclass(y)) }",
+                        "list(TRUE, c(a=1L, b=2L, c=3L), 1:3)");
+        assertEvalFastR("{ x <- .fastr.offheap(c(1, 2)); y <- x; y[[2]] <- 5; list(x, y) }", "list(c(1, 2), c(1, 5))");
+        assertEvalFastR("{ x <- .fastr.offheap(c(1.5, 2.5)); y <- asS4(x); list(isS4(x), isS4(y), unclass(y)) }", "list(FALSE, TRUE, c(1.5, 2.5))");
+        assertEvalFastR("{ x <- asS4(.fastr.offheap(1:3)); list(isS4(x), sum(x)) }", "list(TRUE, 6L)");
+    }
+
+    @Test
+    public void testOffHeapMetrics() {
+        // the bytes are counted while the vector is alive and released after it has been collected
+        assertEvalFastR("{ bytes <- function() .fastr.metrics()$offheap.bytes; b0 <- bytes(); x <- .fastr.offheap(numeric(1e6) + 1); b1 <- bytes(); rm(x); " +
+                        "for (i in 1:100) { invisible(gc()); Sys.sleep(0.05); if (bytes() <= b1 - 8e6) break }; list(b1 - b0 >= 8e6, bytes() <= b1 - 8e6) }", "list(TRUE, TRUE)");
+    }
+
+    @Test
+    public void testOffHeapReductions() {
+        // off-heap vectors are reduced by the same kernels, with identical results
+        assertEvalFastR("{ set.seed(1); x <- c(1e100, rnorm(300001), -1e100, runif(12345) * 1e10); y <- .fastr.offheap(x); " +
+                        "c(identical(sum(x), sum(y)), identical(max(x), max(y)), identical(min(x), min(y)), identical(range(x), range(y))) }", "rep(TRUE, 4)");
+        assertEvalFastR("{ x <- c(rep(1.5, 5000), NaN, NA, 3, rep(-2, 5003)); y <- .fastr.offheap(x); list(sum(y), max(y), min(y), sum(y, na.rm=TRUE), max(y, na.rm=TRUE), min(y, na.rm=TRUE)) }",
+                        "list(NA_real_, NA_real_, NA_real_, -2503, 3, -2)");
+        assertEvalFastR("{ y <- .fastr.offheap(c(rep(NaN, 5000), 0)); list(sum(y), max(y), identical(1 / max(.fastr.offheap(c(-0, 0))), Inf), sum(.fastr.offheap(c(NaN, NA)), na.rm=TRUE)) }",
+                        "list(NaN, NaN, TRUE, 0)");
+        assertEvalFastR("{ tryCatch(max(.fastr.offheap(c(NaN, NaN)), na.rm=TRUE), warning=function(w) conditionMessage(w)) }", "'no non-missing arguments to max; returning -Inf'");
+    }
+
+    @Test
+    public void testMMap() {
+        assertEvalFastR("{ f <- tempfile(); writeBin(c(1, 2.5, 4), f); x <- .fastr.mmap(f); r <- list(length(x), sum(x), x[2], mean(x)); unlink(f); r }", "list(3L, 7.5, 2.5, 2.5)");
+        assertEvalFastR("{ f <- tempfile(); writeBin(1:6, f); x <- .fastr.mmap(f, 'integer', 3, offset=12); y <- x; y[1] <- 0L; r <- list(x, y, readBin(f, 'integer', 6)); unlink(f); r }", "list(4:6, c(0L, 5L, 6L), 1:6)");
+        assertEvalFastR("{ f <- tempfile(); x <- .fastr.mmap(f, 'double', 4, readonly=FALSE); r <- list(file.size(f), sum(x)); unlink(f); r }", "list(32, 0)");
+        assertEvalFastR("{ f <- tempfile(); writeBin(c(1, 2.5, 4), f); x <- asS4(.fastr.mmap(f)); r <- list(isS4(x), sum(x)); unlink(f); r }", "list(TRUE, 7.5)");
+        assertEvalFastR("{ f <- tempfile(); writeBin(1:6, f); m <- function(...) tryCatch(.fastr.mmap(f, 'integer', ...), error=function(e) conditionMessage(e)); " +
+                        "r <- list(m(2.5), m(2, offset=4.5), m(Inf), m(offset=Inf), length(m(2, offset=4))); unlink(f); r }",
+                        "list(\"invalid 'length' argument\", \"invalid 'offset' argument\", \"invalid 'length' argument\", \"invalid 'offset' argument\", 2L)");
+    }
+}
@@ -35,6 +35,11 @@ public class TestStats extends TestBase {
         assertEval(Output.IgnoreWarningContext, "{ cor(cbind(c(1, 1, 1), c(1, 1, 1))) }");
         assertEval("{ cor(cbind(c(1:9,0/0), 101:110)) }");
         assertEval("{ round( cor(cbind(c(10,5,4,1), c(2,5,10,5))), digits=5 ) }");
+        assertEval("{ m <- matrix(sin(1:4000), 100); round(sum(cor(m)), digits=5) }");
+        assertEval("{ m <- matrix(sin(1:4000), 100); m[7, 3] <- NA; r <- cor(m, m[, 1:5]); c(dim(r), sum(is.na(r)), round(sum(r, na.rm=TRUE), digits=5)) }");
+        assertEval("{ cor(c(1,2,3,4), c(1,3,2,4), method='kendall') }");
+        assertEval("{ cor(cbind(c(1,2,3,4,5), c(5,3,4,1,2), c(1,1,2,2,3)), method='kendall') }");
+        assertEval("{ cor(c(1,2,3,4), c(1,3,2,4), method='spearman') }");
     }
 
     @Test
@@ -42,6 +47,8 @@ public class TestStats extends TestBase {
         assertEval("{ cov(c(1,2,3),c(1,2,3)) }");
         assertEval("{ cov(c(1,2,3),c(1,2,4)) }");
         assertEval("{ cov(c(1,2,3),c(1,2,5)) }");
+        assertEval("{ cov(c(1,2,3),c(1,3,2), method='kendall') }");
+        assertEval("{ m <- matrix(sin(1:4000), 100); round(sum(cov(m)), digits=5) }");
     }
 
     @Test
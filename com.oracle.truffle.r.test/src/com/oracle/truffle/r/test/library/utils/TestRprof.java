@@ -0,0 +1,47 @@
+/*
+ * Copyright (c) 2016, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.truffle.r.test.library.utils;
+
+import org.junit.Test;
+
+import com.oracle.truffle.r.test.TestBase;
+
+// Checkstyle: stop line length check
+public class TestRprof extends TestBase {
+
+    private static final String WORK = "g <- function(n) { s <- 0; for (i in 1:n) s <- s + sqrt(i); s }; h <- function() g(1e5); for (k in 1:20) h(); ";
+
+    @Test
+    public void testRprof() {
+        assertEval("{ f <- tempfile(); Rprof(f, interval=0.001); " + WORK + "Rprof(NULL); l <- readLines(f); unlink(f); list(l[1], any(grepl('\"g\" \"h\"', l[-1]))) }");
+        assertEval("{ src <- tempfile(fileext='.R'); writeLines(c('g <- function(n) {', '  s <- 0', '  for (i in 1:n) s <- s + sqrt(i)', '  s', '}'), src); source(src, keep.source=TRUE); " +
+                        "f <- tempfile(); Rprof(f, interval=0.001, line.profiling=TRUE); for (k in 1:20) g(1e5); Rprof(NULL); l <- readLines(f); unlink(c(f, src)); " +
+                        "list(l[1], any(grepl('^#File 1: ', l)), any(grepl('1#3 \"g\"', l))) }");
+    }
+
+    @Test
+    public void testCollapsed() {
+        assertEvalFastR("{ f <- tempfile(); .fastr.prof.sample(f, interval=0.001); " + WORK + ".fastr.prof.sample(NULL); l <- readLines(f); unlink(f); " +
+                        "list(length(l) > 0, all(grepl(' [0-9]+$', l)), any(grepl('(^|;)h;g [0-9]+$', l)), anyDuplicated(sub(' [0-9]+$', '', l))) }", "list(TRUE, TRUE, TRUE, 0L)");
+    }
+}